@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Dependent;
+import javax.enterprise.inject.spi.Bean;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Bean lookup via {@link javax.enterprise.inject.spi.BeanManager#getBeans(java.lang.reflect.Type, java.lang.annotation.Annotation...)},
+ * {@link javax.enterprise.inject.spi.BeanManager#resolve(Set)} and
+ * {@link javax.enterprise.inject.spi.BeanManager#getReference(Bean, java.lang.reflect.Type, javax.enterprise.context.spi.CreationalContext)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeanManagerBenchmark extends ContainerBenchmark
+{
+    private Bean<?> applicationScopedBean;
+    private Bean<?> dependentBean;
+
+    @Override
+    protected Class<?>[] beanClasses()
+    {
+        return new Class<?>[]{ApplicationService.class, DependentService.class};
+    }
+
+    @Override
+    protected void afterStart()
+    {
+        applicationScopedBean = beanManager.resolve(beanManager.getBeans(ApplicationService.class));
+        dependentBean = beanManager.resolve(beanManager.getBeans(DependentService.class));
+    }
+
+    @Benchmark
+    public Set<Bean<?>> getBeans()
+    {
+        return beanManager.getBeans(ApplicationService.class);
+    }
+
+    @Benchmark
+    public Bean<?> resolve()
+    {
+        return beanManager.resolve(beanManager.getBeans(ApplicationService.class));
+    }
+
+    @Benchmark
+    public Object getReferenceApplicationScoped()
+    {
+        return beanManager.getReference(applicationScopedBean, ApplicationService.class,
+                                        beanManager.createCreationalContext(applicationScopedBean));
+    }
+
+    @Benchmark
+    public Object getReferenceDependent()
+    {
+        return beanManager.getReference(dependentBean, DependentService.class,
+                                        beanManager.createCreationalContext(dependentBean));
+    }
+
+    @ApplicationScoped
+    public static class ApplicationService
+    {
+        public int ping(int value)
+        {
+            return value;
+        }
+    }
+
+    @Dependent
+    public static class DependentService
+    {
+        public int ping(int value)
+        {
+            return value;
+        }
+    }
+}
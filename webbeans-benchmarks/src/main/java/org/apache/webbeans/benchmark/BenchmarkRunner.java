@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.benchmark;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar.
+ *
+ * Takes the usual JMH command line options. In addition the system property
+ * {@value #THREADS_PROPERTY} may contain a comma separated list of thread counts,
+ * e.g. {@code -Dowb.benchmark.threads=1,4,16}. The selected benchmarks then get
+ * run once for each of the given thread counts.
+ * The size of the synthetic archive is the {@code archiveSize} parameter of each
+ * benchmark and can be set via {@code -p archiveSize=1000,10000}.
+ */
+public final class BenchmarkRunner
+{
+    public static final String THREADS_PROPERTY = "owb.benchmark.threads";
+
+    private BenchmarkRunner()
+    {
+        // utility class
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        String threadCounts = System.getProperty(THREADS_PROPERTY);
+        if (threadCounts == null || threadCounts.trim().isEmpty())
+        {
+            Main.main(args);
+            return;
+        }
+
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        for (String threadCount : threadCounts.split(","))
+        {
+            Options options = new OptionsBuilder()
+                .parent(commandLineOptions)
+                .threads(Integer.parseInt(threadCount.trim()))
+                .build();
+            new Runner(options).run();
+        }
+    }
+}
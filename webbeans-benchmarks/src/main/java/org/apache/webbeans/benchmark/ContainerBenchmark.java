@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.benchmark;
+
+import java.io.IOException;
+
+import javax.enterprise.inject.se.SeContainer;
+import javax.enterprise.inject.se.SeContainerInitializer;
+import javax.enterprise.inject.spi.BeanManager;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Base class for all benchmarks which need a running container.
+ *
+ * The container gets started once per trial with the beans of the benchmark
+ * plus a {@link SyntheticArchive} of {@link #archiveSize} classes. The synthetic
+ * beans make sure that the lookups have to pick their result out of a
+ * realistically sized bean set.
+ *
+ * The thread count is not a &#064;Param as JMH handles it itself.
+ * Use {@code -t} on the command line or the {@link BenchmarkRunner}.
+ */
+@State(Scope.Benchmark)
+public abstract class ContainerBenchmark
+{
+    @Param({"0", "1000"})
+    public int archiveSize;
+
+    protected SeContainer container;
+    protected BeanManager beanManager;
+
+    private SyntheticArchive archive;
+
+    @Setup(Level.Trial)
+    public void startContainer()
+    {
+        archive = new SyntheticArchive(archiveSize);
+
+        SeContainerInitializer initializer = SeContainerInitializer.newInstance()
+            .disableDiscovery()
+            .addBeanClasses(beanClasses())
+            .addBeanClasses(archive.getClasses());
+        configure(initializer);
+
+        container = initializer.initialize();
+        beanManager = container.getBeanManager();
+        afterStart();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContainer() throws IOException
+    {
+        try
+        {
+            if (container != null)
+            {
+                container.close();
+            }
+        }
+        finally
+        {
+            archive.close();
+        }
+    }
+
+    /**
+     * @return the bean classes of the benchmark itself
+     */
+    protected abstract Class<?>[] beanClasses();
+
+    /**
+     * Hook to add interceptors, extensions or properties before the container gets started.
+     */
+    protected void configure(SeContainerInitializer initializer)
+    {
+        // nothing to do by default
+    }
+
+    /**
+     * Hook to look up the instances used in the benchmark methods.
+     */
+    protected void afterStart()
+    {
+        // nothing to do by default
+    }
+}
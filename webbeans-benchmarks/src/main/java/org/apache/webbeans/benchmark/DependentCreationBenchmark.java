@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Dependent;
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.se.SeContainerInitializer;
+import javax.enterprise.inject.spi.Bean;
+import javax.inject.Inject;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Creation and destruction of a &#064;Dependent bean with constructor, field and initializer method injection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DependentCreationBenchmark extends ContainerBenchmark
+{
+    /**
+     * @see OpenWebBeansConfiguration#USE_GENERATED_INJECTORS
+     */
+    @Param({"false", "true"})
+    public String useGeneratedInjectors;
+
+    private Bean<DependentHelper> bean;
+
+    @Override
+    protected Class<?>[] beanClasses()
+    {
+        return new Class<?>[]{DependentHelper.class, ApplicationService.class};
+    }
+
+    @Override
+    protected void configure(SeContainerInitializer initializer)
+    {
+        initializer.addProperty(OpenWebBeansConfiguration.USE_GENERATED_INJECTORS, useGeneratedInjectors);
+    }
+
+    @Override
+    protected void afterStart()
+    {
+        bean = (Bean<DependentHelper>) beanManager.resolve(beanManager.getBeans(DependentHelper.class));
+    }
+
+    @Benchmark
+    public DependentHelper createDependent()
+    {
+        CreationalContext<DependentHelper> creationalContext = beanManager.createCreationalContext(bean);
+        DependentHelper helper = bean.create(creationalContext);
+        bean.destroy(helper, creationalContext);
+        return helper;
+    }
+
+    @Dependent
+    public static class DependentHelper
+    {
+        final ApplicationService constructorService;
+
+        @Inject
+        ApplicationService fieldService;
+
+        ApplicationService methodService;
+
+        boolean initialized;
+
+        @Inject
+        DependentHelper(ApplicationService service)
+        {
+            this.constructorService = service;
+        }
+
+        @Inject
+        void setService(ApplicationService service)
+        {
+            this.methodService = service;
+        }
+
+        @PostConstruct
+        void init()
+        {
+            initialized = true;
+        }
+    }
+
+    @ApplicationScoped
+    public static class ApplicationService
+    {
+    }
+}
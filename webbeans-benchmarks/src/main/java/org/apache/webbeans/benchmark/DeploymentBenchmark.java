@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.benchmark;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.inject.se.SeContainer;
+import javax.enterprise.inject.se.SeContainerInitializer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Container startup and shutdown, which includes scanning the
+ * {@link SyntheticArchive} and the whole {@link org.apache.webbeans.config.BeansDeployer#deploy} run.
+ *
+ * Each invocation boots its container for an own ClassLoader, so multiple
+ * benchmark threads measure concurrent deployments of independent applications.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class DeploymentBenchmark
+{
+    @Param({"1000", "10000"})
+    public int archiveSize;
+
+    private SyntheticArchive archive;
+
+    @Setup(Level.Trial)
+    public void createArchive()
+    {
+        archive = new SyntheticArchive(archiveSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteArchive() throws IOException
+    {
+        archive.close();
+    }
+
+    @Benchmark
+    public boolean deploy() throws IOException
+    {
+        try (URLClassLoader applicationLoader = new URLClassLoader(new URL[0], archive.getClassLoader());
+             SeContainer container = SeContainerInitializer.newInstance()
+                 .setClassLoader(applicationLoader)
+                 .disableDiscovery()
+                 .addBeanClasses(archive.getClasses())
+                 .initialize())
+        {
+            return container.isRunning();
+        }
+    }
+}
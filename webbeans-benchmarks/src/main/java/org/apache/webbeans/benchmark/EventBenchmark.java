@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Dependent;
+import javax.enterprise.event.Event;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.ObservesAsync;
+import javax.inject.Inject;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link Event#fire(Object)} and {@link Event#fireAsync(Object)} through the
+ * {@link org.apache.webbeans.event.NotificationManager}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventBenchmark extends ContainerBenchmark
+{
+    private Event<Ping> pingEvent;
+    private Event<Unobserved> unobservedEvent;
+
+    @Override
+    protected Class<?>[] beanClasses()
+    {
+        return new Class<?>[]{EventSource.class, PingObserver.class};
+    }
+
+    @Override
+    protected void afterStart()
+    {
+        EventSource eventSource = container.select(EventSource.class).get();
+        pingEvent = eventSource.pingEvent;
+        unobservedEvent = eventSource.unobservedEvent;
+    }
+
+    @Benchmark
+    public Ping fire()
+    {
+        Ping ping = new Ping();
+        pingEvent.fire(ping);
+        return ping;
+    }
+
+    @Benchmark
+    public Ping fireAsync()
+    {
+        return pingEvent.fireAsync(new Ping()).toCompletableFuture().join();
+    }
+
+    @Benchmark
+    public Unobserved fireWithoutObserver()
+    {
+        Unobserved event = new Unobserved();
+        unobservedEvent.fire(event);
+        return event;
+    }
+
+    public static class Ping
+    {
+    }
+
+    public static class Unobserved
+    {
+    }
+
+    @Dependent
+    public static class EventSource
+    {
+        @Inject
+        private Event<Ping> pingEvent;
+
+        @Inject
+        private Event<Unobserved> unobservedEvent;
+    }
+
+    @ApplicationScoped
+    public static class PingObserver
+    {
+        private final LongAdder syncCount = new LongAdder();
+        private final LongAdder asyncCount = new LongAdder();
+
+        public void onPing(@Observes Ping ping)
+        {
+            syncCount.increment();
+        }
+
+        public void onPingAsync(@ObservesAsync Ping ping)
+        {
+            asyncCount.increment();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Dependent;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Programmatic lookup via {@code Instance.select().get()}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstanceBenchmark extends ContainerBenchmark
+{
+    private Instance<Object> instance;
+
+    @Override
+    protected Class<?>[] beanClasses()
+    {
+        return new Class<?>[]{InstanceHolder.class, ApplicationService.class, DependentService.class};
+    }
+
+    @Override
+    protected void afterStart()
+    {
+        instance = container.select(InstanceHolder.class).get().instance;
+    }
+
+    @Benchmark
+    public ApplicationService selectApplicationScoped()
+    {
+        return instance.select(ApplicationService.class).get();
+    }
+
+    @Benchmark
+    public DependentService selectDependent()
+    {
+        Instance<DependentService> dependentInstance = instance.select(DependentService.class);
+        DependentService dependentService = dependentInstance.get();
+        dependentInstance.destroy(dependentService);
+        return dependentService;
+    }
+
+    @Dependent
+    public static class InstanceHolder
+    {
+        @Inject
+        private Instance<Object> instance;
+    }
+
+    @ApplicationScoped
+    public static class ApplicationService
+    {
+    }
+
+    @Dependent
+    public static class DependentService
+    {
+    }
+}
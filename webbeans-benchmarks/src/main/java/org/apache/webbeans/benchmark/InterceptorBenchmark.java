@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.benchmark;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Priority;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.se.SeContainerInitializer;
+import javax.interceptor.AroundInvoke;
+import javax.interceptor.Interceptor;
+import javax.interceptor.InterceptorBinding;
+import javax.interceptor.InvocationContext;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Intercepted business method invocations through the
+ * {@link org.apache.webbeans.intercept.DefaultInterceptorHandler}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterceptorBenchmark extends ContainerBenchmark
+{
+    /**
+     * @see OpenWebBeansConfiguration#USE_INTERCEPTOR_CHAINS
+     */
+    @Param({"false", "true"})
+    public String useInterceptorChains;
+
+    private InterceptedService service;
+
+    @Override
+    protected Class<?>[] beanClasses()
+    {
+        return new Class<?>[]{InterceptedService.class, OuterInterceptor.class, InnerInterceptor.class};
+    }
+
+    @Override
+    protected void configure(SeContainerInitializer initializer)
+    {
+        initializer.addProperty(OpenWebBeansConfiguration.USE_INTERCEPTOR_CHAINS, useInterceptorChains);
+    }
+
+    @Override
+    protected void afterStart()
+    {
+        service = container.select(InterceptedService.class).get();
+    }
+
+    @Benchmark
+    public int singleInterceptor()
+    {
+        return service.single(42);
+    }
+
+    @Benchmark
+    public int twoInterceptors()
+    {
+        return service.both(42);
+    }
+
+    @Benchmark
+    public int notIntercepted()
+    {
+        return service.plain(42);
+    }
+
+    @InterceptorBinding
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.METHOD, ElementType.TYPE})
+    public @interface Outer
+    {
+    }
+
+    @InterceptorBinding
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.METHOD, ElementType.TYPE})
+    public @interface Inner
+    {
+    }
+
+    @Outer
+    @Interceptor
+    @Priority(Interceptor.Priority.APPLICATION)
+    public static class OuterInterceptor
+    {
+        @AroundInvoke
+        public Object around(InvocationContext ctx) throws Exception
+        {
+            return ctx.proceed();
+        }
+    }
+
+    @Inner
+    @Interceptor
+    @Priority(Interceptor.Priority.APPLICATION + 10)
+    public static class InnerInterceptor
+    {
+        @AroundInvoke
+        public Object around(InvocationContext ctx) throws Exception
+        {
+            return ctx.proceed();
+        }
+    }
+
+    @ApplicationScoped
+    public static class InterceptedService
+    {
+        @Outer
+        public int single(int value)
+        {
+            return value;
+        }
+
+        @Outer
+        @Inner
+        public int both(int value)
+        {
+            return value;
+        }
+
+        public int plain(int value)
+        {
+            return value;
+        }
+    }
+}
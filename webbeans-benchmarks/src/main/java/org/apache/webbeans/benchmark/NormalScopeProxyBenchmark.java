@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.context.control.RequestContextController;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Method invocations through the proxies created by the
+ * {@link org.apache.webbeans.proxy.NormalScopeProxyFactory}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NormalScopeProxyBenchmark extends ContainerBenchmark
+{
+    private ApplicationService applicationService;
+    private RequestService requestService;
+
+    @Override
+    protected Class<?>[] beanClasses()
+    {
+        return new Class<?>[]{ApplicationService.class, RequestService.class};
+    }
+
+    @Override
+    protected void afterStart()
+    {
+        applicationService = container.select(ApplicationService.class).get();
+        requestService = container.select(RequestService.class).get();
+    }
+
+    @Benchmark
+    public int applicationScoped()
+    {
+        return applicationService.ping(42);
+    }
+
+    @Benchmark
+    public int requestScoped(RequestContext requestContext)
+    {
+        return requestService.ping(42);
+    }
+
+    /**
+     * Keeps a request context active on each benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class RequestContext
+    {
+        private RequestContextController controller;
+
+        @Setup(Level.Iteration)
+        public void activate(NormalScopeProxyBenchmark benchmark)
+        {
+            controller = benchmark.container.select(RequestContextController.class).get();
+            controller.activate();
+        }
+
+        @TearDown(Level.Iteration)
+        public void deactivate()
+        {
+            controller.deactivate();
+        }
+    }
+
+    @ApplicationScoped
+    public static class ApplicationService
+    {
+        public int ping(int value)
+        {
+            return value;
+        }
+    }
+
+    @RequestScoped
+    public static class RequestService
+    {
+        public int ping(int value)
+        {
+            return value;
+        }
+    }
+}
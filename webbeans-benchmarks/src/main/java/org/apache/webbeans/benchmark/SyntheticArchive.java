@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.apache.xbean.asm8.ClassWriter;
+import org.apache.xbean.asm8.FieldVisitor;
+import org.apache.xbean.asm8.MethodVisitor;
+import org.apache.xbean.asm8.Opcodes;
+
+/**
+ * Generates a bean archive with the given number of classes on the fly.
+ *
+ * Every generated class is a bean which injects its predecessor. Even classes
+ * are &#064;Dependent, odd classes are &#064;ApplicationScoped. This gives the
+ * deployment a realistic amount of injection points to resolve and validate.
+ * The classes get written to a temporary directory and loaded via an own
+ * {@link URLClassLoader}, so the scanner can read their bytecode like from
+ * any other exploded archive.
+ */
+public class SyntheticArchive implements AutoCloseable
+{
+    public static final String PACKAGE_NAME = "org.apache.webbeans.benchmark.synthetic";
+
+    private static final String DEPENDENT = "Ljavax/enterprise/context/Dependent;";
+    private static final String APPLICATION_SCOPED = "Ljavax/enterprise/context/ApplicationScoped;";
+    private static final String INJECT = "Ljavax/inject/Inject;";
+
+    private final Path directory;
+    private final URLClassLoader classLoader;
+    private final Class<?>[] classes;
+
+    public SyntheticArchive(int size)
+    {
+        try
+        {
+            directory = Files.createTempDirectory("owb-synthetic-archive");
+            File packageDir = new File(directory.toFile(), PACKAGE_NAME.replace('.', File.separatorChar));
+            if (!packageDir.mkdirs())
+            {
+                throw new IOException("Cannot create " + packageDir);
+            }
+            for (int i = 0; i < size; i++)
+            {
+                Files.write(new File(packageDir, simpleClassName(i) + ".class").toPath(), createClass(i));
+            }
+
+            classLoader = new URLClassLoader(new URL[]{directory.toUri().toURL()}, SyntheticArchive.class.getClassLoader());
+            classes = new Class<?>[size];
+            for (int i = 0; i < size; i++)
+            {
+                classes[i] = classLoader.loadClass(PACKAGE_NAME + '.' + simpleClassName(i));
+            }
+        }
+        catch (MalformedURLException e)
+        {
+            throw new IllegalStateException(e);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        catch (ClassNotFoundException e)
+        {
+            throw new IllegalStateException("Cannot load synthetic class", e);
+        }
+    }
+
+    public Class<?>[] getClasses()
+    {
+        return classes;
+    }
+
+    public ClassLoader getClassLoader()
+    {
+        return classLoader;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        classLoader.close();
+        try (Stream<Path> paths = Files.walk(directory))
+        {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private static String simpleClassName(int index)
+    {
+        return "SyntheticBean" + index;
+    }
+
+    private static String internalName(int index)
+    {
+        return PACKAGE_NAME.replace('.', '/') + '/' + simpleClassName(index);
+    }
+
+    private static byte[] createClass(int index)
+    {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, internalName(index), null, "java/lang/Object", null);
+        cw.visitAnnotation(index % 2 == 0 ? DEPENDENT : APPLICATION_SCOPED, true).visitEnd();
+
+        if (index > 0)
+        {
+            FieldVisitor fv = cw.visitField(Opcodes.ACC_PRIVATE, "previous", 'L' + internalName(index - 1) + ';', null, null);
+            fv.visitAnnotation(INJECT, true).visitEnd();
+            fv.visitEnd();
+        }
+
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+}
@@ -67,7 +67,7 @@ public final class TransactionalEventNotifier
      */
     public static void registerTransactionSynchronization(TransactionPhase phase, ObserverMethod<? super Object> observer, Object event, EventMetadata metadata) throws Exception
     {
-        TransactionService transactionService = WebBeansContext.currentInstance().getService(TransactionService.class);
+        TransactionService transactionService = WebBeansContext.currentInstance().getTransactionService();
         
         Transaction transaction = null;
         if(transactionService != null)
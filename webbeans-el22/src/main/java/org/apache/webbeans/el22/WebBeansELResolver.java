@@ -32,7 +32,6 @@ import javax.enterprise.inject.spi.Bean;
 import java.beans.FeatureDescriptor;
 import java.lang.reflect.Type;
 import java.util.Iterator;
-import java.util.Set;
 
 /**
  * JSF or JSP expression language a.k.a EL resolver.
@@ -117,15 +116,12 @@ public class WebBeansELResolver extends ELResolver
             return contextualInstance;
         }
 
-        //Get beans
-        Set<Bean<?>> beans = beanManager.getBeans(beanName);
+        //Get the bean, after the deployment this is a lookup in an immutable name table
+        Bean<?> bean = beanManager.getBeanByName(beanName);
 
         //Found?
-        if(beans != null && !beans.isEmpty())
+        if(bean != null)
         {
-            //Managed bean
-            Bean<?> bean = beanManager.resolve(beans);
-
             if(bean.getScope().equals(Dependent.class))
             {
                 contextualInstance = getDependentContextualInstance(beanManager, elContextStore, context, bean);
@@ -25,6 +25,7 @@ import org.apache.webbeans.container.SerializableBean;
 import org.apache.webbeans.context.creational.CreationalContextImpl;
 import org.apache.webbeans.exception.WebBeansException;
 import org.apache.webbeans.logger.WebBeansLoggerFacade;
+import org.apache.webbeans.spi.MetricsService;
 
 import javax.enterprise.context.Dependent;
 import javax.enterprise.context.spi.CreationalContext;
@@ -76,6 +77,12 @@ public abstract class AbstractOwbBean<T>
      * @see #getId()
      */
     protected String passivatingId;
+
+    /**
+     * Dense index of this bean in the instance storage of its context or {@code -1}.
+     * @see org.apache.webbeans.context.IndexedBeanInstanceMap
+     */
+    private int contextualIndex = -1;
     
     protected final WebBeansContext webBeansContext;
 
@@ -132,6 +139,12 @@ public abstract class AbstractOwbBean<T>
             {
                 ((CreationalContextImpl<T>)creationalContext).addDependent(this, instance);
             }
+
+            MetricsService metricsService = webBeansContext.getMetricsService();
+            if (metricsService != null && instance != null)
+            {
+                metricsService.instanceCreated(this);
+            }
             return instance;
         }
         catch (Exception re)
@@ -256,6 +269,19 @@ public abstract class AbstractOwbBean<T>
     /** cache previously calculated result */
     private Boolean isPassivationCapable;
 
+    /**
+     * @return the index of this bean in the instance storage of its context or {@code -1} if it has none
+     */
+    public int getContextualIndex()
+    {
+        return contextualIndex;
+    }
+
+    public void setContextualIndex(int contextualIndex)
+    {
+        this.contextualIndex = contextualIndex;
+    }
+
     /**
      * Get web bean type of the bean.
      * 
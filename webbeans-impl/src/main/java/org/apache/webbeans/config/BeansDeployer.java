@@ -77,6 +77,9 @@ import org.apache.webbeans.portable.events.discovery.BeforeBeanDiscoveryImpl;
 import org.apache.webbeans.portable.events.generics.GProcessAnnotatedType;
 import org.apache.webbeans.portable.events.generics.GProcessBean;
 import org.apache.webbeans.portable.events.generics.GProcessManagedBean;
+import org.apache.webbeans.proxy.OwbDecoratorProxy;
+import org.apache.webbeans.proxy.OwbInterceptorProxy;
+import org.apache.webbeans.proxy.OwbNormalScopeProxy;
 import org.apache.webbeans.spi.BdaScannerService;
 import org.apache.webbeans.spi.BeanArchiveService;
 import org.apache.webbeans.spi.JNDIService;
@@ -125,6 +128,9 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -138,7 +144,7 @@ import static org.apache.webbeans.spi.BeanArchiveService.BeanArchiveInformation;
  * the scanner phase.
  */
 @SuppressWarnings("unchecked")
-//This class written as single threaded.
+//This class written as single threaded, only the reflection work gets optionally prepared in parallel.
 public class BeansDeployer
 {
     //Logger instance
@@ -154,6 +160,15 @@ public class BeansDeployer
     
     /**Discover ejb or not*/
     protected boolean discoverEjb;
+
+    /**Prepare AnnotatedTypes and BeanAttributes in parallel or not*/
+    protected boolean parallelDeployment;
+
+    /**
+     * The pool used to prepare the AnnotatedTypes and BeanAttributes during {@link #deploy(ScannerService)}
+     * or {@code null} if the deployment is single threaded.
+     */
+    private ForkJoinPool deploymentPool;
     private final WebBeansContext webBeansContext;
 
     private final ScannerService scannerService;
@@ -184,6 +199,9 @@ public class BeansDeployer
         String usage = this.webBeansContext.getOpenWebBeansConfiguration().getProperty(OpenWebBeansConfiguration.USE_EJB_DISCOVERY);
         discoverEjb = Boolean.parseBoolean(usage);
 
+        parallelDeployment = Boolean.parseBoolean(
+            this.webBeansContext.getOpenWebBeansConfiguration().getProperty(OpenWebBeansConfiguration.PARALLEL_DEPLOYMENT));
+
         defaultBeanArchiveInformation = new DefaultBeanArchiveInformation("default");
         defaultBeanArchiveInformation.setBeanDiscoveryMode(BeanDiscoveryMode.ALL);
     }
@@ -199,11 +217,18 @@ public class BeansDeployer
      */
     public synchronized void deploy(ScannerService scanner)
     {
+        DeploymentProfiler profiler = webBeansContext.getDeploymentProfiler();
         try
         {
             if (!deployed)
-            {                
+            {
+                if (parallelDeployment)
+                {
+                    deploymentPool = createDeploymentPool();
+                }
+
                 //Load Extensions
+                profiler.phase("loadExtensions");
                 webBeansContext.getExtensionLoader().loadExtensionServices();
 
                 // Bind manager
@@ -226,11 +251,13 @@ public class BeansDeployer
                 webBeansContext.getBeanManagerImpl().addInternalBean(webBeansContext.getWebBeansUtil().getRequestContextControllerBean());
 
                 //Fire Event
+                profiler.phase("beforeBeanDiscovery");
                 fireBeforeBeanDiscoveryEvent();
                 
                 //Configure Default Beans
                 configureDefaultBeans();
 
+                profiler.phase("processAnnotatedTypes");
                 Map<BeanArchiveInformation, List<AnnotatedType<?>>> annotatedTypesPerBda = annotatedTypesFromClassPath(scanner);
 
                 List<AnnotatedType<?>> globalBdaAnnotatedTypes = annotatedTypesPerBda.get(defaultBeanArchiveInformation);
@@ -246,11 +273,21 @@ public class BeansDeployer
                 }
 
                 // Also configures deployments, interceptors, decorators.
+                profiler.phase("afterTypeDiscovery");
                 deployFromXML(scanner);
 
                 addAdditionalAnnotatedTypes(fireAfterTypeDiscoveryEvent(), globalBdaAnnotatedTypes);
 
 
+                if (profiler.isEnabled())
+                {
+                    for (List<AnnotatedType<?>> at : annotatedTypesPerBda.values())
+                    {
+                        profiler.count("annotatedTypes", at.size());
+                    }
+                }
+
+                profiler.phase("beanAttributes");
                 Map<BeanArchiveInformation, Map<AnnotatedType<?>, ExtendedBeanAttributes<?>>> beanAttributesPerBda
                     = getBeanAttributes(annotatedTypesPerBda);
 
@@ -288,6 +325,7 @@ public class BeansDeployer
                         false);
 
                 // create beans from the discovered AnnotatedTypes
+                profiler.phase("deployBeans");
                 deployFromBeanAttributes(beanAttributesPerBda);
 
                 configureProducerMethodSpecializations();
@@ -296,8 +334,11 @@ public class BeansDeployer
                 removeDisabledBeans();
                 
                 // We are finally done with our bean discovery
+                profiler.phase("afterBeanDiscovery");
                 fireAfterBeanDiscoveryEvent();
 
+                profiler.phase("validation");
+
                 // activate InjectionResolver cache now
                 webBeansContext.getBeanManagerImpl().getInjectionResolver().setStartup(false);
                 
@@ -320,8 +361,12 @@ public class BeansDeployer
                 }
 
                 // fire event
+                profiler.phase("afterDeploymentValidation");
                 fireAfterDeploymentValidationEvent();
 
+                profiler.count("beans", webBeansContext.getBeanManagerImpl().getBeans().size());
+                profiler.count("observerMethods", webBeansContext.getNotificationManager().getObserverMethods().size());
+
 
                 // do some cleanup after the deployment
                 scanner.release();
@@ -348,6 +393,42 @@ public class BeansDeployer
             //if bootstrapping failed, it doesn't make sense to do it again
             //esp. because #addInternalBean might have been called already and would cause an exception in the next run
             deployed = true;
+
+            if (deploymentPool != null)
+            {
+                deploymentPool.shutdownNow();
+                deploymentPool = null;
+            }
+
+            profiler.finish();
+        }
+    }
+
+    /**
+     * The worker threads get the ClassLoader of the deploying thread as TCCL
+     * as this is what is used to look up the WebBeansContext and to load classes.
+     */
+    private ForkJoinPool createDeploymentPool()
+    {
+        ClassLoader classLoader = WebBeansUtil.getCurrentClassLoader();
+        return new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool ->
+        {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("OpenWebBeans-Deployer-" + thread.getPoolIndex());
+            thread.setContextClassLoader(classLoader);
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * Invokes the given action for all elements in parallel if the parallel deployment is enabled.
+     * The action must not fire any events and must handle all exceptions itself.
+     */
+    private <T> void prepareInParallel(Collection<T> elements, Consumer<T> action)
+    {
+        if (deploymentPool != null && elements.size() > 1)
+        {
+            deploymentPool.submit(() -> elements.parallelStream().forEach(action)).join();
         }
     }
 
@@ -409,6 +490,8 @@ public class BeansDeployer
 
             boolean onlyScopedBeans = BeanDiscoveryMode.TRIM == bdaInfo.getBeanDiscoveryMode();
 
+            Map<AnnotatedType<?>, PreparedBeanAttributes> preparedBeanAttributes = prepareBeanAttributes(annotatedTypes, onlyScopedBeans);
+
             Map<AnnotatedType<?>, ExtendedBeanAttributes<?>> bdaBeanAttributes = new IdentityHashMap<>(annotatedTypes.size());
             Iterator<AnnotatedType<?>> iterator = annotatedTypes.iterator();
             while (iterator.hasNext())
@@ -418,9 +501,12 @@ public class BeansDeployer
                 boolean isEjb = discoverEjb && EJBWebBeansConfigurator.isSessionBean(beanClass, webBeansContext);
                 try
                 {
-                    if (isEjb || (ClassUtil.isConcrete(beanClass) || WebBeansUtil.isDecorator(at)) && isValidManagedBean(at))
+                    PreparedBeanAttributes prepared = isEjb ? null : preparedBeanAttributes.get(at);
+                    if (prepared != null ? prepared.isValid() :
+                        isEjb || (ClassUtil.isConcrete(beanClass) || WebBeansUtil.isDecorator(at)) && isValidManagedBean(at))
                     {
-                        BeanAttributesImpl beanAttributes = BeanAttributesBuilder.forContext(webBeansContext).newBeanAttibutes(at, onlyScopedBeans && !isEjb).build();
+                        BeanAttributesImpl beanAttributes = prepared != null ? prepared.beanAttributes :
+                            BeanAttributesBuilder.forContext(webBeansContext).newBeanAttibutes(at, onlyScopedBeans && !isEjb).build();
                         if (beanAttributes != null &&
                                 (!beanAttributes.isAlternative() || isEnabledAlternative(at, beanAttributes.getStereotypes())))
                         {
@@ -463,6 +549,43 @@ public class BeansDeployer
         return beanAttributesPerBda;
     }
 
+    /**
+     * Checks the given AnnotatedTypes and creates their BeanAttributes in parallel if enabled.
+     * Failures get recorded and only rethrown when the AnnotatedType gets processed in order,
+     * so the deployment fails with the same exception as a single threaded one.
+     *
+     * @return the prepared BeanAttributes per AnnotatedType, empty if the deployment is single threaded
+     */
+    private Map<AnnotatedType<?>, PreparedBeanAttributes> prepareBeanAttributes(List<AnnotatedType<?>> annotatedTypes,
+                                                                               boolean onlyScopedBeans)
+    {
+        if (deploymentPool == null)
+        {
+            return Collections.emptyMap();
+        }
+
+        Map<AnnotatedType<?>, PreparedBeanAttributes> preparedBeanAttributes = Collections.synchronizedMap(new IdentityHashMap<>(annotatedTypes.size()));
+        prepareInParallel(annotatedTypes, at ->
+        {
+            PreparedBeanAttributes prepared = new PreparedBeanAttributes();
+            try
+            {
+                Class<?> beanClass = at.getJavaClass();
+                prepared.valid = (ClassUtil.isConcrete(beanClass) || WebBeansUtil.isDecorator(at)) && isValidManagedBean(at);
+                if (prepared.valid)
+                {
+                    prepared.beanAttributes = BeanAttributesBuilder.forContext(webBeansContext).newBeanAttibutes(at, onlyScopedBeans).build();
+                }
+            }
+            catch (RuntimeException | Error e)
+            {
+                prepared.failure = e;
+            }
+            preparedBeanAttributes.put(at, prepared);
+        });
+        return preparedBeanAttributes;
+    }
+
     private boolean isEnabledAlternative(AnnotatedType<?> at, Set<Class<? extends Annotation>> stereotypes)
     {
         AlternativesManager alternativesManager = webBeansContext.getAlternativesManager();
@@ -568,7 +691,7 @@ public class BeansDeployer
                         ParameterizedType pt2 = ParameterizedType.class.cast(t);
 
                         if (pt1.getRawType() == pt2.getRawType() &&
-                            !GenericsUtil.isAssignableFrom(true, false, pt1, pt2, new HashMap<>()))
+                            !GenericsUtil.isAssignableFrom(true, false, pt1, pt2))
                         {
                             throw new WebBeansConfigurationException("Generic error matching " + api + " and " + t);
                         }
@@ -1280,6 +1403,14 @@ public class BeansDeployer
         {
             AnnotatedElementFactory annotatedElementFactory = webBeansContext.getAnnotatedElementFactory();
 
+            prepareInParallel(classIndex, implClass ->
+            {
+                if (!foundClasses.contains(implClass))
+                {
+                    prepareAnnotatedType(annotatedElementFactory, implClass);
+                }
+            });
+
             for (Class<?> implClass : classIndex)
             {
                 if (foundClasses.contains(implClass))
@@ -1290,6 +1421,12 @@ public class BeansDeployer
 
                 foundClasses.add(implClass);
 
+                if (isPregeneratedProxy(implClass))
+                {
+                    // proxies generated at build time are part of the archive but never beans
+                    continue;
+                }
+
                 if (isVetoed(implClass))
                 {
                     if (isEEComponent(implClass))
@@ -1350,12 +1487,54 @@ public class BeansDeployer
         return annotatedTypes;
     }
 
+    /**
+     * Creates the AnnotatedType of the given class including its members, so that the
+     * sequential processing only needs to pick it up from the {@link AnnotatedElementFactory}.
+     * Any problem gets ignored here as it will be reported when the class gets processed in order.
+     */
+    private void prepareAnnotatedType(AnnotatedElementFactory annotatedElementFactory, Class<?> implClass)
+    {
+        try
+        {
+            if (isPregeneratedProxy(implClass) || annotatedElementFactory.getAnnotatedType(implClass) != null)
+            {
+                return;
+            }
+
+            // fail early for classes with missing dependencies, they must only get logged once
+            implClass.getDeclaredMethods();
+            implClass.getDeclaredFields();
+            implClass.getDeclaredConstructors();
+
+            AnnotatedType<?> annotatedType = annotatedElementFactory.newAnnotatedType(implClass);
+            if (annotatedType != null)
+            {
+                annotatedType.getTypeClosure();
+                annotatedType.getConstructors();
+                annotatedType.getMethods();
+                annotatedType.getFields();
+            }
+        }
+        catch (RuntimeException | LinkageError e)
+        {
+            // will be handled in order
+        }
+    }
+
     private boolean isEEComponent(Class<?> impl)
     {
         OpenWebBeansJavaEEPlugin eePlugin = webBeansContext.getPluginLoader().getJavaEEPlugin();
         return eePlugin != null && eePlugin.isEEComponent(impl);
     }
 
+    private boolean isPregeneratedProxy(Class<?> implClass)
+    {
+        return implClass.isSynthetic() &&
+                (OwbNormalScopeProxy.class.isAssignableFrom(implClass) ||
+                 OwbInterceptorProxy.class.isAssignableFrom(implClass) ||
+                 OwbDecoratorProxy.class.isAssignableFrom(implClass));
+    }
+
     private boolean isVetoed(Class<?> implClass)
     {
         if (implClass.getAnnotation(Vetoed.class) != null)
@@ -2079,6 +2258,22 @@ public class BeansDeployer
         webBeansContext.getWebBeansUtil().setInjectionTargetBeanEnableFlag(bean);
     }
 
+    private static class PreparedBeanAttributes
+    {
+        private boolean valid;
+        private BeanAttributesImpl<?> beanAttributes;
+        private Throwable failure;
+
+        private boolean isValid()
+        {
+            if (failure != null)
+            {
+                throw ExceptionUtil.throwAsRuntimeException(failure);
+            }
+            return valid;
+        }
+    }
+
     public static class ExtendedBeanAttributes<T>
     {
         private final BeanAttributes<T> beanAttributes;
@@ -0,0 +1,415 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.config;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.enterprise.inject.spi.Extension;
+import javax.enterprise.inject.spi.ObserverMethod;
+
+import org.apache.webbeans.event.ObserverMethodImpl;
+import org.apache.webbeans.logger.WebBeansLoggerFacade;
+import org.apache.webbeans.util.Timing;
+
+/**
+ * Collects where the time of a container deployment goes.
+ *
+ * <p>The deployment is split into sequential phases, each of them records its wall clock time
+ * and the CPU time of the deploying thread. Additionally the time spent in the lifecycle observers
+ * of each portable Extension and in the proxy generation gets summed up, together with some counters
+ * like the number of processed AnnotatedTypes.</p>
+ *
+ * <p>If enabled via {@link OpenWebBeansConfiguration#DEPLOYMENT_PROFILING}, the phases and the extension
+ * observer invocations also get emitted as JFR events (on JVMs supporting custom events) and a JSON
+ * report gets logged and optionally written to
+ * {@link OpenWebBeansConfiguration#DEPLOYMENT_PROFILING_REPORT} once the deployment finished.
+ * If disabled, all methods return immediately.</p>
+ */
+public class DeploymentProfiler
+{
+    private static final Logger logger = WebBeansLoggerFacade.getLogger(DeploymentProfiler.class);
+
+    private static final String PHASE_EVENT = "org.apache.webbeans.DeploymentPhase";
+    private static final String OBSERVER_EVENT = "org.apache.webbeans.ExtensionObserver";
+
+    private final String reportFile;
+    private final ThreadMXBean threadMXBean;
+    private final JfrEventType phaseEventType;
+    private final JfrEventType observerEventType;
+
+    private volatile boolean enabled;
+
+    private final List<PhaseTiming> phases = new ArrayList<>();
+    private PhaseTiming currentPhase;
+
+    private final ConcurrentMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, ExtensionTiming> extensions = new ConcurrentHashMap<>();
+    private final Timing proxies = new Timing();
+
+    public DeploymentProfiler(OpenWebBeansConfiguration configuration)
+    {
+        reportFile = configuration.getProperty(OpenWebBeansConfiguration.DEPLOYMENT_PROFILING_REPORT);
+        enabled = reportFile != null ||
+                Boolean.parseBoolean(configuration.getProperty(OpenWebBeansConfiguration.DEPLOYMENT_PROFILING));
+
+        if (enabled)
+        {
+            ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+            threadMXBean = threadBean.isCurrentThreadCpuTimeSupported() ? threadBean : null;
+            phaseEventType = JfrEventType.create(PHASE_EVENT, "Deployment Phase", "phase", "cpuMillis");
+            observerEventType = JfrEventType.create(OBSERVER_EVENT, "Extension Observer", "extension", "method");
+        }
+        else
+        {
+            threadMXBean = null;
+            phaseEventType = null;
+            observerEventType = null;
+        }
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Ends the currently running phase, if any, and starts the given one.
+     */
+    public synchronized void phase(String name)
+    {
+        if (!enabled)
+        {
+            return;
+        }
+        endPhase();
+        currentPhase = new PhaseTiming(name, System.nanoTime(), cpuTime(),
+                                       phaseEventType != null ? phaseEventType.begin() : null);
+    }
+
+    /**
+     * Ends the deployment. The report gets written and all further calls are ignored.
+     */
+    public synchronized void finish()
+    {
+        if (!enabled)
+        {
+            return;
+        }
+        endPhase();
+        enabled = false;
+
+        String report = toJson();
+        logger.info("Deployment profile: " + report);
+        if (reportFile != null)
+        {
+            Path path = Paths.get(reportFile);
+            try
+            {
+                if (path.getParent() != null)
+                {
+                    Files.createDirectories(path.getParent());
+                }
+                try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8))
+                {
+                    writer.write(report);
+                }
+            }
+            catch (IOException e)
+            {
+                logger.log(Level.WARNING, "Cannot write the deployment profile to " + reportFile, e);
+            }
+        }
+    }
+
+    /**
+     * Adds the given amount to the counter with the given name.
+     */
+    public void count(String name, long amount)
+    {
+        if (enabled)
+        {
+            counters.computeIfAbsent(name, k -> new LongAdder()).add(amount);
+        }
+    }
+
+    /**
+     * Records the generation of a proxy class.
+     * @param nanos the time it took to generate and define the class
+     */
+    public void proxyGenerated(long nanos)
+    {
+        if (enabled)
+        {
+            proxies.add(nanos);
+        }
+    }
+
+    /**
+     * Starts the timing of an observer invocation.
+     * @return the running invocation or {@code null} if the observer does not belong to an Extension
+     *         or the profiler is disabled
+     */
+    public ObserverInvocation startObserverInvocation(ObserverMethod<?> observer)
+    {
+        if (!enabled || observer.getBeanClass() == null || !Extension.class.isAssignableFrom(observer.getBeanClass()))
+        {
+            return null;
+        }
+        return new ObserverInvocation(observer, observerEventType != null ? observerEventType.begin() : null);
+    }
+
+    private void endPhase()
+    {
+        if (currentPhase != null)
+        {
+            currentPhase.end(System.nanoTime(), cpuTime());
+            if (phaseEventType != null)
+            {
+                phaseEventType.commit(currentPhase.event, currentPhase.name,
+                                      String.valueOf(toMillis(currentPhase.cpuNanos)));
+            }
+            phases.add(currentPhase);
+            currentPhase = null;
+        }
+    }
+
+    private long cpuTime()
+    {
+        return threadMXBean != null ? threadMXBean.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static String observerName(ObserverMethod<?> observer)
+    {
+        if (observer instanceof ObserverMethodImpl)
+        {
+            return ((ObserverMethodImpl<?>) observer).getObserverMethod().getJavaMember().getName();
+        }
+        return "observes " + observer.getObservedType().getTypeName();
+    }
+
+    String toJson()
+    {
+        StringBuilder json = new StringBuilder(512).append("{\"phases\":[");
+        long totalNanos = 0;
+        for (int i = 0; i < phases.size(); i++)
+        {
+            PhaseTiming phase = phases.get(i);
+            totalNanos += phase.wallNanos;
+            if (i > 0)
+            {
+                json.append(',');
+            }
+            json.append("{\"name\":");
+            appendString(json, phase.name);
+            json.append(",\"wallMillis\":").append(toMillis(phase.wallNanos));
+            if (phase.cpuNanos >= 0)
+            {
+                json.append(",\"cpuMillis\":").append(toMillis(phase.cpuNanos));
+            }
+            json.append('}');
+        }
+        json.append("],\"totalMillis\":").append(toMillis(totalNanos));
+
+        json.append(",\"counters\":{");
+        boolean first = true;
+        for (Map.Entry<String, LongAdder> counter : new TreeMap<>(counters).entrySet())
+        {
+            if (!first)
+            {
+                json.append(',');
+            }
+            first = false;
+            appendString(json, counter.getKey());
+            json.append(':').append(counter.getValue().sum());
+        }
+
+        json.append("},\"proxies\":");
+        appendTiming(json, proxies);
+
+        json.append(",\"extensions\":[");
+        first = true;
+        Map<String, ExtensionTiming> sortedExtensions = new TreeMap<>();
+        extensions.forEach((extension, timing) -> sortedExtensions.put(extension.getName(), timing));
+        for (Map.Entry<String, ExtensionTiming> extension : sortedExtensions.entrySet())
+        {
+            if (!first)
+            {
+                json.append(',');
+            }
+            first = false;
+            json.append("{\"extension\":");
+            appendString(json, extension.getKey());
+            json.append(',');
+            extension.getValue().appendTo(json);
+        }
+        return json.append("]}").toString();
+    }
+
+    private static void appendTiming(StringBuilder json, Timing timing)
+    {
+        json.append("{\"count\":").append(timing.getCount()).append(",\"millis\":").append(toMillis(timing.getNanos())).append('}');
+    }
+
+    private static double toMillis(long nanos)
+    {
+        return Math.round(nanos / 1000.0) / 1000.0;
+    }
+
+    private static void appendString(StringBuilder json, String value)
+    {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            switch (c)
+            {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20)
+                    {
+                        json.append(String.format("\\u%04x", (int) c));
+                    }
+                    else
+                    {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * A running invocation of an Extension observer method.
+     */
+    public final class ObserverInvocation
+    {
+        private final ObserverMethod<?> observer;
+        private final Object event;
+        private final long start = System.nanoTime();
+
+        private ObserverInvocation(ObserverMethod<?> observer, Object event)
+        {
+            this.observer = observer;
+            this.event = event;
+        }
+
+        public void end()
+        {
+            long nanos = System.nanoTime() - start;
+            String method = observerName(observer);
+            if (observerEventType != null)
+            {
+                observerEventType.commit(event, observer.getBeanClass().getName(), method);
+            }
+            if (enabled)
+            {
+                extensions.computeIfAbsent(observer.getBeanClass(), k -> new ExtensionTiming()).add(method, nanos);
+            }
+        }
+    }
+
+    private static final class PhaseTiming
+    {
+        private final String name;
+        private final long wallStart;
+        private final long cpuStart;
+        private final Object event;
+        private long wallNanos;
+        private long cpuNanos = -1;
+
+        private PhaseTiming(String name, long wallStart, long cpuStart, Object event)
+        {
+            this.name = name;
+            this.wallStart = wallStart;
+            this.cpuStart = cpuStart;
+            this.event = event;
+        }
+
+        private void end(long wallEnd, long cpuEnd)
+        {
+            wallNanos = wallEnd - wallStart;
+            if (cpuStart >= 0 && cpuEnd >= 0)
+            {
+                cpuNanos = cpuEnd - cpuStart;
+            }
+        }
+    }
+
+    private static final class ExtensionTiming
+    {
+        private final Timing total = new Timing();
+        private final ConcurrentMap<String, Timing> methods = new ConcurrentHashMap<>();
+
+        void add(String method, long duration)
+        {
+            total.add(duration);
+            methods.computeIfAbsent(method, k -> new Timing()).add(duration);
+        }
+
+        void appendTo(StringBuilder json)
+        {
+            json.append("\"total\":");
+            appendTiming(json, total);
+            json.append(",\"methods\":{");
+            boolean first = true;
+            for (Map.Entry<String, Timing> method : new TreeMap<>(methods).entrySet())
+            {
+                if (!first)
+                {
+                    json.append(',');
+                }
+                first = false;
+                appendString(json, method.getKey());
+                json.append(':');
+                appendTiming(json, method.getValue());
+            }
+            json.append("}}");
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.config;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.webbeans.logger.WebBeansLoggerFacade;
+
+/**
+ * Emits custom JFR events without a compile time dependency on {@code jdk.jfr}.
+ * The event types get defined at runtime via {@code jdk.jfr.EventFactory}, so the events
+ * are only available on Java 12 and newer. All event fields are Strings.
+ */
+final class JfrEventType
+{
+    private static final Logger logger = WebBeansLoggerFacade.getLogger(JfrEventType.class);
+
+    private final MethodHandle newEvent;
+    private final MethodHandle begin;
+    private final MethodHandle end;
+    private final MethodHandle set;
+    private final MethodHandle commit;
+
+    private JfrEventType(MethodHandle newEvent, MethodHandle begin, MethodHandle end, MethodHandle set, MethodHandle commit)
+    {
+        this.newEvent = newEvent;
+        this.begin = begin;
+        this.end = end;
+        this.set = set;
+        this.commit = commit;
+    }
+
+    /**
+     * @return the event type or {@code null} if the JVM cannot define custom JFR events
+     */
+    @SuppressWarnings("unchecked")
+    static JfrEventType create(String name, String label, String... fields)
+    {
+        try
+        {
+            ClassLoader loader = ClassLoader.getSystemClassLoader();
+            Class<?> annotationElementClass = Class.forName("jdk.jfr.AnnotationElement", true, loader);
+            Constructor<?> annotationElement = annotationElementClass.getConstructor(Class.class, Object.class);
+            List<Object> annotations = Arrays.asList(
+                    annotationElement.newInstance(Class.forName("jdk.jfr.Name", true, loader), name),
+                    annotationElement.newInstance(Class.forName("jdk.jfr.Label", true, loader), label),
+                    annotationElement.newInstance(Class.forName("jdk.jfr.Category", true, loader), new String[]{ "OpenWebBeans" }));
+
+            Constructor<?> valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor", true, loader).getConstructor(Class.class, String.class);
+            List<Object> valueDescriptors = new ArrayList<>();
+            for (String field : fields)
+            {
+                valueDescriptors.add(valueDescriptor.newInstance(String.class, field));
+            }
+
+            Class<?> eventFactoryClass = Class.forName("jdk.jfr.EventFactory", true, loader);
+            Object eventFactory = eventFactoryClass.getMethod("create", List.class, List.class).invoke(null, annotations, valueDescriptors);
+
+            Class<?> eventClass = Class.forName("jdk.jfr.Event", true, loader);
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            return new JfrEventType(
+                    lookup.findVirtual(eventFactoryClass, "newEvent", MethodType.methodType(eventClass)).bindTo(eventFactory),
+                    lookup.findVirtual(eventClass, "begin", MethodType.methodType(void.class)),
+                    lookup.findVirtual(eventClass, "end", MethodType.methodType(void.class)),
+                    lookup.findVirtual(eventClass, "set", MethodType.methodType(void.class, int.class, Object.class)),
+                    lookup.findVirtual(eventClass, "commit", MethodType.methodType(void.class)));
+        }
+        catch (ReflectiveOperationException | RuntimeException e)
+        {
+            logger.log(Level.FINE, "JFR events are not available", e);
+            return null;
+        }
+    }
+
+    /**
+     * @return the started event
+     */
+    Object begin()
+    {
+        try
+        {
+            Object event = newEvent.invoke();
+            begin.invoke(event);
+            return event;
+        }
+        catch (Throwable t)
+        {
+            logger.log(Level.FINE, "Cannot begin JFR event", t);
+            return null;
+        }
+    }
+
+    /**
+     * Ends and commits the given event.
+     * @param values the values of the fields in the order they got defined
+     */
+    void commit(Object event, String... values)
+    {
+        if (event == null)
+        {
+            return;
+        }
+        try
+        {
+            end.invoke(event);
+            for (int i = 0; i < values.length; i++)
+            {
+                set.invoke(event, i, (Object) values[i]);
+            }
+            commit.invoke(event);
+        }
+        catch (Throwable t)
+        {
+            logger.log(Level.FINE, "Cannot commit JFR event", t);
+        }
+    }
+}
@@ -58,6 +58,14 @@ public class OpenWebBeansConfiguration
     /**Timeout interval in ms*/
     public static final String CONVERSATION_TIMEOUT_INTERVAL = "org.apache.webbeans.conversation.Conversation.timeoutInterval";
 
+    /**
+     * Interval in ms in which a background thread destroys timed out conversations.
+     * {@code 0} or less disables the background thread and timed out conversations
+     * of the current session get destroyed at the end of each request instead.
+     * Default is {@code 60000}.
+     */
+    public static final String CONVERSATION_REAPER_INTERVAL = "org.apache.webbeans.conversation.Conversation.reaperInterval";
+
     /**
      * Environment property which comma separated list of classes which
      * should NOT fail with UnproxyableResolutionException
@@ -161,6 +169,108 @@ public class OpenWebBeansConfiguration
      */
     public static final String SCAN_ONLY_BEANS_XML_JARS = "org.apache.webbeans.scanBeansXmlOnly";
 
+    /**
+     * Location of a file which stores the classes found in each bean archive.
+     * If set and neither the bean archives nor the scanner settings changed since the file got written,
+     * the classpath scanning gets skipped on the next start.
+     * Default is empty which means no index gets used.
+     */
+    public static final String DEPLOYMENT_INDEX = "org.apache.webbeans.scanner.deploymentIndex";
+
+    /**
+     * If {@code true} then the classes of bean archives with bean-discovery-mode 'annotated'
+     * get prefiltered by reading their class files. Classes without any runtime visible
+     * class annotation are neither parsed by the AnnotationFinder nor loaded.
+     * Default is {@code true}.
+     */
+    public static final String SCANNER_ANNOTATED_PREFILTER = "org.apache.webbeans.scanner.annotatedPrefilter";
+
+    /**
+     * If {@code true} then the class files of the bean archives get read in parallel
+     * with one thread per available processor while the classpath gets scanned.
+     * The classes still get analyzed in the order of the bean archives.
+     * Default is {@code false}.
+     */
+    public static final String PARALLEL_SCANNING = "org.apache.webbeans.scanner.parallel";
+
+    /**
+     * If {@code true} then the AnnotatedTypes and BeanAttributes of the discovered classes get
+     * created in parallel on a pool with one thread per available processor.
+     * All container lifecycle events still get fired in order on the deploying thread.
+     * Default is {@code false}.
+     */
+    public static final String PARALLEL_DEPLOYMENT = "org.apache.webbeans.deployer.parallel";
+
+    /**
+     * The maximum number of entries of the caches for the beans resolved by type and by name.
+     * Least recently used entries get evicted. {@code 0} or less means unbounded.
+     * Default is {@code 10000}.
+     */
+    public static final String RESOLUTION_CACHE_SIZE = "org.apache.webbeans.resolver.cacheSize";
+
+    /**
+     * The maximum number of memoized results of the generic type assignability checks
+     * done while resolving beans, observers and decorators. {@code 0} or less disables the cache.
+     * Default is {@code 50000}.
+     */
+    public static final String TYPE_ASSIGNABILITY_CACHE_SIZE = "org.apache.webbeans.generics.assignabilityCacheSize";
+
+    /**
+     * If {@code true} the wall and CPU time of each deployment phase, the time spent in the lifecycle
+     * observers of each Extension and some counters get collected while the container starts.
+     * The result gets logged as JSON and the phases get emitted as JFR events if the JVM supports it.
+     * Default is {@code false}.
+     */
+    public static final String DEPLOYMENT_PROFILING = "org.apache.webbeans.deployer.profiling";
+
+    /**
+     * A file the JSON report of the deployment profiling gets written to.
+     * Setting it enables {@link #DEPLOYMENT_PROFILING}.
+     */
+    public static final String DEPLOYMENT_PROFILING_REPORT = "org.apache.webbeans.deployer.profiling.report";
+
+    /**
+     * If {@code true} then each &#064;RequestScoped bean gets a dense index at deployment
+     * and the RequestContext stores its instances in an array slot instead of a hash map.
+     * Default is {@code true}.
+     */
+    public static final String INDEXED_REQUEST_CONTEXT = "org.apache.webbeans.context.request.indexedStorage";
+
+    /**
+     * If {@code true} then the ELContextStore of a thread only gets cleared at the end of a request
+     * and reused for the next request served by this thread.
+     * The store stays referenced from the pooled container threads and thus pins the webapp ClassLoader,
+     * so only enable it if OpenWebBeans is not redeployed with the webapp.
+     * Default is {@code false}.
+     */
+    public static final String RECYCLE_EL_CONTEXT_STORE = "org.apache.webbeans.el.recycleContextStore";
+
+    /**
+     * The Executor used for asynchronous observers if neither an {@link java.util.concurrent.Executor}
+     * SPI service is registered nor an Executor is passed via the NotificationOptions.
+     * {@code default} uses the common ForkJoinPool, {@code virtual} starts a virtual thread per
+     * observer invocation if the JVM supports it.
+     * Default is {@code default}.
+     */
+    public static final String ASYNC_EVENT_EXECUTOR = "org.apache.webbeans.event.async.executor";
+
+    /**
+     * The maximum number of entries of the dispatch table which caches the observer methods
+     * per event class, type and qualifiers. Once it is reached further results are not stored anymore.
+     * {@code 0} or less disables the dispatch table.
+     * Default is {@code 10000}.
+     */
+    public static final String EVENT_DISPATCH_TABLE_SIZE = "org.apache.webbeans.event.dispatchTableSize";
+
+    /**
+     * If {@code true} then asynchronous observers run with the request context of the thread
+     * which fired the event instead of a new request context.
+     * The context is not kept alive for the observers, so the firing thread must wait for the
+     * {@link java.util.concurrent.CompletionStage} returned by {@code fireAsync} before its request ends.
+     * Default is {@code false}.
+     */
+    public static final String ASYNC_EVENT_PROPAGATE_REQUEST_CONTEXT = "org.apache.webbeans.event.async.propagateRequestContext";
+
     /**
      * a comma-separated list of fully qualified class names that should be ignored
      * when determining if a decorator matches its delegate.  These are typically added by
@@ -206,6 +316,40 @@ public class OpenWebBeansConfiguration
     public static final String GENERATOR_JAVA_VERSION = "org.apache.webbeans.generator.javaVersion";
 
 
+    /**
+     * If {@code true} then the interceptor proxies will dispatch intercepted methods
+     * via an index into pre-resolved interceptor chains instead of a Method lookup,
+     * and the interceptor and target methods get invoked via MethodHandles.
+     * Default is {@code false}.
+     */
+    public static final String USE_INTERCEPTOR_CHAINS = "org.apache.webbeans.proxy.useInterceptorChains";
+
+    /**
+     * If {@code true} then the proxy factories first try to load proxy classes which got
+     * generated at build time and listed in {@code META-INF/openwebbeans/proxies.properties}.
+     * Proxies which are not listed or whose methods changed get generated as usual.
+     * The proxies then get static names derived from their proxied methods.
+     * Default is {@code false}.
+     */
+    public static final String USE_PREGENERATED_PROXIES = "org.apache.webbeans.proxy.usePregeneratedProxies";
+
+    /**
+     * If {@code true} then the proxy factories record the fingerprint of each generated proxy.
+     * This is only used by build tools which pre-generate proxies.
+     * Default is {@code false}.
+     */
+    public static final String RECORD_PREGENERATED_PROXIES = "org.apache.webbeans.proxy.recordPregeneratedProxies";
+
+    /**
+     * If {@code true} then the InjectionTargets of managed beans generate an injector class per bean
+     * which invokes the constructor, sets the fields and calls the initializer and lifecycle methods directly.
+     * Private members and members which are not accessible from the package of the bean class
+     * still get handled via reflection.
+     * Default is {@code true}.
+     */
+    public static final String USE_GENERATED_INJECTORS = "org.apache.webbeans.injector.useGeneratedInjectors";
+
+
     /**Default configuration files*/
     private static final String DEFAULT_CONFIG_PROPERTIES_NAME = "META-INF/openwebbeans/openwebbeans.properties";
 
@@ -418,6 +562,24 @@ public class OpenWebBeansConfiguration
         return Boolean.valueOf(value);
     }
 
+    /**
+     * @see #RECYCLE_EL_CONTEXT_STORE
+     */
+    public boolean recycleELContextStore()
+    {
+        String value = getProperty(RECYCLE_EL_CONTEXT_STORE);
+        return Boolean.parseBoolean(value);
+    }
+
+    /**
+     * @see #ASYNC_EVENT_PROPAGATE_REQUEST_CONTEXT
+     */
+    public boolean propagateRequestContextToAsyncObservers()
+    {
+        String value = getProperty(ASYNC_EVENT_PROPAGATE_REQUEST_CONTEXT);
+        return Boolean.parseBoolean(value);
+    }
+
     /**
      * Flag which indicates that only jars with an explicit META-INF/beans.xml marker file shall get paresed.
      * Default is {@code false}
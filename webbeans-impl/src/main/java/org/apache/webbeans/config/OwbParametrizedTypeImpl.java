@@ -38,6 +38,9 @@ public class OwbParametrizedTypeImpl implements ParameterizedType
     /**Actual type arguments*/
     private final Type[] types;
 
+    /**Lazily computed hash code, the instances get used as cache keys a lot*/
+    private int hash;
+
     /**
      * New instance.
      * @param owner owner
@@ -76,7 +79,13 @@ public class OwbParametrizedTypeImpl implements ParameterizedType
     @Override
     public int hashCode()
     {
-       return Arrays.hashCode(types) ^ (owner == null ? 0 : owner.hashCode()) ^ (rawType == null ? 0 : rawType.hashCode());
+       int h = hash;
+       if (h == 0)
+       {
+           h = Arrays.hashCode(types) ^ (owner == null ? 0 : owner.hashCode()) ^ (rawType == null ? 0 : rawType.hashCode());
+           hash = h;
+       }
+       return h;
     }
 
     /* (non-Javadoc)
@@ -91,6 +100,14 @@ public class OwbParametrizedTypeImpl implements ParameterizedType
        }
        else if (obj instanceof ParameterizedType)
        {
+          if (obj instanceof OwbParametrizedTypeImpl)
+          {
+              OwbParametrizedTypeImpl that = (OwbParametrizedTypeImpl) obj;
+              return hashCode() == that.hashCode()
+                      && (owner == null ? that.owner == null : owner.equals(that.owner))
+                      && (rawType == null ? that.rawType == null : rawType.equals(that.rawType))
+                      && Arrays.equals(types, that.types);
+          }
           ParameterizedType that = (ParameterizedType) obj;
           Type thatOwnerType = that.getOwnerType();
           Type thatRawType = that.getRawType();
@@ -20,6 +20,7 @@ package org.apache.webbeans.config;
 
 import java.lang.reflect.Type;
 import java.lang.reflect.WildcardType;
+import java.util.Arrays;
 
 public class OwbWildcardTypeImpl implements WildcardType
 {
@@ -45,6 +46,33 @@ public class OwbWildcardTypeImpl implements WildcardType
         return lowerBounds.clone();
     }
 
+    /**
+     * Same hash code as the wildcard types of the JDK, so both can be mixed as keys.
+     */
+    @Override
+    public int hashCode()
+    {
+        return Arrays.hashCode(lowerBounds) ^ Arrays.hashCode(upperBounds);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+        {
+            return true;
+        }
+        else if (obj instanceof WildcardType)
+        {
+            WildcardType that = (WildcardType) obj;
+            return Arrays.equals(lowerBounds, that.getLowerBounds()) && Arrays.equals(upperBounds, that.getUpperBounds());
+        }
+        else
+        {
+            return false;
+        }
+    }
+
     public String toString()
     {
         StringBuilder buffer = new StringBuilder("?");
@@ -23,10 +23,10 @@ import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -54,9 +54,11 @@ import org.apache.webbeans.logger.WebBeansLoggerFacade;
 import org.apache.webbeans.plugins.PluginLoader;
 import org.apache.webbeans.portable.AnnotatedElementFactory;
 import org.apache.webbeans.portable.events.ExtensionLoader;
+import org.apache.webbeans.proxy.InjectorFactory;
 import org.apache.webbeans.proxy.SubclassProxyFactory;
 import org.apache.webbeans.proxy.InterceptorDecoratorProxyFactory;
 import org.apache.webbeans.proxy.NormalScopeProxyFactory;
+import org.apache.webbeans.proxy.PregeneratedProxies;
 import org.apache.webbeans.service.DefaultInjectionPointService;
 import org.apache.webbeans.service.DefaultLoaderService;
 import org.apache.webbeans.spi.BeanArchiveService;
@@ -64,11 +66,13 @@ import org.apache.webbeans.spi.ApplicationBoundaryService;
 import org.apache.webbeans.spi.ContextsService;
 import org.apache.webbeans.spi.ConversationService;
 import org.apache.webbeans.spi.LoaderService;
+import org.apache.webbeans.spi.MetricsService;
 import org.apache.webbeans.spi.ScannerService;
 import org.apache.webbeans.spi.SecurityService;
 import org.apache.webbeans.spi.TransactionService;
 import org.apache.webbeans.spi.plugins.OpenWebBeansPlugin;
 import org.apache.webbeans.util.ClassUtil;
+import org.apache.webbeans.util.TypeAssignabilityCache;
 import org.apache.webbeans.util.WebBeansUtil;
 import org.apache.webbeans.xml.DefaultBeanArchiveService;
 
@@ -82,9 +86,14 @@ public class WebBeansContext
 {
     private static final Logger logger = WebBeansLoggerFacade.getLogger(WebBeansContext.class);
 
-    private final Map<Class<?>, Object> managerMap = new HashMap<>();
+    private final Map<Class<?>, Object> managerMap = new ConcurrentHashMap<>();
 
-    private final Map<Class<?>, Object> serviceMap = new HashMap<>();
+    private final Map<Class<?>, Object> serviceMap = new ConcurrentHashMap<>();
+
+    /**
+     * Marks a service in the serviceMap which got looked up but is not available.
+     */
+    private static final Object NO_SERVICE = new Object();
 
     private final WebBeansUtil webBeansUtil = new WebBeansUtil(this);
     private final AlternativesManager alternativesManager = new AlternativesManager(this);
@@ -94,9 +103,11 @@ public class WebBeansContext
     private final DecoratorsManager decoratorsManager = new DecoratorsManager(this);
     private final ExtensionLoader extensionLoader = new ExtensionLoader(this);
     private final InterceptorsManager interceptorsManager = new InterceptorsManager(this);
+    private final PregeneratedProxies pregeneratedProxies;
     private final InterceptorDecoratorProxyFactory interceptorDecoratorProxyFactory;
     private final NormalScopeProxyFactory normalScopeProxyFactory;
     private final SubclassProxyFactory subclassProxyFactory;
+    private final InjectorFactory injectorFactory;
     private final OpenWebBeansConfiguration openWebBeansConfiguration;
     private final PluginLoader pluginLoader = new PluginLoader();
     private final SerializableBeanVault serializableBeanVault = new SerializableBeanVault();
@@ -115,7 +126,11 @@ public class WebBeansContext
     private ConversationService conversationService;
     private final ApplicationBoundaryService applicationBoundaryService;
     private final NotificationManager notificationManager;
+    private final TypeAssignabilityCache typeAssignabilityCache;
+    private final DeploymentProfiler deploymentProfiler;
     private TransactionService transactionService;
+    private MetricsService metricsService;
+    private volatile boolean servicesBound;
 
 
     public WebBeansContext()
@@ -132,6 +147,8 @@ public class WebBeansContext
     {
         this.openWebBeansConfiguration = openWebBeansConfiguration != null ? openWebBeansConfiguration : new OpenWebBeansConfiguration();
         annotationManager = new AnnotationManager(this);
+        typeAssignabilityCache = new TypeAssignabilityCache(getTypeAssignabilityCacheSize());
+        deploymentProfiler = new DeploymentProfiler(this.openWebBeansConfiguration);
 
         //pluggable service-loader
         if (initialServices == null || !initialServices.containsKey(LoaderService.class))
@@ -164,9 +181,11 @@ public class WebBeansContext
         securityService = getService(SecurityService.class);
         applicationBoundaryService = getService(ApplicationBoundaryService.class);
 
+        pregeneratedProxies = PregeneratedProxies.create(this);
         interceptorDecoratorProxyFactory = new InterceptorDecoratorProxyFactory(this);
         normalScopeProxyFactory = new NormalScopeProxyFactory(this);
         subclassProxyFactory = new SubclassProxyFactory(this);
+        injectorFactory = new InjectorFactory(this);
 
         beanArchiveService = getService(BeanArchiveService.class);
         conversationManager = new ConversationManager(this);
@@ -200,13 +219,34 @@ public class WebBeansContext
         return getInstance();
     }
 
+    /**
+     * Looks up the SPI service for the given interface.
+     * Services which are not available get remembered as well once all plugins got started,
+     * so asking for them again neither reads the configuration nor asks the plugins.
+     *
+     * @return the service or {@code null} if none is configured or provided by a plugin
+     */
     public <T> T getService(Class<T> clazz)
     {
-        T t = clazz.cast(serviceMap.get(clazz));
+        Object service = serviceMap.get(clazz);
+        if (service == NO_SERVICE)
+        {
+            return null;
+        }
+
+        T t = clazz.cast(service);
         if (t == null)
         {
             t = doServiceLoader(clazz);
-            registerService(clazz, t);
+            if (t != null)
+            {
+                registerService(clazz, t);
+            }
+            else if (getPluginLoader().getPlugins() != null)
+            {
+                // before the plugins got started a plugin might still provide it later
+                serviceMap.putIfAbsent(clazz, NO_SERVICE);
+            }
         }
         return t;
     }
@@ -216,6 +256,9 @@ public class WebBeansContext
         if (t != null)
         {
             serviceMap.put(clazz, t);
+
+            // a service registered late might replace a bound absent one
+            servicesBound = false;
         }
     }
 
@@ -329,6 +372,14 @@ public class WebBeansContext
     }
 
 
+    /**
+     * @return the support for build time generated proxies or {@code null} if not enabled
+     */
+    public PregeneratedProxies getPregeneratedProxies()
+    {
+        return pregeneratedProxies;
+    }
+
     public InterceptorDecoratorProxyFactory getInterceptorDecoratorProxyFactory()
     {
         return interceptorDecoratorProxyFactory;
@@ -344,9 +395,29 @@ public class WebBeansContext
         return subclassProxyFactory;
     }
 
+    public InjectorFactory getInjectorFactory()
+    {
+        return injectorFactory;
+    }
+
+    /**
+     * Binds the lazily looked up services to their fields.
+     * This gets called once the container got deployed, afterwards the getters of these
+     * services are plain field reads, even if a service like the TransactionService is not available.
+     */
+    public void bindServices()
+    {
+        transactionService = getService(TransactionService.class);
+        scannerService = getService(ScannerService.class);
+        contextsService = getService(ContextsService.class);
+        conversationService = getService(ConversationService.class);
+        metricsService = getService(MetricsService.class);
+        servicesBound = true;
+    }
+
     public TransactionService getTransactionService() // used in event bus so ensure it is a plain getter at runtime
     {
-        if (transactionService == null)
+        if (!servicesBound && transactionService == null)
         {
             // lazy init
             transactionService = getService(TransactionService.class);
@@ -354,9 +425,22 @@ public class WebBeansContext
         return transactionService;
     }
 
+    /**
+     * @return the configured {@link MetricsService} or {@code null} if no metrics get collected
+     */
+    public MetricsService getMetricsService() // used on the hot paths, so ensure it is a plain getter at runtime
+    {
+        if (!servicesBound && metricsService == null)
+        {
+            // lazy init
+            metricsService = getService(MetricsService.class);
+        }
+        return metricsService;
+    }
+
     public ScannerService getScannerService()
     {
-        if (scannerService == null)
+        if (!servicesBound && scannerService == null)
         {
             // lazy init
             scannerService = getService(ScannerService.class);
@@ -366,7 +450,7 @@ public class WebBeansContext
 
     public ContextsService getContextsService()
     {
-        if (contextsService == null)
+        if (!servicesBound && contextsService == null)
         {
             contextsService = getService(ContextsService.class);
         }
@@ -388,9 +472,31 @@ public class WebBeansContext
         return notificationManager;
     }
 
+    public TypeAssignabilityCache getTypeAssignabilityCache()
+    {
+        return typeAssignabilityCache;
+    }
+
+    public DeploymentProfiler getDeploymentProfiler()
+    {
+        return deploymentProfiler;
+    }
+
+    private int getTypeAssignabilityCacheSize()
+    {
+        try
+        {
+            return Integer.parseInt(openWebBeansConfiguration.getProperty(OpenWebBeansConfiguration.TYPE_ASSIGNABILITY_CACHE_SIZE, "50000"));
+        }
+        catch (NumberFormatException e)
+        {
+            return 50000;
+        }
+    }
+
     public ConversationService getConversationService()
     {
-        if (conversationService == null)
+        if (!servicesBound && conversationService == null)
         {
             conversationService = getService(ConversationService.class);
         }
@@ -457,7 +563,11 @@ public class WebBeansContext
             }
 
             // Save it for future usages
-            managerMap.put(clazz, object);
+            Object existing = managerMap.putIfAbsent(clazz, object);
+            if (existing != null)
+            {
+                object = clazz.cast(existing);
+            }
         }
 
         return object;
@@ -516,6 +626,10 @@ public class WebBeansContext
         {
             return clazz.cast(subclassProxyFactory);
         }
+        if (clazz == InjectorFactory.class)
+        {
+            return clazz.cast(injectorFactory);
+        }
         if (clazz == OpenWebBeansConfiguration.class)
         {
             return clazz.cast(openWebBeansConfiguration);
@@ -616,11 +730,13 @@ public class WebBeansContext
      */
     public void clear()
     {
+        notificationManager.shutdown();
         destroyServices(managerMap.values());
         destroyServices(serviceMap.values());
 
         managerMap.clear();
         serviceMap.clear();
+        servicesBound = false;
     }
 
     private void destroyServices(Collection<Object> services)
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.container;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.enterprise.inject.spi.Bean;
+
+import org.apache.webbeans.util.ClassUtil;
+
+/**
+ * Index of the deployed beans by the raw classes of their bean types and by their names.
+ *
+ * The {@link InjectionResolver} uses it to only check the beans which can possibly
+ * satisfy a required type instead of all deployed beans. A bean type can only satisfy
+ * a Class or ParameterizedType if it has the same raw class (primitives are treated like
+ * their wrappers), except for bean types which are TypeVariables, WildcardTypes or
+ * GenericArrayTypes. Beans with such a bean type are candidates for every required type.
+ *
+ * The lookup methods are lock free. Beans added after the index got built are added
+ * copy on write.
+ */
+class BeanIndex
+{
+    private volatile Map<Class<?>, List<Bean<?>>> beansByRawType;
+    private volatile Map<String, List<Bean<?>>> beansByName;
+
+    /**
+     * Beans with at least one bean type which is no Class or ParameterizedType.
+     */
+    private volatile List<Bean<?>> beansWithVariableTypes;
+
+    BeanIndex(Collection<Bean<?>> beans)
+    {
+        Map<Class<?>, List<Bean<?>>> byRawType = new HashMap<>();
+        Map<String, List<Bean<?>>> byName = new HashMap<>();
+        List<Bean<?>> withVariableTypes = new ArrayList<>();
+        for (Bean<?> bean : beans)
+        {
+            index(bean, byRawType, byName, withVariableTypes);
+        }
+        beansByRawType = byRawType;
+        beansByName = byName;
+        beansWithVariableTypes = withVariableTypes;
+    }
+
+    synchronized void add(Bean<?> bean)
+    {
+        Map<Class<?>, List<Bean<?>>> byRawType = new HashMap<>(beansByRawType);
+        Map<String, List<Bean<?>>> byName = new HashMap<>(beansByName);
+        List<Bean<?>> withVariableTypes = new ArrayList<>(beansWithVariableTypes);
+
+        // copy the lists which will get modified
+        for (Type type : bean.getTypes())
+        {
+            Class<?> rawType = getRawType(type);
+            if (rawType != null && byRawType.containsKey(rawType))
+            {
+                byRawType.put(rawType, new ArrayList<>(byRawType.get(rawType)));
+            }
+        }
+        if (bean.getName() != null && byName.containsKey(bean.getName()))
+        {
+            byName.put(bean.getName(), new ArrayList<>(byName.get(bean.getName())));
+        }
+
+        index(bean, byRawType, byName, withVariableTypes);
+        beansByRawType = byRawType;
+        beansByName = byName;
+        beansWithVariableTypes = withVariableTypes;
+    }
+
+    /**
+     * @return all beans which might satisfy the given required type
+     *         or {@code null} if the type cannot be looked up in the index
+     */
+    Collection<Bean<?>> getCandidates(Type requiredType)
+    {
+        Class<?> rawType = getRawType(requiredType);
+        if (rawType == null)
+        {
+            return null;
+        }
+
+        List<Bean<?>> byRawType = beansByRawType.getOrDefault(rawType, Collections.emptyList());
+        List<Bean<?>> withVariableTypes = beansWithVariableTypes;
+        if (withVariableTypes.isEmpty())
+        {
+            return byRawType;
+        }
+        if (byRawType.isEmpty())
+        {
+            return withVariableTypes;
+        }
+
+        Set<Bean<?>> candidates = new HashSet<>(byRawType);
+        candidates.addAll(withVariableTypes);
+        return candidates;
+    }
+
+    /**
+     * @return all beans with the given name
+     */
+    Collection<Bean<?>> getBeans(String name)
+    {
+        return beansByName.getOrDefault(name, Collections.emptyList());
+    }
+
+    private static void index(Bean<?> bean, Map<Class<?>, List<Bean<?>>> byRawType, Map<String, List<Bean<?>>> byName,
+                              List<Bean<?>> withVariableTypes)
+    {
+        boolean variableType = false;
+        Set<Class<?>> rawTypes = new HashSet<>();
+        for (Type type : bean.getTypes())
+        {
+            Class<?> rawType = getRawType(type);
+            if (rawType == null)
+            {
+                variableType = true;
+            }
+            else
+            {
+                rawTypes.add(rawType);
+            }
+        }
+
+        for (Class<?> rawType : rawTypes)
+        {
+            byRawType.computeIfAbsent(rawType, k -> new ArrayList<>()).add(bean);
+        }
+        if (variableType)
+        {
+            withVariableTypes.add(bean);
+        }
+        if (bean.getName() != null)
+        {
+            byName.computeIfAbsent(bean.getName(), k -> new ArrayList<>()).add(bean);
+        }
+    }
+
+    /**
+     * @return the raw class of a Class or ParameterizedType, the wrapper for primitives
+     *         and {@code null} for all other types
+     */
+    private static Class<?> getRawType(Type type)
+    {
+        if (type instanceof Class)
+        {
+            Class<?> clazz = (Class<?>) type;
+            return clazz.isPrimitive() ? ClassUtil.getPrimitiveWrapper(clazz) : clazz;
+        }
+        if (type instanceof ParameterizedType && ((ParameterizedType) type).getRawType() instanceof Class)
+        {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        }
+        return null;
+    }
+}
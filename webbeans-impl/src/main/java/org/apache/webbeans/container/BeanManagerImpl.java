@@ -21,6 +21,7 @@ package org.apache.webbeans.container;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -33,6 +34,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -40,7 +42,10 @@ import javax.el.ELResolver;
 import javax.el.ExpressionFactory;
 import javax.enterprise.context.ContextNotActiveException;
 import javax.enterprise.context.Dependent;
+import javax.enterprise.context.Destroyed;
+import javax.enterprise.context.Initialized;
 import javax.enterprise.context.NormalScope;
+import javax.enterprise.context.RequestScoped;
 import javax.enterprise.context.spi.AlterableContext;
 import javax.enterprise.context.spi.Context;
 import javax.enterprise.context.spi.Contextual;
@@ -48,6 +53,7 @@ import javax.enterprise.context.spi.CreationalContext;
 import javax.enterprise.event.Event;
 import javax.enterprise.inject.Default;
 import javax.enterprise.inject.InjectionException;
+import javax.enterprise.inject.AmbiguousResolutionException;
 import javax.enterprise.inject.Instance;
 import javax.enterprise.inject.Stereotype;
 import javax.enterprise.inject.Vetoed;
@@ -80,7 +86,9 @@ import org.apache.webbeans.component.creation.FieldProducerFactory;
 import org.apache.webbeans.component.creation.MethodProducerFactory;
 import org.apache.webbeans.component.third.PassivationCapableThirdpartyBeanImpl;
 import org.apache.webbeans.component.third.ThirdpartyBeanImpl;
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
 import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.context.AbstractContextsService;
 import org.apache.webbeans.context.CustomAlterablePassivatingContextImpl;
 import org.apache.webbeans.context.CustomPassivatingContextImpl;
 import org.apache.webbeans.context.creational.CreationalContextImpl;
@@ -98,6 +106,8 @@ import org.apache.webbeans.portable.LazyInterceptorDefinedInjectionTarget;
 import org.apache.webbeans.portable.events.discovery.ErrorStack;
 import org.apache.webbeans.portable.events.generics.GProcessInjectionPoint;
 import org.apache.webbeans.portable.events.generics.GProcessInjectionTarget;
+import org.apache.webbeans.spi.ContextsService;
+import org.apache.webbeans.spi.MetricsService;
 import org.apache.webbeans.spi.adaptor.ELAdaptor;
 import org.apache.webbeans.spi.plugins.OpenWebBeansEjbPlugin;
 import org.apache.webbeans.util.AnnotationUtil;
@@ -142,6 +152,42 @@ public class BeanManagerImpl implements BeanManager, Referenceable
      */
     private Map<Class<? extends Annotation>, Context> singleContextMap = new HashMap<>();
 
+    /**
+     * The slots of the custom scopes.
+     * The built-in scopes have fixed slots, see {@link AbstractContextsService#getBuiltInScopeSlot(Class)}.
+     * Slots never get removed to keep the slots cached by our proxies valid.
+     */
+    private final Map<Class<? extends Annotation>, Integer> scopeSlots = new ConcurrentHashMap<>();
+
+    /**
+     * The contexts of {@link #singleContextMap} indexed by their scope slot.
+     * Gets replaced as a whole whenever a context gets added.
+     */
+    private volatile Context[] singleContextSlots = new Context[AbstractContextsService.BUILT_IN_SCOPE_SLOTS];
+
+    /**
+     * The number of &#064;RequestScoped beans which got a contextual index.
+     * @see AbstractOwbBean#getContextualIndex()
+     */
+    private final AtomicInteger requestScopedBeanCount = new AtomicInteger();
+
+    /**
+     * Lazily read as the configuration is not yet available when this BeanManager gets created.
+     */
+    private volatile Boolean indexedRequestContext;
+
+    /**
+     * The index of each proxied bean in the per thread instance caches of our normal scoped proxies.
+     * Indexes never get removed to keep the indexes cached by our proxies valid.
+     */
+    private final Map<Bean<?>, Integer> proxyCacheIndexes = new ConcurrentHashMap<>();
+
+    /**
+     * The beans resolved by their EL name, built lazily after the deployment.
+     * Gets dropped whenever a bean gets added.
+     */
+    private volatile BeanNameTable beanNameTable;
+
     /**Deployment archive beans*/
     private Set<Bean<?>> deploymentBeans = new HashSet<>();
 
@@ -165,11 +211,14 @@ public class BeanManagerImpl implements BeanManager, Referenceable
      */
     private List<ExternalScope> additionalScopes = new ArrayList<>();
 
-    /** quick detection if an annotation is a scope-annotation  */
-    private Set<Class<? extends Annotation>> scopeAnnotations = new HashSet<>();
+    /**
+     * quick detection if an annotation is a scope-annotation.
+     * Concurrent as the parallel deployment checks scopes from multiple threads.
+     */
+    private Set<Class<? extends Annotation>> scopeAnnotations = ConcurrentHashMap.newKeySet();
 
     /** quick detection if an annotation is NOT a scope-annotation  */
-    private Set<Class<? extends Annotation>> nonscopeAnnotations = new HashSet<>();
+    private Set<Class<? extends Annotation>> nonscopeAnnotations = ConcurrentHashMap.newKeySet();
 
 
     private ConcurrentMap<Class<?>, ConcurrentMap<String, AnnotatedType<?>>> additionalAnnotatedTypes = new ConcurrentHashMap<>();
@@ -182,6 +231,14 @@ public class BeanManagerImpl implements BeanManager, Referenceable
      */
     private ConcurrentMap<String, Bean<?>> passivationBeans = new ConcurrentHashMap<>();
 
+    /**
+     * Passivation ids keyed by their 64 bit hash, see {@link #getCompactPassivationId(String)}.
+     * Hashes which are shared by more than one id are not usable and mapped to {@link #COLLIDING_PASSIVATION_ID}.
+     */
+    private ConcurrentMap<Long, String> compactPassivationIds = new ConcurrentHashMap<>();
+
+    private static final String COLLIDING_PASSIVATION_ID = "";
+
     /**InjectionTargets for Java EE component instances that supports injections*/
     private Map<Class<?>, Producer<?>> producersForJavaEeComponents =
         new ConcurrentHashMap<>();
@@ -281,7 +338,54 @@ public class BeanManagerImpl implements BeanManager, Referenceable
     {
         Asserts.assertNotNull(scopeType, "scopeType");
 
-        Context standardContext = webBeansContext.getContextsService().getCurrentContext(scopeType);
+        return getContext(getScopeSlot(scopeType), scopeType);
+    }
+
+    /**
+     * Resolves the slot of the given scope type.
+     * Custom scopes get a slot assigned the first time they are seen.
+     * The slot of a scope type does not change for the lifetime of this BeanManager.
+     *
+     * @param scopeType the scope annotation
+     * @return the slot to be used for {@link #getContext(int, Class)}
+     */
+    public int getScopeSlot(Class<? extends Annotation> scopeType)
+    {
+        int slot = AbstractContextsService.getBuiltInScopeSlot(scopeType);
+        if (slot >= 0)
+        {
+            return slot;
+        }
+
+        Integer customSlot = scopeSlots.get(scopeType);
+        if (customSlot == null)
+        {
+            synchronized (scopeSlots)
+            {
+                customSlot = scopeSlots.get(scopeType);
+                if (customSlot == null)
+                {
+                    customSlot = AbstractContextsService.BUILT_IN_SCOPE_SLOTS + scopeSlots.size();
+                    scopeSlots.put(scopeType, customSlot);
+                }
+            }
+        }
+        return customSlot;
+    }
+
+    /**
+     * Same as {@link #getContext(Class)} but with an already resolved scope slot.
+     *
+     * @param scopeSlot the slot of the scope as resolved via {@link #getScopeSlot(Class)}
+     * @param scopeType the scope annotation
+     * @return the active context for the given scope
+     */
+    public Context getContext(int scopeSlot, Class<? extends Annotation> scopeType)
+    {
+        ContextsService contextsService = webBeansContext.getContextsService();
+        Context standardContext = contextsService instanceof AbstractContextsService
+                ? ((AbstractContextsService) contextsService).getCurrentContext(scopeSlot, scopeType)
+                : contextsService.getCurrentContext(scopeType);
 
         if(standardContext != null && standardContext.isActive())
         {
@@ -289,7 +393,8 @@ public class BeanManagerImpl implements BeanManager, Referenceable
         }
 
         // this is by far the most case
-        Context singleContext = singleContextMap.get(scopeType);
+        Context[] singleContexts = singleContextSlots;
+        Context singleContext = scopeSlot < singleContexts.length ? singleContexts[scopeSlot] : null;
         if (singleContext != null)
         {
             if (!singleContext.isActive())
@@ -362,7 +467,12 @@ public class BeanManagerImpl implements BeanManager, Referenceable
         if(newBean instanceof AbstractOwbBean)
         {
             addPassivationInfo(newBean);
-            deploymentBeans.add(newBean);
+            assignContextualIndex((AbstractOwbBean<?>) newBean);
+            if (deploymentBeans.add(newBean))
+            {
+                injectionResolver.beanAdded(newBean);
+                beanNameTable = null;
+            }
         }
         else
         {
@@ -376,7 +486,12 @@ public class BeanManagerImpl implements BeanManager, Referenceable
                 bean = new PassivationCapableThirdpartyBeanImpl<>(webBeansContext, newBean);
             }
             addPassivationInfo(bean);
-            deploymentBeans.add(bean);
+            assignContextualIndex(bean);
+            if (deploymentBeans.add(bean))
+            {
+                injectionResolver.beanAdded(bean);
+                beanNameTable = null;
+            }
             thirdPartyMapping.put(newBean, bean);
         }
 
@@ -384,6 +499,57 @@ public class BeanManagerImpl implements BeanManager, Referenceable
     }
 
 
+    private void assignContextualIndex(AbstractOwbBean<?> bean)
+    {
+        if (bean.getContextualIndex() < 0 && RequestScoped.class == bean.getScope() && isIndexedRequestContext())
+        {
+            bean.setContextualIndex(requestScopedBeanCount.getAndIncrement());
+        }
+    }
+
+    private boolean isIndexedRequestContext()
+    {
+        if (indexedRequestContext == null)
+        {
+            indexedRequestContext = !"false".equalsIgnoreCase(webBeansContext.getOpenWebBeansConfiguration()
+                    .getProperty(OpenWebBeansConfiguration.INDEXED_REQUEST_CONTEXT));
+        }
+        return indexedRequestContext;
+    }
+
+    /**
+     * @return the number of &#064;RequestScoped beans which got a contextual index so far
+     */
+    public int getRequestScopedBeanCount()
+    {
+        return requestScopedBeanCount.get();
+    }
+
+    /**
+     * Resolves the dense index of the given bean which gets used by our normal scoped proxies
+     * to address their per thread instance caches.
+     *
+     * @param bean the proxied bean
+     * @return the index of the bean, it does not change for the lifetime of this BeanManager
+     */
+    public int getProxyCacheIndex(Bean<?> bean)
+    {
+        Integer index = proxyCacheIndexes.get(bean);
+        if (index == null)
+        {
+            synchronized (proxyCacheIndexes)
+            {
+                index = proxyCacheIndexes.get(bean);
+                if (index == null)
+                {
+                    index = proxyCacheIndexes.size();
+                    proxyCacheIndexes.put(bean, index);
+                }
+            }
+        }
+        return index;
+    }
+
     /**
      * Check if the bean is has a passivation id and add it to the id store.
      *
@@ -410,9 +576,53 @@ public class BeanManagerImpl implements BeanManager, Referenceable
                 throw new DuplicateDefinitionException("PassivationCapable bean id is not unique: " +
                         id + " bean:" + bean + ", existing: " + oldBean);
             }
+
+            long compactId = hashPassivationId(id);
+            String existingId = compactPassivationIds.putIfAbsent(compactId, id);
+            if (existingId != null && !existingId.equals(id))
+            {
+                compactPassivationIds.put(compactId, COLLIDING_PASSIVATION_ID);
+            }
         }
     }
 
+    /**
+     * A compact identity for a passivation capable bean, e.g. for session replication.
+     * It is the same on every node which runs the same deployment.
+     *
+     * @param id the passivation id of a registered bean
+     * @return the 64 bit compact id or {@code null} if the id is unknown or its hash is not unique
+     */
+    public Long getCompactPassivationId(String id)
+    {
+        long compactId = hashPassivationId(id);
+        return id.equals(compactPassivationIds.get(compactId)) ? compactId : null;
+    }
+
+    /**
+     * @param compactId as returned by {@link #getCompactPassivationId(String)}
+     * @return the bean or {@code null} if there is no bean for this compact id
+     */
+    public Bean<?> getPassivationCapableBean(long compactId)
+    {
+        String id = compactPassivationIds.get(compactId);
+        return id == null ? null : passivationBeans.get(id);
+    }
+
+    /**
+     * 64 bit FNV-1a hash over the chars of the id.
+     */
+    private static long hashPassivationId(String id)
+    {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); i++)
+        {
+            hash ^= id.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
 
     public BeanManager addContext(Context context)
     {
@@ -474,6 +684,19 @@ public class BeanManagerImpl implements BeanManager, Referenceable
      */
     public void fireContextLifecyleEvent(Object payload, Annotation lifecycleQualifier)
     {
+        MetricsService metricsService = webBeansContext.getMetricsService();
+        if (metricsService != null)
+        {
+            if (lifecycleQualifier instanceof Initialized)
+            {
+                metricsService.contextInitialized(((Initialized) lifecycleQualifier).value());
+            }
+            else if (lifecycleQualifier instanceof Destroyed)
+            {
+                metricsService.contextDestroyed(((Destroyed) lifecycleQualifier).value());
+            }
+        }
+
         if (webBeansContext.getNotificationManager().hasContextLifecycleObserver(lifecycleQualifier))
         {
             fireEvent(payload, lifecycleQualifier);
@@ -551,6 +774,7 @@ public class BeanManagerImpl implements BeanManager, Referenceable
             {
                 // first put them into the singleContextMap
                 singleContextMap.put(scopeType, context);
+                setSingleContextSlot(scopeType, context);
             }
             else
             {
@@ -561,6 +785,7 @@ public class BeanManagerImpl implements BeanManager, Referenceable
 
                 contextMap.put(scopeType, contextList);
                 singleContextMap.remove(scopeType);
+                setSingleContextSlot(scopeType, null);
             }
         }
         else
@@ -570,6 +795,15 @@ public class BeanManagerImpl implements BeanManager, Referenceable
 
     }
 
+    private void setSingleContextSlot(Class<? extends Annotation> scopeType, Context context)
+    {
+        int slot = getScopeSlot(scopeType);
+        Context[] singleContexts = singleContextSlots;
+        Context[] newSingleContexts = Arrays.copyOf(singleContexts, Math.max(singleContexts.length, slot + 1));
+        newSingleContexts[slot] = context;
+        singleContextSlots = newSingleContexts;
+    }
+
     @Override
     public Reference getReference() throws NamingException
     {
@@ -624,6 +858,40 @@ public class BeanManagerImpl implements BeanManager, Referenceable
         return injectionResolver.implResolveByName(name);
     }
 
+    /**
+     * Resolves the bean with the given EL name like {@code resolve(getBeans(name))} would do.
+     * After the deployment got validated this is a plain lookup in an immutable table of all named beans,
+     * so the EL resolver does not need to go through the resolution logic for each expression.
+     *
+     * @param name the EL name of the bean
+     * @return the resolved bean or {@code null} if there is no bean with this name
+     * @throws AmbiguousResolutionException if the name is ambiguous
+     */
+    public Bean<?> getBeanByName(String name)
+    {
+        Asserts.assertNotNull(name, "name");
+
+        if (!afterDeploymentValidationFired)
+        {
+            return resolve(getBeans(name));
+        }
+
+        BeanNameTable table = beanNameTable;
+        if (table == null)
+        {
+            table = new BeanNameTable();
+            beanNameTable = table;
+        }
+
+        Bean<?> bean = table.beans.get(name);
+        if (bean == null && table.ambiguousNames.contains(name))
+        {
+            // let the resolver report it properly
+            return resolve(getBeans(name));
+        }
+        return bean;
+    }
+
     @Override
     public ELResolver getELResolver()
     {
@@ -755,8 +1023,8 @@ public class BeanManagerImpl implements BeanManager, Referenceable
             boolean isProducer = AbstractProducerBean.class.isInstance(bean);
             if(!isProducer && // we have different rules for producers
                !isBeanTypeAssignableToGivenType(bean.getTypes(), beanType, bean instanceof NewBean, isProducer) &&
-               !GenericsUtil.satisfiesDependency(false, isProducer, beanType, bean.getBeanClass(), new HashMap<>()) &&
-               !GenericsUtil.satisfiesDependencyRaw(false, isProducer, beanType, bean.getBeanClass(), new HashMap<>()))
+               !webBeansContext.getTypeAssignabilityCache().satisfiesDependency(false, isProducer, beanType, bean.getBeanClass()) &&
+               !webBeansContext.getTypeAssignabilityCache().satisfiesDependencyRaw(false, isProducer, beanType, bean.getBeanClass()))
             {
                 throw new IllegalArgumentException("Given bean type : " + beanType + " is not applicable for the bean instance : " + bean);
             }
@@ -934,7 +1202,7 @@ public class BeanManagerImpl implements BeanManager, Referenceable
     {
         for (Type beanApiType : beanTypes)
         {
-            if (GenericsUtil.satisfiesDependency(false, producer, givenType, beanApiType, new HashMap<>()))
+            if (webBeansContext.getTypeAssignabilityCache().satisfiesDependency(false, producer, givenType, beanApiType))
             {
                 return true;
             }
@@ -1459,18 +1727,22 @@ public class BeanManagerImpl implements BeanManager, Referenceable
         scopeAnnotations.clear();
         nonscopeAnnotations.clear();
         clearCacheProxies();
+        beanNameTable = null;
         singleContextMap.clear();
+        singleContextSlots = new Context[AbstractContextsService.BUILT_IN_SCOPE_SLOTS];
         contextMap.clear();
         deploymentBeans.clear();
         errorStack.clear();
         producersForJavaEeComponents.clear();
         passivationBeans.clear();
+        compactPassivationIds.clear();
         webBeansContext.getInterceptorsManager().clear();
         webBeansContext.getDecoratorsManager().clear();
         webBeansContext.getAnnotatedElementFactory().clear();
 
         injectionResolver.clearCaches();
         webBeansContext.getAnnotationManager().clearCaches();
+        webBeansContext.getTypeAssignabilityCache().clear();
 
         // finally destroy all SPI services
         webBeansContext.clear();
@@ -1520,4 +1792,46 @@ public class BeanManagerImpl implements BeanManager, Referenceable
     {
         BEFORE_DISCOVERY, DISCOVERY, AFTER_DISCOVERY
     }
+
+    /**
+     * Immutable table of all named beans, resolved once.
+     */
+    private final class BeanNameTable
+    {
+        private final Map<String, Bean<?>> beans;
+        private final Set<String> ambiguousNames;
+
+        private BeanNameTable()
+        {
+            Set<String> names = new HashSet<>();
+            for (Bean<?> bean : getBeans())
+            {
+                if (bean.getName() != null)
+                {
+                    names.add(bean.getName());
+                }
+            }
+
+            Map<String, Bean<?>> resolvedBeans = new HashMap<>(names.size() * 2);
+            Set<String> ambiguous = new HashSet<>();
+            for (String name : names)
+            {
+                try
+                {
+                    Bean<?> bean = resolve(getBeans(name));
+                    if (bean != null)
+                    {
+                        resolvedBeans.put(name, bean);
+                    }
+                }
+                catch (AmbiguousResolutionException e)
+                {
+                    ambiguous.add(name);
+                }
+            }
+
+            beans = resolvedBeans;
+            ambiguousNames = ambiguous;
+        }
+    }
 }
@@ -25,6 +25,7 @@ import org.apache.webbeans.component.AbstractProducerBean;
 import org.apache.webbeans.component.InjectionTargetBean;
 import org.apache.webbeans.component.ManagedBean;
 import org.apache.webbeans.component.OwbBean;
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
 import org.apache.webbeans.config.WebBeansContext;
 import org.apache.webbeans.exception.WebBeansConfigurationException;
 import org.apache.webbeans.exception.WebBeansDeploymentException;
@@ -53,14 +54,12 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.lang.reflect.WildcardType;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -88,17 +87,23 @@ public class InjectionResolver
     private AlternativesManager alternativesManager;
     
     /**
-     * This Map contains all resolved beans via it's type and qualifiers.
+     * This cache contains all resolved beans via it's type and qualifiers.
      * If a bean have resolved as not existing, the entry will contain <code>null</code> as value.
      * The Long key is a hashCode, see
      * {@link BeanCacheKey#BeanCacheKey(boolean, Type, String, java.util.function.Function, Annotation...)}
      */
-    private Map<BeanCacheKey, Set<Bean<?>>> resolvedBeansByType = new ConcurrentHashMap<>();
+    private volatile ResolutionCache<BeanCacheKey, Set<Bean<?>>> resolvedBeansByType;
 
     /**
-     * This Map contains all resolved beans via it's ExpressionLanguage name.
+     * This cache contains all resolved beans via it's ExpressionLanguage name.
      */
-    private Map<String, Set<Bean<?>>> resolvedBeansByName = new ConcurrentHashMap<>();
+    private volatile ResolutionCache<String, Set<Bean<?>>> resolvedBeansByName;
+
+    /**
+     * Index of the deployed beans by their raw bean types and names.
+     * Only used once the set of Beans is final, lazily built on the first cache miss.
+     */
+    private volatile BeanIndex beanIndex;
 
     /**
      * Whether the container is in startup mode.
@@ -141,8 +146,98 @@ public class InjectionResolver
      */
     public void clearCaches()
     {
-        resolvedBeansByName.clear();
-        resolvedBeansByType.clear();
+        if (resolvedBeansByType != null)
+        {
+            resolvedBeansByName.clear();
+            resolvedBeansByType.clear();
+        }
+        beanIndex = null;
+    }
+
+    /**
+     * Adds a Bean which got registered after the index of all beans got built.
+     */
+    public void beanAdded(Bean<?> bean)
+    {
+        BeanIndex index = beanIndex;
+        if (index != null)
+        {
+            index.add(bean);
+        }
+
+        // the new bean might change already resolved results
+        if (resolvedBeansByType != null)
+        {
+            resolvedBeansByName.clear();
+            resolvedBeansByType.clear();
+        }
+    }
+
+    /**
+     * @return the cache of the beans resolved by type and qualifiers, e.g. to monitor its hit ratio
+     */
+    public ResolutionCache<BeanCacheKey, Set<Bean<?>>> getResolvedBeansByTypeCache()
+    {
+        if (resolvedBeansByType == null)
+        {
+            initCaches();
+        }
+        return resolvedBeansByType;
+    }
+
+    /**
+     * @return the cache of the beans resolved by name, e.g. to monitor its hit ratio
+     */
+    public ResolutionCache<String, Set<Bean<?>>> getResolvedBeansByNameCache()
+    {
+        if (resolvedBeansByType == null)
+        {
+            initCaches();
+        }
+        return resolvedBeansByName;
+    }
+
+    /**
+     * The caches get created lazily as the configuration is not yet available
+     * when the BeanManagerImpl and this resolver get created.
+     */
+    private synchronized void initCaches()
+    {
+        if (resolvedBeansByType != null)
+        {
+            return;
+        }
+
+        int cacheSize;
+        try
+        {
+            cacheSize = Integer.parseInt(webBeansContext.getOpenWebBeansConfiguration().
+                    getProperty(OpenWebBeansConfiguration.RESOLUTION_CACHE_SIZE, "10000"));
+        }
+        catch (NumberFormatException e)
+        {
+            cacheSize = 10000;
+        }
+        resolvedBeansByName = new ResolutionCache<>(cacheSize);
+        resolvedBeansByType = new ResolutionCache<>(cacheSize);
+    }
+
+    private BeanIndex getBeanIndex()
+    {
+        BeanIndex index = beanIndex;
+        if (index == null)
+        {
+            synchronized (this)
+            {
+                index = beanIndex;
+                if (index == null)
+                {
+                    index = new BeanIndex(webBeansContext.getBeanManagerImpl().getBeans());
+                    beanIndex = index;
+                }
+            }
+        }
+        return index;
     }
 
     /**
@@ -368,14 +463,15 @@ public class InjectionResolver
         Asserts.assertNotNull(name, "name parameter");
 
         String cacheKey = name;
-        Set<Bean<?>> resolvedComponents = resolvedBeansByName.get(cacheKey);
+        Set<Bean<?>> resolvedComponents = getResolvedBeansByNameCache().get(cacheKey);
         if (resolvedComponents != null)
         {
             return resolvedComponents;
         }
 
         resolvedComponents = new HashSet<>();
-        Set<Bean<?>> deployedComponents = webBeansContext.getBeanManagerImpl().getBeans();
+        Collection<Bean<?>> deployedComponents = startup ?
+            webBeansContext.getBeanManagerImpl().getBeans() : getBeanIndex().getBeans(name);
 
         //Finding all beans with given name
         for (Bean<?> component : deployedComponents)
@@ -392,11 +488,11 @@ public class InjectionResolver
         if (resolvedComponents.isEmpty())
         {
             // maintain negative cache but use standard empty set so we can garbage collect
-            resolvedBeansByName.put(cacheKey, Collections.EMPTY_SET);
+            getResolvedBeansByNameCache().put(cacheKey, Collections.EMPTY_SET);
         }
         else
         {
-            resolvedBeansByName.put(cacheKey, resolvedComponents);
+            getResolvedBeansByNameCache().put(cacheKey, resolvedComponents);
         }
         if (logger.isLoggable(Level.FINE))
         {
@@ -468,7 +564,7 @@ public class InjectionResolver
 
             cacheKey = new BeanCacheKey(isDelegate, injectionPointType, bdaBeansXMLFilePath, this::findQualifierModel, qualifiers);
 
-            resolvedComponents = resolvedBeansByType.get(cacheKey);
+            resolvedComponents = getResolvedBeansByTypeCache().get(cacheKey);
             if (resolvedComponents != null)
             {
                 return resolvedComponents;
@@ -479,7 +575,13 @@ public class InjectionResolver
 
         boolean returnAll = injectionPointType.equals(Object.class) && currentQualifier;
 
-        for (Bean<?> component : webBeansContext.getBeanManagerImpl().getBeans())
+        Collection<Bean<?>> candidates = startup || returnAll ? null : getBeanIndex().getCandidates(injectionPointType);
+        if (candidates == null)
+        {
+            candidates = webBeansContext.getBeanManagerImpl().getBeans();
+        }
+
+        for (Bean<?> component : candidates)
         {
             // no need to check instanceof OwbBean as we always wrap in a
             // ThirdpartyBeanImpl at least
@@ -511,9 +613,9 @@ public class InjectionResolver
                     for (Type componentApiType : component.getTypes())
                     {
 
-                        if (GenericsUtil.satisfiesDependency(
+                        if (webBeansContext.getTypeAssignabilityCache().satisfiesDependency(
                                 isDelegate, AbstractProducerBean.class.isInstance(component),
-                                injectionPointType, componentApiType, new HashMap<>()))
+                                injectionPointType, componentApiType))
                         {
                             resolvedComponents.add(component);
                             break;
@@ -558,7 +660,7 @@ public class InjectionResolver
 
         if (!startup && !resolvedComponents.isEmpty())
         {
-            resolvedBeansByType.put(cacheKey, resolvedComponents);
+            getResolvedBeansByTypeCache().put(cacheKey, resolvedComponents);
 
             if (logger.isLoggable(Level.FINE))
             {
@@ -598,7 +700,7 @@ public class InjectionResolver
             boolean isProducer = AbstractProducerBean.class.isInstance(bean);
             for (Type type : bean.getTypes())
             {
-                if (GenericsUtil.satisfiesDependency(isDelegate, isProducer, injectionPointType, type, new HashMap<>()))
+                if (webBeansContext.getTypeAssignabilityCache().satisfiesDependency(isDelegate, isProducer, injectionPointType, type))
                 {
                     resolved.add(bean);
                 }
@@ -624,7 +726,7 @@ public class InjectionResolver
             for (Type componentApiType : component.getTypes())
             {
 
-                if (GenericsUtil.satisfiesDependency(isDelegate, isProducer, injectionPointType, componentApiType, new HashMap<>()))
+                if (webBeansContext.getTypeAssignabilityCache().satisfiesDependency(isDelegate, isProducer, injectionPointType, componentApiType))
                 {
                     resolvedComponents.add(component);
                     break;
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.container;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A size bounded cache for the results of the bean resolution.
+ *
+ * Eviction uses the CLOCK algorithm (also known as second chance), an approximation of LRU:
+ * a hit only marks the entry as referenced, so lookups stay lock free. Once the cache grows
+ * beyond its maximum size the entries get visited in insertion order. Referenced entries
+ * get another chance and are moved to the end of the queue, all others get evicted.
+ *
+ * Hits, misses and evictions are counted.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class ResolutionCache<K, V>
+{
+    private final int maxSize;
+
+    private final ConcurrentMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * The keys in the order they get visited for the eviction.
+     * Only used if the cache is bounded.
+     */
+    private final Queue<K> clock = new ConcurrentLinkedQueue<>();
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxSize the maximum number of entries, {@code 0} or less for an unbounded cache
+     */
+    public ResolutionCache(int maxSize)
+    {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return the cached value or {@code null} if there is none
+     */
+    public V get(K key)
+    {
+        Entry<V> entry = entries.get(key);
+        if (entry == null)
+        {
+            misses.increment();
+            return null;
+        }
+
+        if (!entry.referenced)
+        {
+            entry.referenced = true;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    public void put(K key, V value)
+    {
+        Entry<V> previous = entries.put(key, new Entry<>(value));
+        if (previous == null && maxSize > 0)
+        {
+            clock.add(key);
+            if (entries.size() > maxSize)
+            {
+                evict();
+            }
+        }
+    }
+
+    public void clear()
+    {
+        entries.clear();
+        clock.clear();
+    }
+
+    public int size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * @return the maximum number of entries, {@code 0} or less if the cache is unbounded
+     */
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    public long getHitCount()
+    {
+        return hits.sum();
+    }
+
+    public long getMissCount()
+    {
+        return misses.sum();
+    }
+
+    public long getEvictionCount()
+    {
+        return evictions.sum();
+    }
+
+    private void evict()
+    {
+        if (!evictionLock.tryLock())
+        {
+            // another thread is evicting already
+            return;
+        }
+
+        try
+        {
+            while (entries.size() > maxSize)
+            {
+                K key = clock.poll();
+                if (key == null)
+                {
+                    break;
+                }
+
+                Entry<V> entry = entries.get(key);
+                if (entry == null)
+                {
+                    // got cleared in the meantime
+                    continue;
+                }
+                if (entry.referenced)
+                {
+                    entry.referenced = false;
+                    clock.add(key);
+                }
+                else if (entries.remove(key, entry))
+                {
+                    evictions.increment();
+                }
+            }
+        }
+        finally
+        {
+            evictionLock.unlock();
+        }
+    }
+
+    private static final class Entry<V>
+    {
+        private final V value;
+        private volatile boolean referenced;
+
+        private Entry(V value)
+        {
+            this.value = value;
+        }
+    }
+}
@@ -22,9 +22,14 @@ import java.lang.annotation.Annotation;
 import java.util.Iterator;
 import java.util.Set;
 
+import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.context.ContextException;
+import javax.enterprise.context.ConversationScoped;
+import javax.enterprise.context.Dependent;
+import javax.enterprise.context.RequestScoped;
 import javax.enterprise.context.SessionScoped;
 import javax.enterprise.context.spi.Context;
+import javax.inject.Singleton;
 
 import org.apache.webbeans.annotation.BeforeDestroyedLiteral;
 import org.apache.webbeans.annotation.DestroyedLiteral;
@@ -37,6 +42,24 @@ import org.apache.webbeans.spi.ContextsService;
 
 public abstract class AbstractContextsService implements ContextsService
 {
+    /**
+     * Scope slots of the built-in scopes.
+     * Custom scopes get their slots assigned by the
+     * {@link org.apache.webbeans.container.BeanManagerImpl} starting with {@link #BUILT_IN_SCOPE_SLOTS}.
+     * @see #getCurrentContext(int, Class)
+     */
+    public static final int REQUEST_SCOPE_SLOT = 0;
+    public static final int SESSION_SCOPE_SLOT = 1;
+    public static final int APPLICATION_SCOPE_SLOT = 2;
+    public static final int CONVERSATION_SCOPE_SLOT = 3;
+    public static final int DEPENDENT_SCOPE_SLOT = 4;
+    public static final int SINGLETON_SCOPE_SLOT = 5;
+
+    /**
+     * The number of built-in scope slots.
+     */
+    public static final int BUILT_IN_SCOPE_SLOTS = 6;
+
     protected final WebBeansContext webBeansContext;
 
     protected boolean supportsConversation;
@@ -75,6 +98,73 @@ public abstract class AbstractContextsService implements ContextsService
         return getCurrentContext(scopeType);
     }
 
+    /**
+     * Gets the current context for the given scope slot.
+     * This is a fast path for callers which already resolved the slot of the scope,
+     * e.g. our normal scoped proxies.
+     * Subclasses which override {@link #getCurrentContext(Class)} should also override this method
+     * if they can resolve the context for a built-in slot without checking the scope type.
+     *
+     * @param scopeSlot the slot of the scope, see {@link #getBuiltInScopeSlot(Class)}
+     * @param scopeType context scope type
+     * @return current context with given scope type
+     */
+    public Context getCurrentContext(int scopeSlot, Class<? extends Annotation> scopeType)
+    {
+        return getCurrentContext(scopeType);
+    }
+
+    /**
+     * An implementation of {@link #getCurrentContext(int, Class)} which resolves the built-in slots itself
+     * must not bypass a subclass which changes the context resolution in {@link #getCurrentContext(Class)}.
+     *
+     * @param slotLookupClass the class which implements both methods
+     * @return {@code true} if {@link #getCurrentContext(Class)} is not overridden below the given class
+     */
+    protected boolean isSlotLookupSafe(Class<? extends AbstractContextsService> slotLookupClass)
+    {
+        try
+        {
+            return getClass().getMethod("getCurrentContext", Class.class).getDeclaringClass() == slotLookupClass;
+        }
+        catch (NoSuchMethodException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * @return the slot of the given built-in scope or {@code -1} if it is not a built-in scope
+     */
+    public static int getBuiltInScopeSlot(Class<? extends Annotation> scopeType)
+    {
+        if (scopeType == RequestScoped.class)
+        {
+            return REQUEST_SCOPE_SLOT;
+        }
+        if (scopeType == SessionScoped.class)
+        {
+            return SESSION_SCOPE_SLOT;
+        }
+        if (scopeType == ApplicationScoped.class)
+        {
+            return APPLICATION_SCOPE_SLOT;
+        }
+        if (scopeType == ConversationScoped.class)
+        {
+            return CONVERSATION_SCOPE_SLOT;
+        }
+        if (scopeType == Dependent.class)
+        {
+            return DEPENDENT_SCOPE_SLOT;
+        }
+        if (scopeType == Singleton.class)
+        {
+            return SINGLETON_SCOPE_SLOT;
+        }
+        return -1;
+    }
+
     @Override
     public void init(Object initializeObject)
     {
@@ -93,6 +183,42 @@ public abstract class AbstractContextsService implements ContextsService
         // no ThreadLocals to clean up by default
     }
 
+    /**
+     * @return whether the given request context can get attached to another thread
+     * @see #attachRequestContext(RequestContext)
+     */
+    public boolean canAttachRequestContext(RequestContext requestContext)
+    {
+        return false;
+    }
+
+    /**
+     * Make the given request context the active one of the current thread,
+     * e.g. to propagate it to an asynchronous observer.
+     * The context still belongs to the thread which started it, it will neither
+     * get destroyed nor fire any lifecycle events when it gets detached again.
+     *
+     * @return the request context which was active on the current thread before, might be {@code null}
+     * @throws UnsupportedOperationException if {@link #canAttachRequestContext(RequestContext)} is {@code false}
+     * @see #detachRequestContext(RequestContext)
+     */
+    public RequestContext attachRequestContext(RequestContext requestContext)
+    {
+        throw new UnsupportedOperationException("Attaching a request context is not supported by " + getClass().getName());
+    }
+
+    /**
+     * Remove a request context attached via {@link #attachRequestContext(RequestContext)}
+     * from the current thread without destroying it.
+     *
+     * @param previousRequestContext the context returned by {@link #attachRequestContext(RequestContext)},
+     *                               it becomes the active one of the current thread again
+     */
+    public void detachRequestContext(RequestContext previousRequestContext)
+    {
+        // nothing to do by default
+    }
+
     @Override
     public void setSupportConversations(boolean supportConversations)
     {
@@ -101,14 +227,15 @@ public abstract class AbstractContextsService implements ContextsService
 
     /**
      * Destroy inactive (timed out) conversations.
+     * If the {@link org.apache.webbeans.conversation.ConversationReaper} runs in the background
+     * we leave this to it and only take care of the current conversation.
      */
     public void destroyOutdatedConversations(ConversationContext currentConversationContext)
     {
-        ConversationManager conversationManager = null;
+        ConversationManager conversationManager = webBeansContext.getConversationManager();
         Context sessionContext = getCurrentContext(SessionScoped.class, false);
-        if (sessionContext != null && sessionContext.isActive())
+        if (sessionContext != null && sessionContext.isActive() && !conversationManager.getConversationReaper().isScheduled())
         {
-            conversationManager = webBeansContext.getConversationManager();
             Set<ConversationContext> conversationContexts = conversationManager.getSessionConversations(sessionContext, false);
             if (conversationContexts != null)
             {
@@ -132,7 +259,6 @@ public abstract class AbstractContextsService implements ContextsService
             currentConversationContext.getConversation().iDontUseItAnymore();
             if (currentConversationContext.getConversation().isTransient())
             {
-                conversationManager = conversationManager != null ? conversationManager : webBeansContext.getConversationManager();
                 conversationManager.destroyConversationContext(currentConversationContext);
             }
         }
@@ -22,11 +22,14 @@ import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.enterprise.context.ConversationScoped;
+import javax.enterprise.context.spi.Contextual;
 
 import org.apache.webbeans.config.WebBeansContext;
 import org.apache.webbeans.conversation.ConversationImpl;
+import org.apache.webbeans.spi.api.CacheableContext;
 
 /**
  * Conversation context implementation.
@@ -34,12 +37,17 @@ import org.apache.webbeans.conversation.ConversationImpl;
  * It should not be confused with the Map of conversationId -> Conversation
  * which we internally store in the SessionContext.
  */
-public class ConversationContext extends PassivatingContext
+public class ConversationContext extends PassivatingContext implements CacheableContext
 {
     private static final long serialVersionUID = 2L;
 
     private ConversationImpl conversation;
 
+    /**
+     * Changes whenever a contextual instance got destroyed, see {@link CacheableContext}
+     */
+    private final transient AtomicLong cacheEpoch = new AtomicLong();
+
     // for serialisation
     public ConversationContext()
     {
@@ -66,6 +74,21 @@ public class ConversationContext extends PassivatingContext
         return conversation;
     }
 
+    @Override
+    public long getCacheEpoch()
+    {
+        return cacheEpoch.get();
+    }
+
+    @Override
+    public void destroyInstance(Contextual<?> contextual)
+    {
+        super.destroyInstance(contextual);
+
+        // only after the instance is gone, otherwise a proxy could cache it again
+        cacheEpoch.incrementAndGet();
+    }
+
 
     @Override
     public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException
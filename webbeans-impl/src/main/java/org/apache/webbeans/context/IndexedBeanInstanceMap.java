@@ -0,0 +1,324 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.context;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+
+import javax.enterprise.context.spi.Contextual;
+
+import org.apache.webbeans.component.AbstractOwbBean;
+import org.apache.webbeans.context.creational.BeanInstanceBag;
+
+/**
+ * Instance storage of a context which keeps the bags of all beans with a
+ * {@link AbstractOwbBean#getContextualIndex() contextual index} in an array slot.
+ * All other Contextuals get stored in a ConcurrentHashMap.
+ *
+ * Reads are lock free. Writes are rare (once per bean and context) and synchronized,
+ * so the storage can also be used if a context gets touched by multiple threads,
+ * e.g. by asynchronous servlets or CompletableFutures.
+ * The instances can get removed while iterating over the storage.
+ */
+public class IndexedBeanInstanceMap extends AbstractMap<Contextual<?>, BeanInstanceBag<?>>
+    implements ConcurrentMap<Contextual<?>, BeanInstanceBag<?>>
+{
+    private static final Slots EMPTY_SLOTS = new Slots(0);
+
+    private volatile Slots slots = EMPTY_SLOTS;
+
+    /**
+     * Contextuals without index, created on first use.
+     */
+    private volatile ConcurrentMap<Contextual<?>, BeanInstanceBag<?>> others;
+
+    private volatile int size;
+
+    private static int getIndex(Object contextual)
+    {
+        return contextual instanceof AbstractOwbBean ? ((AbstractOwbBean<?>) contextual).getContextualIndex() : -1;
+    }
+
+    @Override
+    public BeanInstanceBag<?> get(Object contextual)
+    {
+        int index = getIndex(contextual);
+        if (index >= 0)
+        {
+            Slots current = slots;
+            return index < current.length ? current.bags.get(index) : null;
+        }
+
+        ConcurrentMap<Contextual<?>, BeanInstanceBag<?>> currentOthers = others;
+        return currentOthers != null && contextual != null ? currentOthers.get(contextual) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object contextual)
+    {
+        return get(contextual) != null;
+    }
+
+    @Override
+    public synchronized BeanInstanceBag<?> put(Contextual<?> contextual, BeanInstanceBag<?> bag)
+    {
+        Objects.requireNonNull(bag, "bag");
+        int index = getIndex(contextual);
+        BeanInstanceBag<?> previous;
+        if (index >= 0)
+        {
+            Slots current = getSlots((AbstractOwbBean<?>) contextual, index);
+            previous = current.bags.getAndSet(index, bag);
+            current.contextuals.set(index, contextual);
+        }
+        else
+        {
+            previous = getOthers().put(contextual, bag);
+        }
+
+        if (previous == null)
+        {
+            size++;
+        }
+        return previous;
+    }
+
+    @Override
+    public synchronized BeanInstanceBag<?> putIfAbsent(Contextual<?> contextual, BeanInstanceBag<?> bag)
+    {
+        BeanInstanceBag<?> existing = get(contextual);
+        if (existing != null)
+        {
+            return existing;
+        }
+        put(contextual, bag);
+        return null;
+    }
+
+    @Override
+    public synchronized BeanInstanceBag<?> remove(Object contextual)
+    {
+        int index = getIndex(contextual);
+        BeanInstanceBag<?> previous;
+        if (index >= 0)
+        {
+            Slots current = slots;
+            if (index >= current.length)
+            {
+                return null;
+            }
+            previous = current.bags.getAndSet(index, null);
+            current.contextuals.set(index, null);
+        }
+        else
+        {
+            previous = others != null && contextual != null ? others.remove(contextual) : null;
+        }
+
+        if (previous != null)
+        {
+            size--;
+        }
+        return previous;
+    }
+
+    @Override
+    public synchronized boolean remove(Object contextual, Object bag)
+    {
+        if (bag != null && bag.equals(get(contextual)))
+        {
+            remove(contextual);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized boolean replace(Contextual<?> contextual, BeanInstanceBag<?> oldBag, BeanInstanceBag<?> newBag)
+    {
+        if (oldBag != null && oldBag.equals(get(contextual)))
+        {
+            put(contextual, newBag);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized BeanInstanceBag<?> replace(Contextual<?> contextual, BeanInstanceBag<?> bag)
+    {
+        return get(contextual) != null ? put(contextual, bag) : null;
+    }
+
+    @Override
+    public synchronized void clear()
+    {
+        slots = EMPTY_SLOTS;
+        others = null;
+        size = 0;
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * Sweeps over the array slots and then over the Contextuals without index.
+     * The action may remove the current entry.
+     */
+    @Override
+    public void forEach(BiConsumer<? super Contextual<?>, ? super BeanInstanceBag<?>> action)
+    {
+        Slots current = slots;
+        for (int i = 0; i < current.length; i++)
+        {
+            BeanInstanceBag<?> bag = current.bags.get(i);
+            if (bag != null)
+            {
+                action.accept(current.contextuals.get(i), bag);
+            }
+        }
+
+        ConcurrentMap<Contextual<?>, BeanInstanceBag<?>> currentOthers = others;
+        if (currentOthers != null)
+        {
+            currentOthers.forEach(action);
+        }
+    }
+
+    @Override
+    public Set<Entry<Contextual<?>, BeanInstanceBag<?>>> entrySet()
+    {
+        return new EntrySet();
+    }
+
+    /**
+     * Must be called while holding the lock.
+     * @return slots which have room for the given index
+     */
+    private Slots getSlots(AbstractOwbBean<?> contextual, int index)
+    {
+        Slots current = slots;
+        if (index < current.length)
+        {
+            return current;
+        }
+
+        // pre-size for all request scoped beans known at this point
+        int length = Math.max(index + 1, Math.max(current.length * 2,
+                contextual.getWebBeansContext().getBeanManagerImpl().getRequestScopedBeanCount()));
+        Slots grown = new Slots(length);
+        for (int i = 0; i < current.length; i++)
+        {
+            grown.bags.set(i, current.bags.get(i));
+            grown.contextuals.set(i, current.contextuals.get(i));
+        }
+        slots = grown;
+        return grown;
+    }
+
+    private ConcurrentMap<Contextual<?>, BeanInstanceBag<?>> getOthers()
+    {
+        if (others == null)
+        {
+            others = new ConcurrentHashMap<>();
+        }
+        return others;
+    }
+
+    private static final class Slots
+    {
+        private final int length;
+        private final AtomicReferenceArray<BeanInstanceBag<?>> bags;
+        private final AtomicReferenceArray<Contextual<?>> contextuals;
+
+        private Slots(int length)
+        {
+            this.length = length;
+            this.bags = new AtomicReferenceArray<>(length);
+            this.contextuals = new AtomicReferenceArray<>(length);
+        }
+    }
+
+    /**
+     * A weakly consistent view based on a snapshot of the current entries.
+     */
+    private final class EntrySet extends AbstractSet<Entry<Contextual<?>, BeanInstanceBag<?>>>
+    {
+        @Override
+        public Iterator<Entry<Contextual<?>, BeanInstanceBag<?>>> iterator()
+        {
+            List<Entry<Contextual<?>, BeanInstanceBag<?>>> entries = new ArrayList<>(size);
+            IndexedBeanInstanceMap.this.forEach((contextual, bag) -> entries.add(new SimpleImmutableEntry<>(contextual, bag)));
+            Iterator<Entry<Contextual<?>, BeanInstanceBag<?>>> snapshot = entries.iterator();
+
+            return new Iterator<Entry<Contextual<?>, BeanInstanceBag<?>>>()
+            {
+                private Entry<Contextual<?>, BeanInstanceBag<?>> current;
+
+                @Override
+                public boolean hasNext()
+                {
+                    return snapshot.hasNext();
+                }
+
+                @Override
+                public Entry<Contextual<?>, BeanInstanceBag<?>> next()
+                {
+                    current = snapshot.next();
+                    return current;
+                }
+
+                @Override
+                public void remove()
+                {
+                    if (current == null)
+                    {
+                        throw new IllegalStateException();
+                    }
+                    IndexedBeanInstanceMap.this.remove(current.getKey(), current.getValue());
+                    current = null;
+                }
+            };
+        }
+
+        @Override
+        public int size()
+        {
+            return IndexedBeanInstanceMap.this.size();
+        }
+    }
+}
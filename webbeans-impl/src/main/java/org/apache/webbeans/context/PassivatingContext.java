@@ -19,31 +19,133 @@
 package org.apache.webbeans.context;
 
 import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
 import java.io.Externalizable;
 import java.io.IOException;
 import java.io.NotSerializableException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.io.StreamCorruptedException;
 import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.container.BeanManagerImpl;
 import org.apache.webbeans.context.creational.BeanInstanceBag;
 import org.apache.webbeans.util.WebBeansUtil;
 
 /**
  * Base class for passivating contexts.
  * It basically provides serialisation support
+ *
+ * <p>Additionally we track which contextual instances got created or touched and which
+ * got destroyed since the last passivation. A session replication layer can use
+ * {@link #writeDelta(ObjectOutput)} and {@link #readDelta(ObjectInput)} to only ship
+ * the changed beans instead of serializing the whole context on every request.
+ * A bean counts as touched if its instance got looked up via this context. As our
+ * normal scoped proxies cache the instance per request, this happens at least once
+ * in each request which uses the bean.</p>
  */
 public abstract class PassivatingContext extends AbstractContext implements Externalizable
 {
+    private static final byte DELTA_FORMAT_VERSION = 1;
+
+    private static final byte COMPACT_ID = 1;
+    private static final byte STRING_ID = 2;
+
+    /**
+     * Contextuals which got created or accessed since the last passivation.
+     */
+    private final transient Set<Contextual<?>> dirty = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Passivation ids of the contextuals which got destroyed since the last passivation.
+     */
+    private final transient Set<String> removed = ConcurrentHashMap.newKeySet();
 
     public PassivatingContext(Class<? extends Annotation> scopeType)
     {
         super(scopeType);
     }
 
+    @Override
+    public <T> T get(Contextual<T> component)
+    {
+        T instance = super.get(component);
+        if (instance != null)
+        {
+            markDirty(component);
+        }
+        return instance;
+    }
+
+    @Override
+    protected <T> T getInstance(Contextual<T> contextual, CreationalContext<T> creationalContext)
+    {
+        T instance = super.getInstance(contextual, creationalContext);
+        if (instance != null)
+        {
+            markDirty(contextual);
+        }
+        return instance;
+    }
+
+    @Override
+    public void destroyInstance(Contextual<?> contextual)
+    {
+        super.destroyInstance(contextual);
+
+        if (!componentInstanceMap.containsKey(contextual))
+        {
+            dirty.remove(contextual);
+            String id = WebBeansUtil.getPassivationId(contextual);
+            if (id != null)
+            {
+                removed.add(id);
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if any contextual instance got created, touched or destroyed since the last passivation
+     */
+    public boolean isDirty()
+    {
+        return !dirty.isEmpty() || !removed.isEmpty();
+    }
+
+    /**
+     * @return the contextuals which got created or touched since the last passivation
+     */
+    public Set<Contextual<?>> getDirtyContextuals()
+    {
+        return Collections.unmodifiableSet(dirty);
+    }
+
+    /**
+     * Forget all changes, e.g. after the full context got replicated by other means.
+     */
+    public void clearDirty()
+    {
+        dirty.clear();
+        removed.clear();
+    }
+
+    private void markDirty(Contextual<?> contextual)
+    {
+        // contains first to not write to the shared set on every access
+        if (!dirty.contains(contextual))
+        {
+            dirty.add(contextual);
+        }
+    }
+
     @Override
     public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException
     {
@@ -69,6 +171,8 @@ public abstract class PassivatingContext extends AbstractContext implements Exte
     @Override
     public void writeExternal(ObjectOutput out) throws IOException
     {
+        clearDirty();
+
         out.writeObject(scopeType);
         Map<String, BeanInstanceBag<?>> map = new HashMap<>(componentInstanceMap.size());
 
@@ -87,4 +191,125 @@ public abstract class PassivatingContext extends AbstractContext implements Exte
         out.writeObject(map);
     }
 
+    /**
+     * Write all contextual instances which got created or touched and the ids of all
+     * contextual instances which got destroyed since the last passivation.
+     * The beans are identified by their compact passivation id if possible.
+     * Afterwards the context counts as passivated.
+     *
+     * <p>Instances which get touched concurrently will simply be part of the next delta.</p>
+     */
+    public void writeDelta(ObjectOutput out) throws IOException
+    {
+        BeanManagerImpl beanManager = WebBeansContext.currentInstance().getBeanManagerImpl();
+
+        List<String> removedIds = new ArrayList<>(removed);
+        removed.removeAll(removedIds);
+
+        List<String> changedIds = new ArrayList<>(dirty.size());
+        List<BeanInstanceBag<?>> changedBags = new ArrayList<>(dirty.size());
+        for (Contextual<?> contextual : dirty)
+        {
+            // remove before we read the bag, so a concurrent access marks it again
+            dirty.remove(contextual);
+
+            String id = WebBeansUtil.getPassivationId(contextual);
+            if (id == null)
+            {
+                throw new NotSerializableException("cannot serialize " + contextual.toString());
+            }
+
+            BeanInstanceBag<?> bag = componentInstanceMap.get(contextual);
+            if (bag == null)
+            {
+                removedIds.add(id);
+            }
+            else
+            {
+                changedIds.add(id);
+                changedBags.add(bag);
+            }
+        }
+
+        out.writeByte(DELTA_FORMAT_VERSION);
+
+        out.writeInt(removedIds.size());
+        for (String id : removedIds)
+        {
+            writeBeanId(out, beanManager, id);
+        }
+
+        out.writeInt(changedIds.size());
+        for (int i = 0; i < changedIds.size(); i++)
+        {
+            writeBeanId(out, beanManager, changedIds.get(i));
+            out.writeObject(changedBags.get(i));
+        }
+    }
+
+    /**
+     * Apply a delta written by {@link #writeDelta(ObjectOutput)} to this context.
+     * Beans which are not known in this deployment are skipped.
+     */
+    public void readDelta(ObjectInput in) throws IOException, ClassNotFoundException
+    {
+        BeanManagerImpl beanManager = WebBeansContext.currentInstance().getBeanManagerImpl();
+
+        byte version = in.readByte();
+        if (version != DELTA_FORMAT_VERSION)
+        {
+            throw new StreamCorruptedException("unsupported context delta format " + version);
+        }
+
+        int removedCount = in.readInt();
+        for (int i = 0; i < removedCount; i++)
+        {
+            Contextual<?> contextual = readBeanId(in, beanManager);
+            if (contextual != null)
+            {
+                // the instance got destroyed on the other side already, so we just drop it
+                componentInstanceMap.remove(contextual);
+            }
+        }
+
+        int changedCount = in.readInt();
+        for (int i = 0; i < changedCount; i++)
+        {
+            Contextual<?> contextual = readBeanId(in, beanManager);
+            BeanInstanceBag<?> bag = (BeanInstanceBag<?>) in.readObject();
+            if (contextual != null)
+            {
+                componentInstanceMap.put(contextual, bag);
+            }
+        }
+    }
+
+    private static void writeBeanId(ObjectOutput out, BeanManagerImpl beanManager, String id) throws IOException
+    {
+        Long compactId = beanManager.getCompactPassivationId(id);
+        if (compactId != null)
+        {
+            out.writeByte(COMPACT_ID);
+            out.writeLong(compactId);
+        }
+        else
+        {
+            out.writeByte(STRING_ID);
+            out.writeUTF(id);
+        }
+    }
+
+    private static Contextual<?> readBeanId(ObjectInput in, BeanManagerImpl beanManager) throws IOException
+    {
+        byte type = in.readByte();
+        switch (type)
+        {
+            case COMPACT_ID:
+                return beanManager.getPassivationCapableBean(in.readLong());
+            case STRING_ID:
+                return beanManager.getPassivationCapableBean(in.readUTF());
+            default:
+                throw new StreamCorruptedException("unknown bean id type " + type);
+        }
+    }
 }
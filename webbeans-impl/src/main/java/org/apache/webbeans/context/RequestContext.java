@@ -18,8 +18,6 @@
  */
 package org.apache.webbeans.context;
 
-import java.util.HashMap;
-
 import javax.enterprise.context.RequestScoped;
 import javax.enterprise.context.spi.Contextual;
 
@@ -55,7 +53,18 @@ public class RequestContext extends AbstractContext
     @Override
     public void setComponentInstanceMap()
     {
-        componentInstanceMap = new HashMap<>();
+        componentInstanceMap = new IndexedBeanInstanceMap();
+    }
+
+    /**
+     * Destroys all instances with a single sweep over the storage,
+     * without copying its keys first.
+     */
+    @Override
+    public void destroy()
+    {
+        componentInstanceMap.forEach((contextual, bag) -> destroyInstance(contextual));
+        setActive(false);
     }
 
     /**
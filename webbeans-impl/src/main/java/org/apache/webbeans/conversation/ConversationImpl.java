@@ -63,9 +63,10 @@ public class ConversationImpl implements Conversation, Serializable
     private long timeout;
 
     /**
-     * Active duration of the conversation
+     * Active duration of the conversation.
+     * Volatile as the ConversationReaper reads it from a background thread.
      */
-    private long lastAccessTime;
+    private volatile long lastAccessTime;
 
     private transient RuntimeException problemDuringCreation;
 
@@ -196,6 +197,14 @@ public class ConversationImpl implements Conversation, Serializable
         }
     }
 
+    /**
+     * @return {@code true} if any request currently uses this conversation
+     */
+    public synchronized boolean isInUse()
+    {
+        return !threadsUsingIt.isEmpty();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -242,6 +251,11 @@ public class ConversationImpl implements Conversation, Serializable
     {
         checkThreadUsage();
         timeout = milliseconds;
+
+        if (!isTransient)
+        {
+            webBeansContext.getConversationManager().getConversationReaper().timeoutChanged(this);
+        }
     }
 
     /**
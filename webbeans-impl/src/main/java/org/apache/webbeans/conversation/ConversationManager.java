@@ -35,6 +35,7 @@ import org.apache.webbeans.annotation.BeforeDestroyedLiteral;
 import org.apache.webbeans.annotation.DefaultLiteral;
 import org.apache.webbeans.annotation.DestroyedLiteral;
 import org.apache.webbeans.config.OWBLogConst;
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
 import org.apache.webbeans.config.WebBeansContext;
 import org.apache.webbeans.container.BeanManagerImpl;
 import org.apache.webbeans.context.ConversationContext;
@@ -59,6 +60,7 @@ public class ConversationManager
 
     private final WebBeansContext webBeansContext;
     private final Bean<Set<ConversationContext>> conversationStorageBean;
+    private final ConversationReaper conversationReaper;
 
     /**
      * Creates new conversation manager
@@ -76,6 +78,18 @@ public class ConversationManager
         // this will return the internally wrapped ThirdPartyBean.
         conversationStorageBean = (Bean<Set<ConversationContext>>)
                 bm.resolve(bm.getBeans(ConversationStorageBean.OWB_INTERNAL_CONVERSATION_STORAGE_BEAN_PASSIVATION_ID));
+
+        long reaperInterval;
+        try
+        {
+            reaperInterval = Long.parseLong(webBeansContext.getOpenWebBeansConfiguration().
+                    getProperty(OpenWebBeansConfiguration.CONVERSATION_REAPER_INTERVAL, "60000"));
+        }
+        catch (NumberFormatException e)
+        {
+            reaperInterval = 60 * 1000;
+        }
+        conversationReaper = new ConversationReaper(webBeansContext, this, reaperInterval);
     }
 
 
@@ -100,6 +114,19 @@ public class ConversationManager
                 {
                     if (conversationId.equals(conversationContext.getConversation().getId()))
                     {
+                        if (conversationTimedOut(conversationContext.getConversation()))
+                        {
+                            // not yet picked up by the reaper
+                            if (conversationContexts.remove(conversationContext))
+                            {
+                                destroyConversationContext(conversationContext);
+                            }
+                            break;
+                        }
+
+                        // e.g. a deserialized session we did not track yet
+                        conversationReaper.register(conversationContext, conversationContexts);
+
                         if (conversationContext.getConversation().iUseIt() > 1)
                         {
                             problem =  new BusyConversationException("Propogated conversation with cid=" +
@@ -150,6 +177,7 @@ public class ConversationManager
 
         // if not, then simply add this conversation
         sessionConversations.add(conversationContext);
+        conversationReaper.register(conversationContext, sessionConversations);
     }
 
     /**
@@ -162,9 +190,35 @@ public class ConversationManager
     {
         Context sessionContext = webBeansContext.getContextsService().getCurrentContext(SessionScoped.class);
         Set<ConversationContext> sessionConversations = getSessionConversations(sessionContext, true);
+        conversationReaper.unregister(conversationContext);
         return sessionConversations.remove(conversationContext);
     }
 
+    /**
+     * @return the ConversationReaper which tracks the timeouts of all long running conversations
+     */
+    public ConversationReaper getConversationReaper()
+    {
+        return conversationReaper;
+    }
+
+    /**
+     * @return the number of long running conversations of all sessions
+     */
+    public int getLiveConversationCount()
+    {
+        return conversationReaper.getLiveConversationCount();
+    }
+
+    /**
+     * Stop the background destruction of timed out conversations.
+     * Gets invoked when the container shuts down.
+     */
+    public void shutdown()
+    {
+        conversationReaper.shutdown();
+    }
+
 
     /**
      * Gets conversation instance from conversation bean.
@@ -208,6 +262,8 @@ public class ConversationManager
      */
     public void destroyConversationContext(ConversationContext ctx)
     {
+        conversationReaper.unregister(ctx);
+
         webBeansContext.getBeanManagerImpl().fireEvent(
                 getLifecycleEventPayload(ctx), BeforeDestroyedLiteral.INSTANCE_CONVERSATION_SCOPED);
 
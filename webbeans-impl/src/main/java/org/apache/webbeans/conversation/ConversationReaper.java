@@ -0,0 +1,394 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.conversation;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.enterprise.context.BusyConversationException;
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.context.spi.Context;
+
+import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.context.ConversationContext;
+import org.apache.webbeans.intercept.RequestScopedBeanInterceptorHandler;
+import org.apache.webbeans.logger.WebBeansLoggerFacade;
+import org.apache.webbeans.spi.ContextsService;
+
+/**
+ * Keeps track of all long running conversations ordered by their timeout deadline
+ * and destroys the expired ones in a background thread.
+ *
+ * The deadlines are not updated when a conversation gets accessed. Instead a due entry
+ * simply gets rescheduled if the conversation got touched in the meantime.
+ * The storage Set of the session is only weakly referenced, so we never keep a passivated
+ * or otherwise dropped session alive.
+ *
+ * Expired conversations get destroyed within a request context, as the background thread
+ * has none but &#064;PreDestroy methods and the lifecycle observers might need one.
+ */
+public class ConversationReaper
+{
+    private static final Logger logger = WebBeansLoggerFacade.getLogger(ConversationReaper.class);
+
+    private final WebBeansContext webBeansContext;
+    private final ConversationManager conversationManager;
+
+    /**
+     * interval of the background reaper in ms, {@code 0} or less means no background thread
+     */
+    private final long interval;
+
+    private final ConcurrentMap<ConversationImpl, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * guarded by itself
+     */
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>();
+
+    private final LongAdder reapedConversations = new LongAdder();
+
+    private volatile ScheduledExecutorService executor;
+    private volatile boolean shutdown;
+
+    public ConversationReaper(WebBeansContext webBeansContext, ConversationManager conversationManager, long interval)
+    {
+        this.webBeansContext = webBeansContext;
+        this.conversationManager = conversationManager;
+        this.interval = interval;
+    }
+
+    /**
+     * @return {@code true} if expired conversations get destroyed by a background thread.
+     */
+    public boolean isScheduled()
+    {
+        return interval > 0;
+    }
+
+    /**
+     * Start tracking the given long running conversation.
+     * Registering an already tracked ConversationContext is a no-op.
+     *
+     * @param conversationContext the ConversationContext of the long running conversation
+     * @param sessionConversations the conversation storage of the session which contains the ConversationContext
+     */
+    public void register(ConversationContext conversationContext, Set<ConversationContext> sessionConversations)
+    {
+        ConversationImpl conversation = conversationContext.getConversation();
+        Entry existing = entries.get(conversation);
+        if (existing != null && existing.storage.get() == sessionConversations)
+        {
+            return;
+        }
+
+        track(conversationContext, sessionConversations, existing);
+    }
+
+    /**
+     * Reschedule the given conversation as its timeout got changed.
+     * A longer timeout would be detected anyway, but a shorter one must not wait for the old deadline.
+     */
+    public void timeoutChanged(ConversationImpl conversation)
+    {
+        Entry existing = entries.get(conversation);
+        if (existing != null)
+        {
+            Set<ConversationContext> sessionConversations = existing.storage.get();
+            if (sessionConversations != null)
+            {
+                track(existing.conversationContext, sessionConversations, existing);
+            }
+        }
+    }
+
+    /**
+     * Stop tracking the given conversation, e.g. because it got ended or destroyed.
+     */
+    public void unregister(ConversationContext conversationContext)
+    {
+        Entry entry = entries.remove(conversationContext.getConversation());
+        if (entry != null)
+        {
+            entry.cancelled = true;
+        }
+    }
+
+    /**
+     * Destroy all conversations which are due and timed out.
+     * Gets invoked periodically by the background thread but might also get invoked manually.
+     *
+     * @return the number of destroyed conversations
+     */
+    public int reap()
+    {
+        long now = System.currentTimeMillis();
+        List<Entry> due = new ArrayList<>();
+        synchronized (queue)
+        {
+            while (!queue.isEmpty() && queue.peek().deadline <= now)
+            {
+                due.add(queue.poll());
+            }
+        }
+
+        int reaped = 0;
+        for (Entry entry : due)
+        {
+            if (entry.cancelled)
+            {
+                continue;
+            }
+
+            ConversationContext conversationContext = entry.conversationContext;
+            Set<ConversationContext> sessionConversations = entry.storage.get();
+            if (sessionConversations == null || !sessionConversations.contains(conversationContext))
+            {
+                // session is gone or the conversation got removed without telling us
+                entries.remove(conversationContext.getConversation(), entry);
+                continue;
+            }
+
+            ConversationImpl conversation = conversationContext.getConversation();
+            if (conversation.isInUse())
+            {
+                // the request will touch it again
+                schedule(entry, recheckDeadline(now));
+                continue;
+            }
+            if (!conversationManager.conversationTimedOut(conversation))
+            {
+                schedule(entry, nextDeadline(conversation, now));
+                continue;
+            }
+
+            entries.remove(conversation, entry);
+
+            // only the one who removes it from the session is allowed to destroy it
+            if (sessionConversations.remove(conversationContext))
+            {
+                try
+                {
+                    destroy(conversationContext);
+                }
+                catch (RuntimeException e)
+                {
+                    logger.log(Level.WARNING, "Error while destroying timed out conversation " + conversation.getId(), e);
+                }
+                reapedConversations.increment();
+                reaped++;
+            }
+        }
+
+        return reaped;
+    }
+
+    /**
+     * @return the number of long running conversations currently tracked
+     */
+    public int getLiveConversationCount()
+    {
+        return entries.size();
+    }
+
+    /**
+     * @return the number of conversations destroyed because of their timeout
+     */
+    public long getReapedConversationCount()
+    {
+        return reapedConversations.sum();
+    }
+
+    /**
+     * Stop the background thread and forget all tracked conversations.
+     * The conversations themselves get destroyed together with their sessions.
+     */
+    public void shutdown()
+    {
+        shutdown = true;
+        ScheduledExecutorService es = executor;
+        if (es != null)
+        {
+            es.shutdownNow();
+            executor = null;
+        }
+
+        entries.clear();
+        synchronized (queue)
+        {
+            queue.clear();
+        }
+    }
+
+    private void destroy(ConversationContext conversationContext)
+    {
+        ContextsService contextsService = webBeansContext.getContextsService();
+        Context requestContext = contextsService.getCurrentContext(RequestScoped.class, false);
+        boolean startRequest = requestContext == null || !requestContext.isActive();
+        if (startRequest)
+        {
+            contextsService.startContext(RequestScoped.class, null);
+        }
+        try
+        {
+            conversationManager.destroyConversationContext(conversationContext);
+        }
+        finally
+        {
+            if (startRequest)
+            {
+                contextsService.endContext(RequestScoped.class, null);
+                RequestScopedBeanInterceptorHandler.removeThreadLocals();
+            }
+        }
+    }
+
+    private void track(ConversationContext conversationContext, Set<ConversationContext> sessionConversations, Entry existing)
+    {
+        ConversationImpl conversation = conversationContext.getConversation();
+        Entry entry = new Entry(conversationContext, sessionConversations);
+        if (existing == null ? entries.putIfAbsent(conversation, entry) != null
+                             : !entries.replace(conversation, existing, entry))
+        {
+            // somebody else was faster
+            return;
+        }
+        if (existing != null)
+        {
+            existing.cancelled = true;
+        }
+
+        schedule(entry, nextDeadline(conversation, System.currentTimeMillis()));
+        startExecutor();
+    }
+
+    private long nextDeadline(ConversationImpl conversation, long now)
+    {
+        long timeout;
+        try
+        {
+            timeout = conversation.getTimeout();
+        }
+        catch (BusyConversationException bce)
+        {
+            timeout = 0L;
+        }
+
+        if (timeout <= 0L)
+        {
+            // never times out, but check again later as the timeout might get changed
+            return recheckDeadline(now);
+        }
+
+        return Math.max(conversation.getLastAccessTime() + timeout + 1, now + 1);
+    }
+
+    private long recheckDeadline(long now)
+    {
+        return now + Math.max(interval, 1000L);
+    }
+
+    private void schedule(Entry entry, long deadline)
+    {
+        synchronized (queue)
+        {
+            entry.deadline = deadline;
+            queue.offer(entry);
+        }
+    }
+
+    private void startExecutor()
+    {
+        if (interval <= 0 || executor != null || shutdown)
+        {
+            return;
+        }
+
+        synchronized (this)
+        {
+            if (executor != null || shutdown)
+            {
+                return;
+            }
+
+            ClassLoader loader = Thread.currentThread().getContextClassLoader();
+            ScheduledExecutorService es = Executors.newSingleThreadScheduledExecutor(r ->
+            {
+                Thread thread = new Thread(r, "OpenWebBeans-ConversationReaper");
+                thread.setDaemon(true);
+                thread.setContextClassLoader(loader);
+                return thread;
+            });
+            es.scheduleWithFixedDelay(this::reapSafely, interval, interval, TimeUnit.MILLISECONDS);
+            executor = es;
+        }
+    }
+
+    private void reapSafely()
+    {
+        try
+        {
+            int reaped = reap();
+            if (reaped > 0 && logger.isLoggable(Level.FINE))
+            {
+                logger.fine("Destroyed " + reaped + " timed out conversations, " + entries.size() + " still alive");
+            }
+        }
+        catch (RuntimeException e)
+        {
+            // never kill the scheduled task
+            logger.log(Level.WARNING, "Error while destroying timed out conversations", e);
+        }
+    }
+
+    private static final class Entry implements Comparable<Entry>
+    {
+        private final ConversationContext conversationContext;
+        private final WeakReference<Set<ConversationContext>> storage;
+
+        /**
+         * guarded by the queue
+         */
+        private long deadline;
+        private volatile boolean cancelled;
+
+        private Entry(ConversationContext conversationContext, Set<ConversationContext> storage)
+        {
+            this.conversationContext = conversationContext;
+            this.storage = new WeakReference<>(storage);
+        }
+
+        @Override
+        public int compareTo(Entry other)
+        {
+            return Long.compare(deadline, other.deadline);
+        }
+    }
+}
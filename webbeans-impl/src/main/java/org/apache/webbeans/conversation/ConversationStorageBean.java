@@ -70,7 +70,11 @@ public class ConversationStorageBean implements Bean<Set<ConversationContext>>,
         ConversationManager conversationManager = webBeansContext.getConversationManager();
         for (ConversationContext conversationContext : instance)
         {
-            conversationManager.destroyConversationContext(conversationContext);
+            // the ConversationReaper might have destroyed it concurrently
+            if (instance.remove(conversationContext))
+            {
+                conversationManager.destroyConversationContext(conversationContext);
+            }
         }
     }
 
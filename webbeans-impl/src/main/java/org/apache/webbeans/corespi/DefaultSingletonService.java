@@ -18,21 +18,40 @@
  */
 package org.apache.webbeans.corespi;
 
-import java.util.Map;
-import java.util.WeakHashMap;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.webbeans.config.WebBeansContext;
 import org.apache.webbeans.spi.SingletonService;
 import org.apache.webbeans.util.Asserts;
 
+/**
+ * Default {@link SingletonService} which keeps one {@link WebBeansContext} per ClassLoader.
+ *
+ * Lookups do not need any lock. The registered contexts are kept in a copy-on-write array
+ * which only gets replaced when a context gets added or removed.
+ * In front of it we keep the last resolved entry, which serves the common
+ * case of a single application per JVM with a single identity check.
+ *
+ * The ClassLoaders are only weakly referenced, entries of garbage collected
+ * ClassLoaders get purged on the next modification.
+ */
 public class DefaultSingletonService implements SingletonService<WebBeansContext>
 {
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
     /**
-     * Keys --> ClassLoaders
-     * Values --> WebBeansContext
+     * All registered ClassLoader --> WebBeansContext entries.
+     * Only gets replaced while holding the lock of this instance.
      */
-    private final Map<ClassLoader, WebBeansContext> singletonMap = new WeakHashMap<>();
-    
+    private volatile Entry[] entries = NO_ENTRIES;
+
+    /**
+     * The last resolved entry for a fast lookup.
+     */
+    private volatile Entry lastEntry;
+
     /**
      * Gets singleton instance for deployment.
      * @return singleton instance for this deployment
@@ -42,31 +61,38 @@ public class DefaultSingletonService implements SingletonService<WebBeansContext
     {
         assertClassLoaderKey(key);
         ClassLoader classLoader = (ClassLoader) key;
-        synchronized (singletonMap)
+
+        Entry entry = lastEntry;
+        if (entry != null && !entry.removed && entry.classLoader.get() == classLoader)
         {
-            //util.Track.sync(key);
-            
-            WebBeansContext webBeansContext = singletonMap.get(classLoader);
-            //util.Track.get(key);
+            return entry.webBeansContext;
+        }
 
-            if (webBeansContext == null)
+        entry = find(entries, classLoader);
+        if (entry == null)
+        {
+            synchronized (this)
             {
-                webBeansContext = new WebBeansContext();
-                singletonMap.put(classLoader, webBeansContext);
+                entry = find(entries, classLoader);
+                if (entry == null)
+                {
+                    entry = new Entry(classLoader, new WebBeansContext());
+                    add(entry);
+                }
             }
-
-            return webBeansContext;
-
         }
+
+        lastEntry = entry;
+        return entry.webBeansContext;
     }
 
-    public void register(ClassLoader key, WebBeansContext context)
+    public synchronized void register(ClassLoader key, WebBeansContext context)
     {
-        if (singletonMap.containsKey(key))
+        if (find(entries, key) != null)
         {
             throw new IllegalArgumentException(key + " is already registered");
         }
-        singletonMap.putIfAbsent(key, context);
+        add(new Entry(key, context));
     }
 
     /**
@@ -76,9 +102,30 @@ public class DefaultSingletonService implements SingletonService<WebBeansContext
     public void clearInstances(ClassLoader classLoader)
     {
         Asserts.assertNotNull(classLoader, "classloader");
-        synchronized (singletonMap)
+        synchronized (this)
         {
-            singletonMap.remove(classLoader);
+            Entry[] current = entries;
+            List<Entry> remaining = new ArrayList<>(current.length);
+            for (Entry entry : current)
+            {
+                ClassLoader entryClassLoader = entry.classLoader.get();
+                if (entryClassLoader == classLoader)
+                {
+                    // a concurrent get() might still set it as lastEntry
+                    entry.removed = true;
+                }
+                else if (entryClassLoader != null)
+                {
+                    remaining.add(entry);
+                }
+            }
+            entries = remaining.toArray(new Entry[remaining.size()]);
+
+            Entry last = lastEntry;
+            if (last != null && last.removed)
+            {
+                lastEntry = null;
+            }
         }
     }
 
@@ -106,6 +153,50 @@ public class DefaultSingletonService implements SingletonService<WebBeansContext
 
     public boolean exists(final Object key)
     {
-        return ClassLoader.class.isInstance(key) && singletonMap.containsKey(key);
+        return ClassLoader.class.isInstance(key) && find(entries, (ClassLoader) key) != null;
+    }
+
+    private static Entry find(Entry[] entries, ClassLoader classLoader)
+    {
+        for (Entry entry : entries)
+        {
+            if (entry.classLoader.get() == classLoader)
+            {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Must only get called while holding the lock of this instance.
+     * Also purges the entries of garbage collected ClassLoaders.
+     */
+    private void add(Entry entry)
+    {
+        Entry[] current = entries;
+        List<Entry> newEntries = new ArrayList<>(current.length + 1);
+        for (Entry existing : current)
+        {
+            if (existing.classLoader.get() != null)
+            {
+                newEntries.add(existing);
+            }
+        }
+        newEntries.add(entry);
+        entries = newEntries.toArray(new Entry[newEntries.size()]);
+    }
+
+    private static final class Entry
+    {
+        private final WeakReference<ClassLoader> classLoader;
+        private final WebBeansContext webBeansContext;
+        private volatile boolean removed;
+
+        private Entry(ClassLoader classLoader, WebBeansContext webBeansContext)
+        {
+            this.classLoader = new WeakReference<>(classLoader);
+            this.webBeansContext = webBeansContext;
+        }
     }
 }
@@ -48,6 +48,8 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -93,6 +95,37 @@ public abstract class AbstractMetaDataDiscovery implements BdaScannerService
      */
     private Map<BeanArchiveService.BeanArchiveInformation, Set<Class<?>>> beanClassesPerBda;
 
+    /**
+     * The bean deployment URLs which actually get scanned,
+     * that is without the extension jars if those shall not be scanned.
+     */
+    private Map<String, URL> scannedDeploymentUrls;
+
+    /**
+     * Where to store the {@link DeploymentIndex} or {@code null} if no index shall be written.
+     */
+    private File deploymentIndexFile;
+
+    /**
+     * The current stamp of each scanned bean deployment URL.
+     */
+    private Map<String, String> deploymentStamps;
+
+    /**
+     * The current scanner settings, see {@link #getScannerConfiguration()}.
+     */
+    private String scannerConfiguration;
+
+    /**
+     * The {@link DeploymentIndex} which matches the current bean archives, if any.
+     */
+    private DeploymentIndex deploymentIndex;
+
+    /**
+     * Whether an annotation found on a class of an 'annotated' bean archive is a scope or stereotype.
+     */
+    private final Map<String, Boolean> beanAnnotations = new HashMap<>();
+
     protected String[] scanningExcludes;
 
     protected ClassLoader loader;
@@ -116,25 +149,119 @@ public abstract class AbstractMetaDataDiscovery implements BdaScannerService
         }
 
         final Filter userFilter = webBeansContext.getService(Filter.class);
-        Map<String, URL> beanDeploymentUrls = getBeanDeploymentUrls();
-        if (!webBeansContext.getOpenWebBeansConfiguration().getScanExtensionJars())
-        {
-            webBeansContext.getExtensionLoader().loadExtensionServices();
-
-            final Set<URL> extensionJars = webBeansContext.getExtensionLoader().getExtensionJars();
-            beanDeploymentUrls = extensionJars.isEmpty() ? beanDeploymentUrls : beanDeploymentUrls.entrySet().stream()
-                    .filter(it -> !extensionJars.contains(it.getValue()))
-                    .collect(toMap(Map.Entry::getKey, Map.Entry::getValue));
-            extensionJars.clear(); // no more needed
-        }
         archive = new CdiArchive(
                 beanArchiveService, WebBeansUtil.getCurrentClassLoader(),
-                beanDeploymentUrls, userFilter, getAdditionalArchive());
+                getScannedDeploymentUrls(), userFilter, getAdditionalArchive(), isAnnotatedPrefilterEnabled(),
+                getScanningParallelism());
         finder = new OwbAnnotationFinder(archive);
 
         return finder;
     }
 
+    /**
+     * @return the bean deployment URLs without the extension jars if those shall not get scanned
+     */
+    private Map<String, URL> getScannedDeploymentUrls()
+    {
+        if (scannedDeploymentUrls == null)
+        {
+            final WebBeansContext webBeansContext = webBeansContext();
+            Map<String, URL> beanDeploymentUrls = getBeanDeploymentUrls();
+            if (!webBeansContext.getOpenWebBeansConfiguration().getScanExtensionJars())
+            {
+                webBeansContext.getExtensionLoader().loadExtensionServices();
+
+                final Set<URL> extensionJars = webBeansContext.getExtensionLoader().getExtensionJars();
+                beanDeploymentUrls = extensionJars.isEmpty() ? beanDeploymentUrls : beanDeploymentUrls.entrySet().stream()
+                        .filter(it -> !extensionJars.contains(it.getValue()))
+                        .collect(toMap(Map.Entry::getKey, Map.Entry::getValue));
+                extensionJars.clear(); // no more needed
+            }
+            scannedDeploymentUrls = beanDeploymentUrls;
+        }
+        return scannedDeploymentUrls;
+    }
+
+    /**
+     * Checks whether a {@link DeploymentIndex} is configured and still matches the bean archives.
+     * Programmatically added classes (see {@link #getAdditionalArchive()}) are never indexed.
+     *
+     * @return {@code true} if the index can be used instead of scanning the classpath
+     */
+    private boolean loadDeploymentIndex()
+    {
+        String location = webBeansContext().getOpenWebBeansConfiguration().getProperty(OpenWebBeansConfiguration.DEPLOYMENT_INDEX);
+        if (location == null || location.trim().isEmpty() || getAdditionalArchive() != null)
+        {
+            return false;
+        }
+
+        if (beanArchiveService == null)
+        {
+            beanArchiveService = webBeansContext().getBeanArchiveService();
+        }
+
+        Map<String, String> stamps = new HashMap<>();
+        Map<String, BeanDiscoveryMode> discoveryModes = new HashMap<>();
+        for (URL url : getScannedDeploymentUrls().values())
+        {
+            String stamp = DeploymentIndex.stamp(url);
+            if (stamp == null)
+            {
+                logger.info("Deployment index disabled, cannot determine the state of bean archive " + url.toExternalForm());
+                return false;
+            }
+            stamps.put(url.toExternalForm(), stamp);
+            discoveryModes.put(url.toExternalForm(), beanArchiveService.getBeanArchiveInformation(url).getBeanDiscoveryMode());
+        }
+
+        deploymentIndexFile = new File(location.trim());
+        deploymentStamps = stamps;
+        scannerConfiguration = getScannerConfiguration();
+
+        DeploymentIndex index = DeploymentIndex.read(deploymentIndexFile);
+        if (index != null && index.matches(scannerConfiguration, stamps, discoveryModes))
+        {
+            if (logger.isLoggable(Level.FINE))
+            {
+                logger.fine("Using deployment index " + deploymentIndexFile);
+            }
+            deploymentIndex = index;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * All the settings which influence the classes picked up from the bean archives.
+     * A {@link DeploymentIndex} written with other settings must not be used.
+     */
+    private String getScannerConfiguration()
+    {
+        Filter userFilter = webBeansContext().getService(Filter.class);
+        initScanningExcludes();
+        return "scanner=" + getClass().getName()
+            + ";filter=" + (userFilter != null ? userFilter.getClass().getName() : "")
+            + ";excludes=" + String.join(",", scanningExcludes)
+            + ";scanExtensionJars=" + webBeansContext().getOpenWebBeansConfiguration().getScanExtensionJars()
+            + ";annotatedPrefilter=" + isAnnotatedPrefilterEnabled();
+    }
+
+    /**
+     * If the bean classes got loaded from a {@link DeploymentIndex} the archives did not get scanned yet.
+     * In this case the finder gets created on demand.
+     *
+     * @return the finder of the scanned bean archives or {@code null} if the scanner got released already
+     */
+    protected OwbAnnotationFinder getOrCreateFinder()
+    {
+        if (finder == null && deploymentIndex != null)
+        {
+            initFinder();
+        }
+        return finder;
+    }
+
     protected Archive getAdditionalArchive()
     {
         return null;
@@ -169,7 +296,10 @@ public abstract class AbstractMetaDataDiscovery implements BdaScannerService
         try
         {
             configure();
-            initFinder();
+            if (!loadDeploymentIndex())
+            {
+                initFinder();
+            }
         }
         catch (Exception e)
         {
@@ -324,6 +454,10 @@ public abstract class AbstractMetaDataDiscovery implements BdaScannerService
         finder = null;
         archive = null;
         loader = null;
+        deploymentIndex = null;
+        deploymentStamps = null;
+        scannerConfiguration = null;
+        beanAnnotations.clear();
     }
 
 
@@ -413,58 +547,106 @@ public abstract class AbstractMetaDataDiscovery implements BdaScannerService
         {
             beanClassesPerBda = new HashMap<>();
 
+            if (deploymentIndex != null)
+            {
+                for (URL url : getScannedDeploymentUrls().values())
+                {
+                    beanClassesPerBda.put(beanArchiveService.getBeanArchiveInformation(url),
+                            loadClasses(deploymentIndex.getClassNames(url)));
+                }
+                return beanClassesPerBda;
+            }
+
+            initFinder();
+            DeploymentIndex newIndex = deploymentIndexFile != null ? new DeploymentIndex(scannerConfiguration) : null;
             for (CdiArchive.FoundClasses foundClasses : archive.classesByUrl().values())
             {
-                Set<Class<?>> classSet = new HashSet<>();
-                boolean scanModeAnnotated = BeanDiscoveryMode.ANNOTATED == foundClasses.getBeanArchiveInfo().getBeanDiscoveryMode();
+                List<String> classNames = new ArrayList<>();
+                BeanDiscoveryMode discoveryMode = foundClasses.getBeanArchiveInfo().getBeanDiscoveryMode();
                 for (String className : foundClasses.getClassNames())
                 {
-                    try
+                    if (BeanDiscoveryMode.ANNOTATED == discoveryMode)
                     {
-                        if (scanModeAnnotated)
+                        // in this case we need to find out whether we should keep this class in the Archive
+                        AnnotationFinder.ClassInfo classInfo = finder.getClassInfo(className);
+                        if (classInfo == null || !isBeanAnnotatedClass(classInfo))
                         {
-                            // in this case we need to find out whether we should keep this class in the Archive
-                            AnnotationFinder.ClassInfo classInfo = finder.getClassInfo(className);
-                            if (classInfo == null || !isBeanAnnotatedClass(classInfo))
-                            {
-                                continue;
-                            }
+                            continue;
                         }
+                    }
+                    classNames.add(className);
+                }
 
-                        Class<?> clazz = ClassUtil.getClassFromName(className);
-                        if (clazz != null)
-                        {
-                            // try to provoke a NoClassDefFoundError exception which is thrown
-                            // if some dependencies of the class are missing
-                            clazz.getDeclaredFields();
+                beanClassesPerBda.put(foundClasses.getBeanArchiveInfo(), loadClasses(classNames));
 
-                            // we can add this class cause it has been loaded completely
-                            classSet.add(clazz);
-                        }
-                    }
-                    catch (NoClassDefFoundError e)
+                if (newIndex != null)
+                {
+                    String stamp = deploymentStamps.get(foundClasses.getUrl().toExternalForm());
+                    if (stamp == null)
                     {
-                        if (isAnonymous(className))
-                        {
-                            if (logger.isLoggable(Level.FINE))
-                            {
-                                logger.log(Level.FINE, OWBLogConst.WARN_0018, new Object[]{className, e.toString()});
-                            }
-                        }
-                        else if (logger.isLoggable(Level.WARNING))
-                        {
-                            logger.log(Level.WARNING, OWBLogConst.WARN_0018, new Object[]{className, e.toString()});
-                        }
+                        newIndex = null;
+                        continue;
                     }
+                    newIndex.add(foundClasses.getUrl(), stamp, discoveryMode, classNames);
                 }
-
-                beanClassesPerBda.put(foundClasses.getBeanArchiveInfo(), classSet);
             }
 
+            if (newIndex != null)
+            {
+                writeDeploymentIndex(newIndex);
+            }
         }
         return beanClassesPerBda;
     }
 
+    private Set<Class<?>> loadClasses(Collection<String> classNames)
+    {
+        Set<Class<?>> classSet = new HashSet<>();
+        for (String className : classNames)
+        {
+            try
+            {
+                Class<?> clazz = ClassUtil.getClassFromName(className);
+                if (clazz != null)
+                {
+                    // try to provoke a NoClassDefFoundError exception which is thrown
+                    // if some dependencies of the class are missing
+                    clazz.getDeclaredFields();
+
+                    // we can add this class cause it has been loaded completely
+                    classSet.add(clazz);
+                }
+            }
+            catch (NoClassDefFoundError e)
+            {
+                if (isAnonymous(className))
+                {
+                    if (logger.isLoggable(Level.FINE))
+                    {
+                        logger.log(Level.FINE, OWBLogConst.WARN_0018, new Object[]{className, e.toString()});
+                    }
+                }
+                else if (logger.isLoggable(Level.WARNING))
+                {
+                    logger.log(Level.WARNING, OWBLogConst.WARN_0018, new Object[]{className, e.toString()});
+                }
+            }
+        }
+        return classSet;
+    }
+
+    private void writeDeploymentIndex(DeploymentIndex index)
+    {
+        try
+        {
+            index.write(deploymentIndexFile);
+        }
+        catch (IOException e)
+        {
+            logger.log(Level.WARNING, "Cannot write deployment index " + deploymentIndexFile, e);
+        }
+    }
+
     private boolean isAnonymous(final String className)
     {
         final int start = className.lastIndexOf('$');
@@ -518,27 +700,60 @@ public abstract class AbstractMetaDataDiscovery implements BdaScannerService
         return false;
     }
 
+    /**
+     * Whether the classes of bean archives with bean-discovery-mode 'annotated' get prefiltered
+     * by reading their class files before the AnnotationFinder parses them.
+     * Classes without any runtime visible class annotation are dropped right away then.
+     *
+     * Integrations which override {@link #isBeanAnnotatedClass(AnnotationFinder.ClassInfo)}
+     * to keep classes for other reasons than their annotations have to disable it.
+     *
+     * @see OpenWebBeansConfiguration#SCANNER_ANNOTATED_PREFILTER
+     */
+    protected boolean isAnnotatedPrefilterEnabled()
+    {
+        return !"false".equalsIgnoreCase(webBeansContext().getOpenWebBeansConfiguration()
+                .getProperty(OpenWebBeansConfiguration.SCANNER_ANNOTATED_PREFILTER));
+    }
+
+    /**
+     * @return how many bean archives get read in parallel while scanning
+     * @see OpenWebBeansConfiguration#PARALLEL_SCANNING
+     */
+    protected int getScanningParallelism()
+    {
+        return Boolean.parseBoolean(webBeansContext().getOpenWebBeansConfiguration()
+                .getProperty(OpenWebBeansConfiguration.PARALLEL_SCANNING)) ? Runtime.getRuntime().availableProcessors() : 1;
+    }
+
     protected boolean isBeanAnnotation(AnnotationFinder.AnnotationInfo annotationInfo)
     {
         String annotationName = annotationInfo.getName();
 
-        // TODO add caches
+        // the same few annotations are found on most classes
+        Boolean cached = beanAnnotations.get(annotationName);
+        if (cached != null)
+        {
+            return cached;
+        }
 
+        boolean isBeanAnnotation;
         try
         {
             Class<? extends Annotation> annotationType = (Class<? extends Annotation>) WebBeansUtil.getCurrentClassLoader().loadClass(annotationName);
-            boolean isBeanAnnotation = webBeansContext().getBeanManagerImpl().isScope(annotationType);
+            isBeanAnnotation = webBeansContext().getBeanManagerImpl().isScope(annotationType);
             if (!isBeanAnnotation)
             {
                 isBeanAnnotation = webBeansContext().getBeanManagerImpl().isStereotype(annotationType);
             }
-
-            return isBeanAnnotation;
         }
         catch (ClassNotFoundException e)
         {
-            return false;
+            isBeanAnnotation = false;
         }
+
+        beanAnnotations.put(annotationName, isBeanAnnotation);
+        return isBeanAnnotation;
     }
 
 
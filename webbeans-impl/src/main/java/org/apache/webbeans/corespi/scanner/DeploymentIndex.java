@@ -0,0 +1,268 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.corespi.scanner;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import org.apache.webbeans.logger.WebBeansLoggerFacade;
+import org.apache.webbeans.spi.BeanArchiveService.BeanDiscoveryMode;
+
+/**
+ * On-disk index of the classes discovered in each bean archive.
+ *
+ * Each entry is keyed by the bean deployment URL and records the discovery mode,
+ * a stamp of the archive content and the names of the classes which got picked up
+ * from it. The stamp of a jar consists of its size and modification time, the stamp
+ * of a directory of the number, total size and latest modification time of all the
+ * files in it. An index only gets used if the scanner configuration, the set of bean
+ * archives and all the stamps are still the same.
+ */
+public class DeploymentIndex
+{
+    private static final Logger logger = WebBeansLoggerFacade.getLogger(DeploymentIndex.class);
+
+    private static final int VERSION = 2;
+
+    /**
+     * The scanner settings which influence which classes get picked up, e.g. filters and exclusions.
+     */
+    private final String configuration;
+
+    private final Map<String, Entry> entries;
+
+    /**
+     * @param configuration the scanner settings the classes got discovered with
+     */
+    public DeploymentIndex(String configuration)
+    {
+        this(configuration, new HashMap<>());
+    }
+
+    private DeploymentIndex(String configuration, Map<String, Entry> entries)
+    {
+        this.configuration = configuration;
+        this.entries = entries;
+    }
+
+    public String getConfiguration()
+    {
+        return configuration;
+    }
+
+    /**
+     * @return the stamp of the given bean archive or {@code null} if it is not a local file or directory
+     */
+    public static String stamp(URL deploymentUrl)
+    {
+        File file = org.apache.xbean.finder.util.Files.toFile(deploymentUrl);
+        if (file == null || !file.exists())
+        {
+            return null;
+        }
+        if (file.isFile())
+        {
+            return "f" + file.length() + ':' + file.lastModified();
+        }
+
+        long[] stats = new long[3];
+        try (Stream<Path> paths = Files.walk(file.toPath()))
+        {
+            paths.forEach(path ->
+            {
+                try
+                {
+                    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                    if (attributes.isRegularFile())
+                    {
+                        stats[0]++;
+                        stats[1] += attributes.size();
+                        stats[2] = Math.max(stats[2], attributes.lastModifiedTime().toMillis());
+                    }
+                }
+                catch (IOException e)
+                {
+                    stats[2] = -1;
+                }
+            });
+        }
+        catch (IOException | RuntimeException e)
+        {
+            return null;
+        }
+        return stats[2] < 0 ? null : "d" + stats[0] + ':' + stats[1] + ':' + stats[2];
+    }
+
+    public void add(URL deploymentUrl, String stamp, BeanDiscoveryMode discoveryMode, Collection<String> classNames)
+    {
+        entries.put(deploymentUrl.toExternalForm(), new Entry(stamp, discoveryMode, new ArrayList<>(classNames)));
+    }
+
+    /**
+     * @return the indexed class names of the given bean archive or {@code null} if it is not indexed
+     */
+    public List<String> getClassNames(URL deploymentUrl)
+    {
+        Entry entry = entries.get(deploymentUrl.toExternalForm());
+        return entry != null ? entry.classNames : null;
+    }
+
+    /**
+     * @param configuration the current scanner settings
+     * @param stamps the current stamp of each bean deployment URL
+     * @param discoveryModes the current discovery mode of each bean deployment URL
+     * @return whether this index exactly describes the given bean archives
+     */
+    public boolean matches(String configuration, Map<String, String> stamps, Map<String, BeanDiscoveryMode> discoveryModes)
+    {
+        if (!this.configuration.equals(configuration) || stamps.size() != entries.size())
+        {
+            return false;
+        }
+        for (Map.Entry<String, String> stamp : stamps.entrySet())
+        {
+            Entry entry = entries.get(stamp.getKey());
+            if (entry == null || !entry.stamp.equals(stamp.getValue())
+                || entry.discoveryMode != discoveryModes.get(stamp.getKey()))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the index stored in the given file or {@code null} if it doesn't exist or cannot be read
+     */
+    public static DeploymentIndex read(File file)
+    {
+        if (!file.isFile())
+        {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath()))))
+        {
+            return read(in);
+        }
+        catch (IOException | IllegalArgumentException e)
+        {
+            logger.warning("Ignoring unreadable deployment index " + file + ": " + e);
+            return null;
+        }
+    }
+
+    private static DeploymentIndex read(DataInputStream in) throws IOException
+    {
+        if (in.readInt() != VERSION)
+        {
+            return null;
+        }
+
+        String configuration = in.readUTF();
+        int entryCount = in.readInt();
+        Map<String, Entry> entries = new HashMap<>(entryCount * 2);
+        for (int i = 0; i < entryCount; i++)
+        {
+            String url = in.readUTF();
+            String stamp = in.readUTF();
+            BeanDiscoveryMode discoveryMode = BeanDiscoveryMode.valueOf(in.readUTF());
+            int classCount = in.readInt();
+            List<String> classNames = new ArrayList<>(classCount);
+            for (int j = 0; j < classCount; j++)
+            {
+                classNames.add(in.readUTF());
+            }
+            entries.put(url, new Entry(stamp, discoveryMode, classNames));
+        }
+        return new DeploymentIndex(configuration, entries);
+    }
+
+    /**
+     * Writes the index to a temporary file first and then moves it to the given location,
+     * so concurrently starting containers never see a partially written index.
+     */
+    public void write(File file) throws IOException
+    {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs())
+        {
+            throw new IOException("Cannot create directory " + parent);
+        }
+
+        Path tmp = Files.createTempFile(parent != null ? parent.toPath() : null, file.getName(), ".tmp");
+        try
+        {
+            try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(tmp));
+                 DataOutputStream out = new DataOutputStream(outputStream))
+            {
+                out.writeInt(VERSION);
+                out.writeUTF(configuration);
+                out.writeInt(entries.size());
+                for (Map.Entry<String, Entry> entry : entries.entrySet())
+                {
+                    out.writeUTF(entry.getKey());
+                    out.writeUTF(entry.getValue().stamp);
+                    out.writeUTF(entry.getValue().discoveryMode.name());
+                    out.writeInt(entry.getValue().classNames.size());
+                    for (String className : entry.getValue().classNames)
+                    {
+                        out.writeUTF(className);
+                    }
+                }
+            }
+            Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        finally
+        {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static final class Entry
+    {
+        private final String stamp;
+        private final BeanDiscoveryMode discoveryMode;
+        private final List<String> classNames;
+
+        private Entry(String stamp, BeanDiscoveryMode discoveryMode, List<String> classNames)
+        {
+            this.stamp = stamp;
+            this.discoveryMode = discoveryMode;
+            this.classNames = classNames;
+        }
+    }
+}
@@ -18,14 +18,22 @@
  */
 package org.apache.webbeans.corespi.scanner.xbean;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 import org.apache.webbeans.spi.BeanArchiveService.BeanArchiveInformation;
 import org.apache.webbeans.spi.BeanArchiveService.BeanDiscoveryMode;
+import org.apache.xbean.finder.archive.Archive;
 import org.apache.xbean.finder.filter.Filter;
 
 /**
- * Filter which knows about BeanArchive scan modes
+ * Filter which knows about BeanArchive scan modes.
+ *
+ * For bean archives with bean-discovery-mode 'annotated' it can prefilter the classes
+ * by reading their class files: only classes which have at least one runtime visible
+ * class annotation might be beans, all others never get parsed by the AnnotationFinder
+ * nor loaded.
  */
 public class BeanArchiveFilter implements Filter
 {
@@ -33,9 +41,24 @@ public class BeanArchiveFilter implements Filter
     private final boolean scanNone;
     private final Filter userFilter;
 
+    /**
+     * the archive to read the class files from for the 'annotated' prefilter or {@code null}
+     */
+    private final Archive annotatedPrefilterArchive;
+
     private List<String> urlClasses;
 
     public BeanArchiveFilter(BeanArchiveInformation beanArchiveInfo, List<String> urlClasses, Filter userFilter)
+    {
+        this(beanArchiveInfo, urlClasses, userFilter, null);
+    }
+
+    /**
+     * @param bytecodeArchive the archive to read the class files from if the classes of
+     *                        an 'annotated' bean archive shall get prefiltered, otherwise {@code null}
+     */
+    public BeanArchiveFilter(BeanArchiveInformation beanArchiveInfo, List<String> urlClasses, Filter userFilter,
+                             Archive bytecodeArchive)
     {
         this.beanArchiveInfo = beanArchiveInfo;
         this.urlClasses = urlClasses;
@@ -43,6 +66,7 @@ public class BeanArchiveFilter implements Filter
         BeanDiscoveryMode discoveryMode = beanArchiveInfo.getBeanDiscoveryMode();
 
         scanNone = BeanDiscoveryMode.NONE == discoveryMode;
+        annotatedPrefilterArchive = BeanDiscoveryMode.ANNOTATED == discoveryMode ? bytecodeArchive : null;
     }
 
     @Override
@@ -58,8 +82,34 @@ public class BeanArchiveFilter implements Filter
             return false;
         }
 
+        if (annotatedPrefilterArchive != null && !hasClassAnnotations(name))
+        {
+            return false;
+        }
+
         urlClasses.add(name);
         return true;
     }
 
+    private boolean hasClassAnnotations(String name)
+    {
+        try (InputStream bytecode = annotatedPrefilterArchive.getBytecode(name))
+        {
+            for (String annotation : ClassFileAnnotationReader.readClassAnnotations(bytecode))
+            {
+                // things like @Deprecated or @FunctionalInterface never make a class a bean
+                if (!annotation.startsWith("java.lang."))
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+        catch (IOException | ClassNotFoundException | RuntimeException e)
+        {
+            // let the AnnotationFinder decide
+            return true;
+        }
+    }
+
 }
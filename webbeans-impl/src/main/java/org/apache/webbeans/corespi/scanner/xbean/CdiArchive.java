@@ -55,7 +55,18 @@ public class CdiArchive implements Archive
     public CdiArchive(BeanArchiveService beanArchiveService, ClassLoader loader, Map<String, URL> urls,
                       Filter userFilter, Archive customArchive)
     {
-        Collection<Archive> archives = new ArrayList<>();
+        this(beanArchiveService, loader, urls, userFilter, customArchive, false, 1);
+    }
+
+    /**
+     * @param annotatedPrefilter whether the classes of bean archives with bean-discovery-mode 'annotated'
+     *                           get prefiltered by reading their class files, see {@link BeanArchiveFilter}
+     * @param parallelism how many bean archives get read in parallel, see {@link ReadAheadArchive}
+     */
+    public CdiArchive(BeanArchiveService beanArchiveService, ClassLoader loader, Map<String, URL> urls,
+                      Filter userFilter, Archive customArchive, boolean annotatedPrefilter, int parallelism)
+    {
+        List<Archive> archives = new ArrayList<>();
         boolean customAdded = false;
         for (URL url : urls.values())
         {
@@ -63,9 +74,10 @@ public class CdiArchive implements Archive
 
             BeanArchiveInformation beanArchiveInfo = beanArchiveService.getBeanArchiveInformation(url);
             final boolean custom = "openwebbeans".equals(url.getProtocol());
+            Archive urlArchive = custom ? customArchive : ClasspathArchive.archive(loader, url);
             Archive archive = new FilteredArchive(
-                    custom ? customArchive : ClasspathArchive.archive(loader, url),
-                    new BeanArchiveFilter(beanArchiveInfo, urlClasses, userFilter));
+                    urlArchive,
+                    new BeanArchiveFilter(beanArchiveInfo, urlClasses, userFilter, annotatedPrefilter ? urlArchive : null));
             if (!customAdded && custom)
             {
                 customAdded = true;
@@ -78,7 +90,9 @@ public class CdiArchive implements Archive
         {
             archives.add(userFilter != null ? new FilteredArchive(customArchive, userFilter) : customArchive);
         }
-        delegate = new CompositeArchive(archives);
+        delegate = parallelism > 1 && archives.size() > 1
+                ? new ReadAheadArchive(archives, parallelism, loader)
+                : new CompositeArchive(archives);
     }
 
     public Map<String, FoundClasses> classesByUrl()
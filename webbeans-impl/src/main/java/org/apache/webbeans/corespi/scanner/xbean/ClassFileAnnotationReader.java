@@ -0,0 +1,309 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.corespi.scanner.xbean;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Minimal class file reader which only looks at the constant pool and the attributes
+ * of a class to find the runtime visible annotations of the class itself.
+ * The class neither gets loaded nor parsed into a full ASM model.
+ */
+public final class ClassFileAnnotationReader
+{
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final byte[] RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations".getBytes(StandardCharsets.UTF_8);
+
+    private final byte[] bytes;
+    private int position;
+
+    /**
+     * start offset of each Utf8 constant, {@code -1} for all other constants
+     */
+    private int[] utf8Offsets;
+
+    private ClassFileAnnotationReader(byte[] bytes)
+    {
+        this.bytes = bytes;
+    }
+
+    /**
+     * @param bytecode the class file, the stream does not get closed
+     * @return the class names of the runtime visible annotations of the class
+     * @throws IOException if the stream cannot be read or does not contain a valid class file
+     */
+    public static List<String> readClassAnnotations(InputStream bytecode) throws IOException
+    {
+        return readClassAnnotations(readFully(bytecode));
+    }
+
+    /**
+     * @param classFile the bytes of the class file
+     * @return the class names of the runtime visible annotations of the class
+     * @throws IOException if the bytes are no valid class file
+     */
+    public static List<String> readClassAnnotations(byte[] classFile) throws IOException
+    {
+        try
+        {
+            return new ClassFileAnnotationReader(classFile).read();
+        }
+        catch (ArrayIndexOutOfBoundsException e)
+        {
+            throw new IOException("Truncated class file", e);
+        }
+    }
+
+    private List<String> read() throws IOException
+    {
+        if (readInt() != MAGIC)
+        {
+            throw new IOException("No class file");
+        }
+        position += 4; // minor and major version
+
+        int runtimeVisibleAnnotationsIndex = readConstantPool();
+        if (runtimeVisibleAnnotationsIndex < 0)
+        {
+            // no element of the class has any runtime annotation
+            return Collections.emptyList();
+        }
+
+        position += 6; // access flags, this and super class
+        int interfacesCount = readUnsignedShort();
+        position += 2 * interfacesCount;
+        skipMembers(); // fields
+        skipMembers(); // methods
+
+        int attributesCount = readUnsignedShort();
+        for (int i = 0; i < attributesCount; i++)
+        {
+            int nameIndex = readUnsignedShort();
+            int length = readInt();
+            if (nameIndex == runtimeVisibleAnnotationsIndex)
+            {
+                return readAnnotationNames();
+            }
+            position += length;
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * @return the constant pool index of the RuntimeVisibleAnnotations Utf8 constant or {@code -1}
+     */
+    private int readConstantPool() throws IOException
+    {
+        int count = readUnsignedShort();
+        utf8Offsets = new int[count];
+        Arrays.fill(utf8Offsets, -1);
+
+        int runtimeVisibleAnnotationsIndex = -1;
+        for (int i = 1; i < count; i++)
+        {
+            int tag = bytes[position++];
+            switch (tag)
+            {
+                case 1: // Utf8
+                    int length = readUnsignedShort();
+                    utf8Offsets[i] = position;
+                    if (runtimeVisibleAnnotationsIndex < 0 && isRuntimeVisibleAnnotations(position, length))
+                    {
+                        runtimeVisibleAnnotationsIndex = i;
+                    }
+                    position += length;
+                    break;
+                case 7: // Class
+                case 8: // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    position += 2;
+                    break;
+                case 15: // MethodHandle
+                    position += 3;
+                    break;
+                case 3: // Integer
+                case 4: // Float
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    position += 4;
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    position += 8;
+                    i++; // takes two slots
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+        return runtimeVisibleAnnotationsIndex;
+    }
+
+    private boolean isRuntimeVisibleAnnotations(int offset, int length)
+    {
+        if (length != RUNTIME_VISIBLE_ANNOTATIONS.length)
+        {
+            return false;
+        }
+        for (int i = 0; i < length; i++)
+        {
+            if (bytes[offset + i] != RUNTIME_VISIBLE_ANNOTATIONS[i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void skipMembers()
+    {
+        int count = readUnsignedShort();
+        for (int i = 0; i < count; i++)
+        {
+            position += 6; // access flags, name and descriptor
+            int attributesCount = readUnsignedShort();
+            for (int j = 0; j < attributesCount; j++)
+            {
+                position += 2; // name
+                int length = readInt();
+                position += length;
+            }
+        }
+    }
+
+    private List<String> readAnnotationNames() throws IOException
+    {
+        int count = readUnsignedShort();
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+        {
+            String descriptor = getUtf8(readUnsignedShort());
+            if (descriptor.length() > 2 && descriptor.charAt(0) == 'L')
+            {
+                names.add(descriptor.substring(1, descriptor.length() - 1).replace('/', '.'));
+            }
+            skipElementValuePairs();
+        }
+        return names;
+    }
+
+    private void skipElementValuePairs() throws IOException
+    {
+        int pairs = readUnsignedShort();
+        for (int i = 0; i < pairs; i++)
+        {
+            position += 2; // element name
+            skipElementValue();
+        }
+    }
+
+    private void skipElementValue() throws IOException
+    {
+        int tag = bytes[position++];
+        switch (tag)
+        {
+            case 'B':
+            case 'C':
+            case 'D':
+            case 'F':
+            case 'I':
+            case 'J':
+            case 'S':
+            case 'Z':
+            case 's':
+            case 'c':
+                position += 2;
+                break;
+            case 'e':
+                position += 4;
+                break;
+            case '@':
+                position += 2;
+                skipElementValuePairs();
+                break;
+            case '[':
+                int values = readUnsignedShort();
+                for (int i = 0; i < values; i++)
+                {
+                    skipElementValue();
+                }
+                break;
+            default:
+                throw new IOException("Unknown element value tag " + (char) tag);
+        }
+    }
+
+    private String getUtf8(int index) throws IOException
+    {
+        int offset = index < utf8Offsets.length ? utf8Offsets[index] : -1;
+        if (offset < 0)
+        {
+            throw new IOException("No Utf8 constant at index " + index);
+        }
+        int length = ((bytes[offset - 2] & 0xFF) << 8) | (bytes[offset - 1] & 0xFF);
+
+        // type descriptors are plain ASCII in practice, the modified UTF-8 of the class file
+        // only differs from standard UTF-8 for the null character and supplementary characters
+        return new String(bytes, offset, length, StandardCharsets.UTF_8);
+    }
+
+    private int readUnsignedShort()
+    {
+        int value = ((bytes[position] & 0xFF) << 8) | (bytes[position + 1] & 0xFF);
+        position += 2;
+        return value;
+    }
+
+    private int readInt()
+    {
+        int value = ((bytes[position] & 0xFF) << 24) | ((bytes[position + 1] & 0xFF) << 16)
+                | ((bytes[position + 2] & 0xFF) << 8) | (bytes[position + 3] & 0xFF);
+        position += 4;
+        return value;
+    }
+
+    static byte[] readFully(InputStream in) throws IOException
+    {
+        byte[] buffer = new byte[Math.max(in.available(), 4096)];
+        int length = 0;
+        int read;
+        while ((read = in.read(buffer, length, buffer.length - length)) != -1)
+        {
+            length += read;
+            if (length == buffer.length)
+            {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+        return length == buffer.length ? buffer : Arrays.copyOf(buffer, length);
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.corespi.scanner.xbean;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.webbeans.exception.WebBeansDeploymentException;
+import org.apache.xbean.finder.archive.Archive;
+import org.apache.xbean.finder.archive.CompositeArchive;
+
+/**
+ * Archive over several bean archives which reads the class files of the next
+ * archives in parallel while the current one gets consumed.
+ *
+ * <p>The entries are still returned in the same order as by a {@link CompositeArchive},
+ * so the AnnotationFinder which iterates them on a single thread ends up with the same result.
+ * Each archive gets read completely by a single thread, which also runs its filters.
+ * At most {@code parallelism} archives get read ahead, which bounds the memory held
+ * for class files nobody consumed yet.</p>
+ */
+public class ReadAheadArchive implements Archive
+{
+    private final List<Archive> archives;
+    private final Archive delegate;
+    private final int parallelism;
+    private final ClassLoader classLoader;
+
+    public ReadAheadArchive(List<Archive> archives, int parallelism, ClassLoader classLoader)
+    {
+        this.archives = archives;
+        this.delegate = new CompositeArchive(archives);
+        this.parallelism = parallelism;
+        this.classLoader = classLoader;
+    }
+
+    @Override
+    public InputStream getBytecode(String className) throws IOException, ClassNotFoundException
+    {
+        return delegate.getBytecode(className);
+    }
+
+    @Override
+    public Class<?> loadClass(String className) throws ClassNotFoundException
+    {
+        return delegate.loadClass(className);
+    }
+
+    @Override
+    public Iterator<Entry> iterator()
+    {
+        return new ReadAheadIterator();
+    }
+
+    private ThreadPoolExecutor createExecutor()
+    {
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism, 1, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable ->
+                {
+                    Thread thread = new Thread(runnable, "OpenWebBeans-Scanner-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setContextClassLoader(classLoader);
+                    return thread;
+                });
+
+        // if the iteration gets abandoned the threads still go away
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static List<Entry> readArchive(Archive archive)
+    {
+        List<Entry> entries = new ArrayList<>();
+        for (Entry entry : archive)
+        {
+            entries.add(new ReadEntry(entry));
+        }
+        return entries;
+    }
+
+    private final class ReadAheadIterator implements Iterator<Entry>
+    {
+        private final Deque<Future<List<Entry>>> pending = new ArrayDeque<>();
+        private ThreadPoolExecutor executor;
+        private int nextArchive;
+        private Iterator<Entry> current;
+
+        @Override
+        public boolean hasNext()
+        {
+            while (current == null || !current.hasNext())
+            {
+                readAhead();
+                Future<List<Entry>> next = pending.poll();
+                if (next == null)
+                {
+                    shutdown();
+                    return false;
+                }
+                current = get(next).iterator();
+            }
+            return true;
+        }
+
+        @Override
+        public Entry next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        private void readAhead()
+        {
+            while (pending.size() < parallelism && nextArchive < archives.size())
+            {
+                if (executor == null)
+                {
+                    executor = createExecutor();
+                }
+                Archive archive = archives.get(nextArchive++);
+                pending.add(executor.submit(() -> readArchive(archive)));
+            }
+        }
+
+        private List<Entry> get(Future<List<Entry>> future)
+        {
+            try
+            {
+                return future.get();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                shutdown();
+                throw new WebBeansDeploymentException(e);
+            }
+            catch (ExecutionException e)
+            {
+                shutdown();
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException)
+                {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error)
+                {
+                    throw (Error) cause;
+                }
+                throw new WebBeansDeploymentException(cause);
+            }
+        }
+
+        private void shutdown()
+        {
+            if (executor != null)
+            {
+                executor.shutdownNow();
+                executor = null;
+            }
+        }
+    }
+
+    /**
+     * An entry with its class file already read into memory.
+     * A failure to read it gets reported when the bytecode is requested, like for the original entry.
+     */
+    private static final class ReadEntry implements Entry
+    {
+        private final String name;
+        private final byte[] bytecode;
+        private final IOException failure;
+
+        private ReadEntry(Entry entry)
+        {
+            name = entry.getName();
+
+            byte[] bytes = null;
+            IOException readFailure = null;
+            try (InputStream in = entry.getBytecode())
+            {
+                if (in == null)
+                {
+                    throw new IOException("No class file found for " + name);
+                }
+                bytes = ClassFileAnnotationReader.readFully(in);
+            }
+            catch (IOException e)
+            {
+                readFailure = e;
+            }
+            bytecode = bytes;
+            failure = readFailure;
+        }
+
+        @Override
+        public String getName()
+        {
+            return name;
+        }
+
+        @Override
+        public InputStream getBytecode() throws IOException
+        {
+            if (failure != null)
+            {
+                throw failure;
+            }
+            return new ByteArrayInputStream(bytecode);
+        }
+    }
+}
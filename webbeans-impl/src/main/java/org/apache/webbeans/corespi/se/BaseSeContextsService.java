@@ -49,27 +49,29 @@ import org.apache.webbeans.intercept.SessionScopedBeanInterceptorHandler;
 
 public abstract class BaseSeContextsService extends AbstractContextsService
 {
-    private static ThreadLocal<RequestContext> requestContext;
-
-    private static ThreadLocal<SessionContext> sessionContext;
-
-    private static ThreadLocal<ConversationContext> conversationContext;
+    /**
+     * All contexts of a thread are kept in a single ThreadLocal, so each thread only
+     * gets one entry in its ThreadLocalMap. The entry gets removed as soon as no
+     * context is active anymore. This matters if lots of (virtual) threads use CDI.
+     */
+    private static final ThreadLocal<ThreadContexts> threadContexts = new ThreadLocal<>();
 
-    private static ThreadLocal<DependentContext> dependentContext;
+    /**
+     * The DependentContext is stateless, so all threads share it.
+     */
+    private final DependentContext dependentContext = new DependentContext();
 
     private ApplicationContext applicationContext;
 
-    static
-    {
-        requestContext = new ThreadLocal<>();
-        sessionContext = new ThreadLocal<>();
-        conversationContext = new ThreadLocal<>();
-        dependentContext = new ThreadLocal<>();
-    }
+    /**
+     * Whether the built-in slots can be resolved without {@link #getCurrentContext(Class)}.
+     */
+    private final boolean slotLookupSafe;
 
     protected BaseSeContextsService(final WebBeansContext webBeansContext)
     {
         super(webBeansContext);
+        slotLookupSafe = isSlotLookupSafe(BaseSeContextsService.class);
     }
 
     protected abstract void destroySingletonContext();
@@ -145,6 +147,33 @@ public abstract class BaseSeContextsService extends AbstractContextsService
         return null;
     }
 
+    @Override
+    public Context getCurrentContext(int scopeSlot, Class<? extends Annotation> scopeType)
+    {
+        if (!slotLookupSafe)
+        {
+            return getCurrentContext(scopeType);
+        }
+
+        switch (scopeSlot)
+        {
+            case REQUEST_SCOPE_SLOT:
+                return getCurrentRequestContext();
+            case SESSION_SCOPE_SLOT:
+                return getCurrentSessionContext();
+            case APPLICATION_SCOPE_SLOT:
+                return applicationContext;
+            case CONVERSATION_SCOPE_SLOT:
+                return supportsConversation ? getCurrentConversationContext() : null;
+            case DEPENDENT_SCOPE_SLOT:
+                return getCurrentDependentContext();
+            case SINGLETON_SCOPE_SLOT:
+                return getCurrentSingletonContext();
+            default:
+                return getCurrentContext(scopeType);
+        }
+    }
+
 
     /**
      * {@inheritDoc}
@@ -191,38 +220,62 @@ public abstract class BaseSeContextsService extends AbstractContextsService
     @Override
     public void destroy(Object destroyObject)
     {
-        RequestContext requestCtx = requestContext.get();
-        if (requestCtx != null)
+        ThreadContexts contexts = threadContexts.get();
+        if (contexts != null)
         {
-            requestCtx.destroy();
-            RequestScopedBeanInterceptorHandler.removeThreadLocals();
-            requestContext.set(null);
-            requestContext.remove();
-        }
+            if (contexts.requestContext != null)
+            {
+                contexts.requestContext.destroy();
+                RequestScopedBeanInterceptorHandler.removeThreadLocals();
+            }
 
-        SessionContext sessionCtx = sessionContext.get();
-        if (sessionCtx != null)
-        {
-            sessionCtx.destroy();
-            SessionScopedBeanInterceptorHandler.removeThreadLocals();
-            sessionContext.set(null);
-            sessionContext.remove();
-        }
+            if (contexts.sessionContext != null)
+            {
+                contexts.sessionContext.destroy();
+                SessionScopedBeanInterceptorHandler.removeThreadLocals();
+            }
 
-        ConversationContext conversationCtx = conversationContext.get();
-        if (conversationCtx != null)
-        {
-            conversationCtx.destroy();
-            conversationContext.set(null);
-            conversationContext.remove();
-        }
+            if (contexts.conversationContext != null)
+            {
+                contexts.conversationContext.destroy();
+            }
 
-        dependentContext.set(null);
-        dependentContext.remove();
+            threadContexts.remove();
+        }
 
         destroyGlobalContexts();
     }
 
+    @Override
+    public boolean canAttachRequestContext(RequestContext requestContext)
+    {
+        return true;
+    }
+
+    @Override
+    public RequestContext attachRequestContext(RequestContext requestContext)
+    {
+        ThreadContexts contexts = getThreadContexts();
+        RequestContext previousRequestContext = contexts.requestContext;
+        contexts.requestContext = requestContext;
+
+        // the cached instances belong to the previous request context
+        RequestScopedBeanInterceptorHandler.removeThreadLocals();
+        return previousRequestContext;
+    }
+
+    @Override
+    public void detachRequestContext(RequestContext previousRequestContext)
+    {
+        ThreadContexts contexts = threadContexts.get();
+        if (contexts != null)
+        {
+            contexts.requestContext = previousRequestContext;
+            removeThreadContextsIfEmpty(contexts);
+        }
+        RequestScopedBeanInterceptorHandler.removeThreadLocals();
+    }
+
     protected void destroyGlobalContexts()
     {
         if (applicationContext != null)
@@ -235,11 +288,12 @@ public abstract class BaseSeContextsService extends AbstractContextsService
 
     private Context getCurrentConversationContext()
     {
-        ConversationContext conversationCtx = conversationContext.get();
+        ThreadContexts contexts = threadContexts.get();
+        ConversationContext conversationCtx = contexts == null ? null : contexts.conversationContext;
         if (conversationCtx == null)
         {
             conversationCtx = webBeansContext.getConversationManager().getConversationContext(getCurrentSessionContext());
-            conversationContext.set(conversationCtx);
+            getThreadContexts().conversationContext = conversationCtx;
 
             // check for busy and non-existing conversations
             String conversationId = webBeansContext.getConversationService().getConversationId();
@@ -263,24 +317,40 @@ public abstract class BaseSeContextsService extends AbstractContextsService
     
     private Context getCurrentDependentContext()
     {        
-        if(dependentContext.get() == null)
-        {
-            dependentContext.set(new DependentContext());
-        }
-        
-        return dependentContext.get();
+        return dependentContext;
     }
 
     
     private Context getCurrentRequestContext()
     {        
-        return requestContext.get();
+        ThreadContexts contexts = threadContexts.get();
+        return contexts == null ? null : contexts.requestContext;
     }
 
     
     private Context getCurrentSessionContext()
     {
-        return sessionContext.get();
+        ThreadContexts contexts = threadContexts.get();
+        return contexts == null ? null : contexts.sessionContext;
+    }
+
+    private static ThreadContexts getThreadContexts()
+    {
+        ThreadContexts contexts = threadContexts.get();
+        if (contexts == null)
+        {
+            contexts = new ThreadContexts();
+            threadContexts.set(contexts);
+        }
+        return contexts;
+    }
+
+    private static void removeThreadContextsIfEmpty(ThreadContexts contexts)
+    {
+        if (contexts.requestContext == null && contexts.sessionContext == null && contexts.conversationContext == null)
+        {
+            threadContexts.remove();
+        }
     }
     
     private void startApplicationContext()
@@ -310,7 +380,7 @@ public abstract class BaseSeContextsService extends AbstractContextsService
         ConversationManager conversationManager = webBeansContext.getConversationManager();
         ConversationContext ctx = conversationManager.getConversationContext(getCurrentSessionContext());
         ctx.setActive(true);
-        conversationContext.set(ctx);
+        getThreadContexts().conversationContext = ctx;
 
         final ConversationImpl conversation = ctx.getConversation();
         if (conversation.isTransient())
@@ -331,7 +401,7 @@ public abstract class BaseSeContextsService extends AbstractContextsService
         RequestContext ctx = new RequestContext();
         ctx.setActive(true);
         
-        requestContext.set(ctx);
+        getThreadContexts().requestContext = ctx;
         if (shouldFireRequestLifecycleEvents())
         {
             webBeansContext.getBeanManagerImpl().fireContextLifecyleEvent(
@@ -345,7 +415,7 @@ public abstract class BaseSeContextsService extends AbstractContextsService
         SessionContext ctx = new SessionContext();
         ctx.setActive(true);
         
-        sessionContext.set(ctx);
+        getThreadContexts().sessionContext = ctx;
         webBeansContext.getBeanManagerImpl().fireContextLifecyleEvent(
             new Object(), InitializedLiteral.INSTANCE_SESSION_SCOPED);
     }
@@ -378,24 +448,31 @@ public abstract class BaseSeContextsService extends AbstractContextsService
     
     private void stopConversationContext()
     {
-        if(conversationContext.get() != null)
+        ThreadContexts contexts = threadContexts.get();
+        if (contexts == null)
         {
-            conversationContext.get().destroy();   
+            return;
         }
 
-        conversationContext.set(null);
-        conversationContext.remove();
+        if(contexts.conversationContext != null)
+        {
+            contexts.conversationContext.destroy();   
+        }
+
+        contexts.conversationContext = null;
+        removeThreadContextsIfEmpty(contexts);
     }
 
     
     private void stopRequestContext()
     {
+        ThreadContexts contexts = threadContexts.get();
+
         // cleanup open conversations first
-        if (supportsConversation)
+        if (supportsConversation && contexts != null)
         {
-            destroyOutdatedConversations(conversationContext.get());
-            conversationContext.set(null);
-            conversationContext.remove();
+            destroyOutdatedConversations(contexts.conversationContext);
+            contexts.conversationContext = null;
         }
 
 
@@ -405,14 +482,17 @@ public abstract class BaseSeContextsService extends AbstractContextsService
                     new Object(), BeforeDestroyedLiteral.INSTANCE_REQUEST_SCOPED);
         }
 
-        final RequestContext ctx = BaseSeContextsService.requestContext.get();
+        final RequestContext ctx = contexts == null ? null : contexts.requestContext;
         if (ctx != null)
         {
             ctx.destroy();
         }
 
-        BaseSeContextsService.requestContext.set(null);
-        BaseSeContextsService.requestContext.remove();
+        if (contexts != null)
+        {
+            contexts.requestContext = null;
+            removeThreadContextsIfEmpty(contexts);
+        }
         RequestScopedBeanInterceptorHandler.removeThreadLocals();
 
         if (shouldFireRequestLifecycleEvents())
@@ -427,13 +507,17 @@ public abstract class BaseSeContextsService extends AbstractContextsService
     {
         webBeansContext.getBeanManagerImpl().fireContextLifecyleEvent(
                 new Object(), BeforeDestroyedLiteral.INSTANCE_SESSION_SCOPED);
-        if(sessionContext.get() != null)
+        ThreadContexts contexts = threadContexts.get();
+        if (contexts != null)
         {
-            sessionContext.get().destroy();   
-        }
+            if(contexts.sessionContext != null)
+            {
+                contexts.sessionContext.destroy();   
+            }
 
-        sessionContext.set(null);
-        sessionContext.remove();
+            contexts.sessionContext = null;
+            removeThreadContextsIfEmpty(contexts);
+        }
         SessionScopedBeanInterceptorHandler.removeThreadLocals();
         webBeansContext.getBeanManagerImpl().fireContextLifecyleEvent(
             new Object(), DestroyedLiteral.INSTANCE_SESSION_SCOPED);
@@ -448,4 +532,11 @@ public abstract class BaseSeContextsService extends AbstractContextsService
         webBeansContext.getBeanManagerImpl().fireContextLifecyleEvent(
             new Object(), DestroyedLiteral.INSTANCE_SINGLETON_SCOPED);
     }
+
+    private static final class ThreadContexts
+    {
+        private RequestContext requestContext;
+        private SessionContext sessionContext;
+        private ConversationContext conversationContext;
+    }
 }
@@ -38,7 +38,7 @@ import javax.enterprise.inject.spi.Bean;
  *   Store the Contextual Reference for each name per request thread. This is a performance
  *   tuning strategy, because creating a {@link org.apache.webbeans.intercept.NormalScopedBeanInterceptorHandler}
  *   for each and every EL call is very expensive. This needs to be cleaned up with
- *   {@link #destroyELContextStore()} at the end of each request. 
+ *   {@link #endRequest(boolean)} at the end of each request. 
  *  </li>
  * </ol>
  */
@@ -66,8 +66,8 @@ public final class ELContextStore
     /**
      * The same Expression must get same instances of &#064;Dependent beans
      */
-    private Map<Bean<?>, CreationalStore<?>> dependentObjects = new HashMap<>();
-    private Map<String, Bean<?>> beanNameToDependentBeanMapping = new HashMap<>();
+    private final Map<Bean<?>, CreationalStore<?>> dependentObjects = new HashMap<>();
+    private final Map<String, Bean<?>> beanNameToDependentBeanMapping = new HashMap<>();
 
     /**
      * Cache for resolved proxies of &#064;NormalScoped beans. This heavily speeds up pages with
@@ -75,7 +75,7 @@ public final class ELContextStore
      * property. If we wouldn't cache this, every EL call would create a new proxy and
      * drops it after the EL.
      */
-    private Map<String, Object> normalScopedObjects = new HashMap<>();
+    private final Map<String, Object> normalScopedObjects = new HashMap<>();
 
     public Object findBeanByName(String name)
     {
@@ -203,4 +203,32 @@ public final class ELContextStore
         contextStores.set(null);
         contextStores.remove();
     }
+
+    /**
+     * Clears all cached beans but keeps this store bound to the current thread,
+     * so the next request of this thread doesn't need to allocate a new store.
+     */
+    public void recycle()
+    {
+        normalScopedObjects.clear();
+        dependentObjects.clear();
+        beanNameToDependentBeanMapping.clear();
+    }
+
+    /**
+     * Clean up at the end of a request.
+     *
+     * @param recycle whether the store shall get {@link #recycle() recycled} or {@link #destroyELContextStore() destroyed}
+     */
+    public void endRequest(boolean recycle)
+    {
+        if (recycle)
+        {
+            recycle();
+        }
+        else
+        {
+            destroyELContextStore();
+        }
+    }
 }
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.event;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.enterprise.inject.spi.ObserverMethod;
+
+/**
+ * The events of a {@link OwbEvent#fireAll(java.util.Collection)} call
+ * together with the metadata and observers resolved for each of them.
+ */
+final class EventBatch
+{
+    private final Object[] events;
+    private final Dispatch[] dispatches;
+    private int size;
+
+    /**
+     * Each Dispatch of this batch exactly once.
+     */
+    private final List<Dispatch> distinctDispatches = new ArrayList<>();
+
+    EventBatch(int capacity)
+    {
+        events = new Object[capacity];
+        dispatches = new Dispatch[capacity];
+    }
+
+    /**
+     * Create a new Dispatch which can be used for all events of the same class within this batch.
+     */
+    Dispatch createDispatch(EventMetadataImpl metadata, List<ObserverMethod<? super Object>> observerMethods)
+    {
+        Dispatch dispatch = new Dispatch(metadata, observerMethods);
+        distinctDispatches.add(dispatch);
+        return dispatch;
+    }
+
+    void add(Object event, Dispatch dispatch)
+    {
+        events[size] = event;
+        dispatches[size] = dispatch;
+        size++;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    Object getEvent(int index)
+    {
+        return events[index];
+    }
+
+    Dispatch getDispatch(int index)
+    {
+        return dispatches[index];
+    }
+
+    /**
+     * Release the instances resolved by the notifiers of all dispatches.
+     */
+    void close()
+    {
+        for (Dispatch dispatch : distinctDispatches)
+        {
+            dispatch.close();
+        }
+    }
+
+    /**
+     * Metadata and observers shared by all events of the same class within a batch.
+     * For the synchronous dispatch it also keeps the {@link ObserverMethodImpl.BatchNotifier}s,
+     * so each observer resolves its contextual instance only once.
+     */
+    static final class Dispatch
+    {
+        private final EventMetadataImpl metadata;
+        private final List<ObserverMethod<? super Object>> observerMethods;
+        private final Map<ObserverMethod<?>, ObserverMethodImpl<?>.BatchNotifier> notifiers = new IdentityHashMap<>();
+
+        private Dispatch(EventMetadataImpl metadata, List<ObserverMethod<? super Object>> observerMethods)
+        {
+            this.metadata = metadata;
+            this.observerMethods = observerMethods;
+        }
+
+        EventMetadataImpl getMetadata()
+        {
+            return metadata;
+        }
+
+        List<ObserverMethod<? super Object>> getObserverMethods()
+        {
+            return observerMethods;
+        }
+
+        /**
+         * @return the notifier for the given observer or {@code null} if it must get notified event by event
+         */
+        ObserverMethodImpl<?>.BatchNotifier getNotifier(ObserverMethod<?> observer)
+        {
+            ObserverMethodImpl<?>.BatchNotifier notifier = notifiers.get(observer);
+            if (notifier == null && observer instanceof ObserverMethodImpl && !notifiers.containsKey(observer))
+            {
+                notifier = ((ObserverMethodImpl<?>) observer).createBatchNotifier(metadata);
+                notifiers.put(observer, notifier);
+            }
+            return notifier;
+        }
+
+        /**
+         * Release the instances resolved by the notifiers of the given observer.
+         */
+        void close(ObserverMethod<?> observer)
+        {
+            ObserverMethodImpl<?>.BatchNotifier notifier = notifiers.remove(observer);
+            if (notifier != null)
+            {
+                notifier.close();
+            }
+        }
+
+        void close()
+        {
+            for (ObserverMethod<?> observer : observerMethods)
+            {
+                close(observer);
+            }
+        }
+    }
+}
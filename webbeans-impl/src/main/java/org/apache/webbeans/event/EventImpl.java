@@ -22,14 +22,12 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
-import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletionStage;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 import javax.enterprise.event.Event;
 import javax.enterprise.event.NotificationOptions;
@@ -46,7 +44,7 @@ import org.apache.webbeans.util.Asserts;
  * @param <T> event type
  * @see Event
  */
-public class EventImpl<T> implements Event<T>, Serializable
+public class EventImpl<T> implements OwbEvent<T>, Serializable
 {
     private static final long serialVersionUID = 393021493190378023L;
 
@@ -54,12 +52,9 @@ public class EventImpl<T> implements Event<T>, Serializable
 
     private transient WebBeansContext webBeansContext;
 
-    // cache for metadata != this.metadata
-    private volatile transient ConcurrentMap<ObserverCacheKey, List<ObserverMethod<? super Object>>> observers;
-    private volatile transient ConcurrentMap<ObserverCacheKey, List<ObserverMethod<? super Object>>> asyncObservers;
-    // cache for metadata == this.metadata (fast path)
-    private volatile transient List<ObserverMethod<? super Object>> defaultMetadataObservers;
-    private volatile transient List<ObserverMethod<? super Object>> defaultMetadataAsyncObservers;
+    // cache for metadata == this.metadata (fast path), all other metadata use the dispatch table of the NotificationManager
+    private volatile transient DispatchedObservers defaultMetadataObservers;
+    private volatile transient DispatchedObservers defaultMetadataAsyncObservers;
 
     /**
      * Creates a new event.
@@ -130,6 +125,68 @@ public class EventImpl<T> implements Event<T>, Serializable
         return doFireAsyncEvent(event, metadata, notificationOptions);
     }
 
+    @Override
+    public void fireAll(Collection<? extends T> events)
+    {
+        Asserts.assertNotNull(events, "events");
+        if (events.isEmpty())
+        {
+            return;
+        }
+        webBeansContext.getNotificationManager().doFireSync(createBatch(events, false));
+    }
+
+    @Override
+    public <U extends T> CompletionStage<Collection<U>> fireAllAsync(Collection<U> events)
+    {
+        return fireAllAsync(events, webBeansContext.getNotificationManager().getDefaultNotificationOptions());
+    }
+
+    @Override
+    public <U extends T> CompletionStage<Collection<U>> fireAllAsync(Collection<U> events, NotificationOptions notificationOptions)
+    {
+        Asserts.assertNotNull(events, "events");
+        return webBeansContext.getNotificationManager().doFireAsync(createBatch(events, true), notificationOptions, events);
+    }
+
+    /**
+     * Resolve metadata and observers once per event class of the batch.
+     */
+    private EventBatch createBatch(Collection<?> events, boolean async)
+    {
+        EventBatch batch = new EventBatch(events.size());
+        Map<Class<?>, EventBatch.Dispatch> dispatches = new HashMap<>();
+        Class<?> lastEventClass = null;
+        EventBatch.Dispatch dispatch = null;
+        for (Object event : events)
+        {
+            if (event == null)
+            {
+                throw new IllegalArgumentException("events must not contain null");
+            }
+
+            Class<?> eventClass = event.getClass();
+            if (eventClass != lastEventClass)
+            {
+                dispatch = dispatches.get(eventClass);
+                if (dispatch == null)
+                {
+                    EventMetadataImpl eventMetadata = metadata;
+                    if (metadata.validatedType() != eventClass)
+                    {
+                        webBeansContext.getWebBeansUtil().validEventType(eventClass, metadata.getType());
+                        eventMetadata = metadata.select(eventClass);
+                    }
+                    dispatch = batch.createDispatch(eventMetadata, getObserverMethods(event, eventMetadata, async));
+                    dispatches.put(eventClass, dispatch);
+                }
+                lastEventClass = eventClass;
+            }
+            batch.add(event, dispatch);
+        }
+        return batch;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -170,133 +227,58 @@ public class EventImpl<T> implements Event<T>, Serializable
 
     private void doFireSyncEvent(T event, EventMetadataImpl metadata)
     {
-        final NotificationManager notificationManager = webBeansContext.getNotificationManager();
-        List<ObserverMethod<? super Object>> observerMethods;
-        if (metadata == this.metadata) // no validation of isContainerEventType, already done
-        {
-            if (defaultMetadataObservers == null)
-            {
-                final List<ObserverMethod<? super Object>> tmp = new ArrayList<>( // faster than LinkedList
-                        notificationManager.resolveObservers(event, metadata, false));
-                notificationManager.prepareObserverListForFire(false, false, tmp);
-                this.defaultMetadataObservers = tmp;
-            }
-            observerMethods = defaultMetadataObservers;
-        }
-        else
-        {
-            if (webBeansContext.getWebBeansUtil().isContainerEventType(event))
-            {
-                throw new IllegalArgumentException("Firing container events is forbidden");
-            }
-
-            if (observers == null)
-            {
-                synchronized (this)
-                {
-                    if (observers == null)
-                    {
-                        observers = new ConcurrentHashMap<>();
-                    }
-                }
-            }
-            final ObserverCacheKey key = new ObserverCacheKey(
-                    event.getClass(), metadata.validatedType(), metadata.getQualifiers());
-            observerMethods = observers.get(key);
-            if (observerMethods == null)
-            {
-                observerMethods = new ArrayList<>( // faster than LinkedList
-                        notificationManager.resolveObservers(event, metadata, false));
-                notificationManager.prepareObserverListForFire(false, false, observerMethods);
-                this.observers.putIfAbsent(key, observerMethods);
-            }
-        }
-        notificationManager.doFireSync(new EventContextImpl<>(event, metadata), false, observerMethods);
+        List<ObserverMethod<? super Object>> observerMethods = getObserverMethods(event, metadata, false);
+        webBeansContext.getNotificationManager().doFireSync(new EventContextImpl<>(event, metadata), false, observerMethods);
     }
 
     private <U extends T> CompletionStage<U> doFireAsyncEvent(T event, EventMetadataImpl metadata, NotificationOptions options)
+    {
+        List<ObserverMethod<? super Object>> observerMethods = getObserverMethods(event, metadata, true);
+        return webBeansContext.getNotificationManager().doFireAsync(
+                new EventContextImpl<>(event, metadata), false, options, observerMethods);
+    }
+
+    private List<ObserverMethod<? super Object>> getObserverMethods(Object event, EventMetadataImpl metadata, boolean async)
     {
         final NotificationManager notificationManager = webBeansContext.getNotificationManager();
-        List<ObserverMethod<? super Object>> observerMethods;
         if (metadata == this.metadata) // no validation of isContainerEventType, already done
         {
-            if (defaultMetadataAsyncObservers == null)
-            {
-                final List<ObserverMethod<? super Object>> tmp = new ArrayList<>( // faster than LinkedList
-                        notificationManager.resolveObservers(event, metadata, false));
-                notificationManager.prepareObserverListForFire(false, true, tmp);
-                this.defaultMetadataAsyncObservers = tmp;
-            }
-            observerMethods = defaultMetadataAsyncObservers;
-        }
-        else
-        {
-            if (webBeansContext.getWebBeansUtil().isContainerEventType(event))
+            DispatchedObservers dispatched = async ? defaultMetadataAsyncObservers : defaultMetadataObservers;
+            if (dispatched == null || dispatched.version != notificationManager.getDispatchTableVersion())
             {
-                throw new IllegalArgumentException("Firing container events is forbidden");
-            }
-
-            if (asyncObservers == null)
-            {
-                synchronized (this)
+                dispatched = new DispatchedObservers(notificationManager.getDispatchTableVersion(),
+                        notificationManager.getObserversForFire(event, metadata, async));
+                if (async)
                 {
-                    if (asyncObservers == null)
-                    {
-                        asyncObservers = new ConcurrentHashMap<>();
-                    }
+                    defaultMetadataAsyncObservers = dispatched;
+                }
+                else
+                {
+                    defaultMetadataObservers = dispatched;
                 }
             }
-            final ObserverCacheKey key = new ObserverCacheKey(
-                    event.getClass(), metadata.validatedType(), metadata.getQualifiers());
-            observerMethods = asyncObservers.get(key);
-            if (observerMethods == null)
-            {
-                observerMethods = new ArrayList<>( // faster than LinkedList
-                        notificationManager.resolveObservers(event, metadata, false));
-                notificationManager.prepareObserverListForFire(false, true, observerMethods);
-                this.asyncObservers.putIfAbsent(key, observerMethods);
-            }
+            return dispatched.observerMethods;
         }
-        return notificationManager.doFireAsync(
-                new EventContextImpl<>(event, metadata), false, options, observerMethods);
-    }
 
-    private static class ObserverCacheKey
-    {
-        private final Class<?> clazz;
-        private final Type type;
-        private final Collection<Annotation> qualifiers;
-        private final int hash;
-
-        private ObserverCacheKey(Class<?> clazz, Type type, Collection<Annotation> qualifiers)
+        if (webBeansContext.getWebBeansUtil().isContainerEventType(event))
         {
-            this.clazz = clazz;
-            this.type = type;
-            this.qualifiers = qualifiers;
-            this.hash = Objects.hash(clazz, type, qualifiers);
+            throw new IllegalArgumentException("Firing container events is forbidden");
         }
+        return notificationManager.getObserversForFire(event, metadata, async);
+    }
 
-        @Override
-        public boolean equals(final Object o)
-        {
-            if (this == o)
-            {
-                return true;
-            }
-            if (o == null || getClass() != o.getClass())
-            {
-                return false;
-            }
-            ObserverCacheKey that = ObserverCacheKey.class.cast(o);
-            return Objects.equals(clazz, that.clazz) &&
-                    Objects.equals(type, that.type) &&
-                    Objects.equals(qualifiers, that.qualifiers);
-        }
+    /**
+     * The observers resolved for {@link #metadata} together with the dispatch table version they belong to.
+     */
+    private static final class DispatchedObservers
+    {
+        private final int version;
+        private final List<ObserverMethod<? super Object>> observerMethods;
 
-        @Override
-        public int hashCode()
+        private DispatchedObservers(int version, List<ObserverMethod<? super Object>> observerMethods)
         {
-            return hash;
+            this.version = version;
+            this.observerMethods = observerMethods;
         }
     }
 }
@@ -20,19 +20,22 @@
 package org.apache.webbeans.event;
 
 import java.io.Closeable;
-import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
@@ -41,12 +44,15 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.enterprise.context.RequestScoped;
+import javax.enterprise.context.spi.Context;
 import javax.enterprise.event.NotificationOptions;
 import javax.enterprise.event.ObserverException;
 import javax.enterprise.event.TransactionPhase;
@@ -64,8 +70,12 @@ import javax.enterprise.inject.spi.ProcessAnnotatedType;
 import javax.enterprise.inject.spi.ProcessProducer;
 
 import org.apache.webbeans.component.AbstractOwbBean;
+import org.apache.webbeans.config.DeploymentProfiler;
 import org.apache.webbeans.config.OWBLogConst;
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
 import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.context.AbstractContextsService;
+import org.apache.webbeans.context.RequestContext;
 import org.apache.webbeans.exception.WebBeansConfigurationException;
 import org.apache.webbeans.exception.WebBeansDeploymentException;
 import org.apache.webbeans.exception.WebBeansException;
@@ -75,6 +85,7 @@ import org.apache.webbeans.portable.events.generics.GenericBeanEvent;
 import org.apache.webbeans.portable.events.generics.GenericProducerObserverEvent;
 import org.apache.webbeans.portable.events.generics.TwoParametersGenericBeanEvent;
 import org.apache.webbeans.spi.ContextsService;
+import org.apache.webbeans.spi.MetricsService;
 import org.apache.webbeans.spi.TransactionService;
 import org.apache.webbeans.util.AnnotationUtil;
 import org.apache.webbeans.util.Asserts;
@@ -89,6 +100,11 @@ public final class NotificationManager
 
     private final NotificationOptions defaultNotificationOptions;
 
+    /**
+     * @see OpenWebBeansConfiguration#ASYNC_EVENT_PROPAGATE_REQUEST_CONTEXT
+     */
+    private final boolean propagateRequestContext;
+
     /**
      * Contains information whether certain Initialized and Destroyed events have observer methods.
      */
@@ -101,6 +117,27 @@ public final class NotificationManager
     private final ConcurrentHashMap<Class<?>, Set<ObserverMethod<?>>> observersByRawType
         = new ConcurrentHashMap<>();
 
+    /**
+     * Dispatch table for non lifecycle events.
+     * Contains the already filtered and priority sorted ObserverMethods
+     * for each event class, event type, qualifiers and sync/async combination.
+     * It gets cleared whenever an ObserverMethod gets added.
+     */
+    private final ConcurrentMap<DispatchKey, List<ObserverMethod<? super Object>>> dispatchTable
+        = new ConcurrentHashMap<>();
+
+    /**
+     * The maximum number of entries of the {@link #dispatchTable}.
+     * @see OpenWebBeansConfiguration#EVENT_DISPATCH_TABLE_SIZE
+     */
+    private final int dispatchTableMaxSize;
+
+    /**
+     * Incremented whenever the {@link #dispatchTable} gets cleared.
+     * Allows callers which keep a dispatched observer list to detect that it is stale.
+     */
+    private final AtomicInteger dispatchTableVersion = new AtomicInteger();
+
     // this is actually faster than a lambda Comparator.comparingInt(ObserverMethod::getPriority)
     private Comparator<? super ObserverMethod<? super Object>> observerMethodComparator
         = new Comparator<ObserverMethod<? super Object>>()
@@ -116,6 +153,21 @@ public final class NotificationManager
     {
         this.webBeansContext = webBeansContext;
         this.defaultNotificationOptions = NotificationOptions.ofExecutor(getDefaultExecutor());
+        this.propagateRequestContext = webBeansContext.getOpenWebBeansConfiguration().propagateRequestContextToAsyncObservers();
+        this.dispatchTableMaxSize = getDispatchTableMaxSize();
+    }
+
+    private int getDispatchTableMaxSize()
+    {
+        try
+        {
+            return Integer.parseInt(webBeansContext.getOpenWebBeansConfiguration()
+                .getProperty(OpenWebBeansConfiguration.EVENT_DISPATCH_TABLE_SIZE, "10000"));
+        }
+        catch (NumberFormatException e)
+        {
+            return 10000;
+        }
     }
 
     private Executor getDefaultExecutor()
@@ -125,7 +177,42 @@ public final class NotificationManager
         //
         // logic is: if an Executor is registered as a spi use it, otherwise use JVM default one
         Executor service = webBeansContext.getService(Executor.class);
-        return service != null ? service : new CloseableExecutor();
+        if (service != null)
+        {
+            return service;
+        }
+
+        String executorType = webBeansContext.getOpenWebBeansConfiguration().getProperty(OpenWebBeansConfiguration.ASYNC_EVENT_EXECUTOR);
+        if ("virtual".equalsIgnoreCase(executorType))
+        {
+            ExecutorService virtualThreadExecutor = createVirtualThreadExecutor();
+            if (virtualThreadExecutor != null)
+            {
+                return new CloseableExecutor(virtualThreadExecutor, true);
+            }
+        }
+
+        return new CloseableExecutor(ForkJoinPool.commonPool(), false);
+    }
+
+    /**
+     * Virtual threads need Java 21, so we have to look the factory method up reflectively.
+     *
+     * @return an Executor which starts a new virtual thread per task or {@code null} if the JVM does not support it
+     */
+    private static ExecutorService createVirtualThreadExecutor()
+    {
+        try
+        {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            WebBeansLoggerFacade.getLogger(NotificationManager.class)
+                .warning("Virtual threads are not supported by this JVM, asynchronous observers use the common ForkJoinPool");
+            return null;
+        }
     }
 
     /**
@@ -137,6 +224,54 @@ public final class NotificationManager
     {
         observersByRawType.clear();
         hasContextLifecycleEventObservers.clear();
+        clearDispatchTable();
+    }
+
+    private void clearDispatchTable()
+    {
+        dispatchTableVersion.incrementAndGet();
+        dispatchTable.clear();
+    }
+
+    /**
+     * @return the version of the dispatch table. It changes whenever previously
+     *         returned results of {@link #getObserversForFire(Object, EventMetadataImpl, boolean)} got stale.
+     */
+    public int getDispatchTableVersion()
+    {
+        return dispatchTableVersion.get();
+    }
+
+    /**
+     * Resolves the ObserverMethods which have to get notified for the given non lifecycle event.
+     * The result is already filtered for sync/async and sorted by priority and must not be modified.
+     * Subsequent events with the same event class, type and qualifiers are served
+     * from the dispatch table without any type resolution.
+     */
+    public List<ObserverMethod<? super Object>> getObserversForFire(Object event, EventMetadataImpl metadata, boolean async)
+    {
+        DispatchKey key = new DispatchKey(event.getClass(), metadata.validatedType(), metadata.getQualifiers(), async);
+        List<ObserverMethod<? super Object>> observerMethods = dispatchTable.get(key);
+        if (observerMethods == null)
+        {
+            int version = dispatchTableVersion.get();
+
+            List<ObserverMethod<? super Object>> resolved = new ArrayList<>(resolveObservers(event, metadata, false));
+            prepareObserverListForFire(false, async, resolved);
+            observerMethods = resolved.isEmpty()
+                ? Collections.emptyList() : Collections.unmodifiableList(resolved);
+
+            // don't store a result which got computed while an observer got added
+            if (version == dispatchTableVersion.get() && dispatchTable.size() < dispatchTableMaxSize)
+            {
+                List<ObserverMethod<? super Object>> existing = dispatchTable.putIfAbsent(key, observerMethods);
+                if (existing != null)
+                {
+                    observerMethods = existing;
+                }
+            }
+        }
+        return observerMethods;
     }
 
     /**
@@ -184,6 +319,9 @@ public final class NotificationManager
         Set<ObserverMethod<?>> set = observers.computeIfAbsent(observer.getObservedType(), k -> new HashSet<>());
 
         set.add(observer);
+
+        observersByRawType.clear();
+        clearDispatchTable();
     }
 
 
@@ -341,8 +479,8 @@ public final class NotificationManager
             for (Type eventType : eventTypes)
             {
                 if ((ParameterizedType.class.isInstance(eventType) && Class.class.isInstance(observedType)
-                        && GenericsUtil.isAssignableFrom(true, false, observedType, ParameterizedType.class.cast(eventType).getRawType(), new HashMap<>()))
-                    || GenericsUtil.isAssignableFrom(true, false, observedType, eventType, new HashMap<>()))
+                        && webBeansContext.getTypeAssignabilityCache().isAssignableFrom(true, false, observedType, ParameterizedType.class.cast(eventType).getRawType()))
+                    || webBeansContext.getTypeAssignabilityCache().isAssignableFrom(true, false, observedType, eventType))
                 {
                     Set<ObserverMethod<?>> observerMethods = observerEntry.getValue();
 
@@ -493,7 +631,7 @@ public final class NotificationManager
         }
         else if (observerTypeActualArg instanceof ParameterizedType)
         {
-            return GenericsUtil.isAssignableFrom(false, true, observerTypeActualArg, beanClass, new HashMap<>());
+            return webBeansContext.getTypeAssignabilityCache().isAssignableFrom(false, true, observerTypeActualArg, beanClass);
         }
         
         return false;
@@ -528,7 +666,7 @@ public final class NotificationManager
             if(checkEventTypeParameterForExtensions(beanClass, actualArgs[0])
                     && (secondParam == null || actualArgs.length == 1
                             || checkEventTypeParameterForExtensions(secondParam, actualArgs[1])
-                            || GenericsUtil.isAssignableFrom(true, false, actualArgs[1], secondParam, new HashMap<>())))
+                            || webBeansContext.getTypeAssignabilityCache().isAssignableFrom(true, false, actualArgs[1], secondParam)))
             {
                 addToMatching(type, matching);   
             }
@@ -631,6 +769,19 @@ public final class NotificationManager
         return defaultNotificationOptions;
     }
 
+    /**
+     * Stops the default Executor for asynchronous observers if the container created it.
+     * An {@link Executor} SPI service gets destroyed together with the other services instead.
+     */
+    public void shutdown()
+    {
+        Executor executor = defaultNotificationOptions.getExecutor();
+        if (executor instanceof CloseableExecutor)
+        {
+            ((CloseableExecutor) executor).close();
+        }
+    }
+
     /**
      * Fire the given event
      * @param notificationOptions if {@code null} then this is a synchronous event. Otherwise fireAsync
@@ -643,6 +794,18 @@ public final class NotificationManager
         {
             throw new IllegalArgumentException("Firing container events is forbidden");
         }
+        if (!isLifecycleEvent)
+        {
+            // the observers of lifecycle events also depend on the payload, so only other events get dispatched via the table
+            EventContextImpl<Object> context = new EventContextImpl<>(event, metadata);
+            List<ObserverMethod<? super Object>> observerMethods = getObserversForFire(event, metadata, async);
+            if (async)
+            {
+                return doFireAsync(context, false, notificationOptions, observerMethods);
+            }
+            doFireSync(context, false, observerMethods);
+            return null;
+        }
         return doFireEvent(
                 event, metadata, isLifecycleEvent, notificationOptions, async,
                 new ArrayList<>(resolveObservers(event, metadata, isLifecycleEvent)));
@@ -668,6 +831,10 @@ public final class NotificationManager
                                               boolean isLifecycleEvent, NotificationOptions notificationOptions,
                                               List<ObserverMethod<? super Object>> observerMethods)
     {
+        if (!isLifecycleEvent)
+        {
+            countEvent(context.getEvent());
+        }
         List<CompletableFuture<Void>> completableFutures = new ArrayList<>();
         for (ObserverMethod<? super Object> observer : observerMethods)
         {
@@ -703,6 +870,10 @@ public final class NotificationManager
     public void doFireSync(EventContext<?> context, boolean isLifecycleEvent,
                            List<ObserverMethod<? super Object>> observerMethods)
     {
+        if (!isLifecycleEvent)
+        {
+            countEvent(context.getEvent());
+        }
         if (observerMethods.isEmpty())
         {
             return;
@@ -716,7 +887,14 @@ public final class NotificationManager
 
                 if (phase == null || phase == TransactionPhase.IN_PROGRESS)
                 {
-                    invokeObserverMethod(context, observer);
+                    if (isLifecycleEvent)
+                    {
+                        invokeLifecycleObserverMethod(context, observer);
+                    }
+                    else
+                    {
+                        invokeObserverMethod(context, observer);
+                    }
                 }
                 else
                 {
@@ -746,6 +924,108 @@ public final class NotificationManager
         }
     }
 
+    /**
+     * Deliver a batch of events to the synchronous observers, see {@link OwbEvent#fireAll(Collection)}.
+     */
+    public void doFireSync(EventBatch batch)
+    {
+        MetricsService metricsService = webBeansContext.getMetricsService();
+        try
+        {
+            for (int i = 0; i < batch.size(); i++)
+            {
+                Object event = batch.getEvent(i);
+                EventBatch.Dispatch dispatch = batch.getDispatch(i);
+                countEvent(event);
+                for (ObserverMethod<? super Object> observer : dispatch.getObserverMethods())
+                {
+                    try
+                    {
+                        TransactionPhase phase = observer.getTransactionPhase();
+                        TransactionService transactionService = webBeansContext.getTransactionService();
+
+                        if (phase == null || phase == TransactionPhase.IN_PROGRESS || transactionService == null)
+                        {
+                            ObserverMethodImpl<?>.BatchNotifier notifier = dispatch.getNotifier(observer);
+                            if (notifier != null && metricsService != null)
+                            {
+                                long start = System.nanoTime();
+                                try
+                                {
+                                    notifier.notify(event);
+                                }
+                                finally
+                                {
+                                    metricsService.observerNotified(observer, System.nanoTime() - start);
+                                }
+                            }
+                            else if (notifier != null)
+                            {
+                                notifier.notify(event);
+                            }
+                            else
+                            {
+                                invokeObserverMethod(new EventContextImpl<>(event, dispatch.getMetadata()), observer);
+                            }
+                        }
+                        else
+                        {
+                            transactionService.registerTransactionSynchronization(phase, observer, event);
+                        }
+                    }
+                    catch (WebBeansException e)
+                    {
+                        onWebBeansException(event, false, e);
+                    }
+                    catch (RuntimeException e)
+                    {
+                        throw e;
+                    }
+                    catch (Exception e)
+                    {
+                        throw new WebBeansException(e);
+                    }
+                }
+            }
+        }
+        finally
+        {
+            batch.close();
+        }
+    }
+
+    /**
+     * Deliver a batch of events to the asynchronous observers, see {@link OwbEvent#fireAllAsync(Collection, NotificationOptions)}.
+     * Each observer gets a single task which receives all its events.
+     *
+     * @param result the value the returned stage completes with
+     */
+    public <T> CompletionStage<T> doFireAsync(EventBatch batch, NotificationOptions notificationOptions, T result)
+    {
+        // the events of each observer in the order of the batch
+        Map<ObserverMethod<? super Object>, List<Integer>> eventsPerObserver = new LinkedHashMap<>();
+        for (int i = 0; i < batch.size(); i++)
+        {
+            countEvent(batch.getEvent(i));
+            for (ObserverMethod<? super Object> observer : batch.getDispatch(i).getObserverMethods())
+            {
+                TransactionPhase phase = observer.getTransactionPhase();
+                if (phase != null && phase != TransactionPhase.IN_PROGRESS)
+                {
+                    throw new WebBeansConfigurationException("Async Observer Methods can only use TransactionPhase.IN_PROGRESS!");
+                }
+                eventsPerObserver.computeIfAbsent(observer, o -> new ArrayList<>()).add(i);
+            }
+        }
+
+        List<CompletableFuture<Void>> completableFutures = new ArrayList<>(eventsPerObserver.size());
+        for (Map.Entry<ObserverMethod<? super Object>, List<Integer>> observerEvents : eventsPerObserver.entrySet())
+        {
+            completableFutures.add(invokeObserverMethodAsync(batch, observerEvents.getKey(), observerEvents.getValue(), notificationOptions));
+        }
+        return complete(completableFutures, result);
+    }
+
     public void prepareObserverListForFire(boolean isLifecycleEvent, boolean async,
                                            List<ObserverMethod<? super Object>> observerMethods)
     {
@@ -822,10 +1102,11 @@ public final class NotificationManager
                                            NotificationOptions notificationOptions)
     {
         CompletableFuture<?> future = new CompletableFuture<>();
+        RequestContext requestContext = propagateRequestContext ? getActiveRequestContext() : null;
         CompletableFuture.runAsync(() -> {
             try
             {
-                runAsync(context, observer);
+                runAsync(() -> invokeObserverMethod(context, observer), requestContext);
                 future.complete(null);
             }
             catch (WebBeansException wbe)
@@ -836,15 +1117,129 @@ public final class NotificationManager
         return future;
     }
 
-    private void runAsync(EventContext<?> context, ObserverMethod<? super Object> observer)
+    private CompletableFuture invokeObserverMethodAsync(EventBatch batch,
+                                                        ObserverMethod<? super Object> observer,
+                                                        List<Integer> eventIndexes,
+                                                        NotificationOptions notificationOptions)
+    {
+        CompletableFuture<?> future = new CompletableFuture<>();
+        RequestContext requestContext = propagateRequestContext ? getActiveRequestContext() : null;
+        CompletableFuture.runAsync(() -> {
+            List<Throwable> failures = new ArrayList<>();
+            runAsync(() -> notifyBatch(batch, observer, eventIndexes, failures), requestContext);
+            if (failures.isEmpty())
+            {
+                future.complete(null);
+            }
+            else
+            {
+                Throwable failure = failures.get(0);
+                for (int i = 1; i < failures.size(); i++)
+                {
+                    failure.addSuppressed(failures.get(i));
+                }
+                future.completeExceptionally(failure);
+            }
+        }, notificationOptions.getExecutor() == null ? defaultNotificationOptions.getExecutor() : notificationOptions.getExecutor());
+        return future;
+    }
+
+    /**
+     * Deliver the given events of the batch to a single observer.
+     * A failing event does not stop the delivery of the following ones.
+     */
+    private void notifyBatch(EventBatch batch, ObserverMethod<? super Object> observer, List<Integer> eventIndexes,
+                             List<Throwable> failures)
+    {
+        // the notifiers are local to this task, the batch itself is shared by the tasks of all observers
+        Map<EventBatch.Dispatch, ObserverMethodImpl<?>.BatchNotifier> notifiers = new IdentityHashMap<>();
+        try
+        {
+            for (Integer index : eventIndexes)
+            {
+                Object event = batch.getEvent(index);
+                EventBatch.Dispatch dispatch = batch.getDispatch(index);
+                try
+                {
+                    ObserverMethodImpl<?>.BatchNotifier notifier = null;
+                    if (observer instanceof ObserverMethodImpl)
+                    {
+                        notifier = notifiers.computeIfAbsent(dispatch,
+                            d -> ((ObserverMethodImpl<?>) observer).createBatchNotifier(d.getMetadata()));
+                    }
+
+                    if (notifier != null)
+                    {
+                        notifier.notify(event);
+                    }
+                    else
+                    {
+                        invokeObserverMethod(new EventContextImpl<>(event, dispatch.getMetadata()), observer);
+                    }
+                }
+                catch (WebBeansException wbe)
+                {
+                    failures.add(wbe.getCause() != null ? wbe.getCause() : wbe);
+                }
+                catch (RuntimeException re)
+                {
+                    failures.add(re);
+                }
+            }
+        }
+        finally
+        {
+            for (ObserverMethodImpl<?>.BatchNotifier notifier : notifiers.values())
+            {
+                notifier.close();
+            }
+        }
+    }
+
+    private RequestContext getActiveRequestContext()
+    {
+        Context context = webBeansContext.getContextsService().getCurrentContext(RequestScoped.class, false);
+        return context instanceof RequestContext && context.isActive() ? (RequestContext) context : null;
+    }
+
+    /**
+     * @param requestContext the request context of the firing thread to run the observer with
+     *                       or {@code null} to use a new request context
+     */
+    private void runAsync(Runnable observerInvocation, RequestContext requestContext)
     {
-        //X TODO set up threads, requestcontext etc
         final ContextsService contextsService = webBeansContext.getContextsService();
+        if (requestContext != null && requestContext.isActive() && contextsService instanceof AbstractContextsService)
+        {
+            if (contextsService.getCurrentContext(RequestScoped.class, false) == requestContext)
+            {
+                // the Executor runs the observer on the firing thread
+                observerInvocation.run();
+                return;
+            }
+
+            AbstractContextsService abstractContextsService = (AbstractContextsService) contextsService;
+            if (abstractContextsService.canAttachRequestContext(requestContext))
+            {
+                // the executing thread might have a request context of its own
+                RequestContext previousRequestContext = abstractContextsService.attachRequestContext(requestContext);
+                try
+                {
+                    observerInvocation.run();
+                }
+                finally
+                {
+                    abstractContextsService.detachRequestContext(previousRequestContext);
+                }
+                return;
+            }
+        }
+
         contextsService.getCurrentContext(RequestScoped.class);
         contextsService.startContext(RequestScoped.class, null);
         try
         {
-            invokeObserverMethod(context, observer);
+            observerInvocation.run();
         }
         finally
         {
@@ -852,9 +1247,56 @@ public final class NotificationManager
         }
     }
 
+    private void countEvent(Object event)
+    {
+        MetricsService metricsService = webBeansContext.getMetricsService();
+        if (metricsService != null)
+        {
+            metricsService.eventFired(event.getClass());
+        }
+    }
+
     private void invokeObserverMethod(EventContext context, ObserverMethod<?> observer)
     {
-        observer.notify(context);
+        MetricsService metricsService = webBeansContext.getMetricsService();
+        if (metricsService == null)
+        {
+            observer.notify(context);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try
+        {
+            observer.notify(context);
+        }
+        finally
+        {
+            metricsService.observerNotified(observer, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Container lifecycle events are always delivered immediately.
+     * The time spent in the Extension observers gets recorded if the deployment profiling is enabled.
+     */
+    private void invokeLifecycleObserverMethod(EventContext context, ObserverMethod<?> observer)
+    {
+        DeploymentProfiler.ObserverInvocation invocation = webBeansContext.getDeploymentProfiler().startObserverInvocation(observer);
+        if (invocation == null)
+        {
+            observer.notify(context);
+            return;
+        }
+
+        try
+        {
+            observer.notify(context);
+        }
+        finally
+        {
+            invocation.end();
+        }
     }
 
     /**
@@ -954,22 +1396,42 @@ public final class NotificationManager
     private static final class CloseableExecutor implements Executor, Closeable
     {
         private final Collection<Runnable> tracker = new CopyOnWriteArrayList<>();
+        private final Executor delegate;
+
+        /**
+         * Whether the delegate got created for this container and thus has to get shut down with it.
+         */
+        private final boolean ownsDelegate;
         private volatile boolean reject;
 
+        private CloseableExecutor(Executor delegate, boolean ownsDelegate)
+        {
+            this.delegate = delegate;
+            this.ownsDelegate = ownsDelegate;
+        }
+
         @Override
-        public void close() throws IOException
+        public void close()
         {
             reject = true;
             tracker.forEach(r -> {
                 try
                 {
-                    r.run();
+                    // only run the tasks which did not get started by the delegate yet
+                    if (tracker.remove(r))
+                    {
+                        r.run();
+                    }
                 }
                 catch (RuntimeException re)
                 {
                     WebBeansLoggerFacade.getLogger(NotificationManager.class).warning(re.getMessage());
                 }
             });
+            if (ownsDelegate)
+            {
+                ((ExecutorService) delegate).shutdown();
+            }
         }
 
         @Override
@@ -981,17 +1443,56 @@ public final class NotificationManager
             }
 
             tracker.add(command);
-            ForkJoinPool.commonPool().execute(() ->
+            delegate.execute(() ->
             {
-                try
+                // close() might have run the task already
+                if (tracker.remove(command))
                 {
                     command.run();
                 }
-                finally
-                {
-                    tracker.remove(command);
-                }
             });
         }
     }
+
+    private static final class DispatchKey
+    {
+        private final Class<?> clazz;
+        private final Type type;
+        private final Set<Annotation> qualifiers;
+        private final boolean async;
+        private final int hash;
+
+        private DispatchKey(Class<?> clazz, Type type, Set<Annotation> qualifiers, boolean async)
+        {
+            this.clazz = clazz;
+            this.type = type;
+            this.qualifiers = qualifiers;
+            this.async = async;
+            this.hash = Objects.hash(clazz, type, qualifiers, async);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o)
+            {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass())
+            {
+                return false;
+            }
+            DispatchKey that = (DispatchKey) o;
+            return async == that.async &&
+                    clazz == that.clazz &&
+                    Objects.equals(type, that.type) &&
+                    Objects.equals(qualifiers, that.qualifiers);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+    }
 }
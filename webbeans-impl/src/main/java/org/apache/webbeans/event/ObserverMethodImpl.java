@@ -308,63 +308,9 @@ public class ObserverMethodImpl<T> implements OwbObserverMethod<T>
             }
             else
             {
-                Context context;
-                try
-                {
-                    context = manager.getContext(component.getScope());
-                }
-                catch (ContextNotActiveException cnae)
-                {
-                    if (ifExist)
-                    {
-                        return;
-                    }
-                    // this may happen if we try to e.g. send an event to a @ConversationScoped bean from a ServletListener
-                    logger.log(Level.INFO, OWBLogConst.INFO_0010, ownerBean);
-                    return;
-                }
-                
-
-                // on Reception.IF_EXISTS: ignore this bean if a the contextual instance doesn't already exist
-                object = context.get(component);
-
-                if (ifExist && object == null)
-                {
-                    return;
-                }
-
-                if (object == null)
-                {
-                    object = context.get(component, creationalContext);
-                }
-
-                if (object == null)
-                {
-                    // this might happen for EJB components.
-                    Type t = component.getBeanClass();
-
-                    // If the bean is an EJB, its beanClass may not be one of
-                    // its types. Instead pick a local interface
-                    if (component.getWebBeansType() == WebBeansType.ENTERPRISE)
-                    {
-                        t = (Type) component.getTypes().toArray()[0];
-                    }
-
-                    object = manager.getReference(component, t, creationalContext);
-
-                }
-
+                object = getObserverInstance(manager, component, creationalContext);
                 if (object != null)
                 {
-                    if (Modifier.isPrivate(view.getModifiers()))
-                    {
-                        // since private methods cannot be intercepted, we have to unwrap any possible proxy
-                        if (object instanceof OwbNormalScopeProxy)
-                        {
-                            object = getWebBeansContext().getInterceptorDecoratorProxyFactory().unwrapInstance(object);
-                        }
-                    }
-
                     //Invoke Method
                     invoke(object, args);
                 }
@@ -403,6 +349,89 @@ public class ObserverMethodImpl<T> implements OwbObserverMethod<T>
 
     }
 
+    /**
+     * Resolve the contextual instance of the observer bean.
+     *
+     * @return the instance to invoke the observer method on or {@code null} if this observer shall not get notified
+     */
+    private Object getObserverInstance(BeanManagerImpl manager, AbstractOwbBean<Object> component,
+                                       CreationalContextImpl<Object> creationalContext)
+    {
+        Context context;
+        try
+        {
+            context = manager.getContext(component.getScope());
+        }
+        catch (ContextNotActiveException cnae)
+        {
+            if (!ifExist)
+            {
+                // this may happen if we try to e.g. send an event to a @ConversationScoped bean from a ServletListener
+                logger.log(Level.INFO, OWBLogConst.INFO_0010, ownerBean);
+            }
+            return null;
+        }
+
+
+        // on Reception.IF_EXISTS: ignore this bean if a the contextual instance doesn't already exist
+        Object object = context.get(component);
+
+        if (ifExist && object == null)
+        {
+            return null;
+        }
+
+        if (object == null)
+        {
+            object = context.get(component, creationalContext);
+        }
+
+        if (object == null)
+        {
+            // this might happen for EJB components.
+            Type t = component.getBeanClass();
+
+            // If the bean is an EJB, its beanClass may not be one of
+            // its types. Instead pick a local interface
+            if (component.getWebBeansType() == WebBeansType.ENTERPRISE)
+            {
+                t = (Type) component.getTypes().toArray()[0];
+            }
+
+            object = manager.getReference(component, t, creationalContext);
+
+        }
+
+        if (object != null && Modifier.isPrivate(view.getModifiers()))
+        {
+            // since private methods cannot be intercepted, we have to unwrap any possible proxy
+            if (object instanceof OwbNormalScopeProxy)
+            {
+                object = getWebBeansContext().getInterceptorDecoratorProxyFactory().unwrapInstance(object);
+            }
+        }
+
+        return object;
+    }
+
+    /**
+     * Creates a notifier which delivers a batch of events to this observer
+     * and resolves the contextual instance only once for the whole batch.
+     * A &#064;Dependent observer bean gets a single instance which is destroyed by {@link BatchNotifier#close()}.
+     *
+     * @param metadata the metadata shared by all events of the batch
+     * @return the notifier or {@code null} if the observer method has further injection points
+     *         and needs to get notified event by event
+     */
+    public BatchNotifier createBatchNotifier(EventMetadata metadata)
+    {
+        if (!injectionPoints.isEmpty() || annotatedObservesParameter.getPosition() != 0)
+        {
+            return null;
+        }
+        return new BatchNotifier(metadata);
+    }
+
     protected void invoke(Object object, Object[] args) throws IllegalAccessException, InvocationTargetException
     {
         view.invoke(object, args);
@@ -534,4 +563,97 @@ public class ObserverMethodImpl<T> implements OwbObserverMethod<T>
     {
         annotatedObserverMethod = m;
     }
+
+    /**
+     * Delivers the events of a batch to the observer method, see {@link #createBatchNotifier(EventMetadata)}.
+     * Not thread safe, a batch gets delivered by a single thread.
+     */
+    public final class BatchNotifier
+    {
+        private final EventMetadata metadata;
+        private CreationalContextImpl<Object> creationalContext;
+        private Object instance;
+        private boolean resolved;
+
+        private BatchNotifier(EventMetadata metadata)
+        {
+            this.metadata = metadata;
+        }
+
+        public void notify(Object event)
+        {
+            if (!ownerBean.isEnabled())
+            {
+                return;
+            }
+
+            try
+            {
+                Object[] args = new Object[]{event};
+                if (Modifier.isStatic(view.getModifiers()))
+                {
+                    view.invoke(null, args);
+                    return;
+                }
+
+                if (!resolved)
+                {
+                    resolve();
+                }
+                if (instance != null)
+                {
+                    invoke(instance, args);
+                }
+            }
+            catch (InvocationTargetException ite)
+            {
+                throw new WebBeansException(ite.getCause());
+            }
+            catch (WebBeansException e)
+            {
+                throw e;
+            }
+            catch (Exception e)
+            {
+                throw new WebBeansException(e);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void resolve()
+        {
+            resolved = true;
+
+            AbstractOwbBean<Object> component = (AbstractOwbBean<Object>) ownerBean;
+            BeanManagerImpl manager = ownerBean.getWebBeansContext().getBeanManagerImpl();
+            creationalContext = manager.createCreationalContext(component);
+            if (metadata != null)
+            {
+                creationalContext.putInjectionPoint(metadata.getInjectionPoint());
+                creationalContext.putEventMetadata(metadata);
+            }
+            instance = getObserverInstance(manager, component, creationalContext);
+        }
+
+        /**
+         * Release the contextual instance after the batch got delivered.
+         */
+        @SuppressWarnings("unchecked")
+        public void close()
+        {
+            if (creationalContext == null)
+            {
+                return;
+            }
+
+            creationalContext.removeEventMetadata();
+            creationalContext.removeInjectionPoint();
+            if (instance != null && ownerBean.getScope().equals(Dependent.class))
+            {
+                ((AbstractOwbBean<Object>) ownerBean).destroy(instance, creationalContext);
+            }
+            instance = null;
+            creationalContext = null;
+        }
+    }
 }
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.event;
+
+import java.util.Collection;
+import java.util.concurrent.CompletionStage;
+
+import javax.enterprise.event.Event;
+import javax.enterprise.event.NotificationOptions;
+
+/**
+ * OpenWebBeans specific extension of {@link Event} to fire lots of events at once.
+ * Every {@link Event} injected by OpenWebBeans implements it.
+ *
+ * <p>The observers get resolved once per batch and event class and all events of the same class
+ * share their {@link javax.enterprise.inject.spi.EventMetadata}. Each observer resolves its
+ * contextual instance only once per batch and event class. This means that a &#064;Dependent
+ * observer bean receives all those events on a single instance, which gets destroyed after the batch.</p>
+ *
+ * @param <T> the event type
+ */
+public interface OwbEvent<T> extends Event<T>
+{
+    /**
+     * Fire all given events to the synchronous observers, in the order of the collection.
+     * Each event is delivered to all its observers before the next one gets fired.
+     */
+    void fireAll(Collection<? extends T> events);
+
+    /**
+     * Fire all given events to the asynchronous observers using the default Executor.
+     *
+     * @see #fireAllAsync(Collection, NotificationOptions)
+     */
+    <U extends T> CompletionStage<Collection<U>> fireAllAsync(Collection<U> events);
+
+    /**
+     * Fire all given events to the asynchronous observers.
+     * There is one task per observer which receives its events in the order of the collection.
+     * The returned stage completes with the given events once all observers are done.
+     */
+    <U extends T> CompletionStage<Collection<U>> fireAllAsync(Collection<U> events, NotificationOptions notificationOptions);
+}
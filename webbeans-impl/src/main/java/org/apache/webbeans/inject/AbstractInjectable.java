@@ -65,6 +65,17 @@ public abstract class AbstractInjectable<T>
         this.transientCreationalContext = creationalContext.getWebBeansContext().getBeanManagerImpl().createCreationalContext(creationalContext.getContextual());
     }
 
+    /**
+     * @param transientCreationalContext used for &#064;TransientReference injection points
+     */
+    protected AbstractInjectable(Producer<?> owner, CreationalContextImpl<?> creationalContext,
+                                 CreationalContextImpl<?> transientCreationalContext)
+    {
+        this.owner = owner;
+        this.creationalContext = creationalContext;
+        this.transientCreationalContext = transientCreationalContext;
+    }
+
     /**
      * Gets the injected bean instance in its scoped context. 
      * @param injectionPoint injection point definition  
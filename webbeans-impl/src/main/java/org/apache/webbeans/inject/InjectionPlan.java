@@ -0,0 +1,500 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.inject;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.enterprise.inject.TransientReference;
+import javax.enterprise.inject.spi.AnnotatedParameter;
+import javax.enterprise.inject.spi.InjectionPoint;
+import javax.enterprise.inject.spi.Producer;
+
+import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.context.creational.CreationalContextImpl;
+import org.apache.webbeans.exception.WebBeansCreationException;
+import org.apache.webbeans.exception.WebBeansException;
+import org.apache.webbeans.proxy.InjectorFactory;
+import org.apache.webbeans.proxy.NormalScopeProxyFactory;
+import org.apache.webbeans.proxy.OwbNormalScopeProxy;
+import org.apache.webbeans.util.ExceptionUtil;
+
+/**
+ * The precomputed constructor, field, initializer and lifecycle method invocations of an InjectionTarget.
+ *
+ * The members get resolved once instead of on each instantiation.
+ * All members which are accessible from the package of the bean class get invoked via
+ * an {@link Injector} generated by the {@link InjectorFactory}, all others via reflection.
+ *
+ * @param <T> bean class
+ */
+public class InjectionPlan<T>
+{
+    private static final MemberInjection[] NO_MEMBERS = new MemberInjection[0];
+
+    private final Producer<T> owner;
+    private final Class<T> beanClass;
+
+    private final Constructor<T> constructor;
+    private final InjectionPoint[] constructorInjectionPoints;
+    private final boolean constructorTransientReference;
+    private boolean constructorGenerated;
+
+    /**
+     * The classes of the bean class hierarchy which have injected members and their members.
+     */
+    private final Class<?>[] declaringClasses;
+    private final MemberInjection[][] memberInjections;
+
+    private final MemberInjection[] postConstructCallbacks;
+    private final MemberInjection[] preDestroyCallbacks;
+
+    private Injector injector;
+
+    /**
+     * @param constructor the constructor to use or {@code null} if the bean class has none which can be used
+     * @param injectedMembers the injected fields and initializer methods of each class in the bean class hierarchy
+     *                        in the order they have to get injected
+     * @param postConstructMethods superclass first
+     * @param preDestroyMethods subclass first
+     */
+    public InjectionPlan(WebBeansContext webBeansContext, Producer<T> owner, Class<T> beanClass, Constructor<T> constructor,
+                         Map<Class<?>, List<Member>> injectedMembers, List<Method> postConstructMethods, List<Method> preDestroyMethods)
+    {
+        this.owner = owner;
+        this.beanClass = beanClass;
+        this.constructor = constructor;
+
+        InjectorFactory injectorFactory = webBeansContext.getInjectorFactory();
+        boolean generate = injectorFactory.isEnabled();
+        List<Field> generatedFields = new ArrayList<>();
+        List<Method> generatedMethods = new ArrayList<>();
+
+        if (constructor != null)
+        {
+            constructorInjectionPoints = getParameterInjectionPoints(constructor);
+            constructorTransientReference = hasTransientReference(constructorInjectionPoints);
+            constructorGenerated = generate && injectorFactory.isAccessible(beanClass, constructor);
+            if (!constructorGenerated)
+            {
+                setAccessible(webBeansContext, constructor);
+            }
+        }
+        else
+        {
+            constructorInjectionPoints = null;
+            constructorTransientReference = false;
+        }
+
+        declaringClasses = new Class<?>[injectedMembers.size()];
+        memberInjections = new MemberInjection[injectedMembers.size()][];
+        int classIndex = 0;
+        for (Map.Entry<Class<?>, List<Member>> entry : injectedMembers.entrySet())
+        {
+            declaringClasses[classIndex] = entry.getKey();
+            memberInjections[classIndex] = createMemberInjections(
+                    webBeansContext, injectorFactory, generate, entry.getValue(), generatedFields, generatedMethods);
+            classIndex++;
+        }
+
+        postConstructCallbacks = createMemberInjections(
+                webBeansContext, injectorFactory, generate, postConstructMethods, generatedFields, generatedMethods);
+        preDestroyCallbacks = createMemberInjections(
+                webBeansContext, injectorFactory, generate, preDestroyMethods, generatedFields, generatedMethods);
+
+        if (constructorGenerated || !generatedFields.isEmpty() || !generatedMethods.isEmpty())
+        {
+            injector = injectorFactory.createInjector(beanClass, constructorGenerated ? constructor : null,
+                    generatedFields, generatedMethods);
+            if (injector == null)
+            {
+                fallbackToReflection(webBeansContext);
+            }
+        }
+    }
+
+    private MemberInjection[] createMemberInjections(WebBeansContext webBeansContext, InjectorFactory injectorFactory, boolean generate,
+                                                     List<? extends Member> members, List<Field> generatedFields, List<Method> generatedMethods)
+    {
+        if (members == null || members.isEmpty())
+        {
+            return NO_MEMBERS;
+        }
+
+        MemberInjection[] injections = new MemberInjection[members.size()];
+        for (int i = 0; i < injections.length; i++)
+        {
+            Member member = members.get(i);
+            int index = -1;
+            if (generate && injectorFactory.isAccessible(beanClass, member))
+            {
+                if (member instanceof Field)
+                {
+                    index = generatedFields.size();
+                    generatedFields.add((Field) member);
+                }
+                else
+                {
+                    index = generatedMethods.size();
+                    generatedMethods.add((Method) member);
+                }
+            }
+            else
+            {
+                setAccessible(webBeansContext, (AccessibleObject) member);
+            }
+
+            if (member instanceof Field)
+            {
+                injections[i] = new MemberInjection(member, index, new InjectionPoint[]{getFieldInjectionPoint((Field) member)});
+            }
+            else
+            {
+                injections[i] = new MemberInjection(member, index, getParameterInjectionPoints(member));
+            }
+        }
+        return injections;
+    }
+
+    private void fallbackToReflection(WebBeansContext webBeansContext)
+    {
+        if (constructorGenerated)
+        {
+            constructorGenerated = false;
+            setAccessible(webBeansContext, constructor);
+        }
+        for (MemberInjection[] injections : memberInjections)
+        {
+            fallbackToReflection(webBeansContext, injections);
+        }
+        fallbackToReflection(webBeansContext, postConstructCallbacks);
+        fallbackToReflection(webBeansContext, preDestroyCallbacks);
+    }
+
+    private void fallbackToReflection(WebBeansContext webBeansContext, MemberInjection[] injections)
+    {
+        for (MemberInjection injection : injections)
+        {
+            if (injection.index >= 0)
+            {
+                injection.index = -1;
+                setAccessible(webBeansContext, (AccessibleObject) injection.member);
+            }
+        }
+    }
+
+    /**
+     * @return whether an {@link Injector} got generated for this plan
+     */
+    public boolean isGenerated()
+    {
+        return injector != null;
+    }
+
+    /**
+     * Creates a new instance of the bean class via its constructor.
+     */
+    public T newInstance(CreationalContextImpl<T> creationalContext)
+    {
+        if (constructor == null)
+        {
+            throw new WebBeansCreationException("No default constructor for " + beanClass.getName());
+        }
+
+        PlannedInjectable resolver = new PlannedInjectable(owner, creationalContext, constructorTransientReference);
+        try
+        {
+            Object[] parameters = resolver.resolve(constructorInjectionPoints);
+            T instance = constructorGenerated ? newGeneratedInstance(parameters) : constructor.newInstance(parameters);
+            resolver.release();
+            return instance;
+        }
+        catch (Exception e)
+        {
+            throw new WebBeansException(e);
+        }
+    }
+
+    private T newGeneratedInstance(Object[] parameters) throws InvocationTargetException
+    {
+        try
+        {
+            return (T) injector.newInstance(parameters);
+        }
+        catch (Throwable t)
+        {
+            throw new InvocationTargetException(t);
+        }
+    }
+
+    /**
+     * Injects the fields and initializer methods which are declared in the given class.
+     */
+    public void inject(Class<?> declaringClass, Object instance, CreationalContextImpl<T> creationalContext)
+    {
+        MemberInjection[] injections = getMemberInjections(declaringClass);
+        if (injections.length == 0)
+        {
+            return;
+        }
+
+        Object target = instance;
+        if (target instanceof OwbNormalScopeProxy)
+        {
+            target = NormalScopeProxyFactory.unwrapInstance(target);
+        }
+
+        PlannedInjectable resolver = new PlannedInjectable(owner, creationalContext, false);
+        for (MemberInjection injection : injections)
+        {
+            if (injection.member instanceof Field)
+            {
+                injectField(injection, target, resolver.resolve(injection.injectionPoints[0]));
+            }
+            else if (injection.transientReference)
+            {
+                PlannedInjectable transientResolver = new PlannedInjectable(owner, creationalContext, true);
+                try
+                {
+                    invokeMethod(injection, target, transientResolver.resolve(injection.injectionPoints));
+                }
+                finally
+                {
+                    transientResolver.release();
+                }
+            }
+            else
+            {
+                invokeMethod(injection, target, resolver.resolve(injection.injectionPoints));
+            }
+        }
+    }
+
+    /**
+     * Invokes the &#064;PostConstruct methods without any interceptor.
+     */
+    public void postConstruct(Object instance)
+    {
+        invokeLifecycleCallbacks(postConstructCallbacks, instance);
+    }
+
+    /**
+     * Invokes the &#064;PreDestroy methods without any interceptor.
+     */
+    public void preDestroy(Object instance)
+    {
+        invokeLifecycleCallbacks(preDestroyCallbacks, instance);
+    }
+
+    private MemberInjection[] getMemberInjections(Class<?> declaringClass)
+    {
+        for (int i = 0; i < declaringClasses.length; i++)
+        {
+            if (declaringClasses[i] == declaringClass)
+            {
+                return memberInjections[i];
+            }
+        }
+        return NO_MEMBERS;
+    }
+
+    private void injectField(MemberInjection injection, Object instance, Object value)
+    {
+        if (injection.index >= 0)
+        {
+            injector.setField(injection.index, instance, value);
+            return;
+        }
+
+        try
+        {
+            ((Field) injection.member).set(instance, value);
+        }
+        catch (IllegalAccessException e)
+        {
+            throw new WebBeansException(e);
+        }
+    }
+
+    private void invokeMethod(MemberInjection injection, Object instance, Object[] parameters)
+    {
+        try
+        {
+            if (injection.index >= 0)
+            {
+                try
+                {
+                    injector.invoke(injection.index, instance, parameters);
+                }
+                catch (Throwable t)
+                {
+                    throw new InvocationTargetException(t);
+                }
+            }
+            else
+            {
+                ((Method) injection.member).invoke(instance, parameters);
+            }
+        }
+        catch (Exception e)
+        {
+            throw new WebBeansException(e);
+        }
+    }
+
+    private void invokeLifecycleCallbacks(MemberInjection[] callbacks, Object instance)
+    {
+        for (MemberInjection callback : callbacks)
+        {
+            try
+            {
+                if (callback.index >= 0)
+                {
+                    injector.invoke(callback.index, instance, null);
+                }
+                else
+                {
+                    ((Method) callback.member).invoke(instance);
+                }
+            }
+            catch (InvocationTargetException ite)
+            {
+                throw ExceptionUtil.throwAsRuntimeException(ite.getCause());
+            }
+            catch (Throwable t)
+            {
+                throw ExceptionUtil.throwAsRuntimeException(t);
+            }
+        }
+    }
+
+    private InjectionPoint getFieldInjectionPoint(Field field)
+    {
+        for (InjectionPoint injectionPoint : owner.getInjectionPoints())
+        {
+            if (injectionPoint.getMember().equals(field))
+            {
+                return injectionPoint;
+            }
+        }
+        throw new IllegalArgumentException("no InjectionPoint for " + field);
+    }
+
+    private InjectionPoint[] getParameterInjectionPoints(Member member)
+    {
+        List<InjectionPoint> injectionPoints = AbstractInjectable.createInjectionPoints(owner, member);
+        InjectionPoint[] parameters = new InjectionPoint[injectionPoints.size()];
+        for (InjectionPoint injectionPoint : injectionPoints)
+        {
+            parameters[((AnnotatedParameter<?>) injectionPoint.getAnnotated()).getPosition()] = injectionPoint;
+        }
+        return parameters;
+    }
+
+    private static boolean hasTransientReference(InjectionPoint[] injectionPoints)
+    {
+        for (InjectionPoint injectionPoint : injectionPoints)
+        {
+            if (injectionPoint.getAnnotated().isAnnotationPresent(TransientReference.class))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void setAccessible(WebBeansContext webBeansContext, AccessibleObject accessibleObject)
+    {
+        if (!accessibleObject.isAccessible())
+        {
+            webBeansContext.getSecurityService().doPrivilegedSetAccessible(accessibleObject, true);
+        }
+    }
+
+    private static final class MemberInjection
+    {
+        private final Member member;
+        private final InjectionPoint[] injectionPoints;
+        private final boolean transientReference;
+
+        /**
+         * Index of the member in the generated {@link Injector} or {@code -1} if it gets invoked via reflection.
+         */
+        private int index;
+
+        private MemberInjection(Member member, int index, InjectionPoint[] injectionPoints)
+        {
+            this.member = member;
+            this.index = index;
+            this.injectionPoints = injectionPoints;
+            this.transientReference = hasTransientReference(injectionPoints);
+        }
+    }
+
+    /**
+     * Resolves the values of the injection points.
+     * A separate CreationalContext for &#064;TransientReference injection points only gets created if needed.
+     */
+    private static final class PlannedInjectable extends AbstractInjectable<Object>
+    {
+        private final boolean transientReference;
+
+        private PlannedInjectable(Producer<?> owner, CreationalContextImpl<?> creationalContext, boolean transientReference)
+        {
+            super(owner, creationalContext, transientReference
+                    ? creationalContext.getWebBeansContext().getBeanManagerImpl().createCreationalContext(creationalContext.getContextual())
+                    : creationalContext);
+            this.transientReference = transientReference;
+        }
+
+        private Object resolve(InjectionPoint injectionPoint)
+        {
+            if (injectionPoint.isDelegate())
+            {
+                return creationalContext.getDelegate();
+            }
+            return inject(injectionPoint);
+        }
+
+        private Object[] resolve(InjectionPoint[] injectionPoints)
+        {
+            Object[] values = new Object[injectionPoints.length];
+            for (int i = 0; i < values.length; i++)
+            {
+                values[i] = resolve(injectionPoints[i]);
+            }
+            return values;
+        }
+
+        private void release()
+        {
+            if (transientReference)
+            {
+                transientCreationalContext.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.inject;
+
+/**
+ * Base class of the injectors which get generated per bean class by the
+ * {@link org.apache.webbeans.proxy.InjectorFactory}.
+ *
+ * The generated subclass lives in the package and ClassLoader of the bean class
+ * and accesses the constructor, fields and methods directly instead of via reflection.
+ * Fields and methods are addressed by their index in the {@link InjectionPlan}.
+ */
+public abstract class Injector
+{
+    /**
+     * @return the signature of the members this injector got generated for
+     */
+    public abstract String getSignature();
+
+    /**
+     * Invokes the constructor of the bean class.
+     * Throws an {@link IllegalArgumentException} if the injector got generated without a constructor.
+     */
+    public abstract Object newInstance(Object[] parameters);
+
+    /**
+     * Sets the field with the given index.
+     */
+    public void setField(int index, Object instance, Object value)
+    {
+        throw new IllegalArgumentException("no field with index " + index);
+    }
+
+    /**
+     * Invokes the method with the given index and ignores its return value.
+     */
+    public void invoke(int index, Object instance, Object[] parameters)
+    {
+        throw new IllegalArgumentException("no method with index " + index);
+    }
+}
@@ -24,6 +24,7 @@ import org.apache.webbeans.component.WebBeansType;
 import org.apache.webbeans.config.WebBeansContext;
 import org.apache.webbeans.portable.InjectionTargetImpl;
 import org.apache.webbeans.proxy.InterceptorHandler;
+import org.apache.webbeans.spi.MetricsService;
 import org.apache.webbeans.util.ExceptionUtil;
 import org.apache.webbeans.util.WebBeansUtil;
 
@@ -75,6 +76,26 @@ public class DefaultInterceptorHandler<T> implements InterceptorHandler, Externa
     private Map<Method, List<Interceptor<?>>> interceptors;
     private Map<Interceptor<?>, ?> instances;
 
+    /**
+     * Pre-resolved interceptor chains indexed by the intercepted method index of the proxy.
+     * {@code null} if the proxy does not use indexed invocation.
+     * Not serialized, deserialized handlers fall back to the Method based lookup.
+     */
+    private InterceptorChain[] chains;
+
+    /**
+     * The interceptor instances for each chain, lazily resolved on the first invocation.
+     */
+    private Object[][] chainInstances;
+
+    private Provider<T> delegateProvider;
+
+    /**
+     * Times the interceptor chains, {@code null} if no metrics get collected.
+     * Not serialized, deserialized handlers do not report metrics.
+     */
+    private transient MetricsService metricsService;
+
     /**
      * InterceptorHandler wich gets used in our InjectionTargets which
      * support interceptors and decorators
@@ -97,6 +118,43 @@ public class DefaultInterceptorHandler<T> implements InterceptorHandler, Externa
         this.beanPassivationId = beanPassivationId;
     }
 
+    /**
+     * InterceptorHandler for proxies which got generated with pre-resolved interceptor chains.
+     * @param chains the interceptor chains indexed by the intercepted method index of the proxy
+     * @see #DefaultInterceptorHandler(Object, Object, Map, Map, String)
+     */
+    public DefaultInterceptorHandler(T target,
+                                     T delegate,
+                                     Map<Method, List<Interceptor<?>>> interceptors,
+                                     Map<Interceptor<?>, ?> instances,
+                                     String beanPassivationId,
+                                     InterceptorChain[] chains)
+    {
+        this(target, delegate, interceptors, instances, beanPassivationId);
+        if (chains != null)
+        {
+            this.chains = chains;
+            this.chainInstances = new Object[chains.length][];
+            this.delegateProvider = new InstanceProvider<>(delegate);
+        }
+    }
+
+    /**
+     * @param metricsService gets notified about the latency of each intercepted invocation, can be {@code null}
+     * @see #DefaultInterceptorHandler(Object, Object, Map, Map, String, InterceptorChain[])
+     */
+    public DefaultInterceptorHandler(T target,
+                                     T delegate,
+                                     Map<Method, List<Interceptor<?>>> interceptors,
+                                     Map<Interceptor<?>, ?> instances,
+                                     String beanPassivationId,
+                                     InterceptorChain[] chains,
+                                     MetricsService metricsService)
+    {
+        this(target, delegate, interceptors, instances, beanPassivationId, chains);
+        this.metricsService = metricsService;
+    }
+
     public DefaultInterceptorHandler()
     {
         // no-op: for serialization
@@ -124,6 +182,43 @@ public class DefaultInterceptorHandler<T> implements InterceptorHandler, Externa
 
     @Override
     public Object invoke(Method method, Object[] parameters)
+    {
+        if (metricsService == null)
+        {
+            return doInvoke(method, parameters);
+        }
+
+        long start = System.nanoTime();
+        try
+        {
+            return doInvoke(method, parameters);
+        }
+        finally
+        {
+            metricsService.interceptorChainInvoked(method, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Object invoke(int methodIndex, Method method, Object[] parameters)
+    {
+        if (metricsService == null)
+        {
+            return doInvoke(methodIndex, method, parameters);
+        }
+
+        long start = System.nanoTime();
+        try
+        {
+            return doInvoke(methodIndex, method, parameters);
+        }
+        finally
+        {
+            metricsService.interceptorChainInvoked(method, System.nanoTime() - start);
+        }
+    }
+
+    private Object doInvoke(Method method, Object[] parameters)
     {
         try
         {
@@ -144,6 +239,37 @@ public class DefaultInterceptorHandler<T> implements InterceptorHandler, Externa
         }
     }
 
+    private Object doInvoke(int methodIndex, Method method, Object[] parameters)
+    {
+        if (chains == null)
+        {
+            return doInvoke(method, parameters);
+        }
+
+        InterceptorChain chain = chains[methodIndex];
+        if (chain == null)
+        {
+            return doInvoke(method, parameters);
+        }
+
+        Object[] interceptorInstances = chainInstances[methodIndex];
+        if (interceptorInstances == null)
+        {
+            // benign race: all threads resolve the very same instances
+            interceptorInstances = chain.resolveInstances(instances);
+            chainInstances[methodIndex] = interceptorInstances;
+        }
+
+        try
+        {
+            return new InterceptorChainInvocationContext<>(delegateProvider, chain, interceptorInstances, parameters).proceed();
+        }
+        catch (Exception e)
+        {
+            return ExceptionUtil.throwAsRuntimeException(e);
+        }
+    }
+
     /**
      * The following code gets generated into the proxy:
      *
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.intercept;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.enterprise.inject.spi.InterceptionType;
+import javax.enterprise.inject.spi.Interceptor;
+import javax.interceptor.InvocationContext;
+
+import org.apache.webbeans.component.InterceptorBean;
+import org.apache.webbeans.exception.ProxyGenerationException;
+
+/**
+ * Pre-resolved AroundInvoke interceptor chain for a single intercepted business method.
+ *
+ * All the interceptors which do not intercept {@link InterceptionType#AROUND_INVOKE}
+ * get sorted out upfront. The target method and the single &#064;AroundInvoke method
+ * of our own {@link InterceptorBean}s get invoked via {@link MethodHandle}s instead of
+ * reflection. Other {@link Interceptor} implementations still get invoked via
+ * {@link Interceptor#intercept(InterceptionType, Object, InvocationContext)}.
+ *
+ * Instances of this class are immutable and get shared across all the
+ * instances of an intercepted bean.
+ */
+public class InterceptorChain
+{
+    private static final MethodType INTERCEPTOR_METHOD_TYPE
+        = MethodType.methodType(Object.class, Object.class, InvocationContext.class);
+
+    private static final MethodType TARGET_METHOD_TYPE
+        = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    private final Method method;
+    private final Interceptor<?>[] interceptors;
+
+    /**
+     * The MethodHandle of the AroundInvoke method for each interceptor
+     * or {@code null} if the interceptor must get invoked via it's intercept method.
+     */
+    private final MethodHandle[] aroundInvokeMethods;
+
+    /**
+     * (Object target, Object[] parameters)Object
+     */
+    private final MethodHandle targetMethod;
+
+    public InterceptorChain(Method method, List<Interceptor<?>> methodInterceptors)
+    {
+        this.method = method;
+
+        List<Interceptor<?>> aroundInvokeInterceptors = new ArrayList<>(methodInterceptors.size());
+        for (Interceptor<?> interceptor : methodInterceptors)
+        {
+            if (interceptor.intercepts(InterceptionType.AROUND_INVOKE))
+            {
+                aroundInvokeInterceptors.add(interceptor);
+            }
+        }
+        interceptors = aroundInvokeInterceptors.toArray(new Interceptor<?>[aroundInvokeInterceptors.size()]);
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try
+        {
+            aroundInvokeMethods = new MethodHandle[interceptors.length];
+            for (int i = 0; i < interceptors.length; i++)
+            {
+                aroundInvokeMethods[i] = resolveAroundInvokeMethod(lookup, interceptors[i]);
+            }
+
+            method.setAccessible(true);
+            targetMethod = lookup.unreflect(method)
+                .asSpreader(Object[].class, method.getParameterCount())
+                .asType(TARGET_METHOD_TYPE);
+        }
+        catch (IllegalAccessException e)
+        {
+            throw new ProxyGenerationException(e);
+        }
+    }
+
+    private static MethodHandle resolveAroundInvokeMethod(MethodHandles.Lookup lookup, Interceptor<?> interceptor)
+        throws IllegalAccessException
+    {
+        if (!(interceptor instanceof InterceptorBean))
+        {
+            return null;
+        }
+
+        Method[] interceptorMethods = ((InterceptorBean<?>) interceptor).getInterceptorMethods(InterceptionType.AROUND_INVOKE);
+        if (interceptorMethods == null || interceptorMethods.length != 1 || interceptorMethods[0].getParameterCount() != 1)
+        {
+            // multiple AroundInvoke methods in the hierarchy get handled by the InterceptorBean itself
+            return null;
+        }
+
+        Method aroundInvoke = interceptorMethods[0];
+        aroundInvoke.setAccessible(true);
+        return lookup.unreflect(aroundInvoke).asType(INTERCEPTOR_METHOD_TYPE);
+    }
+
+    /**
+     * Create the chains for the given intercepted methods.
+     * @param interceptedMethods the intercepted methods in the order of the proxy method index
+     * @param methodInterceptors all active interceptors for each method
+     * @return the chains with the same index as the given methods
+     */
+    public static InterceptorChain[] createChains(Method[] interceptedMethods,
+                                                  Map<Method, List<Interceptor<?>>> methodInterceptors)
+    {
+        InterceptorChain[] chains = new InterceptorChain[interceptedMethods.length];
+        for (int i = 0; i < interceptedMethods.length; i++)
+        {
+            List<Interceptor<?>> interceptors = methodInterceptors.get(interceptedMethods[i]);
+            if (interceptors != null)
+            {
+                chains[i] = new InterceptorChain(interceptedMethods[i], interceptors);
+            }
+        }
+        return chains;
+    }
+
+    public Method getMethod()
+    {
+        return method;
+    }
+
+    public Interceptor<?>[] getInterceptors()
+    {
+        return interceptors;
+    }
+
+    /**
+     * @param instances the interceptor instances of a single bean instance
+     * @return the interceptor instances in the order of this chain
+     */
+    public Object[] resolveInstances(Map<Interceptor<?>, ?> instances)
+    {
+        Object[] chainInstances = new Object[interceptors.length];
+        for (int i = 0; i < interceptors.length; i++)
+        {
+            chainInstances[i] = instances.get(interceptors[i]);
+        }
+        return chainInstances;
+    }
+
+    Object interceptAt(int index, Object instance, InvocationContext context) throws Throwable
+    {
+        MethodHandle aroundInvoke = aroundInvokeMethods[index];
+        if (aroundInvoke != null)
+        {
+            return (Object) aroundInvoke.invokeExact(instance, context);
+        }
+
+        return intercept(interceptors[index], instance, context);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <I> Object intercept(Interceptor<I> interceptor, Object instance, InvocationContext context) throws Exception
+    {
+        // the instance got created by this very Interceptor
+        return interceptor.intercept(InterceptionType.AROUND_INVOKE, (I) instance, context);
+    }
+
+    Object invokeTarget(Object target, Object[] parameters) throws Throwable
+    {
+        return (Object) targetMethod.invokeExact(target, parameters);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.intercept;
+
+import javax.inject.Provider;
+
+import org.apache.webbeans.util.ExceptionUtil;
+
+/**
+ * InvocationContext for business method interceptors which walks
+ * a pre-resolved {@link InterceptorChain}.
+ */
+public class InterceptorChainInvocationContext<T> extends AbstractInvocationContext<T>
+{
+    private final InterceptorChain chain;
+    private final Object[] instances;
+    private int index;
+
+    public InterceptorChainInvocationContext(Provider<T> provider, InterceptorChain chain, Object[] instances,
+                                             Object[] parameters)
+    {
+        super(provider, chain.getMethod(), parameters);
+        this.chain = chain;
+        this.instances = instances;
+    }
+
+    @Override
+    public Object proceed() throws Exception
+    {
+        if (index < instances.length)
+        {
+            int current = index++;
+            try
+            {
+                return chain.interceptAt(current, instances[current], this);
+            }
+            catch (Throwable e)
+            {
+                // restore the original location
+                // this allows for catching an Exception inside an Interceptor
+                // and then try to proceed with the interceptor chain again.
+                index--;
+                throw ExceptionUtil.throwAsRuntimeException(e);
+            }
+        }
+        else
+        {
+            return directProceed();
+        }
+    }
+
+    @Override
+    public Object directProceed() throws Exception
+    {
+        try
+        {
+            return chain.invokeTarget(target.get(), parameters);
+        }
+        catch (Throwable e)
+        {
+            throw ExceptionUtil.throwAsRuntimeException(e);
+        }
+    }
+}
@@ -30,6 +30,7 @@ import org.apache.webbeans.context.creational.CreationalContextImpl;
 import org.apache.webbeans.exception.WebBeansConfigurationException;
 import org.apache.webbeans.exception.WebBeansDeploymentException;
 import org.apache.webbeans.portable.AnnotatedElementFactory;
+import org.apache.webbeans.proxy.InterceptorDecoratorProxyFactory;
 import org.apache.webbeans.proxy.InterceptorHandler;
 import org.apache.webbeans.util.AnnotationUtil;
 import org.apache.webbeans.util.Asserts;
@@ -858,9 +859,17 @@ public class InterceptorResolutionService
                         new DecoratorHandler(interceptorInfo, decorators, instances, i - 1, instance, passivationId));
             }
         }
-        InterceptorHandler interceptorHandler = new DefaultInterceptorHandler<>(instance, delegate, methodInterceptors, interceptorInstances, passivationId);
+        InterceptorDecoratorProxyFactory proxyFactory = webBeansContext.getInterceptorDecoratorProxyFactory();
+        InterceptorChain[] interceptorChains = interceptorInfo.getInterceptorChains();
+        if (interceptorChains == null)
+        {
+            interceptorChains = proxyFactory.createInterceptorChains(proxyClass, methodInterceptors);
+            interceptorInfo.setInterceptorChains(interceptorChains);
+        }
+        InterceptorHandler interceptorHandler = new DefaultInterceptorHandler<>(instance, delegate, methodInterceptors, interceptorInstances, passivationId,
+                interceptorChains, webBeansContext.getMetricsService());
 
-        return webBeansContext.getInterceptorDecoratorProxyFactory().createProxyInstance(proxyClass, instance, interceptorHandler);
+        return proxyFactory.createProxyInstance(proxyClass, instance, interceptorHandler);
     }
 
 
@@ -934,6 +943,12 @@ public class InterceptorResolutionService
          */
         private Map<InterceptionType, LifecycleMethodInfo> lifecycleMethodInterceptorInfos;
 
+        /**
+         * The pre-resolved AroundInvoke chains of the interceptor proxy.
+         * Lazily created on the first proxy instance and {@code null} if interceptor chains are not enabled.
+         */
+        private volatile InterceptorChain[] interceptorChains;
+
 
         public List<Decorator<?>> getDecorators()
         {
@@ -979,6 +994,16 @@ public class InterceptorResolutionService
         {
             return lifecycleMethodInterceptorInfos;
         }
+
+        public InterceptorChain[] getInterceptorChains()
+        {
+            return interceptorChains;
+        }
+
+        public void setInterceptorChains(InterceptorChain[] interceptorChains)
+        {
+            this.interceptorChains = interceptorChains;
+        }
     }
 
     /**
@@ -28,8 +28,12 @@ import javax.inject.Provider;
 import java.io.NotSerializableException;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
+import java.lang.ref.WeakReference;
 
 import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.container.BeanManagerImpl;
+import org.apache.webbeans.spi.MetricsService;
+import org.apache.webbeans.spi.api.CacheableContext;
 
 /**
  * <p>A Provider which handles all NormalScoped proxying.
@@ -46,9 +50,33 @@ import org.apache.webbeans.config.WebBeansContext;
  */
 public class NormalScopedBeanInterceptorHandler implements Provider, Serializable
 {
+    /**
+     * Instances resolved from a {@link CacheableContext} for each thread.
+     * It only gets cleared at the end of a request, so it holds beans, contexts and instances weakly
+     * to not keep them alive on threads which never end a request.
+     */
+    private static final ThreadLocalInstanceCache cacheableContextInstances = new ThreadLocalInstanceCache(true);
+
     private transient BeanManager beanManager;
     protected transient Bean<?> bean;
 
+    /**
+     * The scope slot of the bean, resolved once for a fast context lookup.
+     * {@code -1} if the BeanManager is not our own BeanManagerImpl.
+     */
+    private transient int scopeSlot = -1;
+
+    /**
+     * The index of the bean in the per thread instance caches.
+     * {@code -1} if the BeanManager is not our own BeanManagerImpl.
+     */
+    private transient int proxyCacheIndex = -1;
+
+    /**
+     * Counts the proxy invocations, {@code null} if no metrics get collected.
+     */
+    private transient MetricsService metricsService;
+
     /**
      * The passivation if in case this is a {@link PassivationCapable} bean.
      * we just keep this field for serializing it away
@@ -63,11 +91,31 @@ public class NormalScopedBeanInterceptorHandler implements Provider, Serializabl
         {
             beanPassivationId = ((PassivationCapable) bean).getId();
         }
+        initScopeSlot();
+    }
+
+    public static void removeThreadLocals()
+    {
+        cacheableContextInstances.clear();
+    }
+
+    private void initScopeSlot()
+    {
+        if (beanManager instanceof BeanManagerImpl)
+        {
+            scopeSlot = ((BeanManagerImpl) beanManager).getScopeSlot(bean.getScope());
+            proxyCacheIndex = ((BeanManagerImpl) beanManager).getProxyCacheIndex(bean);
+            metricsService = ((BeanManagerImpl) beanManager).getWebBeansContext().getMetricsService();
+        }
     }
 
     @Override
     public Object get()
     {
+        if (metricsService != null)
+        {
+            metricsService.proxyInvoked(bean);
+        }
         return getContextualInstance();
     }
 
@@ -81,12 +129,52 @@ public class NormalScopedBeanInterceptorHandler implements Provider, Serializabl
         return beanManager;
     }
 
-    protected Object getContextualInstance()
+    /**
+     * @return the index of the bean in the per thread instance caches or {@code -1} if it must not get cached
+     */
+    protected int getProxyCacheIndex()
     {
-        Object webbeansInstance;
+        return proxyCacheIndex;
+    }
 
+    protected Object getContextualInstance()
+    {
         //Context of the bean
-        Context context = beanManager.getContext(bean.getScope());
+        Context context = scopeSlot >= 0
+                ? ((BeanManagerImpl) beanManager).getContext(scopeSlot, bean.getScope())
+                : beanManager.getContext(bean.getScope());
+
+        if (proxyCacheIndex >= 0 && context instanceof CacheableContext)
+        {
+            return getCachedInstance((CacheableContext) context);
+        }
+
+        return resolveContextualInstance(context);
+    }
+
+    private Object getCachedInstance(CacheableContext context)
+    {
+        // read the epoch first, so a concurrent change invalidates what we resolve now
+        long epoch = context.getCacheEpoch();
+
+        CachedInstance cached = (CachedInstance) cacheableContextInstances.get(proxyCacheIndex, bean);
+        if (cached != null && cached.context.get() == context && cached.epoch == epoch)
+        {
+            Object instance = cached.get();
+            if (instance != null)
+            {
+                return instance;
+            }
+        }
+
+        Object webbeansInstance = resolveContextualInstance(context);
+        cacheableContextInstances.put(proxyCacheIndex, bean, new CachedInstance(context, epoch, webbeansInstance));
+        return webbeansInstance;
+    }
+
+    private Object resolveContextualInstance(Context context)
+    {
+        Object webbeansInstance;
 
         //Already saved in context?
         webbeansInstance = context.get(bean);
@@ -129,4 +217,20 @@ public class NormalScopedBeanInterceptorHandler implements Provider, Serializabl
 
         return webBeansContext.getNormalScopeProxyFactory().createNormalScopeProxy(bean);
     }
+
+    /**
+     * Weakly references the contextual instance, the context holds it as long as it is valid.
+     */
+    private static final class CachedInstance extends WeakReference<Object>
+    {
+        private final WeakReference<Context> context;
+        private final long epoch;
+
+        private CachedInstance(Context context, long epoch, Object instance)
+        {
+            super(instance);
+            this.context = new WeakReference<>(context);
+            this.epoch = epoch;
+        }
+    }
 }
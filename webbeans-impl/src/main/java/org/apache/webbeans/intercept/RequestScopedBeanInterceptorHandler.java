@@ -20,7 +20,6 @@ package org.apache.webbeans.intercept;
 
 import javax.enterprise.inject.spi.Bean;
 import javax.enterprise.inject.spi.BeanManager;
-import java.util.HashMap;
 
 
 /**
@@ -39,13 +38,15 @@ public class RequestScopedBeanInterceptorHandler extends NormalScopedBeanInterce
     /**
      * Cached bean instance for each thread
      */
-    private static ThreadLocal<HashMap<Bean<?>, Object>> cachedInstances = new ThreadLocal<>();
+    private static final ThreadLocalInstanceCache cachedInstances = new ThreadLocalInstanceCache();
 
 
     public static void removeThreadLocals()
     {
-        cachedInstances.set(null);
-        cachedInstances.remove();
+        cachedInstances.clear();
+
+        // the end of a request is also the natural point to drop the instances of other cacheable scopes
+        NormalScopedBeanInterceptorHandler.removeThreadLocals();
     }
 
     /**
@@ -62,19 +63,17 @@ public class RequestScopedBeanInterceptorHandler extends NormalScopedBeanInterce
     @Override
     protected Object getContextualInstance()
     {
-        HashMap<Bean<?>, Object> beanMap = cachedInstances.get();
-        if (beanMap == null)
+        int index = getProxyCacheIndex();
+        if (index < 0)
         {
-            beanMap = new HashMap<>();
-            cachedInstances.set(beanMap);
+            return super.getContextualInstance();
         }
 
-        Object cachedInstance = beanMap.get(bean);
+        Object cachedInstance = cachedInstances.get(index, bean);
         if (cachedInstance == null)
         {
-
             cachedInstance = super.getContextualInstance();
-            beanMap.put(bean, cachedInstance);
+            cachedInstances.put(index, bean, cachedInstance);
         }
 
         return cachedInstance;
@@ -20,7 +20,6 @@ package org.apache.webbeans.intercept;
 
 import javax.enterprise.inject.spi.Bean;
 import javax.enterprise.inject.spi.BeanManager;
-import java.util.HashMap;
 
 
 /**
@@ -39,13 +38,12 @@ public class SessionScopedBeanInterceptorHandler extends NormalScopedBeanInterce
     /**
      * Cached bean instance for each thread
      */
-    private static ThreadLocal<HashMap<Bean<?>, Object>> cachedInstances = new ThreadLocal<>();
+    private static final ThreadLocalInstanceCache cachedInstances = new ThreadLocalInstanceCache();
 
 
     public static void removeThreadLocals()
     {
-        cachedInstances.set(null);
-        cachedInstances.remove();
+        cachedInstances.clear();
     }
 
     /**
@@ -62,19 +60,17 @@ public class SessionScopedBeanInterceptorHandler extends NormalScopedBeanInterce
     @Override
     protected Object getContextualInstance()
     {
-        HashMap<Bean<?>, Object> beanMap = cachedInstances.get();
-        if (beanMap == null)
+        int index = getProxyCacheIndex();
+        if (index < 0)
         {
-            beanMap = new HashMap<>();
-            cachedInstances.set(beanMap);
+            return super.getContextualInstance();
         }
 
-        Object cachedInstance = beanMap.get(bean);
+        Object cachedInstance = cachedInstances.get(index, bean);
         if (cachedInstance == null)
         {
-
             cachedInstance = super.getContextualInstance();
-            beanMap.put(bean, cachedInstance);
+            cachedInstances.put(index, bean, cachedInstance);
         }
 
         return cachedInstance;
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.intercept;
+
+import java.lang.ref.WeakReference;
+
+import javax.enterprise.inject.spi.Bean;
+
+/**
+ * Per thread cache of contextual instances used by the normal scoped proxies.
+ *
+ * Instead of a HashMap we store the bean and its instance in an array slot addressed
+ * by the proxy cache index of the bean, see
+ * {@link org.apache.webbeans.container.BeanManagerImpl#getProxyCacheIndex(Bean)}.
+ * The bean is kept next to the value, so a slot never returns the instance of another
+ * bean with the same index, e.g. from a different application sharing our classes.
+ *
+ * A cache which does not get cleared at the end of each request must reference the beans weakly
+ * and store values which only weakly reference the contextual instances. Otherwise threads which never
+ * serve a request would keep them and thus the application ClassLoader alive.
+ */
+final class ThreadLocalInstanceCache
+{
+    private static final int INITIAL_SLOTS = 16;
+
+    private final ThreadLocal<Object[]> slots = new ThreadLocal<>();
+
+    /**
+     * Whether the beans only get referenced weakly.
+     */
+    private final boolean weakBeans;
+
+    ThreadLocalInstanceCache()
+    {
+        this(false);
+    }
+
+    ThreadLocalInstanceCache(boolean weakBeans)
+    {
+        this.weakBeans = weakBeans;
+    }
+
+    Object get(int index, Bean<?> bean)
+    {
+        Object[] values = slots.get();
+        int pos = index << 1;
+        if (values == null || pos >= values.length || getBean(values[pos]) != bean)
+        {
+            return null;
+        }
+        return values[pos + 1];
+    }
+
+    private Object getBean(Object slot)
+    {
+        return weakBeans && slot != null ? ((WeakReference<?>) slot).get() : slot;
+    }
+
+    void put(int index, Bean<?> bean, Object value)
+    {
+        Object[] values = slots.get();
+        int pos = index << 1;
+        if (values == null || pos >= values.length)
+        {
+            int length = values == null ? INITIAL_SLOTS << 1 : values.length << 1;
+            Object[] newValues = new Object[Math.max(length, pos + 2)];
+            if (values != null)
+            {
+                System.arraycopy(values, 0, newValues, 0, values.length);
+            }
+            values = newValues;
+            slots.set(values);
+        }
+        values[pos] = weakBeans ? new WeakReference<>(bean) : bean;
+        values[pos + 1] = value;
+    }
+
+    void clear()
+    {
+        slots.remove();
+    }
+}
@@ -128,6 +128,7 @@ public abstract class AbstractLifeCycle implements ContainerLifecycle
         logger.fine("Scanning classpaths for beans artifacts.");
 
         //Scan
+        webBeansContext.getDeploymentProfiler().phase("scan");
         scannerService.scan();
         
         //Deploy beans
@@ -136,6 +137,9 @@ public abstract class AbstractLifeCycle implements ContainerLifecycle
         //Deploy
         deployer.deploy(scannerService);
 
+        // from now on the lazily looked up services won't change anymore
+        webBeansContext.bindServices();
+
         //Start actual starting on sub-classes
         afterStartApplication(startupObject);
 
@@ -162,6 +166,8 @@ public abstract class AbstractLifeCycle implements ContainerLifecycle
 
             contextsService.destroy(endObject);
 
+            webBeansContext.getConversationManager().shutdown();
+
             //Unbind BeanManager
             jndiService.unbind(WebBeansConstants.WEB_BEANS_MANAGER_JNDI_NAME);
 
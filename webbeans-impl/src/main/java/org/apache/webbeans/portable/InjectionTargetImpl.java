@@ -24,8 +24,7 @@ import org.apache.webbeans.context.creational.CreationalContextImpl;
 import org.apache.webbeans.exception.WebBeansCreationException;
 import org.apache.webbeans.exception.WebBeansException;
 import org.apache.webbeans.inject.InjectableConstructor;
-import org.apache.webbeans.inject.InjectableField;
-import org.apache.webbeans.inject.InjectableMethod;
+import org.apache.webbeans.inject.InjectionPlan;
 import org.apache.webbeans.intercept.ConstructorInterceptorInvocationContext;
 import org.apache.webbeans.intercept.DefaultInterceptorHandler;
 import org.apache.webbeans.intercept.InterceptorResolutionService;
@@ -70,6 +69,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -114,6 +114,11 @@ public class InjectionTargetImpl<T> extends AbstractProducer<T> implements Injec
 
     private List<Interceptor<?>> aroundConstructInterceptors;
 
+    /**
+     * The resolved members to invoke, created on first use.
+     */
+    private volatile InjectionPlan<T> injectionPlan;
+
     public InjectionTargetImpl(AnnotatedType<T> annotatedType, Set<InjectionPoint> injectionPoints, WebBeansContext webBeansContext,
                                List<AnnotatedMethod<?>> postConstructMethods, List<AnnotatedMethod<?>> preDestroyMethods)
     {
@@ -195,7 +200,7 @@ public class InjectionTargetImpl<T> extends AbstractProducer<T> implements Injec
     
     protected T newInstance(CreationalContextImpl<T> creationalContext)
     {
-        return new InjectableConstructor<>(getConstructor().getJavaMember(), this, creationalContext).doInjection();
+        return getInjectionPlan().newInstance(creationalContext);
     }
 
     @Override
@@ -211,13 +216,54 @@ public class InjectionTargetImpl<T> extends AbstractProducer<T> implements Injec
             return;
         }
         inject(type.getSuperclass(), instance, context);
-        injectFields(type, instance, context);
-        injectMethods(type, instance, context);
-        injectInitializerMethods(type, instance, context);
+        getInjectionPlan().inject(type, instance, context);
         injectResources(instance);
     }
 
-    private void injectFields(Class<?> type, T instance, CreationalContextImpl<T> context)
+    public InjectionPlan<T> getInjectionPlan()
+    {
+        InjectionPlan<T> plan = injectionPlan;
+        if (plan == null)
+        {
+            plan = createInjectionPlan();
+            injectionPlan = plan;
+        }
+        return plan;
+    }
+
+    private InjectionPlan<T> createInjectionPlan()
+    {
+        Constructor<T> constructor;
+        try
+        {
+            constructor = getConstructor().getJavaMember();
+        }
+        catch (WebBeansCreationException e)
+        {
+            // the InjectionTarget can still be used to inject existing instances
+            constructor = null;
+        }
+
+        Map<Class<?>, List<Member>> injectedMembers = new LinkedHashMap<>();
+        Set<AnnotatedMethod<? super T>> annotatedMethods
+            = webBeansContext.getAnnotatedElementFactory().getFilteredAnnotatedMethods(annotatedType);
+        for (Class<?> type = annotatedType.getJavaClass(); type != null && !type.equals(Object.class); type = type.getSuperclass())
+        {
+            List<Member> members = new ArrayList<>();
+            addInjectedFields(type, members);
+            addInjectedMethods(type, members);
+            addInitializerMethods(type, annotatedMethods, members);
+            if (!members.isEmpty())
+            {
+                injectedMembers.put(type, members);
+            }
+        }
+
+        return new InjectionPlan<>(webBeansContext, this, annotatedType.getJavaClass(), constructor, injectedMembers,
+                getJavaMembers(postConstructMethods), getJavaMembers(preDestroyMethods));
+    }
+
+    private void addInjectedFields(Class<?> type, List<Member> members)
     {
         for (InjectionPoint injectionPoint : getInjectionPoints())
         {
@@ -225,13 +271,13 @@ public class InjectionTargetImpl<T> extends AbstractProducer<T> implements Injec
             {
                 if (injectionPoint.getMember() instanceof Field)
                 {
-                    new InjectableField<>((Field) injectionPoint.getMember(), instance, this, context).doInjection();
+                    members.add(injectionPoint.getMember());
                 }
             }
         }
     }
 
-    private void injectMethods(Class<?> type, T instance, CreationalContextImpl<T> context)
+    private void addInjectedMethods(Class<?> type, List<Member> members)
     {
         Set<Member> injectedMethods = new HashSet<>();
         for (InjectionPoint injectionPoint : getInjectionPoints())
@@ -244,7 +290,7 @@ public class InjectionTargetImpl<T> extends AbstractProducer<T> implements Injec
                         && !isDisposalMethod(injectionPoint)
                         && !isObserverMethod(injectionPoint))
                 {
-                    new InjectableMethod<>((Method) injectionPoint.getMember(), instance, this, context).doInjection();
+                    members.add(injectionPoint.getMember());
                     injectedMethods.add(injectionPoint.getMember());
                 }
             }
@@ -252,20 +298,34 @@ public class InjectionTargetImpl<T> extends AbstractProducer<T> implements Injec
     }
 
     /**
-     * Performs injection on initializer methods, which are methods that are annotated with &#64;Inject,
+     * Adds the initializer methods, which are methods that are annotated with &#64;Inject,
      * but have no parameter and thus no injection point.
      */
-    private void injectInitializerMethods(Class<?> declaringType, T instance, CreationalContextImpl<T> context)
+    private void addInitializerMethods(Class<?> declaringType, Set<AnnotatedMethod<? super T>> annotatedMethods, List<Member> members)
     {
-        for (AnnotatedMethod<? super T> method : webBeansContext.getAnnotatedElementFactory().getFilteredAnnotatedMethods(annotatedType))
+        for (AnnotatedMethod<? super T> method : annotatedMethods)
         {
             if (method.getDeclaringType().getJavaClass().equals(declaringType) && method.isAnnotationPresent(Inject.class) && method.getParameters().isEmpty())
             {
-                new InjectableMethod<>(method.getJavaMember(), instance, this, context).doInjection();
+                members.add(method.getJavaMember());
             }
         }
     }
-    
+
+    private static List<Method> getJavaMembers(List<AnnotatedMethod<?>> annotatedMethods)
+    {
+        if (annotatedMethods == null || annotatedMethods.isEmpty())
+        {
+            return Collections.emptyList();
+        }
+        List<Method> methods = new ArrayList<>(annotatedMethods.size());
+        for (AnnotatedMethod<?> annotatedMethod : annotatedMethods)
+        {
+            methods.add(annotatedMethod.getJavaMember());
+        }
+        return methods;
+    }
+
     private void injectResources(T instance)
     {
         try
@@ -314,6 +374,13 @@ public class InjectionTargetImpl<T> extends AbstractProducer<T> implements Injec
             return;
         }
 
+        if (interceptorInstances == null && (postConstructInterceptors == null || postConstructInterceptors.isEmpty()))
+        {
+            // no interceptor applies, so there is no need for an InvocationContext
+            getInjectionPlan().postConstruct(internalInstance);
+            return;
+        }
+
         InvocationContext ic = new LifecycleInterceptorInvocationContext<>(internalInstance, InterceptionType.POST_CONSTRUCT, postConstructInterceptors,
             interceptorInstances, postConstructMethods);
         try
@@ -353,6 +420,12 @@ public class InjectionTargetImpl<T> extends AbstractProducer<T> implements Injec
             return;
         }
 
+        if (interceptorInstances == null && (preDestroyInterceptors == null || preDestroyInterceptors.isEmpty()))
+        {
+            getInjectionPlan().preDestroy(internalInstance);
+            return;
+        }
+
         InvocationContext ic = new LifecycleInterceptorInvocationContext<>(internalInstance, InterceptionType.PRE_DESTROY, preDestroyInterceptors,
             interceptorInstances, preDestroyMethods);
         try
@@ -61,6 +61,8 @@ public abstract class AbstractProxyFactory
 
     private final DefiningClassService definingService;
 
+    private final PregeneratedProxies pregeneratedProxies;
+
     private final boolean useStaticNames;
     private final boolean useXXhash64;
 
@@ -82,6 +84,7 @@ public abstract class AbstractProxyFactory
         this.webBeansContext = webBeansContext;
         javaVersion = determineDefaultJavaVersion();
         definingService = webBeansContext.getService(DefiningClassService.class);
+        pregeneratedProxies = webBeansContext.getPregeneratedProxies();
         useStaticNames = Boolean.parseBoolean(webBeansContext.getOpenWebBeansConfiguration()
                 .getProperty("org.apache.webbeans.proxy.useStaticNames"));
         useXXhash64 = Boolean.parseBoolean(webBeansContext.getOpenWebBeansConfiguration()
@@ -158,6 +161,15 @@ public abstract class AbstractProxyFactory
      */
     protected abstract Class<?> getMarkerInterface();
 
+    /**
+     * @return the settings of this factory which influence the generated bytecode.
+     *         They are part of the fingerprint of pre-generated proxies.
+     */
+    protected String getGeneratorFlags()
+    {
+        return "";
+    }
+
     /**
      * generate the bytecode for creating the instance variables of the class
      */
@@ -233,6 +245,12 @@ public abstract class AbstractProxyFactory
         proxyClassName = fixPreservedPackages(proxyClassName);
 
 
+        if (pregeneratedProxies != null)
+        {
+            // pre-generated proxies can only be found via their static name and the generated code
+            // refers to the methods by index, so each variant and method order needs its own name
+            return proxyClassName + PregeneratedProxies.methodsFingerprint(proxiedMethods, notProxiedMethods);
+        }
         if (useStaticNames)
         {
             return proxyClassName + uniqueHash(proxiedMethods, notProxiedMethods);
@@ -307,6 +325,19 @@ public abstract class AbstractProxyFactory
                                                       Constructor<T> constructor)
             throws ProxyGenerationException
     {
+        String fingerprint = null;
+        if (pregeneratedProxies != null)
+        {
+            fingerprint = PregeneratedProxies.fingerprint(classToProxy, getGeneratorFlags(),
+                    interceptedMethods, nonInterceptedMethods, constructor);
+            Class<T> pregenerated = pregeneratedProxies.loadProxyClass(classLoader, proxyClassName, fingerprint);
+            if (pregenerated != null)
+            {
+                return pregenerated;
+            }
+        }
+
+        long start = System.nanoTime();
         String proxyClassFileName = proxyClassName.replace('.', '/');
 
         byte[] proxyBytes = generateProxy(classLoader,
@@ -317,11 +348,22 @@ public abstract class AbstractProxyFactory
                 sortOutDuplicateMethods(nonInterceptedMethods),
                 constructor);
 
+        if (pregeneratedProxies != null)
+        {
+            pregeneratedProxies.generated(proxyClassName, fingerprint);
+        }
+
+        Class<T> proxyClass;
         if (definingService != null)
         {
-            return definingService.defineAndLoad(proxyClassName, proxyBytes, classToProxy);
+            proxyClass = definingService.defineAndLoad(proxyClassName, proxyBytes, classToProxy);
+        }
+        else
+        {
+            proxyClass = unsafe.defineAndLoadClass(classLoader, proxyClassName, proxyBytes);
         }
-        return unsafe.defineAndLoadClass(classLoader, proxyClassName, proxyBytes);
+        webBeansContext.getDeploymentProfiler().proxyGenerated(System.nanoTime() - start);
+        return proxyClass;
     }
 
     protected  <T> T newInstance(final Class<? extends T> proxyClass)
@@ -0,0 +1,440 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.proxy;
+
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.inject.Injector;
+import org.apache.webbeans.logger.WebBeansLoggerFacade;
+import org.apache.webbeans.spi.DefiningClassService;
+import org.apache.xbean.asm8.ClassWriter;
+import org.apache.xbean.asm8.Label;
+import org.apache.xbean.asm8.MethodVisitor;
+import org.apache.xbean.asm8.Opcodes;
+import org.apache.xbean.asm8.Type;
+
+/**
+ * Generates the {@link Injector} subclass of a bean class.
+ * It gets defined in the package and ClassLoader of the bean class,
+ * thus it can access all non private members of the classes in this package.
+ */
+public class InjectorFactory
+{
+    private static final Logger logger = WebBeansLoggerFacade.getLogger(InjectorFactory.class);
+
+    private static final String INJECTOR_SUFFIX = "$$OwbInjector";
+    private static final String INJECTOR_INTERNAL_NAME = Type.getInternalName(Injector.class);
+
+    /**
+     * The signature gets stored as String constant in the generated class.
+     */
+    private static final int MAX_SIGNATURE_LENGTH = 32768;
+
+    private final boolean enabled;
+    private final DefiningClassService definingService;
+    private volatile Unsafe unsafe;
+
+    public InjectorFactory(WebBeansContext webBeansContext)
+    {
+        enabled = !"false".equalsIgnoreCase(webBeansContext.getOpenWebBeansConfiguration()
+                .getProperty(OpenWebBeansConfiguration.USE_GENERATED_INJECTORS));
+        definingService = webBeansContext.getService(DefiningClassService.class);
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * @return whether an injector generated for the given bean class can directly access the given
+     *         constructor, non final field or method.
+     */
+    public boolean isAccessible(Class<?> beanClass, Member member)
+    {
+        int modifiers = member.getModifiers();
+        if (Modifier.isPrivate(modifiers) || Modifier.isStatic(modifiers))
+        {
+            return false;
+        }
+
+        Class<?> declaringClass = member.getDeclaringClass();
+        if (declaringClass.isInterface() || !isAccessible(beanClass, declaringClass))
+        {
+            return false;
+        }
+        if (!Modifier.isPublic(modifiers) && !isSamePackage(beanClass, declaringClass))
+        {
+            return false;
+        }
+
+        if (member instanceof Field)
+        {
+            return !Modifier.isFinal(modifiers) && isAccessible(beanClass, ((Field) member).getType());
+        }
+
+        Class<?>[] parameterTypes;
+        if (member instanceof Constructor)
+        {
+            if (declaringClass != beanClass || Modifier.isAbstract(beanClass.getModifiers()))
+            {
+                return false;
+            }
+            parameterTypes = ((Constructor<?>) member).getParameterTypes();
+        }
+        else
+        {
+            parameterTypes = ((Method) member).getParameterTypes();
+        }
+        for (Class<?> parameterType : parameterTypes)
+        {
+            if (!isAccessible(beanClass, parameterType))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isAccessible(Class<?> beanClass, Class<?> type)
+    {
+        while (type.isArray())
+        {
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive())
+        {
+            return true;
+        }
+        for (Class<?> current = type; current != null; current = current.getEnclosingClass())
+        {
+            int modifiers = current.getModifiers();
+            if (Modifier.isPrivate(modifiers)
+                || (!Modifier.isPublic(modifiers) && !isSamePackage(beanClass, current)))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isSamePackage(Class<?> beanClass, Class<?> type)
+    {
+        return beanClass.getClassLoader() == type.getClassLoader()
+            && getPackageName(beanClass).equals(getPackageName(type));
+    }
+
+    private String getPackageName(Class<?> type)
+    {
+        String name = type.getName();
+        int lastDot = name.lastIndexOf('.');
+        return lastDot < 0 ? "" : name.substring(0, lastDot);
+    }
+
+    /**
+     * @param constructor the constructor to invoke or {@code null}
+     * @param fields the fields to set in the order of their index
+     * @param methods the methods to invoke in the order of their index
+     * @return the injector or {@code null} if it could not get generated for the given bean class
+     */
+    public Injector createInjector(Class<?> beanClass, Constructor<?> constructor, List<Field> fields, List<Method> methods)
+    {
+        ClassLoader classLoader = beanClass.getClassLoader();
+        if (classLoader == null || beanClass.getName().startsWith("java."))
+        {
+            return null;
+        }
+
+        String signature = createSignature(constructor, fields, methods);
+        if (signature.length() > MAX_SIGNATURE_LENGTH)
+        {
+            return null;
+        }
+
+        // the same bean class might get deployed with different members, e.g. in another container
+        String injectorClassName = beanClass.getName() + INJECTOR_SUFFIX + Integer.toHexString(signature.hashCode());
+        try
+        {
+            if (Class.forName(Injector.class.getName(), false, classLoader) != Injector.class)
+            {
+                // the bean ClassLoader doesn't see our Injector class
+                return null;
+            }
+
+            byte[] injectorBytes = generateInjector(injectorClassName.replace('.', '/'), beanClass, signature, constructor, fields, methods);
+
+            Class<?> injectorClass;
+            if (definingService != null)
+            {
+                injectorClass = definingService.defineAndLoad(injectorClassName, injectorBytes, beanClass);
+            }
+            else
+            {
+                injectorClass = getUnsafe().defineAndLoadClass(classLoader, injectorClassName, injectorBytes);
+            }
+
+            if (injectorClass.getClassLoader() != classLoader)
+            {
+                // package private access only works within the same ClassLoader
+                return null;
+            }
+
+            Injector injector = (Injector) injectorClass.getConstructor().newInstance();
+            return signature.equals(injector.getSignature()) ? injector : null;
+        }
+        catch (Throwable t)
+        {
+            logger.log(Level.FINE, "could not generate injector for " + beanClass.getName() + ", using reflection: " + t);
+            return null;
+        }
+    }
+
+    private Unsafe getUnsafe()
+    {
+        Unsafe result = unsafe;
+        if (result == null)
+        {
+            result = new Unsafe();
+            unsafe = result;
+        }
+        return result;
+    }
+
+    private String createSignature(Constructor<?> constructor, List<Field> fields, List<Method> methods)
+    {
+        StringBuilder signature = new StringBuilder();
+        if (constructor != null)
+        {
+            signature.append(Type.getConstructorDescriptor(constructor));
+        }
+        for (Field field : fields)
+        {
+            signature.append(';').append(field.getDeclaringClass().getName()).append('#').append(field.getName());
+        }
+        for (Method method : methods)
+        {
+            signature.append(';').append(method.getDeclaringClass().getName()).append('#').append(method.getName())
+                .append(Type.getMethodDescriptor(method));
+        }
+        return signature.toString();
+    }
+
+    private byte[] generateInjector(String injectorClassFileName, Class<?> beanClass, String signature,
+                                    Constructor<?> constructor, List<Field> fields, List<Method> methods)
+    {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES)
+        {
+            @Override
+            protected String getCommonSuperClass(String type1, String type2)
+            {
+                // our code never merges different types, no need to load the classes
+                return "java/lang/Object";
+            }
+        };
+        cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER | Opcodes.ACC_SYNTHETIC,
+                injectorClassFileName, null, INJECTOR_INTERNAL_NAME, null);
+        cw.visitSource(beanClass.getSimpleName() + ".java", null);
+
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, INJECTOR_INTERNAL_NAME, "<init>", "()V", false);
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(-1, -1);
+        mv.visitEnd();
+
+        mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "getSignature", "()Ljava/lang/String;", null, null);
+        mv.visitCode();
+        mv.visitLdcInsn(signature);
+        mv.visitInsn(Opcodes.ARETURN);
+        mv.visitMaxs(-1, -1);
+        mv.visitEnd();
+
+        generateNewInstance(cw, constructor);
+        if (!fields.isEmpty())
+        {
+            generateSetField(cw, fields);
+        }
+        if (!methods.isEmpty())
+        {
+            generateInvoke(cw, methods);
+        }
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    /**
+     * @param constructor the constructor to invoke or {@code null} if it is not accessible
+     */
+    private void generateNewInstance(ClassWriter cw, Constructor<?> constructor)
+    {
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "newInstance", "([Ljava/lang/Object;)Ljava/lang/Object;", null, null);
+        mv.visitCode();
+
+        if (constructor == null)
+        {
+            String exceptionClassName = Type.getInternalName(IllegalArgumentException.class);
+            mv.visitTypeInsn(Opcodes.NEW, exceptionClassName);
+            mv.visitInsn(Opcodes.DUP);
+            mv.visitLdcInsn("constructor not accessible");
+            mv.visitMethodInsn(Opcodes.INVOKESPECIAL, exceptionClassName, "<init>", "(Ljava/lang/String;)V", false);
+            mv.visitInsn(Opcodes.ATHROW);
+            mv.visitMaxs(-1, -1);
+            mv.visitEnd();
+            return;
+        }
+
+        String beanClassName = Type.getInternalName(constructor.getDeclaringClass());
+        mv.visitTypeInsn(Opcodes.NEW, beanClassName);
+        mv.visitInsn(Opcodes.DUP);
+        pushParameters(mv, 1, constructor.getParameterTypes());
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, beanClassName, "<init>", Type.getConstructorDescriptor(constructor), false);
+        mv.visitInsn(Opcodes.ARETURN);
+        mv.visitMaxs(-1, -1);
+        mv.visitEnd();
+    }
+
+    private void generateSetField(ClassWriter cw, List<Field> fields)
+    {
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "setField", "(ILjava/lang/Object;Ljava/lang/Object;)V", null, null);
+        mv.visitCode();
+
+        Label defaultLabel = new Label();
+        Label[] labels = createLabels(fields.size());
+        mv.visitVarInsn(Opcodes.ILOAD, 1);
+        mv.visitTableSwitchInsn(0, labels.length - 1, defaultLabel, labels);
+
+        for (int i = 0; i < labels.length; i++)
+        {
+            Field field = fields.get(i);
+            mv.visitLabel(labels[i]);
+            mv.visitVarInsn(Opcodes.ALOAD, 2);
+            mv.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(field.getDeclaringClass()));
+            mv.visitVarInsn(Opcodes.ALOAD, 3);
+            castOrUnbox(mv, field.getType());
+            mv.visitFieldInsn(Opcodes.PUTFIELD, Type.getInternalName(field.getDeclaringClass()),
+                    field.getName(), Type.getDescriptor(field.getType()));
+            mv.visitInsn(Opcodes.RETURN);
+        }
+
+        mv.visitLabel(defaultLabel);
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitVarInsn(Opcodes.ILOAD, 1);
+        mv.visitVarInsn(Opcodes.ALOAD, 2);
+        mv.visitVarInsn(Opcodes.ALOAD, 3);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, INJECTOR_INTERNAL_NAME, "setField", "(ILjava/lang/Object;Ljava/lang/Object;)V", false);
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(-1, -1);
+        mv.visitEnd();
+    }
+
+    private void generateInvoke(ClassWriter cw, List<Method> methods)
+    {
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "invoke", "(ILjava/lang/Object;[Ljava/lang/Object;)V", null, null);
+        mv.visitCode();
+
+        Label defaultLabel = new Label();
+        Label[] labels = createLabels(methods.size());
+        mv.visitVarInsn(Opcodes.ILOAD, 1);
+        mv.visitTableSwitchInsn(0, labels.length - 1, defaultLabel, labels);
+
+        for (int i = 0; i < labels.length; i++)
+        {
+            Method method = methods.get(i);
+            String declaringClassName = Type.getInternalName(method.getDeclaringClass());
+            mv.visitLabel(labels[i]);
+            mv.visitVarInsn(Opcodes.ALOAD, 2);
+            mv.visitTypeInsn(Opcodes.CHECKCAST, declaringClassName);
+            pushParameters(mv, 3, method.getParameterTypes());
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, declaringClassName, method.getName(), Type.getMethodDescriptor(method), false);
+
+            Class<?> returnType = method.getReturnType();
+            if (returnType == long.class || returnType == double.class)
+            {
+                mv.visitInsn(Opcodes.POP2);
+            }
+            else if (returnType != void.class)
+            {
+                mv.visitInsn(Opcodes.POP);
+            }
+            mv.visitInsn(Opcodes.RETURN);
+        }
+
+        mv.visitLabel(defaultLabel);
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitVarInsn(Opcodes.ILOAD, 1);
+        mv.visitVarInsn(Opcodes.ALOAD, 2);
+        mv.visitVarInsn(Opcodes.ALOAD, 3);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, INJECTOR_INTERNAL_NAME, "invoke", "(ILjava/lang/Object;[Ljava/lang/Object;)V", false);
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(-1, -1);
+        mv.visitEnd();
+    }
+
+    private Label[] createLabels(int size)
+    {
+        Label[] labels = new Label[size];
+        for (int i = 0; i < size; i++)
+        {
+            labels[i] = new Label();
+        }
+        return labels;
+    }
+
+    /**
+     * Pushes all elements of the Object[] in the given local variable onto the stack.
+     */
+    private void pushParameters(MethodVisitor mv, int arrayVariable, Class<?>[] parameterTypes)
+    {
+        for (int i = 0; i < parameterTypes.length; i++)
+        {
+            mv.visitVarInsn(Opcodes.ALOAD, arrayVariable);
+            mv.visitLdcInsn(i);
+            mv.visitInsn(Opcodes.AALOAD);
+            castOrUnbox(mv, parameterTypes[i]);
+        }
+    }
+
+    private void castOrUnbox(MethodVisitor mv, Class<?> type)
+    {
+        if (type.isPrimitive())
+        {
+            Class<?> wrapperType = MethodType.methodType(type).wrap().returnType();
+            String wrapperName = Type.getInternalName(wrapperType);
+            mv.visitTypeInsn(Opcodes.CHECKCAST, wrapperName);
+            mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, wrapperName, type.getName() + "Value",
+                    Type.getMethodDescriptor(Type.getType(type)), false);
+        }
+        else if (type != Object.class)
+        {
+            mv.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(type));
+        }
+    }
+}
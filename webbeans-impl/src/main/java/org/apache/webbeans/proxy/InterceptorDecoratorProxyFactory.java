@@ -19,9 +19,11 @@
 package org.apache.webbeans.proxy;
 
 
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
 import org.apache.webbeans.config.WebBeansContext;
 import org.apache.webbeans.exception.ProxyGenerationException;
 import org.apache.webbeans.exception.WebBeansConfigurationException;
+import org.apache.webbeans.intercept.InterceptorChain;
 import org.apache.webbeans.intercept.InterceptorResolutionService;
 import org.apache.webbeans.util.Asserts;
 import org.apache.webbeans.util.ExceptionUtil;
@@ -33,12 +35,15 @@ import org.apache.xbean.asm8.Type;
 
 import javax.enterprise.inject.spi.AnnotatedType;
 import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.Interceptor;
 import java.io.ObjectStreamException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
@@ -69,10 +74,14 @@ public class InterceptorDecoratorProxyFactory extends AbstractProxyFactory
     private ConcurrentMap<Bean<?>, Class<?>> cachedProxyClasses = new ConcurrentHashMap<>();
     private ConcurrentMap<AnnotatedType<?>, Class<?>> cachedProxyClassesByAt = new ConcurrentHashMap<>();
 
+    private final boolean useInterceptorChains;
+
 
     public InterceptorDecoratorProxyFactory(WebBeansContext webBeansContext)
     {
         super(webBeansContext);
+        useInterceptorChains = Boolean.parseBoolean(webBeansContext.getOpenWebBeansConfiguration()
+                .getProperty(OpenWebBeansConfiguration.USE_INTERCEPTOR_CHAINS));
     }
 
     public <T> T createProxyInstance(Class<? extends T> proxyClass, T instance, InterceptorHandler interceptorDecoratorStack)
@@ -237,6 +246,40 @@ public class InterceptorDecoratorProxyFactory extends AbstractProxyFactory
         return (Class<T>) cachedProxyClasses.get(bean);
     }
 
+    /**
+     * The chains depend on the interceptors resolved for a bean and not only on the proxy class.
+     * Callers should thus keep the result together with the interceptor information of the bean.
+     *
+     * @param proxyClass the interceptor proxy class
+     * @param methodInterceptors all active interceptors for each intercepted method
+     * @return the pre-resolved interceptor chains indexed by the intercepted method index of the proxy
+     *         or {@code null} if interceptor chains are not enabled.
+     */
+    public InterceptorChain[] createInterceptorChains(Class<?> proxyClass, Map<Method, List<Interceptor<?>>> methodInterceptors)
+    {
+        if (!useInterceptorChains)
+        {
+            return null;
+        }
+
+        try
+        {
+            Field interceptedMethodsField = proxyClass.getDeclaredField(FIELD_INTERCEPTED_METHODS);
+            interceptedMethodsField.setAccessible(true);
+            return InterceptorChain.createChains((Method[]) interceptedMethodsField.get(null), methodInterceptors);
+        }
+        catch (IllegalAccessException | NoSuchFieldException e)
+        {
+            throw new ProxyGenerationException(e);
+        }
+    }
+
+    @Override
+    protected String getGeneratorFlags()
+    {
+        return useInterceptorChains ? "interceptorChains" : "";
+    }
+
     @Override
     protected Class getMarkerInterface()
     {
@@ -511,23 +554,17 @@ public class InterceptorDecoratorProxyFactory extends AbstractProxyFactory
         // get the invocationHandler field from this class
         mv.visitFieldInsn(Opcodes.GETFIELD, proxyClassFileName, FIELD_INTERCEPTOR_HANDLER, Type.getDescriptor(InterceptorHandler.class));
 
+        if (useInterceptorChains)
+        {
+            // the methodIndex is the first parameter for the indexed invoke
+            pushMethodIndex(mv, methodIndex);
+        }
+
         // add the Method from the static array as first parameter
         mv.visitFieldInsn(Opcodes.GETSTATIC, proxyClassFileName, FIELD_INTERCEPTED_METHODS, Type.getDescriptor(Method[].class));
 
         // push the methodIndex of the current method
-        if (methodIndex <128)
-        {
-            mv.visitIntInsn(Opcodes.BIPUSH, methodIndex);
-        }
-        else if (methodIndex < 32267)
-        {
-            // for methods > 127 we need to push a short number as index
-            mv.visitIntInsn(Opcodes.SIPUSH, methodIndex);
-        }
-        else
-        {
-            throw new ProxyGenerationException("Sorry, we only support Classes with 2^15 methods...");
-        }
+        pushMethodIndex(mv, methodIndex);
 
         // and now load the Method from the array
         mv.visitInsn(Opcodes.AALOAD);
@@ -538,8 +575,16 @@ public class InterceptorDecoratorProxyFactory extends AbstractProxyFactory
 
 
         // invoke the invocationHandler
-        mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, Type.getInternalName(InterceptorHandler.class), "invoke",
-                "(Ljava/lang/reflect/Method;[Ljava/lang/Object;)Ljava/lang/Object;", true);
+        if (useInterceptorChains)
+        {
+            mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, Type.getInternalName(InterceptorHandler.class), "invoke",
+                    "(ILjava/lang/reflect/Method;[Ljava/lang/Object;)Ljava/lang/Object;", true);
+        }
+        else
+        {
+            mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, Type.getInternalName(InterceptorHandler.class), "invoke",
+                    "(Ljava/lang/reflect/Method;[Ljava/lang/Object;)Ljava/lang/Object;", true);
+        }
 
         // cast the result
         mv.visitTypeInsn(Opcodes.CHECKCAST, getCastType(returnType));
@@ -613,5 +658,20 @@ public class InterceptorDecoratorProxyFactory extends AbstractProxyFactory
         mv.visitEnd();
     }
 
-
+    private void pushMethodIndex(MethodVisitor mv, int methodIndex) throws ProxyGenerationException
+    {
+        if (methodIndex <128)
+        {
+            mv.visitIntInsn(Opcodes.BIPUSH, methodIndex);
+        }
+        else if (methodIndex < 32267)
+        {
+            // for methods > 127 we need to push a short number as index
+            mv.visitIntInsn(Opcodes.SIPUSH, methodIndex);
+        }
+        else
+        {
+            throw new ProxyGenerationException("Sorry, we only support Classes with 2^15 methods...");
+        }
+    }
 }
@@ -35,4 +35,20 @@ public interface InterceptorHandler
      * @return the return value of the intercepted methos
      */
     Object invoke(Method method, Object[] args);
+
+    /**
+     * This method will get called by proxies which got generated with
+     * pre-resolved interceptor chains. The methodIndex is the position
+     * of the given method in the static intercepted method array of the proxy.
+     * Handlers which do not support indexed invocation simply
+     * fall back to {@link #invoke(Method, Object[])}.
+     * @param methodIndex index of the intercepted method in the proxy
+     * @param method Method which should get invoked
+     * @param args original invocation parameters
+     * @return the return value of the intercepted method
+     */
+    default Object invoke(int methodIndex, Method method, Object[] args)
+    {
+        return invoke(method, args);
+    }
 }
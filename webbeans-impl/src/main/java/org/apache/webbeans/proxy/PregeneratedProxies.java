@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.proxy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.hash.XxHash64;
+import org.apache.webbeans.logger.WebBeansLoggerFacade;
+
+/**
+ * Support for proxy classes which got generated at build time.
+ *
+ * A build tool boots the container with {@link OpenWebBeansConfiguration#RECORD_PREGENERATED_PROXIES}
+ * and a capturing {@link org.apache.webbeans.spi.DefiningClassService}, dumps the proxy
+ * bytecode into the artifact and writes the fingerprints returned by {@link #getRecordedFingerprints()}
+ * to {@link #INDEX_RESOURCE}.
+ *
+ * At runtime with {@link OpenWebBeansConfiguration#USE_PREGENERATED_PROXIES} the proxy factories
+ * look up the proxy name in the index first. If the fingerprint of the methods to proxy still
+ * matches, the pre-generated class simply gets loaded and no bytecode gets generated at all.
+ * Otherwise the proxy gets generated as usual.
+ */
+public class PregeneratedProxies
+{
+    public static final String INDEX_RESOURCE = "META-INF/openwebbeans/proxies.properties";
+
+    private static final Logger logger = WebBeansLoggerFacade.getLogger(PregeneratedProxies.class);
+
+    private final WebBeansContext webBeansContext;
+    private final boolean load;
+    private final Map<String, String> recordedFingerprints;
+
+    private volatile Map<String, String> index;
+
+    public PregeneratedProxies(WebBeansContext webBeansContext, boolean load, boolean record)
+    {
+        this.webBeansContext = webBeansContext;
+        this.load = load;
+        this.recordedFingerprints = record ? new ConcurrentHashMap<>() : null;
+    }
+
+    /**
+     * @return the PregeneratedProxies support or {@code null} if neither loading nor recording is enabled.
+     */
+    public static PregeneratedProxies create(WebBeansContext webBeansContext)
+    {
+        OpenWebBeansConfiguration configuration = webBeansContext.getOpenWebBeansConfiguration();
+        boolean load = Boolean.parseBoolean(configuration.getProperty(OpenWebBeansConfiguration.USE_PREGENERATED_PROXIES));
+        boolean record = Boolean.parseBoolean(configuration.getProperty(OpenWebBeansConfiguration.RECORD_PREGENERATED_PROXIES));
+        if (!load && !record)
+        {
+            return null;
+        }
+        return new PregeneratedProxies(webBeansContext, load, record);
+    }
+
+    /**
+     * Calculates the fingerprint of everything the bytecode of a proxy depends on.
+     * The order of the methods is significant as the generated code refers to them by index.
+     *
+     * @param generatorFlags factory specific settings which influence the generated bytecode
+     */
+    public static String fingerprint(Class<?> classToProxy, String generatorFlags,
+                                     Method[] interceptedMethods, Method[] nonInterceptedMethods,
+                                     Constructor<?> constructor)
+    {
+        StringBuilder sb = new StringBuilder(classToProxy.getName()).append('|').append(generatorFlags).append('|');
+        if (constructor != null)
+        {
+            sb.append(constructor.toGenericString());
+        }
+        appendMethods(sb.append('|'), interceptedMethods);
+        appendMethods(sb.append('|'), nonInterceptedMethods);
+        return Long.toHexString(XxHash64.apply(sb.toString()));
+    }
+
+    /**
+     * Calculates a fingerprint of the given methods in their order.
+     * It is used to give each proxy variant of a class its own static name.
+     */
+    public static String methodsFingerprint(Method[] interceptedMethods, Method[] nonInterceptedMethods)
+    {
+        StringBuilder sb = new StringBuilder();
+        appendMethods(sb, interceptedMethods);
+        appendMethods(sb.append('|'), nonInterceptedMethods);
+        return Long.toHexString(XxHash64.apply(sb.toString()));
+    }
+
+    private static void appendMethods(StringBuilder sb, Method[] methods)
+    {
+        if (methods != null)
+        {
+            for (Method method : methods)
+            {
+                sb.append(method.toGenericString()).append(';');
+            }
+        }
+    }
+
+    /**
+     * @return the pre-generated proxy class or {@code null} if there is none or it doesn't match anymore
+     */
+    public <T> Class<T> loadProxyClass(ClassLoader classLoader, String proxyClassName, String fingerprint)
+    {
+        if (!load)
+        {
+            return null;
+        }
+
+        String indexedFingerprint = getIndex().get(proxyClassName);
+        if (indexedFingerprint == null)
+        {
+            return null;
+        }
+        if (!indexedFingerprint.equals(fingerprint))
+        {
+            if (logger.isLoggable(Level.FINE))
+            {
+                logger.fine("Pre-generated proxy " + proxyClassName + " is outdated, it will get generated again");
+            }
+            return null;
+        }
+
+        try
+        {
+            return (Class<T>) Class.forName(proxyClassName, true, classLoader);
+        }
+        catch (ClassNotFoundException | LinkageError e)
+        {
+            logger.warning("Cannot load pre-generated proxy " + proxyClassName + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Remember the fingerprint of a generated proxy if recording is enabled.
+     */
+    public void generated(String proxyClassName, String fingerprint)
+    {
+        if (recordedFingerprints != null)
+        {
+            recordedFingerprints.put(proxyClassName, fingerprint);
+        }
+    }
+
+    /**
+     * @return the fingerprints of all proxies generated so far, keyed by the proxy class name
+     */
+    public Map<String, String> getRecordedFingerprints()
+    {
+        if (recordedFingerprints == null)
+        {
+            throw new IllegalStateException(OpenWebBeansConfiguration.RECORD_PREGENERATED_PROXIES + " is not enabled");
+        }
+        return recordedFingerprints;
+    }
+
+    private Map<String, String> getIndex()
+    {
+        Map<String, String> currentIndex = index;
+        if (currentIndex == null)
+        {
+            synchronized (this)
+            {
+                currentIndex = index;
+                if (currentIndex == null)
+                {
+                    currentIndex = readIndex();
+                    index = currentIndex;
+                }
+            }
+        }
+        return currentIndex;
+    }
+
+    private Map<String, String> readIndex()
+    {
+        Map<String, String> entries = new ConcurrentHashMap<>();
+        ClassLoader classLoader = webBeansContext.getApplicationBoundaryService().getApplicationClassLoader();
+        try
+        {
+            Enumeration<URL> urls = classLoader.getResources(INDEX_RESOURCE);
+            while (urls.hasMoreElements())
+            {
+                URL url = urls.nextElement();
+                Properties properties = new Properties();
+                try (InputStream inputStream = url.openStream())
+                {
+                    properties.load(inputStream);
+                }
+                for (String proxyClassName : properties.stringPropertyNames())
+                {
+                    entries.put(proxyClassName, properties.getProperty(proxyClassName));
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            logger.log(Level.WARNING, "Cannot read " + INDEX_RESOURCE + ", all proxies get generated", e);
+            entries.clear();
+        }
+        return entries;
+    }
+}
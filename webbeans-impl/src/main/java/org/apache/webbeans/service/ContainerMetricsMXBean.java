@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.service;
+
+import java.util.Map;
+
+/**
+ * JMX view of the metrics collected by the {@link DefaultMetricsService}.
+ * All per element maps are keyed by a readable name of the bean, event type,
+ * observer method or intercepted method.
+ */
+public interface ContainerMetricsMXBean
+{
+    long getInstanceCreationCount();
+
+    Map<String, Long> getInstanceCreationsPerBean();
+
+    Map<String, Long> getInstanceCreationsPerScope();
+
+    long getProxyInvocationCount();
+
+    Map<String, Long> getProxyInvocationsPerBean();
+
+    long getResolutionCacheHitCount();
+
+    long getResolutionCacheMissCount();
+
+    long getEventFireCount();
+
+    Map<String, Long> getEventsFiredPerType();
+
+    long getObserverNotificationCount();
+
+    Map<String, Long> getObserverNotificationsPerObserver();
+
+    Map<String, Double> getObserverAverageMicrosPerObserver();
+
+    long getInterceptedInvocationCount();
+
+    Map<String, Long> getInterceptedInvocationsPerMethod();
+
+    Map<String, Double> getInterceptorChainAverageMicrosPerMethod();
+
+    /**
+     * @return the number of active session contexts
+     */
+    long getLiveSessionContextCount();
+
+    /**
+     * @return the number of active contexts per scope. The request scope only gets counted
+     *         while its {@code @Initialized} and {@code @Destroyed} events get observed,
+     *         as the container skips them otherwise.
+     */
+    Map<String, Long> getLiveContextsPerScope();
+
+    /**
+     * @return the number of long running conversations
+     */
+    int getLiveConversationCount();
+
+    /**
+     * Resets all counters and timings. The live context counts are not affected.
+     */
+    void reset();
+}
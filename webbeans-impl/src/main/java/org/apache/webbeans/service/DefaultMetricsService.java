@@ -0,0 +1,367 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.service;
+
+import java.io.Closeable;
+import java.lang.annotation.Annotation;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.enterprise.context.SessionScoped;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.ObserverMethod;
+import javax.enterprise.inject.spi.PassivationCapable;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.container.InjectionResolver;
+import org.apache.webbeans.event.ObserverMethodImpl;
+import org.apache.webbeans.logger.WebBeansLoggerFacade;
+import org.apache.webbeans.spi.MetricsService;
+import org.apache.webbeans.util.Timing;
+
+/**
+ * Default {@link MetricsService} which counts with striped {@link LongAdder}s,
+ * so concurrent updates do not contend, and exports the metrics as
+ * {@link ContainerMetricsMXBean} to the platform MBeanServer.
+ *
+ * <p>Enable it with
+ * {@code org.apache.webbeans.spi.MetricsService=org.apache.webbeans.service.DefaultMetricsService}
+ * in openwebbeans.properties. The MBean gets registered as
+ * {@code org.apache.webbeans:type=ContainerMetrics,context=<id>} and unregistered when the container shuts down.
+ * {@code <id>} is the hex identity hash code of the {@link WebBeansContext}, so every container
+ * gets its own MBean. {@code org.apache.webbeans:type=ContainerMetrics,*} matches all of them.</p>
+ */
+public class DefaultMetricsService implements MetricsService, ContainerMetricsMXBean, Closeable
+{
+    private static final Logger logger = WebBeansLoggerFacade.getLogger(DefaultMetricsService.class);
+
+    private final WebBeansContext webBeansContext;
+
+    private final ConcurrentMap<Bean<?>, LongAdder> instanceCreations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Bean<?>, LongAdder> proxyInvocations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, LongAdder> firedEvents = new ConcurrentHashMap<>();
+    private final ConcurrentMap<ObserverMethod<?>, Timing> observerNotifications = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Method, Timing> interceptedInvocations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<? extends Annotation>, LongAdder> liveContexts = new ConcurrentHashMap<>();
+
+    private ObjectName objectName;
+
+    public DefaultMetricsService(WebBeansContext webBeansContext)
+    {
+        this.webBeansContext = webBeansContext;
+        registerMBean();
+    }
+
+    @Override
+    public void instanceCreated(Bean<?> bean)
+    {
+        counter(instanceCreations, bean).increment();
+    }
+
+    @Override
+    public void proxyInvoked(Bean<?> bean)
+    {
+        counter(proxyInvocations, bean).increment();
+    }
+
+    @Override
+    public void eventFired(Class<?> eventType)
+    {
+        counter(firedEvents, eventType).increment();
+    }
+
+    @Override
+    public void observerNotified(ObserverMethod<?> observer, long nanos)
+    {
+        timing(observerNotifications, observer).add(nanos);
+    }
+
+    @Override
+    public void interceptorChainInvoked(Method method, long nanos)
+    {
+        timing(interceptedInvocations, method).add(nanos);
+    }
+
+    @Override
+    public void contextInitialized(Class<? extends Annotation> scope)
+    {
+        counter(liveContexts, scope).increment();
+    }
+
+    @Override
+    public void contextDestroyed(Class<? extends Annotation> scope)
+    {
+        counter(liveContexts, scope).decrement();
+    }
+
+    @Override
+    public long getInstanceCreationCount()
+    {
+        return sum(instanceCreations);
+    }
+
+    @Override
+    public Map<String, Long> getInstanceCreationsPerBean()
+    {
+        return counts(instanceCreations, DefaultMetricsService::beanName);
+    }
+
+    @Override
+    public Map<String, Long> getInstanceCreationsPerScope()
+    {
+        Map<String, Long> result = new TreeMap<>();
+        instanceCreations.forEach((bean, count) -> result.merge(bean.getScope().getName(), count.sum(), Long::sum));
+        return result;
+    }
+
+    @Override
+    public long getProxyInvocationCount()
+    {
+        return sum(proxyInvocations);
+    }
+
+    @Override
+    public Map<String, Long> getProxyInvocationsPerBean()
+    {
+        return counts(proxyInvocations, DefaultMetricsService::beanName);
+    }
+
+    @Override
+    public long getResolutionCacheHitCount()
+    {
+        InjectionResolver injectionResolver = webBeansContext.getBeanManagerImpl().getInjectionResolver();
+        return injectionResolver.getResolvedBeansByTypeCache().getHitCount() + injectionResolver.getResolvedBeansByNameCache().getHitCount();
+    }
+
+    @Override
+    public long getResolutionCacheMissCount()
+    {
+        InjectionResolver injectionResolver = webBeansContext.getBeanManagerImpl().getInjectionResolver();
+        return injectionResolver.getResolvedBeansByTypeCache().getMissCount() + injectionResolver.getResolvedBeansByNameCache().getMissCount();
+    }
+
+    @Override
+    public long getEventFireCount()
+    {
+        return sum(firedEvents);
+    }
+
+    @Override
+    public Map<String, Long> getEventsFiredPerType()
+    {
+        return counts(firedEvents, Class::getName);
+    }
+
+    @Override
+    public long getObserverNotificationCount()
+    {
+        return timingCount(observerNotifications);
+    }
+
+    @Override
+    public Map<String, Long> getObserverNotificationsPerObserver()
+    {
+        return timingCounts(observerNotifications, DefaultMetricsService::observerName);
+    }
+
+    @Override
+    public Map<String, Double> getObserverAverageMicrosPerObserver()
+    {
+        return averageMicros(observerNotifications, DefaultMetricsService::observerName);
+    }
+
+    @Override
+    public long getInterceptedInvocationCount()
+    {
+        return timingCount(interceptedInvocations);
+    }
+
+    @Override
+    public Map<String, Long> getInterceptedInvocationsPerMethod()
+    {
+        return timingCounts(interceptedInvocations, DefaultMetricsService::methodName);
+    }
+
+    @Override
+    public Map<String, Double> getInterceptorChainAverageMicrosPerMethod()
+    {
+        return averageMicros(interceptedInvocations, DefaultMetricsService::methodName);
+    }
+
+    @Override
+    public long getLiveSessionContextCount()
+    {
+        LongAdder sessions = liveContexts.get(SessionScoped.class);
+        return sessions != null ? sessions.sum() : 0;
+    }
+
+    @Override
+    public Map<String, Long> getLiveContextsPerScope()
+    {
+        return counts(liveContexts, Class::getName);
+    }
+
+    @Override
+    public int getLiveConversationCount()
+    {
+        return webBeansContext.getConversationManager().getLiveConversationCount();
+    }
+
+    @Override
+    public void reset()
+    {
+        instanceCreations.clear();
+        proxyInvocations.clear();
+        firedEvents.clear();
+        observerNotifications.clear();
+        interceptedInvocations.clear();
+    }
+
+    @Override
+    public void close()
+    {
+        reset();
+        liveContexts.clear();
+        if (objectName != null)
+        {
+            try
+            {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            }
+            catch (JMException e)
+            {
+                logger.log(Level.FINE, "Cannot unregister " + objectName, e);
+            }
+            objectName = null;
+        }
+    }
+
+    private void registerMBean()
+    {
+        try
+        {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("org.apache.webbeans:type=ContainerMetrics,context="
+                    + Integer.toHexString(System.identityHashCode(webBeansContext)));
+            mBeanServer.registerMBean(this, name);
+            objectName = name;
+        }
+        catch (JMException | SecurityException e)
+        {
+            logger.log(Level.WARNING, "Cannot register the container metrics in JMX", e);
+        }
+    }
+
+    private static <K> LongAdder counter(ConcurrentMap<K, LongAdder> counters, K key)
+    {
+        // get first as computeIfAbsent locks the bin even if the key exists
+        LongAdder counter = counters.get(key);
+        return counter != null ? counter : counters.computeIfAbsent(key, k -> new LongAdder());
+    }
+
+    private static <K> Timing timing(ConcurrentMap<K, Timing> timings, K key)
+    {
+        Timing timing = timings.get(key);
+        return timing != null ? timing : timings.computeIfAbsent(key, k -> new Timing());
+    }
+
+    private static long sum(Map<?, LongAdder> counters)
+    {
+        return counters.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    private static long timingCount(Map<?, Timing> timings)
+    {
+        return timings.values().stream().mapToLong(Timing::getCount).sum();
+    }
+
+    private static <K> Map<String, Long> counts(Map<K, LongAdder> counters, Function<K, String> name)
+    {
+        Map<String, Long> result = new TreeMap<>();
+        counters.forEach((key, count) -> result.merge(name.apply(key), count.sum(), Long::sum));
+        return result;
+    }
+
+    private static <K> Map<String, Long> timingCounts(Map<K, Timing> timings, Function<K, String> name)
+    {
+        Map<String, Long> result = new TreeMap<>();
+        timings.forEach((key, timing) -> result.merge(name.apply(key), timing.getCount(), Long::sum));
+        return result;
+    }
+
+    private static <K> Map<String, Double> averageMicros(Map<K, Timing> timings, Function<K, String> name)
+    {
+        Map<String, Double> result = new TreeMap<>();
+        timings.forEach((key, timing) ->
+        {
+            long count = timing.getCount();
+            result.put(name.apply(key), count > 0 ? timing.getNanos() / 1000.0 / count : 0.0);
+        });
+        return result;
+    }
+
+    private static String beanName(Bean<?> bean)
+    {
+        if (bean instanceof PassivationCapable)
+        {
+            String id = ((PassivationCapable) bean).getId();
+            if (id != null)
+            {
+                return id;
+            }
+        }
+        return bean.toString();
+    }
+
+    private static String observerName(ObserverMethod<?> observer)
+    {
+        if (observer instanceof ObserverMethodImpl)
+        {
+            return methodName(((ObserverMethodImpl<?>) observer).getObserverMethod().getJavaMember());
+        }
+        return observer.getBeanClass().getName() + " observes " + observer.getObservedType().getTypeName();
+    }
+
+    private static String methodName(Method method)
+    {
+        StringBuilder name = new StringBuilder(method.getDeclaringClass().getName())
+                .append('#').append(method.getName()).append('(');
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++)
+        {
+            if (i > 0)
+            {
+                name.append(',');
+            }
+            name.append(parameterTypes[i].getSimpleName());
+        }
+        return name.append(')').toString();
+    }
+}
@@ -31,6 +31,7 @@ import java.lang.reflect.TypeVariable;
 import java.lang.reflect.WildcardType;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -49,6 +50,18 @@ public final class GenericsUtil
 
     private static final int MAX_GENERIC_LOOPS = 4; // todo: config? it is already crazy :s
 
+    /**
+     * Same as {@link #satisfiesDependency(boolean, boolean, Type, Type, Map)} but the map
+     * for the loop detection only gets created once a type variable or wildcard gets visited.
+     */
+    public static boolean satisfiesDependency(boolean isDelegateOrEvent, boolean isProducer, Type injectionPointType, Type beanType)
+    {
+        return satisfiesDependency(isDelegateOrEvent, isProducer, injectionPointType, beanType, null);
+    }
+
+    /**
+     * @param visited the types visited so far for the loop detection, may be {@code null}
+     */
     public static boolean satisfiesDependency(boolean isDelegateOrEvent, boolean isProducer, Type injectionPointType, Type beanType,
                                               Map<Type, Integer> visited)
     {
@@ -70,6 +83,11 @@ public final class GenericsUtil
         return false;
     }
 
+    public static boolean satisfiesDependencyRaw(boolean isDelegateOrEvent, boolean isProducer, Type injectionPointType, Type beanType)
+    {
+        return satisfiesDependencyRaw(isDelegateOrEvent, isProducer, injectionPointType, beanType, null);
+    }
+
     public static boolean satisfiesDependencyRaw(boolean isDelegateOrEvent, boolean isProducer, Type injectionPointType, Type beanType,
                                                  Map<Type, Integer> visited)
     {
@@ -116,6 +134,16 @@ public final class GenericsUtil
     /**
      * 5.2.3 and 5.2.4
      */
+    public static boolean isAssignableFrom(boolean isDelegateOrEvent, boolean isProducer, Type requiredType, Type beanType)
+    {
+        return isAssignableFrom(isDelegateOrEvent, isProducer, requiredType, beanType, null);
+    }
+
+    /**
+     * 5.2.3 and 5.2.4
+     *
+     * @param visited the types visited so far for the loop detection, may be {@code null}
+     */
     public static boolean isAssignableFrom(boolean isDelegateOrEvent, boolean isProducer, Type requiredType, Type beanType,
                                            Map<Type, Integer> visited)
     {
@@ -240,6 +268,10 @@ public final class GenericsUtil
     private static boolean isAssignableFrom(boolean isDelegateOrEvent, Type injectionPointType, WildcardType beanType,
                                             Map<Type, Integer> visited)
     {
+        if (visited == null)
+        {
+            visited = new HashMap<>();
+        }
         if (isGenericLoop(beanType, visited))
         {
             return false;
@@ -261,6 +293,10 @@ public final class GenericsUtil
         return false;
     }
 
+    /**
+     * Only type variables and wildcards can loop, so the visited map gets created lazily
+     * by their checks and is then handed down to all nested checks.
+     */
     private static boolean isGenericLoop(Type beanType, Map<Type, Integer> visited)
     {
         return visited.compute(beanType, (type, integer) -> integer == null ? 1 : (integer + 1)) > MAX_GENERIC_LOOPS;
@@ -415,6 +451,10 @@ public final class GenericsUtil
     private static boolean isAssignableFrom(boolean isDelegateOrEvent, TypeVariable<?> injectionPointType, Type beanType,
                                             Map<Type, Integer> visited)
     {
+        if (visited == null)
+        {
+            visited = new HashMap<>();
+        }
         if (isGenericLoop(beanType, visited))
         {
             return false; // looping type so not resolvable
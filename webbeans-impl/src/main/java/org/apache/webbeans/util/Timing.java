@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts timed operations and sums up their durations.
+ * Both get maintained with {@link LongAdder}s, so concurrent updates do not contend.
+ */
+public final class Timing
+{
+    private final LongAdder count = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    /**
+     * @param durationNanos the duration of a single operation in nanoseconds
+     */
+    public void add(long durationNanos)
+    {
+        count.increment();
+        nanos.add(durationNanos);
+    }
+
+    public long getCount()
+    {
+        return count.sum();
+    }
+
+    public long getNanos()
+    {
+        return nanos.sum();
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.util;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Container wide memo of the results of the {@link GenericsUtil} assignability checks.
+ *
+ * <p>The checks only depend on the given types and flags, so the results never get stale
+ * while the container lives. The results get stored per (requiredType, beanType, flags) and
+ * a lookup neither allocates a key nor the map for the loop detection.
+ * Parameterized types used as keys get interned, so the type instances kept by the cache
+ * are canonical and repeated lookups with them get answered by identity.</p>
+ *
+ * <p>Once the configured number of entries is reached, new results are still computed but
+ * not stored anymore.</p>
+ */
+public class TypeAssignabilityCache
+{
+    private static final int SATISFIES_DEPENDENCY = 0;
+    private static final int SATISFIES_DEPENDENCY_RAW = 1;
+    private static final int IS_ASSIGNABLE_FROM = 2;
+
+    /**
+     * One map per check and combination of the isDelegateOrEvent and isProducer flags,
+     * keyed by the required type and then by the bean type.
+     */
+    private final ConcurrentMap<Type, ConcurrentMap<Type, Boolean>>[] results;
+
+    private final ConcurrentMap<Type, Type> internedTypes = new ConcurrentHashMap<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final int maxSize;
+
+    /**
+     * @param maxSize the maximum number of stored results, {@code 0} or less disables the cache
+     */
+    @SuppressWarnings("unchecked")
+    public TypeAssignabilityCache(int maxSize)
+    {
+        this.maxSize = maxSize;
+        results = new ConcurrentMap[12];
+        for (int i = 0; i < results.length; i++)
+        {
+            results[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * @see GenericsUtil#satisfiesDependency(boolean, boolean, Type, Type)
+     */
+    public boolean satisfiesDependency(boolean isDelegateOrEvent, boolean isProducer, Type injectionPointType, Type beanType)
+    {
+        Boolean result = lookup(SATISFIES_DEPENDENCY, isDelegateOrEvent, isProducer, injectionPointType, beanType);
+        if (result == null)
+        {
+            result = GenericsUtil.satisfiesDependency(isDelegateOrEvent, isProducer, injectionPointType, beanType);
+            store(SATISFIES_DEPENDENCY, isDelegateOrEvent, isProducer, injectionPointType, beanType, result);
+        }
+        return result;
+    }
+
+    /**
+     * @see GenericsUtil#satisfiesDependencyRaw(boolean, boolean, Type, Type)
+     */
+    public boolean satisfiesDependencyRaw(boolean isDelegateOrEvent, boolean isProducer, Type injectionPointType, Type beanType)
+    {
+        Boolean result = lookup(SATISFIES_DEPENDENCY_RAW, isDelegateOrEvent, isProducer, injectionPointType, beanType);
+        if (result == null)
+        {
+            result = GenericsUtil.satisfiesDependencyRaw(isDelegateOrEvent, isProducer, injectionPointType, beanType);
+            store(SATISFIES_DEPENDENCY_RAW, isDelegateOrEvent, isProducer, injectionPointType, beanType, result);
+        }
+        return result;
+    }
+
+    /**
+     * @see GenericsUtil#isAssignableFrom(boolean, boolean, Type, Type)
+     */
+    public boolean isAssignableFrom(boolean isDelegateOrEvent, boolean isProducer, Type requiredType, Type beanType)
+    {
+        Boolean result = lookup(IS_ASSIGNABLE_FROM, isDelegateOrEvent, isProducer, requiredType, beanType);
+        if (result == null)
+        {
+            result = GenericsUtil.isAssignableFrom(isDelegateOrEvent, isProducer, requiredType, beanType);
+            store(IS_ASSIGNABLE_FROM, isDelegateOrEvent, isProducer, requiredType, beanType, result);
+        }
+        return result;
+    }
+
+    /**
+     * @return the canonical instance of the given type. Only parameterized types get interned,
+     *         all other types are returned as they are.
+     */
+    public Type intern(Type type)
+    {
+        if (!(type instanceof ParameterizedType) || maxSize <= 0)
+        {
+            return type;
+        }
+        Type interned = internedTypes.get(type);
+        if (interned != null)
+        {
+            return interned;
+        }
+        if (internedTypes.size() >= maxSize)
+        {
+            return type;
+        }
+        interned = internedTypes.putIfAbsent(type, type);
+        return interned != null ? interned : type;
+    }
+
+    /**
+     * @return the number of stored results
+     */
+    public int size()
+    {
+        return size.get();
+    }
+
+    public void clear()
+    {
+        for (ConcurrentMap<Type, ConcurrentMap<Type, Boolean>> resultsByRequiredType : results)
+        {
+            resultsByRequiredType.clear();
+        }
+        internedTypes.clear();
+        size.set(0);
+    }
+
+    private Boolean lookup(int check, boolean isDelegateOrEvent, boolean isProducer, Type requiredType, Type beanType)
+    {
+        if (requiredType == null || beanType == null)
+        {
+            return null;
+        }
+        ConcurrentMap<Type, Boolean> resultsByBeanType = results[index(check, isDelegateOrEvent, isProducer)].get(requiredType);
+        return resultsByBeanType == null ? null : resultsByBeanType.get(beanType);
+    }
+
+    private void store(int check, boolean isDelegateOrEvent, boolean isProducer, Type requiredType, Type beanType, Boolean result)
+    {
+        if (requiredType == null || beanType == null || size.get() >= maxSize)
+        {
+            return;
+        }
+        ConcurrentMap<Type, Boolean> resultsByBeanType = results[index(check, isDelegateOrEvent, isProducer)]
+                .computeIfAbsent(intern(requiredType), k -> new ConcurrentHashMap<>());
+        if (resultsByBeanType.putIfAbsent(intern(beanType), result) == null)
+        {
+            size.incrementAndGet();
+        }
+    }
+
+    private static int index(int check, boolean isDelegateOrEvent, boolean isProducer)
+    {
+        return check * 4 + (isDelegateOrEvent ? 2 : 0) + (isProducer ? 1 : 0);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.config;
+
+import javax.enterprise.event.TransactionPhase;
+import javax.enterprise.inject.spi.ObserverMethod;
+import javax.transaction.Transaction;
+import javax.transaction.TransactionManager;
+import javax.transaction.UserTransaction;
+
+import org.apache.webbeans.spi.TransactionService;
+import org.apache.webbeans.util.WebBeansUtil;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WebBeansContextServiceTest
+{
+    @After
+    public void cleanup()
+    {
+        // the services look up the WebBeansContext of the current ClassLoader, don't leak it to other tests
+        WebBeansFinder.clearInstances(WebBeansUtil.getCurrentClassLoader());
+    }
+
+    @Test
+    public void testAbsentServiceGetsRemembered()
+    {
+        WebBeansContext webBeansContext = new WebBeansContext();
+        Assert.assertNull(webBeansContext.getService(TransactionService.class));
+
+        webBeansContext.getPluginLoader().startUp();
+        Assert.assertNull(webBeansContext.getService(TransactionService.class));
+        Assert.assertNull(webBeansContext.getService(TransactionService.class));
+
+        // registering it later still wins over the remembered absence
+        TransactionService transactionService = new DummyTransactionService();
+        webBeansContext.registerService(TransactionService.class, transactionService);
+        Assert.assertSame(transactionService, webBeansContext.getService(TransactionService.class));
+
+        webBeansContext.getPluginLoader().shutDown();
+    }
+
+    @Test
+    public void testBindServices()
+    {
+        WebBeansContext webBeansContext = new WebBeansContext();
+        webBeansContext.getPluginLoader().startUp();
+
+        webBeansContext.bindServices();
+        Assert.assertNull(webBeansContext.getTransactionService());
+        Assert.assertNotNull(webBeansContext.getContextsService());
+        Assert.assertSame(webBeansContext.getContextsService(), webBeansContext.getContextsService());
+
+        TransactionService transactionService = new DummyTransactionService();
+        webBeansContext.registerService(TransactionService.class, transactionService);
+        Assert.assertSame(transactionService, webBeansContext.getTransactionService());
+
+        webBeansContext.getPluginLoader().shutDown();
+    }
+
+    public static class DummyTransactionService implements TransactionService
+    {
+        @Override
+        public TransactionManager getTransactionManager()
+        {
+            return null;
+        }
+
+        @Override
+        public Transaction getTransaction()
+        {
+            return null;
+        }
+
+        @Override
+        public UserTransaction getUserTransaction()
+        {
+            return null;
+        }
+
+        @Override
+        public void registerTransactionSynchronization(TransactionPhase phase, ObserverMethod<? super Object> observer, Object event)
+        {
+        }
+    }
+}
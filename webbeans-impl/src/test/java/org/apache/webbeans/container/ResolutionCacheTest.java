@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.container;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ResolutionCacheTest
+{
+    @Test
+    public void testCounters()
+    {
+        ResolutionCache<String, String> cache = new ResolutionCache<>(10);
+        Assert.assertNull(cache.get("a"));
+        cache.put("a", "A");
+        Assert.assertEquals("A", cache.get("a"));
+        Assert.assertEquals("A", cache.get("a"));
+
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(0, cache.getEvictionCount());
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testEviction()
+    {
+        ResolutionCache<Integer, Integer> cache = new ResolutionCache<>(3);
+        cache.put(1, 1);
+        cache.put(2, 2);
+        cache.put(3, 3);
+
+        // 1 gets a second chance, 2 is the oldest entry without a hit
+        Assert.assertEquals(Integer.valueOf(1), cache.get(1));
+        cache.put(4, 4);
+
+        Assert.assertEquals(3, cache.size());
+        Assert.assertEquals(1, cache.getEvictionCount());
+        Assert.assertNull(cache.get(2));
+        Assert.assertEquals(Integer.valueOf(1), cache.get(1));
+        Assert.assertEquals(Integer.valueOf(3), cache.get(3));
+        Assert.assertEquals(Integer.valueOf(4), cache.get(4));
+
+        for (int i = 5; i < 100; i++)
+        {
+            cache.put(i, i);
+        }
+        Assert.assertEquals(3, cache.size());
+        Assert.assertEquals(96, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testUnbounded()
+    {
+        ResolutionCache<Integer, Integer> cache = new ResolutionCache<>(0);
+        for (int i = 0; i < 1000; i++)
+        {
+            cache.put(i, i);
+        }
+        Assert.assertEquals(1000, cache.size());
+        Assert.assertEquals(0, cache.getEvictionCount());
+
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+    }
+}
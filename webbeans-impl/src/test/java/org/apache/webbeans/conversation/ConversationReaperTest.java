@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.conversation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Serializable;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.ConversationScoped;
+import javax.enterprise.context.Destroyed;
+import javax.enterprise.context.NonexistentConversationException;
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.context.SessionScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.context.ConversationContext;
+import org.apache.webbeans.spi.ContextsService;
+import org.apache.webbeans.spi.ConversationService;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Test;
+
+public class ConversationReaperTest extends AbstractUnitTest
+{
+    private final AtomicReference<String> conversationId = new AtomicReference<>();
+
+    @Test
+    public void testReapTimedOutConversation() throws Exception
+    {
+        startContainer("0");
+        ConversationManager conversationManager = getWebBeansContext().getConversationManager();
+        ConversationReaper reaper = conversationManager.getConversationReaper();
+        assertFalse(reaper.isScheduled());
+
+        beginConversation(50);
+        assertEquals(1, conversationManager.getLiveConversationCount());
+        assertEquals(0, reaper.reap());
+
+        Thread.sleep(100);
+        assertEquals(1, reaper.reap());
+        assertTrue(getSessionConversations().isEmpty());
+        assertEquals(0, conversationManager.getLiveConversationCount());
+        assertEquals(1, reaper.getReapedConversationCount());
+    }
+
+    @Test
+    public void testEndedConversationIsNotTracked() throws Exception
+    {
+        startContainer("0");
+        ConversationManager conversationManager = getWebBeansContext().getConversationManager();
+
+        ContextsService contextsService = getWebBeansContext().getContextsService();
+        contextsService.startContext(ConversationScoped.class, null);
+        ConversationImpl conversation = getConversationContext().getConversation();
+        conversation.begin("bar");
+        assertEquals(1, conversationManager.getLiveConversationCount());
+
+        conversation.end();
+        assertEquals(0, conversationManager.getLiveConversationCount());
+        contextsService.endContext(ConversationScoped.class, null);
+    }
+
+    @Test
+    public void testTimedOutConversationCannotBeRestored() throws Exception
+    {
+        startContainer("0");
+        beginConversation(50);
+        conversationId.set("foo");
+
+        Thread.sleep(100);
+        getWebBeansContext().getContextsService().startContext(ConversationScoped.class, null);
+        ConversationImpl conversation = getConversationContext().getConversation();
+        assertTrue(conversation.isTransient());
+        assertTrue(conversation.getProblemDuringCreation() instanceof NonexistentConversationException);
+        assertTrue(getSessionConversations().isEmpty());
+        assertEquals(0, getWebBeansContext().getConversationManager().getLiveConversationCount());
+    }
+
+    @Test
+    public void testBackgroundReaper() throws Exception
+    {
+        startContainer("20");
+        ConversationManager conversationManager = getWebBeansContext().getConversationManager();
+        ConversationReaper reaper = conversationManager.getConversationReaper();
+        assertTrue(reaper.isScheduled());
+
+        beginConversation(50);
+        for (int i = 0; i < 500 && reaper.getReapedConversationCount() == 0; i++)
+        {
+            Thread.sleep(10);
+        }
+        assertEquals(0, conversationManager.getLiveConversationCount());
+        assertEquals(1, reaper.getReapedConversationCount());
+        assertTrue(getSessionConversations().isEmpty());
+        assertEquals("destroyed", ConversationObserver.destroyedWith.get());
+    }
+
+    private void startContainer(String reaperInterval)
+    {
+        ConversationObserver.destroyedWith.set(null);
+        addService(ConversationService.class, new DefaultConversationService()
+        {
+            @Override
+            public String getConversationId()
+            {
+                return conversationId.get();
+            }
+        });
+        addConfiguration(OpenWebBeansConfiguration.APPLICATION_SUPPORTS_CONVERSATION, "true");
+        addConfiguration(OpenWebBeansConfiguration.CONVERSATION_REAPER_INTERVAL, reaperInterval);
+        startContainer(ConversationBean.class, ConversationObserver.class, RequestBean.class);
+    }
+
+    private void beginConversation(long timeout)
+    {
+        ContextsService contextsService = getWebBeansContext().getContextsService();
+        contextsService.startContext(ConversationScoped.class, null);
+
+        ConversationImpl conversation = getConversationContext().getConversation();
+        conversation.begin("foo");
+        conversation.setTimeout(timeout);
+        getInstance(ConversationBean.class).touch();
+
+        contextsService.endContext(ConversationScoped.class, null);
+        conversation.iDontUseItAnymore();
+    }
+
+    private Set<ConversationContext> getSessionConversations()
+    {
+        return getWebBeansContext().getConversationManager().getSessionConversations(
+                getWebBeansContext().getContextsService().getCurrentContext(SessionScoped.class), false);
+    }
+
+    private ConversationContext getConversationContext()
+    {
+        return (ConversationContext) getWebBeansContext().getContextsService().getCurrentContext(ConversationScoped.class);
+    }
+
+    @ConversationScoped
+    public static class ConversationBean implements Serializable
+    {
+        public void touch()
+        {
+            // just create the instance
+        }
+    }
+
+    @ApplicationScoped
+    public static class ConversationObserver
+    {
+        private static final AtomicReference<String> destroyedWith = new AtomicReference<>();
+
+        @Inject
+        private RequestBean requestBean;
+
+        public void destroyed(@Observes @Destroyed(ConversationScoped.class) Object payload)
+        {
+            destroyedWith.set(requestBean.getValue());
+        }
+    }
+
+    @RequestScoped
+    public static class RequestBean
+    {
+        public String getValue()
+        {
+            return "destroyed";
+        }
+    }
+}
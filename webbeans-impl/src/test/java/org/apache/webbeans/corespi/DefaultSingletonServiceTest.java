@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.corespi;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import org.apache.webbeans.config.WebBeansContext;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DefaultSingletonServiceTest
+{
+    @Test
+    public void testLookupPerClassLoader()
+    {
+        DefaultSingletonService singletonService = new DefaultSingletonService();
+        ClassLoader loader1 = new URLClassLoader(new URL[0]);
+        ClassLoader loader2 = new URLClassLoader(new URL[0]);
+
+        WebBeansContext context1 = singletonService.get(loader1);
+        WebBeansContext context2 = singletonService.get(loader2);
+
+        Assert.assertNotNull(context1);
+        Assert.assertNotNull(context2);
+        Assert.assertNotSame(context1, context2);
+
+        // alternate to bypass the last entry fast path
+        Assert.assertSame(context1, singletonService.get(loader1));
+        Assert.assertSame(context2, singletonService.get(loader2));
+        Assert.assertSame(context1, singletonService.get(loader1));
+    }
+
+    @Test
+    public void testClearInstances()
+    {
+        DefaultSingletonService singletonService = new DefaultSingletonService();
+        ClassLoader loader = new URLClassLoader(new URL[0]);
+
+        WebBeansContext context = singletonService.get(loader);
+        Assert.assertTrue(singletonService.exists(loader));
+
+        singletonService.clearInstances(loader);
+        Assert.assertFalse(singletonService.exists(loader));
+
+        WebBeansContext newContext = singletonService.get(loader);
+        Assert.assertNotSame(context, newContext);
+        Assert.assertSame(newContext, singletonService.get(loader));
+    }
+
+    @Test
+    public void testRegister()
+    {
+        DefaultSingletonService singletonService = new DefaultSingletonService();
+        ClassLoader loader = new URLClassLoader(new URL[0]);
+        WebBeansContext context = new WebBeansContext();
+
+        singletonService.register(loader, context);
+        Assert.assertSame(context, singletonService.get(loader));
+
+        try
+        {
+            singletonService.register(loader, new WebBeansContext());
+            Assert.fail("IllegalArgumentException expected");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // all fine
+        }
+    }
+}
@@ -19,7 +19,9 @@
 package org.apache.webbeans.corespi.scanner;
 
 import static java.util.Collections.emptyEnumeration;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
 import static org.apache.xbean.asm8.ClassWriter.COMPUTE_FRAMES;
 import static org.apache.xbean.asm8.Opcodes.ACC_PUBLIC;
 import static org.apache.xbean.asm8.Opcodes.ACC_SUPER;
@@ -50,9 +52,11 @@ import javax.enterprise.inject.spi.Bean;
 import javax.enterprise.inject.spi.BeanManager;
 import javax.enterprise.inject.spi.Extension;
 
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
 import org.apache.webbeans.config.WebBeansContext;
 import org.apache.webbeans.config.WebBeansFinder;
 import org.apache.webbeans.corespi.DefaultSingletonService;
+import org.apache.webbeans.spi.BeanArchiveService.BeanDiscoveryMode;
 import org.apache.webbeans.spi.ContainerLifecycle;
 import org.apache.xbean.asm8.ClassWriter;
 import org.apache.xbean.asm8.MethodVisitor;
@@ -97,36 +101,7 @@ public class AbstractMetaDataDiscoveryTest
         final Thread thread = Thread.currentThread();
         final ClassLoader oldLoader = thread.getContextClassLoader();
         final URL[] urls = {scannedModule, extensionModule};
-        try (final URLClassLoader loader = new URLClassLoader(urls, new ClassLoader() {
-            @Override
-            public Class<?> loadClass(final String name) throws ClassNotFoundException
-            {
-                return oldLoader.loadClass(name);
-            }
-
-            @Override
-            public URL getResource(final String name)
-            {
-                return oldLoader.getResource(name);
-            }
-
-            @Override
-            public Enumeration<URL> getResources(final String name) throws IOException
-            {
-                if ("META-INF".equals(name) || "".equals(name)) // scanning
-                {
-                    return emptyEnumeration();
-                }
-                return oldLoader.getResources(name);
-            }
-        })
-        {
-            @Override
-            public URL[] getURLs()
-            {
-                return urls;
-            }
-        })
+        try (final URLClassLoader loader = newScanningLoader(urls, oldLoader))
         {
             thread.setContextClassLoader(loader);
 
@@ -170,6 +145,137 @@ public class AbstractMetaDataDiscoveryTest
         }
     }
 
+    @Test
+    public void deploymentIndex() throws Exception
+    {
+        final URL scannedModule = createScannedModule();
+        final File indexFile = new File(temp.getRoot(), "index/deployment.idx");
+
+        final Thread thread = Thread.currentThread();
+        final ClassLoader oldLoader = thread.getContextClassLoader();
+        final URL[] urls = {scannedModule};
+        try (final URLClassLoader loader = newScanningLoader(urls, oldLoader))
+        {
+            thread.setContextClassLoader(loader);
+            final Class<?> foo = loader.loadClass("org.apache.openwebbeans.generated.test.Foo");
+
+            // cold start: the classpath gets scanned and the index gets written
+            assertEquals(1, countBeans(loader, indexFile, foo));
+            final DeploymentIndex index = DeploymentIndex.read(indexFile);
+            assertNotNull(index);
+            assertEquals(singletonList(foo.getName()), index.getClassNames(scannedModule));
+
+            // warm start: the classes come from the index, proven by an index without any class
+            final DeploymentIndex emptyIndex = new DeploymentIndex(index.getConfiguration());
+            emptyIndex.add(scannedModule, DeploymentIndex.stamp(scannedModule), BeanDiscoveryMode.ALL, emptyList());
+            emptyIndex.write(indexFile);
+            assertEquals(0, countBeans(loader, indexFile, foo));
+
+            // other scanner settings invalidate the index
+            final Properties config = new Properties();
+            config.setProperty(OpenWebBeansConfiguration.DEPLOYMENT_INDEX, indexFile.getAbsolutePath());
+            config.setProperty(OpenWebBeansConfiguration.SCANNER_ANNOTATED_PREFILTER, "false");
+            assertEquals(1, countBeans(loader, config, foo));
+            emptyIndex.write(indexFile);
+
+            // a changed bean archive invalidates the index
+            final File jar = new File(scannedModule.toURI());
+            assertTrue(jar.setLastModified(jar.lastModified() - 10000));
+            assertEquals(1, countBeans(loader, indexFile, foo));
+            assertEquals(singletonList(foo.getName()), DeploymentIndex.read(indexFile).getClassNames(scannedModule));
+        }
+        finally
+        {
+            thread.setContextClassLoader(oldLoader);
+        }
+    }
+
+    @Test
+    public void parallelScanning() throws Exception
+    {
+        final URL scannedModule = createScannedModule();
+        final URL extensionModule = createExtensionModule();
+
+        final Thread thread = Thread.currentThread();
+        final ClassLoader oldLoader = thread.getContextClassLoader();
+        final URL[] urls = {scannedModule, extensionModule};
+        try (final URLClassLoader loader = newScanningLoader(urls, oldLoader))
+        {
+            thread.setContextClassLoader(loader);
+
+            final Properties config = new Properties();
+            config.setProperty(OpenWebBeansConfiguration.PARALLEL_SCANNING, "true");
+            assertEquals(1, countBeans(loader, config, loader.loadClass("org.apache.openwebbeans.generated.test.Foo")));
+            assertEquals(1, countBeans(loader, config, loader.loadClass("org.apache.openwebbeans.generated.test.Bar")));
+        }
+        finally
+        {
+            thread.setContextClassLoader(oldLoader);
+        }
+    }
+
+    private int countBeans(final ClassLoader loader, final File indexFile, final Class<?> beanClass)
+    {
+        final Properties config = new Properties();
+        config.setProperty(OpenWebBeansConfiguration.DEPLOYMENT_INDEX, indexFile.getAbsolutePath());
+        return countBeans(loader, config, beanClass);
+    }
+
+    private int countBeans(final ClassLoader loader, final Properties config, final Class<?> beanClass)
+    {
+        config.setProperty("org.apache.webbeans.scanExclusionPaths", "/classes,/test-classes," +
+                "/xbean,/ham,/junit-,/junit5-,/debugger,/idea,/openwebbeans,/geronimo");
+        final WebBeansContext context = new WebBeansContext(emptyMap(), config);
+        final DefaultSingletonService singletonService = DefaultSingletonService.class.cast(
+                WebBeansFinder.getSingletonService());
+        singletonService.register(loader, context);
+        final ContainerLifecycle lifecycle = context.getService(ContainerLifecycle.class);
+        lifecycle.startApplication(null);
+        try
+        {
+            return context.getBeanManagerImpl().getBeans(beanClass).size();
+        }
+        finally
+        {
+            lifecycle.stopApplication(null);
+            singletonService.clear(loader);
+        }
+    }
+
+    private URLClassLoader newScanningLoader(final URL[] urls, final ClassLoader oldLoader)
+    {
+        return new URLClassLoader(urls, new ClassLoader() {
+            @Override
+            public Class<?> loadClass(final String name) throws ClassNotFoundException
+            {
+                return oldLoader.loadClass(name);
+            }
+
+            @Override
+            public URL getResource(final String name)
+            {
+                return oldLoader.getResource(name);
+            }
+
+            @Override
+            public Enumeration<URL> getResources(final String name) throws IOException
+            {
+                if ("META-INF".equals(name) || "".equals(name)) // scanning
+                {
+                    return emptyEnumeration();
+                }
+                return oldLoader.getResources(name);
+            }
+        })
+        {
+            @Override
+            public URL[] getURLs()
+            {
+                return urls;
+            }
+        };
+    }
+
     private URL createScannedModule() throws IOException
     {
         final File file = temp.newFile("test-scanned.jar");
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.corespi.scanner.xbean;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.apache.webbeans.spi.BeanArchiveService.BeanDiscoveryMode;
+import org.apache.webbeans.xml.DefaultBeanArchiveInformation;
+import org.apache.xbean.finder.archive.Archive;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ClassFileAnnotationReaderTest
+{
+    @Test
+    public void testClassAnnotations() throws IOException
+    {
+        Assert.assertEquals(Arrays.asList(ApplicationScoped.class.getName(), Named.class.getName(), Values.class.getName()),
+                readClassAnnotations(AnnotatedBean.class));
+    }
+
+    @Test
+    public void testMemberAnnotationsOnly() throws IOException
+    {
+        Assert.assertEquals(Collections.emptyList(), readClassAnnotations(InjectingClass.class));
+        Assert.assertEquals(Collections.emptyList(), readClassAnnotations(PlainClass.class));
+    }
+
+    @Test
+    public void testInvalidClassFile()
+    {
+        try
+        {
+            ClassFileAnnotationReader.readClassAnnotations(new byte[]{ (byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0 });
+            Assert.fail("IOException expected");
+        }
+        catch (IOException e)
+        {
+            // all fine
+        }
+    }
+
+    @Test
+    public void testAnnotatedPrefilter()
+    {
+        DefaultBeanArchiveInformation annotated = new DefaultBeanArchiveInformation("test");
+        annotated.setBeanDiscoveryMode(BeanDiscoveryMode.ANNOTATED);
+        List<String> urlClasses = new ArrayList<>();
+        BeanArchiveFilter filter = new BeanArchiveFilter(annotated, urlClasses, null, new ResourceArchive());
+
+        Assert.assertTrue(filter.accept(AnnotatedBean.class.getName()));
+        Assert.assertFalse(filter.accept(InjectingClass.class.getName()));
+        Assert.assertFalse(filter.accept(PlainClass.class.getName()));
+        Assert.assertFalse(filter.accept(DeprecatedClass.class.getName()));
+        Assert.assertEquals(Collections.singletonList(AnnotatedBean.class.getName()), urlClasses);
+
+        DefaultBeanArchiveInformation all = new DefaultBeanArchiveInformation("test");
+        all.setBeanDiscoveryMode(BeanDiscoveryMode.ALL);
+        filter = new BeanArchiveFilter(all, new ArrayList<>(), null, new ResourceArchive());
+        Assert.assertTrue(filter.accept(PlainClass.class.getName()));
+    }
+
+    private static List<String> readClassAnnotations(Class<?> clazz) throws IOException
+    {
+        try (InputStream in = new ResourceArchive().getBytecode(clazz.getName()))
+        {
+            return ClassFileAnnotationReader.readClassAnnotations(in);
+        }
+    }
+
+    private static class ResourceArchive implements Archive
+    {
+        @Override
+        public InputStream getBytecode(String className)
+        {
+            return ClassFileAnnotationReaderTest.class.getClassLoader().getResourceAsStream(className.replace('.', '/') + ".class");
+        }
+
+        @Override
+        public Class<?> loadClass(String className) throws ClassNotFoundException
+        {
+            throw new ClassNotFoundException("the prefilter must not load classes");
+        }
+
+        @Override
+        public Iterator<Entry> iterator()
+        {
+            return Collections.emptyIterator();
+        }
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.TYPE)
+    public @interface Values
+    {
+        String[] names();
+        Named nested();
+        ElementType type();
+        Class<?> clazz();
+        long number();
+    }
+
+    @ApplicationScoped
+    @Named("bean")
+    @Values(names = { "a", "b" }, nested = @Named("nested"), type = ElementType.TYPE, clazz = String.class, number = 42L)
+    public static class AnnotatedBean
+    {
+        public static final long LONG_CONSTANT = 1234567890123L;
+        public static final double DOUBLE_CONSTANT = 1.5d;
+
+        @Deprecated
+        public void method()
+        {
+        }
+    }
+
+    public static class InjectingClass
+    {
+        @Inject
+        private PlainClass plain;
+
+        public void observe(@Observes String event)
+        {
+        }
+    }
+
+    public static class PlainClass
+    {
+    }
+
+    @Deprecated
+    public static class DeprecatedClass
+    {
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.corespi.scanner.xbean;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.xbean.finder.archive.Archive;
+import org.apache.xbean.finder.archive.CompositeArchive;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ReadAheadArchiveTest
+{
+    @Test
+    public void testSameOrderAsComposite() throws IOException
+    {
+        List<Archive> archives = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+        {
+            archives.add(new InMemoryArchive("archive" + i, i));
+        }
+
+        List<String> expected = read(new CompositeArchive(archives));
+        Assert.assertEquals(45, expected.size());
+        Assert.assertEquals(expected, read(new ReadAheadArchive(archives, 3, getClass().getClassLoader())));
+    }
+
+    @Test
+    public void testReadFailureGetsDeferred()
+    {
+        Archive failing = new InMemoryArchive("failing", 1)
+        {
+            @Override
+            protected InputStream open(String name) throws IOException
+            {
+                throw new IOException("broken " + name);
+            }
+        };
+        List<Archive> archives = Arrays.asList(new InMemoryArchive("first", 1), failing);
+
+        Iterator<Archive.Entry> entries = new ReadAheadArchive(archives, 2, getClass().getClassLoader()).iterator();
+        Assert.assertEquals("first.Class0", entries.next().getName());
+        Archive.Entry broken = entries.next();
+        Assert.assertEquals("failing.Class0", broken.getName());
+        Assert.assertFalse(entries.hasNext());
+        try
+        {
+            broken.getBytecode();
+            Assert.fail("IOException expected");
+        }
+        catch (IOException e)
+        {
+            Assert.assertEquals("broken failing.Class0", e.getMessage());
+        }
+    }
+
+    private static List<String> read(Archive archive) throws IOException
+    {
+        List<String> result = new ArrayList<>();
+        for (Archive.Entry entry : archive)
+        {
+            try (InputStream in = entry.getBytecode())
+            {
+                result.add(entry.getName() + "=" + new String(ClassFileAnnotationReader.readFully(in), StandardCharsets.UTF_8));
+            }
+        }
+        return result;
+    }
+
+    private static class InMemoryArchive implements Archive
+    {
+        private final String name;
+        private final int classes;
+
+        private InMemoryArchive(String name, int classes)
+        {
+            this.name = name;
+            this.classes = classes;
+        }
+
+        protected InputStream open(String className) throws IOException
+        {
+            return new ByteArrayInputStream(("bytes of " + className).getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public InputStream getBytecode(String className) throws IOException
+        {
+            return open(className);
+        }
+
+        @Override
+        public Class<?> loadClass(String className) throws ClassNotFoundException
+        {
+            throw new ClassNotFoundException(className);
+        }
+
+        @Override
+        public Iterator<Entry> iterator()
+        {
+            List<Entry> entries = new ArrayList<>();
+            for (int i = 0; i < classes; i++)
+            {
+                String className = name + ".Class" + i;
+                entries.add(new Entry()
+                {
+                    @Override
+                    public String getName()
+                    {
+                        return className;
+                    }
+
+                    @Override
+                    public InputStream getBytecode() throws IOException
+                    {
+                        return open(className);
+                    }
+                });
+            }
+            return entries.iterator();
+        }
+    }
+}
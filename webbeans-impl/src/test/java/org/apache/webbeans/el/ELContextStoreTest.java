@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.el;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ELContextStoreTest
+{
+    @After
+    public void cleanup()
+    {
+        ELContextStore store = ELContextStore.getInstance(false);
+        if (store != null)
+        {
+            store.destroyELContextStore();
+        }
+    }
+
+    @Test
+    public void testRecycle()
+    {
+        ELContextStore store = ELContextStore.getInstance(true);
+        Object instance = new Object();
+        store.addNormalScoped("bean", instance);
+        Assert.assertSame(instance, store.findBeanByName("bean"));
+
+        store.endRequest(true);
+        Assert.assertSame(store, ELContextStore.getInstance(false));
+        Assert.assertNull(store.findBeanByName("bean"));
+    }
+
+    @Test
+    public void testDestroy()
+    {
+        ELContextStore store = ELContextStore.getInstance(true);
+        store.addNormalScoped("bean", new Object());
+
+        store.endRequest(false);
+        Assert.assertNull(ELContextStore.getInstance(false));
+        Assert.assertNotSame(store, ELContextStore.getInstance(true));
+    }
+}
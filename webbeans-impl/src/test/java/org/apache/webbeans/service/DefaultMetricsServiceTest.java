@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.service;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+
+import javax.annotation.Priority;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.SessionScoped;
+import javax.enterprise.event.Observes;
+import javax.interceptor.AroundInvoke;
+import javax.interceptor.Interceptor;
+import javax.interceptor.InterceptorBinding;
+import javax.interceptor.InvocationContext;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.webbeans.spi.MetricsService;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DefaultMetricsServiceTest extends AbstractUnitTest
+{
+    @Test
+    public void testMetrics() throws Exception
+    {
+        addService(MetricsService.class, DefaultMetricsService.class);
+        startContainer(MeteredBean.class, MeteredInterceptor.class);
+
+        DefaultMetricsService metrics = (DefaultMetricsService) getWebBeansContext().getMetricsService();
+        Assert.assertNotNull(metrics);
+
+        MeteredBean bean = getInstance(MeteredBean.class);
+        Assert.assertEquals("intercepted(a)", bean.echo("a"));
+        Assert.assertEquals("intercepted(b)", bean.echo("b"));
+        getBeanManager().getEvent().fire(new MeteredEvent());
+
+        Assert.assertEquals(Long.valueOf(1), metrics.getInstanceCreationsPerScope().get(ApplicationScoped.class.getName()));
+        Assert.assertEquals(2, metrics.getProxyInvocationCount());
+        Assert.assertEquals(Long.valueOf(1), metrics.getEventsFiredPerType().get(MeteredEvent.class.getName()));
+        Assert.assertEquals(Long.valueOf(1),
+                metrics.getObserverNotificationsPerObserver().get(MeteredBean.class.getName() + "#observe(MeteredEvent)"));
+        Assert.assertEquals(Long.valueOf(2),
+                metrics.getInterceptedInvocationsPerMethod().get(MeteredBean.class.getName() + "#echo(String)"));
+        Assert.assertTrue(metrics.getResolutionCacheHitCount() + metrics.getResolutionCacheMissCount() > 0);
+
+        long sessions = metrics.getLiveSessionContextCount();
+        startContext(SessionScoped.class);
+        Assert.assertEquals(sessions + 1, metrics.getLiveSessionContextCount());
+        endContext(SessionScoped.class);
+        Assert.assertEquals(sessions, metrics.getLiveSessionContextCount());
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        Set<ObjectName> names = mBeanServer.queryNames(new ObjectName("org.apache.webbeans:type=ContainerMetrics,*"), null);
+        Assert.assertEquals(1, names.size());
+        ObjectName name = names.iterator().next();
+        Assert.assertEquals(2L, mBeanServer.getAttribute(name, "ProxyInvocationCount"));
+
+        metrics.reset();
+        Assert.assertEquals(0, metrics.getProxyInvocationCount());
+
+        shutDownContainer();
+        Assert.assertFalse(mBeanServer.isRegistered(name));
+    }
+
+    @Test
+    public void testDisabledByDefault()
+    {
+        startContainer(MeteredBean.class, MeteredInterceptor.class);
+        Assert.assertNull(getWebBeansContext().getMetricsService());
+        Assert.assertEquals("intercepted(a)", getInstance(MeteredBean.class).echo("a"));
+    }
+
+    @InterceptorBinding
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ ElementType.TYPE, ElementType.METHOD })
+    public @interface Metered
+    {
+    }
+
+    @Metered
+    @Interceptor
+    @Priority(1000)
+    public static class MeteredInterceptor
+    {
+        @AroundInvoke
+        public Object around(InvocationContext ctx) throws Exception
+        {
+            return "intercepted(" + ctx.proceed() + ")";
+        }
+    }
+
+    public static class MeteredEvent
+    {
+    }
+
+    @ApplicationScoped
+    public static class MeteredBean
+    {
+        @Metered
+        public String echo(String value)
+        {
+            return value;
+        }
+
+        public void observe(@Observes MeteredEvent event)
+        {
+            // only needs to be notified
+        }
+    }
+}
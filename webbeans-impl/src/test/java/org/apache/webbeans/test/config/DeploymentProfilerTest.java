@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.inject.spi.Extension;
+import javax.enterprise.inject.spi.ProcessAnnotatedType;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DeploymentProfilerTest extends AbstractUnitTest
+{
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testReport() throws IOException
+    {
+        Path report = temporaryFolder.getRoot().toPath().resolve("profile.json");
+        addConfiguration(OpenWebBeansConfiguration.DEPLOYMENT_PROFILING_REPORT, report.toString());
+        addExtension(new ProfiledExtension());
+        startContainer(ProfiledBean.class);
+
+        Assert.assertFalse(getWebBeansContext().getDeploymentProfiler().isEnabled());
+        Assert.assertTrue(Files.exists(report));
+
+        String json = new String(Files.readAllBytes(report), StandardCharsets.UTF_8);
+        for (String phase : new String[]{ "scan", "beforeBeanDiscovery", "processAnnotatedTypes", "deployBeans",
+                                          "afterBeanDiscovery", "validation", "afterDeploymentValidation" })
+        {
+            Assert.assertTrue(phase, json.contains("{\"name\":\"" + phase + "\",\"wallMillis\":"));
+        }
+        Assert.assertTrue(json, json.contains("\"annotatedTypes\":"));
+        Assert.assertTrue(json, json.contains("\"proxies\":{\"count\":"));
+        Assert.assertTrue(json, json.contains("{\"extension\":\"" + ProfiledExtension.class.getName() + "\",\"total\":{\"count\":1,"));
+        Assert.assertTrue(json, json.contains("\"methods\":{\"processBean\":{\"count\":1,"));
+    }
+
+    @Test
+    public void testDisabledByDefault()
+    {
+        startContainer(ProfiledBean.class);
+        Assert.assertFalse(getWebBeansContext().getDeploymentProfiler().isEnabled());
+    }
+
+    public static class ProfiledExtension implements Extension
+    {
+        void processBean(@Observes ProcessAnnotatedType<ProfiledBean> pat)
+        {
+            // only needs to be invoked
+        }
+    }
+
+    @ApplicationScoped
+    public static class ProfiledBean
+    {
+    }
+}
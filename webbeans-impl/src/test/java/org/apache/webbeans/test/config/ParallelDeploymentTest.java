@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.inject.spi.Extension;
+import javax.enterprise.inject.spi.ProcessAnnotatedType;
+import javax.enterprise.inject.spi.ProcessBeanAttributes;
+import javax.inject.Inject;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.exception.WebBeansConfigurationException;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParallelDeploymentTest extends AbstractUnitTest
+{
+    private static final List<Class<?>> BEAN_CLASSES = Arrays.asList(
+        BeanA.class, BeanB.class, BeanC.class, BeanD.class, BeanE.class, BeanF.class);
+
+    @Test
+    public void testEventOrder()
+    {
+        RecordingExtension sequential = new RecordingExtension();
+        addExtension(sequential);
+        startContainer(BEAN_CLASSES);
+        shutDownContainer();
+        cleanup();
+
+        RecordingExtension parallel = new RecordingExtension();
+        addExtension(parallel);
+        addConfiguration(OpenWebBeansConfiguration.PARALLEL_DEPLOYMENT, "true");
+        startContainer(BEAN_CLASSES);
+
+        Assert.assertEquals(sequential.processedAnnotatedTypes, parallel.processedAnnotatedTypes);
+        Assert.assertEquals(sequential.processedBeanAttributes, parallel.processedBeanAttributes);
+        Assert.assertEquals("A(B(C))", getInstance(BeanA.class).describe());
+    }
+
+    @Test
+    public void testDefinitionError()
+    {
+        addConfiguration(OpenWebBeansConfiguration.PARALLEL_DEPLOYMENT, "true");
+        try
+        {
+            startContainer(BeanA.class, BeanB.class, BeanC.class, TwoScopesBean.class);
+            Assert.fail("WebBeansConfigurationException expected");
+        }
+        catch (WebBeansConfigurationException e)
+        {
+            // all fine
+        }
+    }
+
+    public static class RecordingExtension implements Extension
+    {
+        private final List<Class<?>> processedAnnotatedTypes = new ArrayList<>();
+        private final List<String> processedBeanAttributes = new ArrayList<>();
+
+        void processAnnotatedType(@Observes ProcessAnnotatedType<?> pat)
+        {
+            processedAnnotatedTypes.add(pat.getAnnotatedType().getJavaClass());
+        }
+
+        void processBeanAttributes(@Observes ProcessBeanAttributes<?> pba)
+        {
+            processedBeanAttributes.add(pba.getAnnotated().toString() + pba.getBeanAttributes().getScope().getSimpleName());
+        }
+    }
+
+    @ApplicationScoped
+    public static class BeanA
+    {
+        @Inject
+        private BeanB beanB;
+
+        public String describe()
+        {
+            return "A(" + beanB.describe() + ")";
+        }
+    }
+
+    @RequestScoped
+    public static class BeanB
+    {
+        @Inject
+        private BeanC beanC;
+
+        public String describe()
+        {
+            return "B(" + beanC.describe() + ")";
+        }
+    }
+
+    public static class BeanC
+    {
+        public String describe()
+        {
+            return "C";
+        }
+    }
+
+    public static class BeanD
+    {
+        private final BeanC beanC;
+
+        @Inject
+        public BeanD(BeanC beanC)
+        {
+            this.beanC = beanC;
+        }
+    }
+
+    @ApplicationScoped
+    public static class BeanE
+    {
+    }
+
+    public abstract static class BeanF
+    {
+    }
+
+    @ApplicationScoped
+    @RequestScoped
+    public static class TwoScopesBean
+    {
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.contexts;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.context.spi.Context;
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.spi.Bean;
+
+import org.apache.webbeans.component.AbstractOwbBean;
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.spi.ContextsService;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IndexedRequestContextTest extends AbstractUnitTest
+{
+    private static final List<String> DESTROYED = new ArrayList<>();
+
+    @Test
+    public void testIndexedStorage() throws Exception
+    {
+        startContainer(FirstRequestBean.class, SecondRequestBean.class);
+
+        int firstIndex = ((AbstractOwbBean<?>) getBean(FirstRequestBean.class)).getContextualIndex();
+        int secondIndex = ((AbstractOwbBean<?>) getBean(SecondRequestBean.class)).getContextualIndex();
+        Assert.assertTrue(firstIndex >= 0);
+        Assert.assertTrue(secondIndex >= 0);
+        Assert.assertNotEquals(firstIndex, secondIndex);
+
+        assertRequestContext();
+    }
+
+    @Test
+    public void testWithoutIndex() throws Exception
+    {
+        addConfiguration(OpenWebBeansConfiguration.INDEXED_REQUEST_CONTEXT, "false");
+        startContainer(FirstRequestBean.class, SecondRequestBean.class);
+
+        Assert.assertEquals(-1, ((AbstractOwbBean<?>) getBean(FirstRequestBean.class)).getContextualIndex());
+
+        assertRequestContext();
+    }
+
+    private void assertRequestContext() throws Exception
+    {
+        DESTROYED.clear();
+        ContextsService contextsService = getWebBeansContext().getContextsService();
+        contextsService.startContext(RequestScoped.class, null);
+
+        Context context = getBeanManager().getContext(RequestScoped.class);
+        Bean<FirstRequestBean> firstBean = getBean(FirstRequestBean.class);
+
+        FirstRequestBean first = getInstance(FirstRequestBean.class);
+        first.setValue(7);
+        Assert.assertEquals(7, getInstance(FirstRequestBean.class).getValue());
+        getInstance(SecondRequestBean.class).touch();
+
+        // e.g. an async servlet or a CompletableFuture continuing the request
+        FirstRequestBean fromOtherThread = CompletableFuture.supplyAsync(() -> context.get(firstBean)).get();
+        Assert.assertNotNull(fromOtherThread);
+        Assert.assertEquals(7, fromOtherThread.getValue());
+
+        // a Contextual without index
+        SimpleContextual contextual = new SimpleContextual();
+        String value = context.get(contextual, getBeanManager().createCreationalContext(contextual));
+        Assert.assertSame(value, context.get(contextual));
+
+        contextsService.endContext(RequestScoped.class, null);
+
+        Assert.assertEquals(3, DESTROYED.size());
+        Assert.assertTrue(DESTROYED.contains("first"));
+        Assert.assertTrue(DESTROYED.contains("second"));
+        Assert.assertTrue(DESTROYED.contains("simple"));
+    }
+
+    @RequestScoped
+    public static class FirstRequestBean
+    {
+        private int value;
+
+        public int getValue()
+        {
+            return value;
+        }
+
+        public void setValue(int value)
+        {
+            this.value = value;
+        }
+
+        @PreDestroy
+        public void destroy()
+        {
+            DESTROYED.add("first");
+        }
+    }
+
+    @RequestScoped
+    public static class SecondRequestBean
+    {
+        public void touch()
+        {
+            // just create the instance
+        }
+
+        @PreDestroy
+        public void destroy()
+        {
+            DESTROYED.add("second");
+        }
+    }
+
+    private static class SimpleContextual implements Contextual<String>
+    {
+        @Override
+        public String create(CreationalContext<String> creationalContext)
+        {
+            return new String("simple");
+        }
+
+        @Override
+        public void destroy(String instance, CreationalContext<String> creationalContext)
+        {
+            DESTROYED.add(instance);
+        }
+    }
+}
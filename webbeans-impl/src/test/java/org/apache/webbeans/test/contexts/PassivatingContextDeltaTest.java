@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.contexts;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+import javax.enterprise.context.SessionScoped;
+import javax.enterprise.inject.spi.Bean;
+
+import org.apache.webbeans.container.BeanManagerImpl;
+import org.apache.webbeans.context.SessionContext;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.apache.webbeans.util.WebBeansUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PassivatingContextDeltaTest extends AbstractUnitTest
+{
+    @Test
+    public void testDirtyTracking() throws Exception
+    {
+        startContainer(CartBean.class, PreferencesBean.class);
+
+        SessionContext sessionContext = getSessionContext();
+        Bean<CartBean> cartBean = getBean(CartBean.class);
+        Bean<PreferencesBean> preferencesBean = getBean(PreferencesBean.class);
+
+        getInstance(CartBean.class).setItems(3);
+        getInstance(PreferencesBean.class).setLanguage("en");
+        Assert.assertTrue(sessionContext.isDirty());
+        Assert.assertEquals(2, sessionContext.getDirtyContextuals().size());
+
+        // a full passivation resets the tracking
+        new ObjectOutputStream(new ByteArrayOutputStream()).writeObject(sessionContext);
+        Assert.assertFalse(sessionContext.isDirty());
+
+        sessionContext.get(cartBean);
+        Assert.assertTrue(sessionContext.getDirtyContextuals().contains(cartBean));
+        Assert.assertFalse(sessionContext.getDirtyContextuals().contains(preferencesBean));
+
+        writeDelta(sessionContext);
+        Assert.assertFalse(sessionContext.isDirty());
+
+        sessionContext.destroy(preferencesBean);
+        Assert.assertTrue(sessionContext.isDirty());
+        Assert.assertTrue(sessionContext.getDirtyContextuals().isEmpty());
+    }
+
+    @Test
+    public void testDeltaReplication() throws Exception
+    {
+        startContainer(CartBean.class, PreferencesBean.class);
+
+        SessionContext sessionContext = getSessionContext();
+        Bean<CartBean> cartBean = getBean(CartBean.class);
+        Bean<PreferencesBean> preferencesBean = getBean(PreferencesBean.class);
+
+        getInstance(CartBean.class).setItems(3);
+        getInstance(PreferencesBean.class).setLanguage("en");
+
+        SessionContext replica = new SessionContext();
+        replica.setActive(true);
+        readDelta(replica, writeDelta(sessionContext));
+        Assert.assertEquals(3, replica.get(cartBean).getItems());
+        Assert.assertEquals("en", replica.get(preferencesBean).getLanguage());
+
+        // only the touched bean gets shipped
+        sessionContext.get(cartBean).setItems(5);
+        byte[] delta = writeDelta(sessionContext);
+        PreferencesBean replicatedPreferences = replica.get(preferencesBean);
+        readDelta(replica, delta);
+        Assert.assertEquals(5, replica.get(cartBean).getItems());
+        Assert.assertSame(replicatedPreferences, replica.get(preferencesBean));
+
+        sessionContext.destroy(cartBean);
+        readDelta(replica, writeDelta(sessionContext));
+        Assert.assertNull(replica.get(cartBean));
+        Assert.assertNotNull(replica.get(preferencesBean));
+    }
+
+    @Test
+    public void testCompactPassivationId()
+    {
+        startContainer(CartBean.class, PreferencesBean.class);
+
+        BeanManagerImpl beanManager = getWebBeansContext().getBeanManagerImpl();
+        Bean<CartBean> cartBean = getBean(CartBean.class);
+
+        Long compactId = beanManager.getCompactPassivationId(WebBeansUtil.getPassivationId(cartBean));
+        Assert.assertNotNull(compactId);
+        Assert.assertSame(cartBean, beanManager.getPassivationCapableBean(compactId));
+        Assert.assertNull(beanManager.getCompactPassivationId("unknown"));
+    }
+
+    private SessionContext getSessionContext()
+    {
+        return (SessionContext) getWebBeansContext().getBeanManagerImpl().getContext(SessionScoped.class);
+    }
+
+    private static byte[] writeDelta(SessionContext context) throws IOException
+    {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(baos))
+        {
+            context.writeDelta(out);
+        }
+        return baos.toByteArray();
+    }
+
+    private static void readDelta(SessionContext context, byte[] delta) throws IOException, ClassNotFoundException
+    {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(delta)))
+        {
+            context.readDelta(in);
+        }
+    }
+
+    @SessionScoped
+    public static class CartBean implements Serializable
+    {
+        private int items;
+
+        public int getItems()
+        {
+            return items;
+        }
+
+        public void setItems(int items)
+        {
+            this.items = items;
+        }
+    }
+
+    @SessionScoped
+    public static class PreferencesBean implements Serializable
+    {
+        private String language;
+
+        public String getLanguage()
+        {
+            return language;
+        }
+
+        public void setLanguage(String language)
+        {
+            this.language = language;
+        }
+    }
+}
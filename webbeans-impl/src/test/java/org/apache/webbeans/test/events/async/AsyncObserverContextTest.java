@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.events.async;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.event.NotificationOptions;
+import javax.enterprise.event.ObservesAsync;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.spi.ContextsService;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AsyncObserverContextTest extends AbstractUnitTest
+{
+    @Test
+    public void testNewRequestContextByDefault() throws Exception
+    {
+        startContainer(RequestData.class, PingObserver.class);
+
+        getInstance(RequestData.class).setValue("firing request");
+        getBeanManager().getEvent().fireAsync(new Ping()).toCompletableFuture().get(20, TimeUnit.SECONDS);
+
+        Assert.assertNull(getInstance(PingObserver.class).getSeenValue());
+        Assert.assertEquals("firing request", getInstance(RequestData.class).getValue());
+    }
+
+    @Test
+    public void testPropagateRequestContext() throws Exception
+    {
+        addConfiguration(OpenWebBeansConfiguration.ASYNC_EVENT_PROPAGATE_REQUEST_CONTEXT, "true");
+        startContainer(RequestData.class, PingObserver.class);
+
+        getInstance(RequestData.class).setValue("firing request");
+        getBeanManager().getEvent().fireAsync(new Ping()).toCompletableFuture().get(20, TimeUnit.SECONDS);
+
+        PingObserver observer = getInstance(PingObserver.class);
+        Assert.assertEquals("firing request", observer.getSeenValue());
+        Assert.assertNotSame(Thread.currentThread(), observer.getObserverThread());
+
+        // the request context of the firing thread must survive the observer
+        Assert.assertEquals("firing request", getInstance(RequestData.class).getValue());
+    }
+
+    @Test
+    public void testPropagationKeepsRequestContextOfExecutingThread() throws Exception
+    {
+        addConfiguration(OpenWebBeansConfiguration.ASYNC_EVENT_PROPAGATE_REQUEST_CONTEXT, "true");
+        startContainer(RequestData.class, PingObserver.class);
+
+        ContextsService contextsService = getWebBeansContext().getContextsService();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            // the executing thread runs a request of its own
+            executor.submit(() ->
+            {
+                contextsService.startContext(RequestScoped.class, null);
+                getInstance(RequestData.class).setValue("executing request");
+            }).get(20, TimeUnit.SECONDS);
+
+            getInstance(RequestData.class).setValue("firing request");
+            getBeanManager().getEvent().fireAsync(new Ping(), NotificationOptions.ofExecutor(executor))
+                .toCompletableFuture().get(20, TimeUnit.SECONDS);
+            Assert.assertEquals("firing request", getInstance(PingObserver.class).getSeenValue());
+
+            Assert.assertEquals("executing request",
+                executor.submit(() -> getInstance(RequestData.class).getValue()).get(20, TimeUnit.SECONDS));
+            executor.submit(() -> contextsService.endContext(RequestScoped.class, null)).get(20, TimeUnit.SECONDS);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testVirtualThreadExecutor() throws Exception
+    {
+        addConfiguration(OpenWebBeansConfiguration.ASYNC_EVENT_EXECUTOR, "virtual");
+        startContainer(RequestData.class, PingObserver.class);
+
+        getBeanManager().getEvent().fireAsync(new Ping()).toCompletableFuture().get(20, TimeUnit.SECONDS);
+
+        Thread observerThread = getInstance(PingObserver.class).getObserverThread();
+        Assert.assertNotNull(observerThread);
+
+        Method isVirtual;
+        try
+        {
+            isVirtual = Thread.class.getMethod("isVirtual");
+        }
+        catch (NoSuchMethodException e)
+        {
+            // no virtual threads on this JVM, we fell back to the common pool
+            return;
+        }
+        Assert.assertEquals(Boolean.TRUE, isVirtual.invoke(observerThread));
+    }
+
+    @Test
+    public void testDefaultExecutorGetsClosedOnShutdown() throws Exception
+    {
+        addConfiguration(OpenWebBeansConfiguration.ASYNC_EVENT_EXECUTOR, "virtual");
+        startContainer(RequestData.class, PingObserver.class);
+
+        getBeanManager().getEvent().fireAsync(new Ping()).toCompletableFuture().get(20, TimeUnit.SECONDS);
+        Executor executor = getWebBeansContext().getNotificationManager().getDefaultNotificationOptions().getExecutor();
+
+        shutDownContainer();
+        try
+        {
+            executor.execute(() -> { });
+            Assert.fail("RejectedExecutionException expected");
+        }
+        catch (RejectedExecutionException e)
+        {
+            // expected, the executor got closed with the container
+        }
+    }
+
+    public static class Ping
+    {
+    }
+
+    @RequestScoped
+    public static class RequestData
+    {
+        private String value;
+
+        public String getValue()
+        {
+            return value;
+        }
+
+        public void setValue(String value)
+        {
+            this.value = value;
+        }
+    }
+
+    @ApplicationScoped
+    public static class PingObserver
+    {
+        private volatile String seenValue;
+        private volatile Thread observerThread;
+
+        public void onPing(@ObservesAsync Ping ping, RequestData requestData)
+        {
+            seenValue = requestData.getValue();
+            observerThread = Thread.currentThread();
+        }
+
+        public String getSeenValue()
+        {
+            return seenValue;
+        }
+
+        public Thread getObserverThread()
+        {
+            return observerThread;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.events.batch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Dependent;
+import javax.enterprise.event.Event;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.ObservesAsync;
+import javax.enterprise.inject.spi.EventMetadata;
+import javax.inject.Inject;
+
+import org.apache.webbeans.event.OwbEvent;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BatchEventTest extends AbstractUnitTest
+{
+    @Test
+    public void testFireAll()
+    {
+        startContainer(Sender.class, OrderObserver.class, DependentObserver.class, MetadataObserver.class);
+
+        DependentObserver.INSTANCES.set(0);
+        DependentObserver.DESTROYED.set(0);
+
+        List<Order> orders = Arrays.asList(new Order(1), new Order(2), new SpecialOrder(3), new Order(4));
+        getInstance(Sender.class).sendAll(orders);
+
+        Assert.assertEquals(Arrays.asList(1, 2, 3, 4), getInstance(OrderObserver.class).getReceived());
+
+        // one instance per event class of the batch instead of one per event
+        Assert.assertEquals(2, DependentObserver.INSTANCES.get());
+        Assert.assertEquals(2, DependentObserver.DESTROYED.get());
+        Assert.assertEquals(4, DependentObserver.NOTIFICATIONS.get());
+
+        MetadataObserver metadataObserver = getInstance(MetadataObserver.class);
+        Assert.assertEquals(Arrays.<Object>asList(Order.class, Order.class, SpecialOrder.class, Order.class), metadataObserver.getTypes());
+    }
+
+    @Test
+    public void testFireAllObserverException()
+    {
+        startContainer(Sender.class, OrderObserver.class);
+
+        try
+        {
+            getInstance(Sender.class).sendAll(Arrays.asList(new Order(1), new Order(-1), new Order(2)));
+            Assert.fail("IllegalArgumentException expected");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // all fine, same as Event#fire
+        }
+        Assert.assertEquals(Collections.singletonList(1), getInstance(OrderObserver.class).getReceived());
+    }
+
+    @Test
+    public void testFireAllRejectsNullEvents()
+    {
+        startContainer(Sender.class, OrderObserver.class);
+
+        try
+        {
+            getInstance(Sender.class).sendAll(Arrays.asList(new Order(1), null, new Order(2)));
+            Assert.fail("IllegalArgumentException expected");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // the batch gets rejected before any observer gets notified
+        }
+        Assert.assertTrue(getInstance(OrderObserver.class).getReceived().isEmpty());
+    }
+
+    @Test
+    public void testFireAllAsync() throws Exception
+    {
+        startContainer(Sender.class, AsyncOrderObserver.class);
+
+        List<Order> orders = new ArrayList<>();
+        for (int i = 1; i <= 100; i++)
+        {
+            orders.add(new Order(i));
+        }
+
+        Collection<Order> result = getInstance(Sender.class).sendAllAsync(orders).toCompletableFuture().get(20, TimeUnit.SECONDS);
+        Assert.assertSame(orders, result);
+
+        AsyncOrderObserver observer = getInstance(AsyncOrderObserver.class);
+        Assert.assertEquals(100, observer.getReceived().size());
+        Assert.assertEquals(1, (int) observer.getReceived().get(0));
+        Assert.assertEquals(100, (int) observer.getReceived().get(99));
+
+        // a single task delivered all events to the observer
+        Assert.assertEquals(1, observer.getThreads().size());
+    }
+
+    @Test
+    public void testFireAllAsyncException() throws Exception
+    {
+        startContainer(Sender.class, AsyncOrderObserver.class);
+
+        try
+        {
+            getInstance(Sender.class).sendAllAsync(Arrays.asList(new Order(1), new Order(-1), new Order(2)))
+                .toCompletableFuture().get(20, TimeUnit.SECONDS);
+            Assert.fail("ExecutionException expected");
+        }
+        catch (ExecutionException e)
+        {
+            // get() unwraps the CompletionException
+            Assert.assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+
+        // the failing event does not stop the others
+        Assert.assertEquals(Arrays.asList(1, 2), getInstance(AsyncOrderObserver.class).getReceived());
+    }
+
+    public static class Order
+    {
+        private final int id;
+
+        public Order(int id)
+        {
+            this.id = id;
+        }
+
+        public int getId()
+        {
+            return id;
+        }
+    }
+
+    public static class SpecialOrder extends Order
+    {
+        public SpecialOrder(int id)
+        {
+            super(id);
+        }
+    }
+
+    @ApplicationScoped
+    public static class Sender
+    {
+        @Inject
+        private Event<Order> orderEvent;
+
+        public void sendAll(Collection<Order> orders)
+        {
+            ((OwbEvent<Order>) orderEvent).fireAll(orders);
+        }
+
+        public CompletionStage<Collection<Order>> sendAllAsync(Collection<Order> orders)
+        {
+            return ((OwbEvent<Order>) orderEvent).fireAllAsync(orders);
+        }
+    }
+
+    @ApplicationScoped
+    public static class OrderObserver
+    {
+        private final List<Integer> received = new ArrayList<>();
+
+        public void onOrder(@Observes Order order)
+        {
+            if (order.getId() < 0)
+            {
+                throw new IllegalArgumentException("invalid order");
+            }
+            received.add(order.getId());
+        }
+
+        public List<Integer> getReceived()
+        {
+            return received;
+        }
+    }
+
+    @ApplicationScoped
+    public static class AsyncOrderObserver
+    {
+        private final List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+        private final List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+
+        public void onOrder(@ObservesAsync Order order)
+        {
+            if (!threads.contains(Thread.currentThread()))
+            {
+                threads.add(Thread.currentThread());
+            }
+            if (order.getId() < 0)
+            {
+                throw new IllegalArgumentException("invalid order");
+            }
+            received.add(order.getId());
+        }
+
+        public List<Integer> getReceived()
+        {
+            return received;
+        }
+
+        public List<Thread> getThreads()
+        {
+            return threads;
+        }
+    }
+
+    @Dependent
+    public static class DependentObserver
+    {
+        static final AtomicInteger INSTANCES = new AtomicInteger();
+        static final AtomicInteger DESTROYED = new AtomicInteger();
+        static final AtomicInteger NOTIFICATIONS = new AtomicInteger();
+
+        public DependentObserver()
+        {
+            INSTANCES.incrementAndGet();
+        }
+
+        public void onOrder(@Observes Order order)
+        {
+            NOTIFICATIONS.incrementAndGet();
+        }
+
+        @PreDestroy
+        public void destroy()
+        {
+            DESTROYED.incrementAndGet();
+        }
+    }
+
+    @ApplicationScoped
+    public static class MetadataObserver
+    {
+        private final List<Object> types = new ArrayList<>();
+
+        public void onOrder(@Observes Order order, EventMetadata metadata)
+        {
+            types.add(metadata.getType());
+        }
+
+        public List<Object> getTypes()
+        {
+            return types;
+        }
+    }
+}
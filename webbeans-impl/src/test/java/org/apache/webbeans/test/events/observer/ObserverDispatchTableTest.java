@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.events.observer;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.Priority;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Event;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.Reception;
+import javax.enterprise.event.TransactionPhase;
+import javax.enterprise.inject.literal.NamedLiteral;
+import javax.enterprise.inject.spi.ObserverMethod;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.event.EventMetadataImpl;
+import org.apache.webbeans.event.NotificationManager;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ObserverDispatchTableTest extends AbstractUnitTest
+{
+    @Test
+    public void testDispatchTable()
+    {
+        startContainer(PayloadObserver.class, PayloadSender.class);
+
+        PayloadSender sender = getInstance(PayloadSender.class);
+        PayloadObserver observer = getInstance(PayloadObserver.class);
+
+        sender.send(new Payload());
+        sender.send(new Payload());
+        Assert.assertEquals(Collections.nCopies(2, "default"), observer.getObserved());
+
+        observer.getObserved().clear();
+        sender.sendSpecial(new Payload());
+        Assert.assertEquals(2, observer.getObserved().size());
+        Assert.assertEquals("special", observer.getObserved().get(0));
+        Assert.assertEquals("default", observer.getObserved().get(1));
+
+        NotificationManager notificationManager = getWebBeansContext().getNotificationManager();
+        EventMetadataImpl metadata = new EventMetadataImpl(null, Payload.class, null, new Annotation[0], getWebBeansContext());
+        List<ObserverMethod<? super Object>> observerMethods = notificationManager.getObserversForFire(new Payload(), metadata, false);
+        Assert.assertEquals(1, observerMethods.size());
+        Assert.assertSame(observerMethods, notificationManager.getObserversForFire(new Payload(), metadata, false));
+        Assert.assertTrue(notificationManager.getObserversForFire(new Payload(), metadata, true).isEmpty());
+    }
+
+    @Test
+    public void testAddObserverInvalidatesDispatchTable()
+    {
+        startContainer(PayloadObserver.class, PayloadSender.class);
+
+        PayloadSender sender = getInstance(PayloadSender.class);
+        PayloadObserver observer = getInstance(PayloadObserver.class);
+        sender.send(new Payload());
+        Assert.assertEquals(1, observer.getObserved().size());
+
+        NotificationManager notificationManager = getWebBeansContext().getNotificationManager();
+        int version = notificationManager.getDispatchTableVersion();
+        RecordingObserverMethod recordingObserver = new RecordingObserverMethod();
+        notificationManager.addObserver(recordingObserver);
+        Assert.assertNotEquals(version, notificationManager.getDispatchTableVersion());
+
+        Payload payload = new Payload();
+        sender.send(payload);
+        Assert.assertEquals(2, observer.getObserved().size());
+        Assert.assertEquals(Collections.singletonList(payload), recordingObserver.notified);
+    }
+
+    @Test
+    public void testDispatchTableIsBounded()
+    {
+        addConfiguration(OpenWebBeansConfiguration.EVENT_DISPATCH_TABLE_SIZE, "1");
+        startContainer(PayloadObserver.class, PayloadSender.class);
+
+        NotificationManager notificationManager = getWebBeansContext().getNotificationManager();
+        EventMetadataImpl defaultMetadata = new EventMetadataImpl(null, Payload.class, null, new Annotation[0], getWebBeansContext());
+        List<ObserverMethod<? super Object>> defaultObservers = notificationManager.getObserversForFire(new Payload(), defaultMetadata, false);
+        Assert.assertSame(defaultObservers, notificationManager.getObserversForFire(new Payload(), defaultMetadata, false));
+
+        // the table is full, so other qualifiers get resolved again on each fire
+        EventMetadataImpl specialMetadata = new EventMetadataImpl(null, Payload.class, null,
+            new Annotation[]{NamedLiteral.of("special")}, getWebBeansContext());
+        List<ObserverMethod<? super Object>> specialObservers = notificationManager.getObserversForFire(new Payload(), specialMetadata, false);
+        Assert.assertEquals(2, specialObservers.size());
+        Assert.assertNotSame(specialObservers, notificationManager.getObserversForFire(new Payload(), specialMetadata, false));
+        Assert.assertSame(defaultObservers, notificationManager.getObserversForFire(new Payload(), defaultMetadata, false));
+
+        PayloadObserver observer = getInstance(PayloadObserver.class);
+        getInstance(PayloadSender.class).sendSpecial(new Payload());
+        Assert.assertEquals(2, observer.getObserved().size());
+    }
+
+    public static class Payload
+    {
+    }
+
+    @ApplicationScoped
+    public static class PayloadObserver
+    {
+        private final List<String> observed = new ArrayList<>();
+
+        public void observeDefault(@Observes @Priority(2) Payload payload)
+        {
+            observed.add("default");
+        }
+
+        public void observeSpecial(@Observes @Priority(1) @Named("special") Payload payload)
+        {
+            observed.add("special");
+        }
+
+        public List<String> getObserved()
+        {
+            return observed;
+        }
+    }
+
+    @ApplicationScoped
+    public static class PayloadSender
+    {
+        @Inject
+        private Event<Payload> event;
+
+        public void send(Payload payload)
+        {
+            event.fire(payload);
+        }
+
+        public void sendSpecial(Payload payload)
+        {
+            event.select(NamedLiteral.of("special")).fire(payload);
+        }
+    }
+
+    private static class RecordingObserverMethod implements ObserverMethod<Payload>
+    {
+        private final List<Payload> notified = new ArrayList<>();
+
+        @Override
+        public Class<?> getBeanClass()
+        {
+            return ObserverDispatchTableTest.class;
+        }
+
+        @Override
+        public Type getObservedType()
+        {
+            return Payload.class;
+        }
+
+        @Override
+        public Set<Annotation> getObservedQualifiers()
+        {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public Reception getReception()
+        {
+            return Reception.ALWAYS;
+        }
+
+        @Override
+        public TransactionPhase getTransactionPhase()
+        {
+            return TransactionPhase.IN_PROGRESS;
+        }
+
+        @Override
+        public void notify(Payload event)
+        {
+            notified.add(event);
+        }
+    }
+}
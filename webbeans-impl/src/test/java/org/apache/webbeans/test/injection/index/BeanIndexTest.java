@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.injection.index;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Produces;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.util.TypeLiteral;
+import javax.inject.Named;
+
+import org.apache.webbeans.configurator.BeanConfiguratorImpl;
+import org.apache.webbeans.container.BeanManagerImpl;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Resolution via the bean index of the InjectionResolver.
+ */
+public class BeanIndexTest extends AbstractUnitTest
+{
+    @Test
+    public void testResolution()
+    {
+        startContainer(Producers.class, ServiceImpl.class);
+        BeanManagerImpl beanManager = getWebBeansContext().getBeanManagerImpl();
+
+        Assert.assertEquals(1, beanManager.getBeans(int.class).size());
+        Assert.assertEquals(1, beanManager.getBeans(Integer.class).size());
+        Assert.assertEquals(42, getInstance(int.class).intValue());
+
+        Assert.assertEquals(1, beanManager.getBeans(new TypeLiteral<List<String>>() {}.getType()).size());
+        Assert.assertEquals(Arrays.asList("a", "b"), getInstance(new TypeLiteral<List<String>>() {}.getType()));
+        Assert.assertEquals(Collections.singletonList(1), getInstance(new TypeLiteral<List<Integer>>() {}.getType()));
+
+        Assert.assertEquals(1, beanManager.getBeans(Service.class).size());
+        Assert.assertEquals("impl", getInstance(Service.class).name());
+        Assert.assertEquals(1, beanManager.getBeans("service").size());
+        Assert.assertTrue(beanManager.getBeans(Runnable.class).isEmpty());
+    }
+
+    @Test
+    public void testBeanAddedAfterDeployment()
+    {
+        startContainer(ServiceImpl.class);
+        BeanManagerImpl beanManager = getWebBeansContext().getBeanManagerImpl();
+        Assert.assertTrue(beanManager.getBeans(Runnable.class).isEmpty());
+
+        BeanConfiguratorImpl<Runnable> configurator = new BeanConfiguratorImpl<>(getWebBeansContext());
+        configurator.beanClass(Runnable.class).types(Runnable.class, Object.class).name("runnable")
+            .createWith(c -> (Runnable) () -> { });
+        Bean<?> bean = configurator.getBean();
+        beanManager.addBean(bean);
+
+        Assert.assertEquals(1, beanManager.getBeans(Runnable.class).size());
+        Assert.assertEquals(1, beanManager.getBeans("runnable").size());
+        Assert.assertEquals(1, beanManager.getBeans(Service.class).size());
+    }
+
+    public interface Service
+    {
+        String name();
+    }
+
+    @Named("service")
+    @ApplicationScoped
+    public static class ServiceImpl implements Service
+    {
+        @Override
+        public String name()
+        {
+            return "impl";
+        }
+    }
+
+    public static class Producers
+    {
+        @Produces
+        public int answer()
+        {
+            return 42;
+        }
+
+        @Produces
+        public List<String> strings()
+        {
+            return Arrays.asList("a", "b");
+        }
+
+        @Produces
+        public List<Integer> integers()
+        {
+            return Collections.singletonList(1);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.injection.index;
+
+import javax.enterprise.context.Dependent;
+import javax.enterprise.inject.AmbiguousResolutionException;
+import javax.enterprise.inject.spi.Bean;
+import javax.inject.Named;
+
+import org.apache.webbeans.configurator.BeanConfiguratorImpl;
+import org.apache.webbeans.container.BeanManagerImpl;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Resolution of the beans by their EL name via the name table of the BeanManagerImpl.
+ */
+public class BeanNameTableTest extends AbstractUnitTest
+{
+    @Test
+    public void testResolution()
+    {
+        startContainer(FirstBean.class, SecondBean.class);
+        BeanManagerImpl beanManager = getWebBeansContext().getBeanManagerImpl();
+
+        Bean<?> first = beanManager.getBeanByName("first");
+        Assert.assertNotNull(first);
+        Assert.assertEquals(FirstBean.class, first.getBeanClass());
+        Assert.assertSame(first, beanManager.getBeanByName("first"));
+        Assert.assertSame(beanManager.resolve(beanManager.getBeans("first")), first);
+
+        Assert.assertEquals(SecondBean.class, beanManager.getBeanByName("second").getBeanClass());
+        Assert.assertNull(beanManager.getBeanByName("unknown"));
+    }
+
+    @Test
+    public void testBeanAddedAfterDeployment()
+    {
+        startContainer(FirstBean.class);
+        BeanManagerImpl beanManager = getWebBeansContext().getBeanManagerImpl();
+        Assert.assertNull(beanManager.getBeanByName("runnable"));
+
+        beanManager.addBean(namedBean("runnable"));
+        Assert.assertNotNull(beanManager.getBeanByName("runnable"));
+
+        beanManager.addBean(namedBean("first"));
+        try
+        {
+            beanManager.getBeanByName("first");
+            Assert.fail("AmbiguousResolutionException expected");
+        }
+        catch (AmbiguousResolutionException e)
+        {
+            // all fine
+        }
+    }
+
+    private Bean<?> namedBean(String name)
+    {
+        BeanConfiguratorImpl<Runnable> configurator = new BeanConfiguratorImpl<>(getWebBeansContext());
+        configurator.beanClass(Runnable.class).types(Runnable.class, Object.class).name(name)
+            .createWith(c -> (Runnable) () -> { });
+        return configurator.getBean();
+    }
+
+    @Named("first")
+    @Dependent
+    public static class FirstBean
+    {
+    }
+
+    @Named("second")
+    @Dependent
+    public static class SecondBean
+    {
+    }
+}
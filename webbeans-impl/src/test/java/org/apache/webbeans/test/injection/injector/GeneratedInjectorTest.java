@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.injection.injector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Dependent;
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.Produces;
+import javax.enterprise.inject.spi.Bean;
+import javax.inject.Inject;
+
+import org.apache.webbeans.component.InjectionTargetBean;
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.portable.InjectionTargetImpl;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GeneratedInjectorTest extends AbstractUnitTest
+{
+    @Test
+    public void testGeneratedInjector()
+    {
+        startContainer(Helper.class, Service.class, Numbers.class);
+
+        assertInjection(true);
+    }
+
+    @Test
+    public void testReflectionOnly()
+    {
+        addConfiguration(OpenWebBeansConfiguration.USE_GENERATED_INJECTORS, "false");
+        startContainer(Helper.class, Service.class, Numbers.class);
+
+        assertInjection(false);
+    }
+
+    @Test
+    public void testPrivateConstructor()
+    {
+        startContainer(PrivateConstructorHelper.class, Service.class);
+
+        Bean<PrivateConstructorHelper> bean = getBean(PrivateConstructorHelper.class);
+        PrivateConstructorHelper helper = bean.create(getBeanManager().createCreationalContext(bean));
+
+        // the constructor gets invoked via reflection, the field via the generated injector
+        Assert.assertTrue(((InjectionTargetImpl<PrivateConstructorHelper>) ((InjectionTargetBean<PrivateConstructorHelper>) bean)
+            .getProducer()).getInjectionPlan().isGenerated());
+        Assert.assertNotNull(helper.constructorService);
+        Assert.assertNotNull(helper.fieldService);
+    }
+
+    private void assertInjection(boolean generated)
+    {
+        Bean<Helper> bean = getBean(Helper.class);
+        CreationalContext<Helper> creationalContext = getBeanManager().createCreationalContext(bean);
+        Helper helper = bean.create(creationalContext);
+
+        Assert.assertEquals(generated,
+                ((InjectionTargetImpl<Helper>) ((InjectionTargetBean<Helper>) bean).getProducer()).getInjectionPlan().isGenerated());
+
+        Assert.assertNotNull(helper.constructorService);
+        Assert.assertNotNull(helper.fieldService);
+        Assert.assertNotNull(helper.getPrivateService());
+        Assert.assertEquals(42, helper.number);
+        Assert.assertEquals(42L, helper.getInitializerNumber());
+        Assert.assertEquals(1, helper.initializerCalls);
+
+        Service service = getInstance(Service.class);
+        Assert.assertEquals(1, service.getPostConstructed().size());
+        Assert.assertSame(helper, service.getPostConstructed().get(0));
+
+        bean.destroy(helper, creationalContext);
+        Assert.assertEquals(1, service.getPreDestroyed().size());
+        Assert.assertSame(helper, service.getPreDestroyed().get(0));
+    }
+
+    @Dependent
+    public static class Helper
+    {
+        final Service constructorService;
+
+        @Inject
+        Service fieldService;
+
+        @Inject
+        private Service privateService;
+
+        @Inject
+        int number;
+
+        private long initializerNumber;
+
+        int initializerCalls;
+
+        @Inject
+        Helper(Service service)
+        {
+            this.constructorService = service;
+        }
+
+        @Inject
+        protected void init(long initializerNumber, Service service)
+        {
+            this.initializerNumber = initializerNumber;
+        }
+
+        @Inject
+        void countInitializerCall()
+        {
+            initializerCalls++;
+        }
+
+        @PostConstruct
+        void postConstruct()
+        {
+            fieldService.getPostConstructed().add(this);
+        }
+
+        @PreDestroy
+        private void preDestroy()
+        {
+            fieldService.getPreDestroyed().add(this);
+        }
+
+        public Service getPrivateService()
+        {
+            return privateService;
+        }
+
+        public long getInitializerNumber()
+        {
+            return initializerNumber;
+        }
+    }
+
+    @Dependent
+    public static class PrivateConstructorHelper
+    {
+        final Service constructorService;
+
+        @Inject
+        Service fieldService;
+
+        @Inject
+        private PrivateConstructorHelper(Service service)
+        {
+            this.constructorService = service;
+        }
+    }
+
+    @ApplicationScoped
+    public static class Service
+    {
+        private final List<Helper> postConstructed = new ArrayList<>();
+        private final List<Helper> preDestroyed = new ArrayList<>();
+
+        public List<Helper> getPostConstructed()
+        {
+            return postConstructed;
+        }
+
+        public List<Helper> getPreDestroyed()
+        {
+            return preDestroyed;
+        }
+    }
+
+    @ApplicationScoped
+    public static class Numbers
+    {
+        @Produces
+        public int getNumber()
+        {
+            return 42;
+        }
+
+        @Produces
+        public long getLongNumber()
+        {
+            return 42L;
+        }
+    }
+}
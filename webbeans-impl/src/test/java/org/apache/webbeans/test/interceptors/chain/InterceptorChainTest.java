@@ -0,0 +1,222 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.interceptors.chain;
+
+import java.io.IOException;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import javax.annotation.Priority;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.inject.spi.BeforeBeanDiscovery;
+import javax.enterprise.inject.spi.Extension;
+import javax.enterprise.util.AnnotationLiteral;
+import javax.inject.Qualifier;
+import javax.interceptor.AroundInvoke;
+import javax.interceptor.Interceptor;
+import javax.interceptor.InterceptorBinding;
+import javax.interceptor.InvocationContext;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class InterceptorChainTest extends AbstractUnitTest
+{
+    @Test
+    public void testChainedInvocation()
+    {
+        addConfiguration(OpenWebBeansConfiguration.USE_INTERCEPTOR_CHAINS, "true");
+        startContainer(ChainedBean.class, OuterInterceptor.class, InnerInterceptor.class);
+        ChainedBean chainedBean = getInstance(ChainedBean.class);
+
+        Assert.assertEquals("outer(inner(hello))", chainedBean.echo("hello"));
+        Assert.assertEquals(43, chainedBean.increment(42));
+        Assert.assertEquals("plain", chainedBean.notIntercepted());
+    }
+
+    @Test
+    public void testChainedParameterModification()
+    {
+        addConfiguration(OpenWebBeansConfiguration.USE_INTERCEPTOR_CHAINS, "true");
+        startContainer(ChainedBean.class, OuterInterceptor.class, InnerInterceptor.class);
+        ChainedBean chainedBean = getInstance(ChainedBean.class);
+
+        Assert.assertEquals("outer(inner(changed))", chainedBean.echo("change-me"));
+    }
+
+    @Test
+    public void testChainedCheckedException()
+    {
+        addConfiguration(OpenWebBeansConfiguration.USE_INTERCEPTOR_CHAINS, "true");
+        startContainer(ChainedBean.class, OuterInterceptor.class, InnerInterceptor.class);
+        ChainedBean chainedBean = getInstance(ChainedBean.class);
+
+        try
+        {
+            chainedBean.fail();
+            Assert.fail("IOException expected");
+        }
+        catch (IOException e)
+        {
+            Assert.assertEquals("failed", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testReflectiveInvocation()
+    {
+        startContainer(ChainedBean.class, OuterInterceptor.class, InnerInterceptor.class);
+        ChainedBean chainedBean = getInstance(ChainedBean.class);
+
+        Assert.assertEquals("outer(inner(hello))", chainedBean.echo("hello"));
+        Assert.assertEquals("outer(inner(changed))", chainedBean.echo("change-me"));
+    }
+
+    @Test
+    public void testSharedProxyClassWithDifferentInterceptors()
+    {
+        addConfiguration(OpenWebBeansConfiguration.USE_INTERCEPTOR_CHAINS, "true");
+        addConfiguration("org.apache.webbeans.proxy.useStaticNames", "true");
+        addExtension(new VariantExtension());
+        startContainer(SharedProxyBean.class, OuterInterceptor.class, InnerInterceptor.class);
+
+        SharedProxyBean outerBean = getInstance(SharedProxyBean.class);
+        SharedProxyBean innerBean = getInstance(SharedProxyBean.class, new VariantLiteral());
+
+        // same intercepted methods, thus both beans share the static proxy class name
+        Assert.assertSame(outerBean.getClass(), innerBean.getClass());
+        Assert.assertEquals("outer(hello)", outerBean.echo("hello"));
+        Assert.assertEquals("inner(hello)", innerBean.echo("hello"));
+    }
+
+    @Qualifier
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.METHOD, ElementType.TYPE, ElementType.FIELD, ElementType.PARAMETER})
+    public @interface Variant
+    {
+    }
+
+    public static class VariantLiteral extends AnnotationLiteral<Variant> implements Variant
+    {
+    }
+
+    public static class InnerLiteral extends AnnotationLiteral<Inner> implements Inner
+    {
+    }
+
+    /**
+     * Adds a second bean for {@link SharedProxyBean} which uses another interceptor.
+     */
+    public static class VariantExtension implements Extension
+    {
+        void addVariant(@Observes BeforeBeanDiscovery bbd)
+        {
+            bbd.addAnnotatedType(SharedProxyBean.class, "variant")
+                .add(new VariantLiteral())
+                .filterMethods(m -> m.getJavaMember().getName().equals("echo"))
+                .forEach(m -> m.remove(a -> a.annotationType() == Outer.class).add(new InnerLiteral()));
+        }
+    }
+
+    @InterceptorBinding
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.METHOD, ElementType.TYPE})
+    public @interface Outer
+    {
+    }
+
+    @InterceptorBinding
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.METHOD, ElementType.TYPE})
+    public @interface Inner
+    {
+    }
+
+    @Outer
+    @Interceptor
+    @Priority(Interceptor.Priority.APPLICATION)
+    public static class OuterInterceptor
+    {
+        @AroundInvoke
+        public Object around(InvocationContext ctx) throws Exception
+        {
+            Object result = ctx.proceed();
+            return result instanceof String ? "outer(" + result + ")" : result;
+        }
+    }
+
+    @Inner
+    @Interceptor
+    @Priority(Interceptor.Priority.APPLICATION + 10)
+    public static class InnerInterceptor
+    {
+        @AroundInvoke
+        protected Object around(InvocationContext ctx) throws Exception
+        {
+            if ("change-me".equals(ctx.getParameters()[0]))
+            {
+                ctx.setParameters(new Object[]{"changed"});
+            }
+            Object result = ctx.proceed();
+            return result instanceof String ? "inner(" + result + ")" : result;
+        }
+    }
+
+    @ApplicationScoped
+    public static class ChainedBean
+    {
+        @Outer
+        @Inner
+        public String echo(String value)
+        {
+            return value;
+        }
+
+        @Outer
+        public int increment(int value)
+        {
+            return value + 1;
+        }
+
+        @Outer
+        public void fail() throws IOException
+        {
+            throw new IOException("failed");
+        }
+
+        public String notIntercepted()
+        {
+            return "plain";
+        }
+    }
+
+    public static class SharedProxyBean
+    {
+        @Outer
+        public String echo(String value)
+        {
+            return value;
+        }
+    }
+}
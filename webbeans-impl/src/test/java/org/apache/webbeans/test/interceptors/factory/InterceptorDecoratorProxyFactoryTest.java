@@ -28,10 +28,13 @@ import java.lang.reflect.Type;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Properties;
 import java.util.Set;
 
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
 import org.apache.webbeans.config.WebBeansContext;
 import org.apache.webbeans.exception.WebBeansException;
 import org.apache.webbeans.test.AbstractUnitTest;
@@ -96,6 +99,46 @@ public class InterceptorDecoratorProxyFactoryTest extends AbstractUnitTest
         Assert.assertEquals(5, testInvocationHandler.invokedMethodNames.size());
     }
 
+    @Test
+    public void testProxyVariantsWithPregeneratedProxies() throws Exception
+    {
+        Properties configuration = new Properties();
+        configuration.setProperty(OpenWebBeansConfiguration.RECORD_PREGENERATED_PROXIES, "true");
+        InterceptorDecoratorProxyFactory pf
+            = new InterceptorDecoratorProxyFactory(new WebBeansContext(Collections.emptyMap(), configuration));
+
+        ClassLoader classLoader = new URLClassLoader(new URL[0]);
+
+        Method getMeaningOfLife = ClassInterceptedClass.class.getMethod("getMeaningOfLife");
+        Method getChar = ClassInterceptedClass.class.getMethod("getChar");
+
+        // two proxies of the same class with different intercepted methods need different static names
+        Class<ClassInterceptedClass> meaningOfLifeProxy = pf.createProxyClass(new DummyBean(), classLoader, ClassInterceptedClass.class,
+                new Method[]{getMeaningOfLife}, new Method[]{getChar});
+        Class<ClassInterceptedClass> charProxy = pf.createProxyClass(new DummyBean(), classLoader, ClassInterceptedClass.class,
+                new Method[]{getChar}, new Method[]{getMeaningOfLife});
+        Assert.assertNotEquals(meaningOfLifeProxy.getName(), charProxy.getName());
+
+        ClassInterceptedClass internalInstance = new ClassInterceptedClass();
+        internalInstance.init();
+
+        TestInterceptorHandler meaningOfLifeHandler = new TestInterceptorHandler(internalInstance);
+        ClassInterceptedClass proxy = pf.createProxyInstance(meaningOfLifeProxy, internalInstance, meaningOfLifeHandler);
+        proxy.getMeaningOfLife();
+        proxy.getChar();
+        Assert.assertEquals(Collections.singletonList("getMeaningOfLife"), meaningOfLifeHandler.invokedMethodNames);
+
+        TestInterceptorHandler charHandler = new TestInterceptorHandler(internalInstance);
+        proxy = pf.createProxyInstance(charProxy, internalInstance, charHandler);
+        proxy.getMeaningOfLife();
+        proxy.getChar();
+        Assert.assertEquals(Collections.singletonList("getChar"), charHandler.invokedMethodNames);
+
+        // the same variant keeps its name
+        Assert.assertEquals(meaningOfLifeProxy.getName(), pf.createProxyClass(new DummyBean(), classLoader, ClassInterceptedClass.class,
+                new Method[]{getMeaningOfLife}, new Method[]{getChar}).getName());
+    }
+
     @Test
     public void testGenericProxyGeneration()
     {
@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.proxy;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.enterprise.context.NormalScope;
+import javax.enterprise.context.spi.AlterableContext;
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.event.Observes;
+import javax.enterprise.inject.spi.AfterBeanDiscovery;
+import javax.enterprise.inject.spi.Extension;
+
+import org.apache.webbeans.spi.api.CacheableContext;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test the per thread instance cache of our normal scoped proxies for custom contexts.
+ */
+public class CacheableContextTest extends AbstractUnitTest
+{
+    private static final TenantContext TENANT_CONTEXT = new TenantContext();
+
+    @Test
+    public void testCachedInstances()
+    {
+        TENANT_CONTEXT.reset();
+        addExtension(new TenantExtension());
+        startContainer(TenantBean.class);
+
+        TenantBean tenantBean = getInstance(TenantBean.class);
+
+        TENANT_CONTEXT.switchTo("a");
+        tenantBean.setValue("a");
+        int gets = TENANT_CONTEXT.gets.get();
+        for (int i = 0; i < 10; i++)
+        {
+            Assert.assertEquals("a", tenantBean.getValue());
+        }
+        Assert.assertEquals("instances must come from the cache", gets, TENANT_CONTEXT.gets.get());
+
+        TENANT_CONTEXT.switchTo("b");
+        Assert.assertNull(tenantBean.getValue());
+        tenantBean.setValue("b");
+
+        TENANT_CONTEXT.switchTo("a");
+        Assert.assertEquals("a", tenantBean.getValue());
+
+        TENANT_CONTEXT.destroy(getBean(TenantBean.class));
+        Assert.assertNull(tenantBean.getValue());
+
+        TENANT_CONTEXT.switchTo("b");
+        Assert.assertEquals("b", tenantBean.getValue());
+    }
+
+    @Test
+    public void testCacheDoesNotKeepDestroyedInstances() throws InterruptedException
+    {
+        TENANT_CONTEXT.reset();
+        addExtension(new TenantExtension());
+        startContainer(TenantBean.class);
+
+        // this thread never ends a request, so the per thread cache doesn't get cleared
+        TenantBean tenantBean = getInstance(TenantBean.class);
+        TENANT_CONTEXT.switchTo("a");
+        tenantBean.setValue("a");
+        WeakReference<Object> instance = new WeakReference<>(TENANT_CONTEXT.storage().instances.get(getBean(TenantBean.class)));
+        Assert.assertNotNull(instance.get());
+
+        TENANT_CONTEXT.destroy(getBean(TenantBean.class));
+        for (int i = 0; i < 20 && instance.get() != null; i++)
+        {
+            System.gc();
+            Thread.sleep(50);
+        }
+        Assert.assertNull("the cache must not keep the destroyed instance alive", instance.get());
+        Assert.assertNull(tenantBean.getValue());
+    }
+
+    @Target(TYPE)
+    @Retention(RUNTIME)
+    @NormalScope
+    public @interface TenantScoped
+    {
+    }
+
+    @TenantScoped
+    public static class TenantBean
+    {
+        private String value;
+
+        public String getValue()
+        {
+            return value;
+        }
+
+        public void setValue(String value)
+        {
+            this.value = value;
+        }
+    }
+
+    public static class TenantExtension implements Extension
+    {
+        public void registerTenantContext(@Observes AfterBeanDiscovery afterBeanDiscovery)
+        {
+            afterBeanDiscovery.addContext(TENANT_CONTEXT);
+        }
+    }
+
+    public static class TenantContext implements AlterableContext, CacheableContext
+    {
+        private static final AtomicLong EPOCHS = new AtomicLong();
+
+        private final ThreadLocal<String> currentTenant = new ThreadLocal<>();
+        private final Map<String, TenantStorage> tenants = new ConcurrentHashMap<>();
+        private final AtomicInteger gets = new AtomicInteger();
+
+        void reset()
+        {
+            tenants.clear();
+            gets.set(0);
+        }
+
+        void switchTo(String tenant)
+        {
+            currentTenant.set(tenant);
+        }
+
+        private TenantStorage storage()
+        {
+            return tenants.computeIfAbsent(currentTenant.get(), t -> new TenantStorage());
+        }
+
+        @Override
+        public long getCacheEpoch()
+        {
+            return storage().epoch;
+        }
+
+        @Override
+        public Class<? extends Annotation> getScope()
+        {
+            return TenantScoped.class;
+        }
+
+        @Override
+        public <T> T get(Contextual<T> contextual, CreationalContext<T> creationalContext)
+        {
+            gets.incrementAndGet();
+            return (T) storage().instances.computeIfAbsent(contextual, c -> contextual.create(creationalContext));
+        }
+
+        @Override
+        public <T> T get(Contextual<T> contextual)
+        {
+            gets.incrementAndGet();
+            return (T) storage().instances.get(contextual);
+        }
+
+        @Override
+        public boolean isActive()
+        {
+            return currentTenant.get() != null;
+        }
+
+        @Override
+        public void destroy(Contextual<?> contextual)
+        {
+            TenantStorage storage = storage();
+            storage.instances.remove(contextual);
+            storage.epoch = EPOCHS.incrementAndGet();
+        }
+
+        private static final class TenantStorage
+        {
+            private final Map<Contextual<?>, Object> instances = new ConcurrentHashMap<>();
+            private volatile long epoch = EPOCHS.incrementAndGet();
+        }
+    }
+}
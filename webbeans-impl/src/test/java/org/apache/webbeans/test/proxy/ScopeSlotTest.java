@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.proxy;
+
+import java.lang.annotation.Annotation;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.context.spi.Context;
+
+import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.container.BeanManagerImpl;
+import org.apache.webbeans.context.AbstractContextsService;
+import org.apache.webbeans.context.ApplicationContext;
+import org.apache.webbeans.corespi.se.StandaloneContextsService;
+import org.apache.webbeans.spi.ContextsService;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.apache.webbeans.test.proxy.beans.DummyScoped;
+import org.apache.webbeans.test.proxy.beans.DummyScopedContext;
+import org.apache.webbeans.test.proxy.beans.DummyScopedExtension;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test the slot based context resolution of our normal scoped proxies.
+ */
+public class ScopeSlotTest extends AbstractUnitTest
+{
+    @Test
+    public void testScopeSlots()
+    {
+        addExtension(new DummyScopedExtension());
+        startContainer(DummyScopedBean.class, ApplicationBean.class);
+
+        BeanManagerImpl beanManager = getWebBeansContext().getBeanManagerImpl();
+        Assert.assertEquals(AbstractContextsService.REQUEST_SCOPE_SLOT, beanManager.getScopeSlot(RequestScoped.class));
+        Assert.assertEquals(AbstractContextsService.APPLICATION_SCOPE_SLOT, beanManager.getScopeSlot(ApplicationScoped.class));
+
+        int dummySlot = beanManager.getScopeSlot(DummyScoped.class);
+        Assert.assertTrue(dummySlot >= AbstractContextsService.BUILT_IN_SCOPE_SLOTS);
+        Assert.assertEquals(dummySlot, beanManager.getScopeSlot(DummyScoped.class));
+
+        Context dummyContext = beanManager.getContext(dummySlot, DummyScoped.class);
+        Assert.assertTrue(dummyContext instanceof DummyScopedContext);
+        Assert.assertSame(dummyContext, beanManager.getContext(DummyScoped.class));
+        Assert.assertSame(beanManager.getContext(ApplicationScoped.class),
+                          beanManager.getContext(AbstractContextsService.APPLICATION_SCOPE_SLOT, ApplicationScoped.class));
+
+        DummyScopedBean dummyScopedBean = getInstance(DummyScopedBean.class);
+        dummyScopedBean.setValue(42);
+        Assert.assertEquals(42, getInstance(DummyScopedBean.class).getValue());
+
+        ApplicationBean applicationBean = getInstance(ApplicationBean.class);
+        applicationBean.setValue(7);
+        Assert.assertEquals(7, getInstance(ApplicationBean.class).getValue());
+    }
+
+    @Test
+    public void testOverriddenContextResolution()
+    {
+        addService(ContextsService.class, CustomApplicationContextsService.class);
+        startContainer(ApplicationBean.class);
+
+        BeanManagerImpl beanManager = getWebBeansContext().getBeanManagerImpl();
+        CustomApplicationContextsService contextsService
+            = (CustomApplicationContextsService) getWebBeansContext().getContextsService();
+
+        // the slot based lookup must not bypass the overridden getCurrentContext(Class)
+        Assert.assertSame(contextsService.customApplicationContext,
+                          beanManager.getContext(AbstractContextsService.APPLICATION_SCOPE_SLOT, ApplicationScoped.class));
+
+        getInstance(ApplicationBean.class).setValue(7);
+        Assert.assertNotNull(contextsService.customApplicationContext.get(
+            beanManager.resolve(beanManager.getBeans(ApplicationBean.class))));
+    }
+
+    public static class CustomApplicationContextsService extends StandaloneContextsService
+    {
+        private final ApplicationContext customApplicationContext = new ApplicationContext();
+
+        public CustomApplicationContextsService(WebBeansContext webBeansContext)
+        {
+            super(webBeansContext);
+            customApplicationContext.setActive(true);
+        }
+
+        @Override
+        public Context getCurrentContext(Class<? extends Annotation> scopeType)
+        {
+            if (scopeType == ApplicationScoped.class)
+            {
+                return customApplicationContext;
+            }
+            return super.getCurrentContext(scopeType);
+        }
+    }
+
+    @DummyScoped
+    public static class DummyScopedBean
+    {
+        private int value;
+
+        public int getValue()
+        {
+            return value;
+        }
+
+        public void setValue(int value)
+        {
+            this.value = value;
+        }
+    }
+
+    @ApplicationScoped
+    public static class ApplicationBean
+    {
+        private int value;
+
+        public int getValue()
+        {
+            return value;
+        }
+
+        public void setValue(int value)
+        {
+            this.value = value;
+        }
+    }
+}
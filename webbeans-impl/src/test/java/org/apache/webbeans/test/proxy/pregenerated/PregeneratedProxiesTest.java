@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.proxy.pregenerated;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.annotation.Priority;
+import javax.enterprise.context.ApplicationScoped;
+import javax.interceptor.AroundInvoke;
+import javax.interceptor.Interceptor;
+import javax.interceptor.InterceptorBinding;
+import javax.interceptor.InvocationContext;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.corespi.se.DefaultApplicationBoundaryService;
+import org.apache.webbeans.proxy.PregeneratedProxies;
+import org.apache.webbeans.service.ClassLoaderProxyService;
+import org.apache.webbeans.spi.ApplicationBoundaryService;
+import org.apache.webbeans.spi.DefiningClassService;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PregeneratedProxiesTest extends AbstractUnitTest
+{
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testRecordAndLoad() throws IOException
+    {
+        Path outputDirectory = temporaryFolder.getRoot().toPath();
+
+        // build time: record the proxies
+        addService(DefiningClassService.class, ClassLoaderProxyService.Spy.class);
+        addConfiguration(OpenWebBeansConfiguration.RECORD_PREGENERATED_PROXIES, "true");
+        startContainer(PregeneratedBean.class, CountingInterceptor.class);
+
+        Assert.assertEquals("intercepted(hello)", getInstance(PregeneratedBean.class).echo("hello"));
+
+        Map<String, byte[]> proxies = ClassLoaderProxyService.Spy.class
+            .cast(getWebBeansContext().getService(DefiningClassService.class)).getProxies();
+        Map<String, String> fingerprints = new HashMap<>(getWebBeansContext().getPregeneratedProxies().getRecordedFingerprints());
+        Assert.assertEquals(2, fingerprints.size()); // interceptor and normal scope proxy
+
+        // the interceptor proxy gets defined in the ClassLoader of the bean class which cannot see our
+        // output directory in this test, so only the normal scope proxy gets pre-generated
+        Properties index = new Properties();
+        for (Map.Entry<String, String> fingerprint : fingerprints.entrySet())
+        {
+            if (!fingerprint.getKey().contains("$$OwbNormalScopeProxy"))
+            {
+                continue;
+            }
+            Path classFile = outputDirectory.resolve(fingerprint.getKey().replace('.', '/') + ".class");
+            Files.createDirectories(classFile.getParent());
+            Files.write(classFile, proxies.get(fingerprint.getKey()));
+            index.setProperty(fingerprint.getKey(), fingerprint.getValue());
+        }
+        index.setProperty(PregeneratedBean.class.getName() + "$$Outdated0", "0");
+        Path indexFile = outputDirectory.resolve(PregeneratedProxies.INDEX_RESOURCE);
+        Files.createDirectories(indexFile.getParent());
+        index.store(Files.newOutputStream(indexFile), null);
+
+        shutDownContainer();
+
+        // runtime: load the recorded proxies
+        try (URLClassLoader applicationLoader = new URLClassLoader(new URL[]{outputDirectory.toUri().toURL()}, getClass().getClassLoader()))
+        {
+            addService(ApplicationBoundaryService.class, new DefaultApplicationBoundaryService()
+            {
+                @Override
+                public ClassLoader getApplicationClassLoader()
+                {
+                    return applicationLoader;
+                }
+            });
+            addService(DefiningClassService.class, ClassLoaderProxyService.class);
+            addConfiguration(OpenWebBeansConfiguration.USE_PREGENERATED_PROXIES, "true");
+            startContainer(PregeneratedBean.class, CountingInterceptor.class);
+
+            PregeneratedBean bean = getInstance(PregeneratedBean.class);
+            Assert.assertSame(applicationLoader, bean.getClass().getClassLoader());
+            Assert.assertEquals("intercepted(hello)", bean.echo("hello"));
+
+            PregeneratedProxies pregeneratedProxies = getWebBeansContext().getPregeneratedProxies();
+            Assert.assertNull(pregeneratedProxies.loadProxyClass(applicationLoader, PregeneratedBean.class.getName() + "$$Outdated0", "1"));
+            Assert.assertNull(pregeneratedProxies.loadProxyClass(applicationLoader, PregeneratedBean.class.getName() + "$$Unknown0", "0"));
+
+            shutDownContainer();
+        }
+    }
+
+    @InterceptorBinding
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.METHOD, ElementType.TYPE})
+    public @interface Counted
+    {
+    }
+
+    @Counted
+    @Interceptor
+    @Priority(Interceptor.Priority.APPLICATION)
+    public static class CountingInterceptor
+    {
+        @AroundInvoke
+        public Object around(InvocationContext ctx) throws Exception
+        {
+            return "intercepted(" + ctx.proceed() + ")";
+        }
+    }
+
+    @ApplicationScoped
+    public static class PregeneratedBean
+    {
+        @Counted
+        public String echo(String value)
+        {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.util;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.webbeans.config.OwbParametrizedTypeImpl;
+import org.apache.webbeans.config.OwbWildcardTypeImpl;
+import org.apache.webbeans.util.TypeAssignabilityCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TypeAssignabilityCacheTest
+{
+    @Test
+    public void testResultsGetMemoized() throws Exception
+    {
+        TypeAssignabilityCache cache = new TypeAssignabilityCache(100);
+        Type listOfString = Holder.class.getDeclaredField("listOfString").getGenericType();
+        Type listOfNumber = Holder.class.getDeclaredField("listOfNumber").getGenericType();
+
+        Assert.assertTrue(cache.satisfiesDependency(false, false, listOfString, listOfString));
+        Assert.assertFalse(cache.satisfiesDependency(false, false, listOfString, listOfNumber));
+        Assert.assertEquals(2, cache.size());
+
+        // an equal type created by us hits the stored results
+        Type ownListOfString = new OwbParametrizedTypeImpl(null, List.class, String.class);
+        Assert.assertTrue(cache.satisfiesDependency(false, false, ownListOfString, listOfString));
+        Assert.assertFalse(cache.satisfiesDependency(false, false, ownListOfString, listOfNumber));
+        Assert.assertEquals(2, cache.size());
+
+        // the flags are part of the key
+        Assert.assertTrue(cache.satisfiesDependency(true, false, listOfString, listOfString));
+        Assert.assertEquals(3, cache.size());
+
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testWildcards() throws Exception
+    {
+        TypeAssignabilityCache cache = new TypeAssignabilityCache(100);
+        Type listOfExtendsNumber = Holder.class.getDeclaredField("listOfExtendsNumber").getGenericType();
+        Type listOfInteger = new OwbParametrizedTypeImpl(null, List.class, Integer.class);
+        Type ownListOfExtendsNumber = new OwbParametrizedTypeImpl(null, List.class,
+                new OwbWildcardTypeImpl(new Type[]{ Number.class }, new Type[0]));
+
+        Assert.assertEquals(listOfExtendsNumber, ownListOfExtendsNumber);
+        Assert.assertEquals(listOfExtendsNumber.hashCode(), ownListOfExtendsNumber.hashCode());
+
+        Assert.assertTrue(cache.satisfiesDependency(false, false, listOfExtendsNumber, listOfInteger));
+        Assert.assertTrue(cache.satisfiesDependency(false, false, ownListOfExtendsNumber, listOfInteger));
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testIntern()
+    {
+        TypeAssignabilityCache cache = new TypeAssignabilityCache(100);
+        Type first = new OwbParametrizedTypeImpl(null, List.class, String.class);
+        Type second = new OwbParametrizedTypeImpl(null, List.class, String.class);
+
+        Assert.assertSame(first, cache.intern(first));
+        Assert.assertSame(first, cache.intern(second));
+        Assert.assertSame(String.class, cache.intern(String.class));
+    }
+
+    @Test
+    public void testLimit() throws Exception
+    {
+        TypeAssignabilityCache cache = new TypeAssignabilityCache(1);
+        Type listOfString = Holder.class.getDeclaredField("listOfString").getGenericType();
+
+        Assert.assertTrue(cache.isAssignableFrom(false, false, listOfString, listOfString));
+        Assert.assertTrue(cache.isAssignableFrom(false, false, List.class, ArrayList.class));
+        Assert.assertFalse(cache.isAssignableFrom(false, false, String.class, Integer.class));
+        Assert.assertEquals(1, cache.size());
+    }
+
+    public static class Holder
+    {
+        List<String> listOfString;
+        List<Number> listOfNumber;
+        List<? extends Number> listOfExtendsNumber;
+    }
+}
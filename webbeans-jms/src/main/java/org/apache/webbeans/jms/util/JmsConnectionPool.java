@@ -0,0 +1,676 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.jms.util;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.Destination;
+import javax.jms.ExceptionListener;
+import javax.jms.JMSException;
+import javax.jms.MessageProducer;
+import javax.jms.QueueConnectionFactory;
+import javax.jms.Session;
+import javax.jms.TopicConnectionFactory;
+
+import org.apache.webbeans.exception.WebBeansException;
+import org.apache.webbeans.jms.JMSModel.JMSType;
+import org.apache.webbeans.util.Asserts;
+
+/**
+ * Pools the JMS resources created for a single {@link ConnectionFactory}.
+ *
+ * <p>There is exactly one shared {@link Connection} per {@link JMSType}.
+ * Idle {@link Session}s and idle {@link MessageProducer}s (together with the
+ * Session they got created on) are kept in bounded pools. Borrowing from an
+ * empty pool creates a new resource, returning to a full pool closes it.
+ * So the pool sizes limit the number of idle resources but never block a caller.</p>
+ *
+ * <p>A shared connection gets evicted once its {@link ExceptionListener} reports a failure
+ * or creating a session on it fails. Sessions and producers created on an evicted connection
+ * get closed instead of being handed out or pooled again.</p>
+ *
+ * <p>Producers are pooled per {@link JMSType} and destination. The delivery settings
+ * a borrower changed get reset to the ones the producer got created with before it gets
+ * pooled again, so they don't leak to the next borrower.</p>
+ *
+ * <p>All counters are maintained with {@link LongAdder}s and are meant
+ * for monitoring only.</p>
+ */
+public class JmsConnectionPool
+{
+    /**
+     * Maximum number of idle sessions kept per {@link JMSType}.
+     */
+    public static final String MAX_IDLE_SESSIONS = "org.apache.webbeans.jms.pool.maxIdleSessions";
+
+    /**
+     * Maximum number of idle producers kept per {@link JMSType} and destination.
+     */
+    public static final String MAX_IDLE_PRODUCERS = "org.apache.webbeans.jms.pool.maxIdleProducers";
+
+    public static final int DEFAULT_MAX_IDLE = 8;
+
+    private final ConnectionFactory connectionFactory;
+
+    private final int maxIdleSessions;
+
+    private final int maxIdleProducers;
+
+    private final Map<JMSType, Connection> connections = new ConcurrentHashMap<>();
+
+    private final Map<JMSType, BlockingQueue<Session>> idleSessions = new ConcurrentHashMap<>();
+
+    private final Map<JMSType, Map<String, BlockingQueue<PooledProducer>>> idleProducers = new ConcurrentHashMap<>();
+
+    /**
+     * The connection each pooled session got created on.
+     */
+    private final Map<Session, Connection> sessionConnections = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    private volatile boolean closed;
+
+    private final LongAdder connectionsCreated = new LongAdder();
+    private final LongAdder connectionsEvicted = new LongAdder();
+    private final LongAdder sessionsCreated = new LongAdder();
+    private final LongAdder sessionsBorrowed = new LongAdder();
+    private final LongAdder sessionsReturned = new LongAdder();
+    private final LongAdder sessionsDiscarded = new LongAdder();
+    private final LongAdder producersCreated = new LongAdder();
+    private final LongAdder producersBorrowed = new LongAdder();
+    private final LongAdder producersReturned = new LongAdder();
+    private final LongAdder producersDiscarded = new LongAdder();
+
+    public JmsConnectionPool(ConnectionFactory connectionFactory, int maxIdleSessions, int maxIdleProducers)
+    {
+        Asserts.assertNotNull(connectionFactory, "connectionFactory parameter");
+        this.connectionFactory = connectionFactory;
+        this.maxIdleSessions = Math.max(1, maxIdleSessions);
+        this.maxIdleProducers = Math.max(1, maxIdleProducers);
+    }
+
+    public ConnectionFactory getConnectionFactory()
+    {
+        return connectionFactory;
+    }
+
+    /**
+     * @return the shared connection for the given type. It must not be closed by the caller.
+     */
+    public Connection getConnection(JMSType type)
+    {
+        checkOpen();
+
+        Connection connection = connections.get(type);
+        if (connection != null)
+        {
+            return connection;
+        }
+
+        synchronized (connections)
+        {
+            connection = connections.get(type);
+            if (connection == null)
+            {
+                connection = createConnection(type);
+                registerExceptionListener(type, connection);
+                connections.put(type, connection);
+                connectionsCreated.increment();
+            }
+            return connection;
+        }
+    }
+
+    /**
+     * Borrow a non transacted, auto acknowledged session.
+     * It must be handed back via {@link #releaseSession(JMSType, Session)}.
+     */
+    public Session borrowSession(JMSType type)
+    {
+        checkOpen();
+
+        BlockingQueue<Session> sessions = getIdleSessions(type);
+        Session session;
+        while ((session = sessions.poll()) != null && !isValid(type, session))
+        {
+            discard(session);
+        }
+        if (session == null)
+        {
+            session = createPooledSession(type);
+        }
+        sessionsBorrowed.increment();
+        return session;
+    }
+
+    public void releaseSession(JMSType type, Session session)
+    {
+        if (session == null)
+        {
+            return;
+        }
+
+        sessionsReturned.increment();
+        if (closed || !isValid(type, session) || !getIdleSessions(type).offer(session))
+        {
+            discard(session);
+        }
+    }
+
+    /**
+     * Borrow a producer for the given destination.
+     * It must be handed back via {@link #releaseProducer(PooledProducer)}.
+     *
+     * @param destinationName the jndi name of the destination, used as pool key together with the type
+     */
+    public PooledProducer borrowProducer(JMSType type, String destinationName, Destination destination)
+    {
+        checkOpen();
+
+        BlockingQueue<PooledProducer> producers = getIdleProducers(type, destinationName);
+        PooledProducer producer;
+        while ((producer = producers.poll()) != null && !isValid(producer))
+        {
+            discard(producer);
+        }
+        if (producer == null)
+        {
+            Session session = createPooledSession(type);
+            try
+            {
+                producer = new PooledProducer(type, destinationName, session, session.createProducer(destination));
+            }
+            catch (JMSException e)
+            {
+                discard(session);
+                throw new WebBeansException("Unable to create jms message producer", e);
+            }
+            producersCreated.increment();
+        }
+        producersBorrowed.increment();
+        return producer;
+    }
+
+    public void releaseProducer(PooledProducer producer)
+    {
+        if (producer == null)
+        {
+            return;
+        }
+
+        producersReturned.increment();
+        if (closed || !isValid(producer) || !producer.resetSettings()
+            || !getIdleProducers(producer.getType(), producer.getDestinationName()).offer(producer))
+        {
+            discard(producer);
+        }
+    }
+
+    /**
+     * Create a session which is not pooled, e.g. for message consumers.
+     * The caller is responsible for closing it.
+     */
+    public Session createSession(JMSType type)
+    {
+        Connection connection = getConnection(type);
+        try
+        {
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            sessionsCreated.increment();
+            return session;
+        }
+        catch (JMSException e)
+        {
+            // the shared connection is most likely broken, so retry once on a new one
+            evict(type, connection);
+            connection = getConnection(type);
+            try
+            {
+                Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+                sessionsCreated.increment();
+                return session;
+            }
+            catch (JMSException retryException)
+            {
+                evict(type, connection);
+                throw new WebBeansException("Unable to create jms session", retryException);
+            }
+        }
+    }
+
+    /**
+     * Evicts the given connection if it still is the shared connection of the given type.
+     * The connection gets closed and all idle sessions and producers created on it get discarded.
+     */
+    public void evict(JMSType type, Connection connection)
+    {
+        boolean evicted;
+        synchronized (connections)
+        {
+            evicted = connections.remove(type, connection);
+        }
+        if (!evicted)
+        {
+            return;
+        }
+        connectionsEvicted.increment();
+
+        BlockingQueue<Session> sessions = idleSessions.get(type);
+        if (sessions != null)
+        {
+            sessions.removeIf(session ->
+            {
+                if (sessionConnections.get(session) == connection)
+                {
+                    discard(session);
+                    return true;
+                }
+                return false;
+            });
+        }
+        Map<String, BlockingQueue<PooledProducer>> producersOfType = idleProducers.get(type);
+        if (producersOfType != null)
+        {
+            for (BlockingQueue<PooledProducer> producers : producersOfType.values())
+            {
+                producers.removeIf(producer ->
+                {
+                    if (sessionConnections.get(producer.getSession()) == connection)
+                    {
+                        discard(producer);
+                        return true;
+                    }
+                    return false;
+                });
+            }
+        }
+
+        try
+        {
+            connection.close();
+        }
+        catch (JMSException | RuntimeException e)
+        {
+            // it is broken anyway
+        }
+    }
+
+    /**
+     * Close all idle resources and the shared connections.
+     * Resources which are still borrowed get closed when they are released.
+     */
+    public void close()
+    {
+        closed = true;
+
+        for (Map<String, BlockingQueue<PooledProducer>> producersOfType : idleProducers.values())
+        {
+            for (BlockingQueue<PooledProducer> producers : producersOfType.values())
+            {
+                PooledProducer producer;
+                while ((producer = producers.poll()) != null)
+                {
+                    sessionConnections.remove(producer.getSession());
+                    producer.close();
+                }
+            }
+        }
+        idleProducers.clear();
+
+        for (BlockingQueue<Session> sessions : idleSessions.values())
+        {
+            Session session;
+            while ((session = sessions.poll()) != null)
+            {
+                sessionConnections.remove(session);
+                closeQuietly(session);
+            }
+        }
+        idleSessions.clear();
+
+        synchronized (connections)
+        {
+            for (Connection connection : connections.values())
+            {
+                try
+                {
+                    connection.close();
+                }
+                catch (JMSException e)
+                {
+                    // nothing we can do about it during shutdown
+                }
+            }
+            connections.clear();
+        }
+    }
+
+    public boolean isClosed()
+    {
+        return closed;
+    }
+
+    public long getConnectionsCreated()
+    {
+        return connectionsCreated.sum();
+    }
+
+    public long getConnectionsEvicted()
+    {
+        return connectionsEvicted.sum();
+    }
+
+    public long getSessionsCreated()
+    {
+        return sessionsCreated.sum();
+    }
+
+    public long getSessionsBorrowed()
+    {
+        return sessionsBorrowed.sum();
+    }
+
+    public long getSessionsReturned()
+    {
+        return sessionsReturned.sum();
+    }
+
+    public long getSessionsDiscarded()
+    {
+        return sessionsDiscarded.sum();
+    }
+
+    public long getProducersCreated()
+    {
+        return producersCreated.sum();
+    }
+
+    public long getProducersBorrowed()
+    {
+        return producersBorrowed.sum();
+    }
+
+    public long getProducersReturned()
+    {
+        return producersReturned.sum();
+    }
+
+    public long getProducersDiscarded()
+    {
+        return producersDiscarded.sum();
+    }
+
+    public int getIdleSessionCount()
+    {
+        int count = 0;
+        for (BlockingQueue<Session> sessions : idleSessions.values())
+        {
+            count += sessions.size();
+        }
+        return count;
+    }
+
+    public int getIdleProducerCount()
+    {
+        int count = 0;
+        for (Map<String, BlockingQueue<PooledProducer>> producersOfType : idleProducers.values())
+        {
+            for (BlockingQueue<PooledProducer> producers : producersOfType.values())
+            {
+                count += producers.size();
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "JmsConnectionPool{" +
+            "connections=" + getConnectionsCreated() +
+            ", connectionsEvicted=" + getConnectionsEvicted() +
+            ", sessionsCreated=" + getSessionsCreated() +
+            ", sessionsBorrowed=" + getSessionsBorrowed() +
+            ", sessionsDiscarded=" + getSessionsDiscarded() +
+            ", idleSessions=" + getIdleSessionCount() +
+            ", producersCreated=" + getProducersCreated() +
+            ", producersBorrowed=" + getProducersBorrowed() +
+            ", producersDiscarded=" + getProducersDiscarded() +
+            ", idleProducers=" + getIdleProducerCount() +
+            '}';
+    }
+
+    private Connection createConnection(JMSType type)
+    {
+        try
+        {
+            if (type == JMSType.QUEUE && connectionFactory instanceof QueueConnectionFactory)
+            {
+                return ((QueueConnectionFactory) connectionFactory).createQueueConnection();
+            }
+            if (type == JMSType.TOPIC && connectionFactory instanceof TopicConnectionFactory)
+            {
+                return ((TopicConnectionFactory) connectionFactory).createTopicConnection();
+            }
+            return connectionFactory.createConnection();
+        }
+        catch (JMSException e)
+        {
+            throw new WebBeansException("Unable to create jms connection", e);
+        }
+    }
+
+    private void registerExceptionListener(JMSType type, Connection connection)
+    {
+        try
+        {
+            connection.setExceptionListener(e -> evict(type, connection));
+        }
+        catch (JMSException | RuntimeException e)
+        {
+            // e.g. not allowed for managed connections in an application server,
+            // a broken connection then gets detected when creating a session fails
+        }
+    }
+
+    /**
+     * Creates a session which gets pooled, so it remembers the connection it got created on.
+     */
+    private Session createPooledSession(JMSType type)
+    {
+        Session session = createSession(type);
+        Connection connection = connections.get(type);
+        if (connection != null)
+        {
+            sessionConnections.put(session, connection);
+        }
+        return session;
+    }
+
+    /**
+     * @return whether the session got created on the current shared connection
+     */
+    private boolean isValid(JMSType type, Session session)
+    {
+        Connection connection = sessionConnections.get(session);
+        return connection != null && connection == connections.get(type);
+    }
+
+    private boolean isValid(PooledProducer producer)
+    {
+        return isValid(producer.getType(), producer.getSession());
+    }
+
+    private void discard(Session session)
+    {
+        sessionsDiscarded.increment();
+        sessionConnections.remove(session);
+        closeQuietly(session);
+    }
+
+    private void discard(PooledProducer producer)
+    {
+        producersDiscarded.increment();
+        sessionConnections.remove(producer.getSession());
+        producer.close();
+    }
+
+    private BlockingQueue<Session> getIdleSessions(JMSType type)
+    {
+        return idleSessions.computeIfAbsent(type, k -> new ArrayBlockingQueue<>(maxIdleSessions));
+    }
+
+    private BlockingQueue<PooledProducer> getIdleProducers(JMSType type, String destinationName)
+    {
+        return idleProducers.computeIfAbsent(type, k -> new ConcurrentHashMap<>())
+                            .computeIfAbsent(destinationName, k -> new ArrayBlockingQueue<>(maxIdleProducers));
+    }
+
+    private void checkOpen()
+    {
+        if (closed)
+        {
+            throw new WebBeansException("JMS connection pool is already closed");
+        }
+    }
+
+    private static void closeQuietly(Session session)
+    {
+        try
+        {
+            session.close();
+        }
+        catch (JMSException e)
+        {
+            // the session is unusable anyway
+        }
+    }
+
+    /**
+     * A {@link MessageProducer} together with the {@link Session} it got created on.
+     * Both are owned by the pool.
+     */
+    public static final class PooledProducer
+    {
+        private final JMSType type;
+        private final String destinationName;
+        private final Session session;
+        private final MessageProducer producer;
+
+        /**
+         * The settings the producer got created with.
+         */
+        private final int deliveryMode;
+        private final int priority;
+        private final long timeToLive;
+        private final boolean disableMessageID;
+        private final boolean disableMessageTimestamp;
+
+        private PooledProducer(JMSType type, String destinationName, Session session, MessageProducer producer)
+            throws JMSException
+        {
+            this.type = type;
+            this.destinationName = destinationName;
+            this.session = session;
+            this.producer = producer;
+            deliveryMode = producer.getDeliveryMode();
+            priority = producer.getPriority();
+            timeToLive = producer.getTimeToLive();
+            disableMessageID = producer.getDisableMessageID();
+            disableMessageTimestamp = producer.getDisableMessageTimestamp();
+        }
+
+        public JMSType getType()
+        {
+            return type;
+        }
+
+        public String getDestinationName()
+        {
+            return destinationName;
+        }
+
+        public Session getSession()
+        {
+            return session;
+        }
+
+        public MessageProducer getProducer()
+        {
+            return producer;
+        }
+
+        /**
+         * Restores the settings the producer got created with.
+         *
+         * @return {@code false} if they could not be restored, the producer must not get pooled then
+         */
+        private boolean resetSettings()
+        {
+            try
+            {
+                if (producer.getDeliveryMode() != deliveryMode)
+                {
+                    producer.setDeliveryMode(deliveryMode);
+                }
+                if (producer.getPriority() != priority)
+                {
+                    producer.setPriority(priority);
+                }
+                if (producer.getTimeToLive() != timeToLive)
+                {
+                    producer.setTimeToLive(timeToLive);
+                }
+                if (producer.getDisableMessageID() != disableMessageID)
+                {
+                    producer.setDisableMessageID(disableMessageID);
+                }
+                if (producer.getDisableMessageTimestamp() != disableMessageTimestamp)
+                {
+                    producer.setDisableMessageTimestamp(disableMessageTimestamp);
+                }
+                return true;
+            }
+            catch (JMSException | RuntimeException e)
+            {
+                return false;
+            }
+        }
+
+        private void close()
+        {
+            try
+            {
+                producer.close();
+            }
+            catch (JMSException e)
+            {
+                // ignore, the session gets closed anyway
+            }
+            closeQuietly(session);
+        }
+    }
+}
@@ -19,10 +19,10 @@
 package org.apache.webbeans.jms.util;
 
 import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.jms.Connection;
 import javax.jms.ConnectionFactory;
@@ -30,33 +30,44 @@ import javax.jms.Destination;
 import javax.jms.JMSException;
 import javax.jms.MessageConsumer;
 import javax.jms.MessageProducer;
-import javax.jms.QueueConnection;
-import javax.jms.QueueConnectionFactory;
 import javax.jms.Session;
-import javax.jms.TopicConnection;
-import javax.jms.TopicConnectionFactory;
 
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.config.WebBeansContext;
 import org.apache.webbeans.exception.WebBeansException;
 import org.apache.webbeans.jms.JMSModel;
 import org.apache.webbeans.jms.JMSModel.JMSType;
 import org.apache.webbeans.jms.component.JmsBean;
-import org.apache.webbeans.util.ClassUtil;
+import org.apache.webbeans.jms.util.JmsConnectionPool.PooledProducer;
 
 
+/**
+ * Handler behind the injected JMS proxies.
+ *
+ * <p>The underlying JMS object gets lazily created on the first invocation.
+ * Connections, sessions and producers are taken from the {@link JmsConnectionPool}
+ * of the configured {@link ConnectionFactory} and get handed back to it
+ * on {@link Closable#closeJMSObject()}.</p>
+ */
 public class JmsProxyHandler implements InvocationHandler
 {
-    private JmsBean<?> jmsComponent;
+    private static final Map<ConnectionFactory, JmsConnectionPool> POOLS = new ConcurrentHashMap<>();
 
-    private static volatile ConnectionFactory connectionFactory;
+    private static final Map<String, Destination> DESTINATIONS = new ConcurrentHashMap<>();
 
-    private AtomicBoolean cfSet = new AtomicBoolean(false);
+    private static volatile ConnectionFactory connectionFactory;
 
-    private static Map<JMSType, Connection> connections = new ConcurrentHashMap<>();
+    private JmsBean<?> jmsComponent;
 
-    private static Map<String, Destination> dests = new ConcurrentHashMap<>();
-    
     private Object jmsObject;
-    
+
+    /**
+     * The pooled resource backing {@link #jmsObject}, if any.
+     */
+    private Object pooledResource;
+
+    private JmsConnectionPool pool;
+
     private Class<?> injectionClazz;
 
     public JmsProxyHandler(JmsBean<?> jmsComponent, Class<?> injectionClazz)
@@ -73,269 +84,243 @@ public class JmsProxyHandler implements InvocationHandler
     @Override
     public Object invoke(Object instance, Method method, Object[] arguments) throws Throwable
     {
-        if(method.getName().equals("closeJMSObject"))
+        String methodName = method.getName();
+        if (methodName.equals("closeJMSObject"))
         {
             close();
-            
+
             return null;
         }
-        
-        if (!ClassUtil.isObjectMethod(method.getName()))
-        {            
-            Object cf = null;
-
-            if (this.jmsObject == null)
-            {
-                Class<?> jmsClazz = this.injectionClazz;
-
-                if (cf == null && Connection.class.isAssignableFrom(jmsClazz))
-                {
-                    cf = createOrReturnQueueOrTopicConnection();
-                }
-
-                if (cf == null && Destination.class.isAssignableFrom(jmsClazz))
-                {
-                    cf = createOrReturnQueueOrTopic();
-
-                }
 
-                if (cf == null && Session.class.isAssignableFrom(jmsClazz))
-                {
-                    cf = createSession();
-                }
-
-                if (cf == null && MessageProducer.class.isAssignableFrom(jmsClazz))
-                {
-                    cf = createMessageProducers();
-                }
-
-                if (cf == null && MessageConsumer.class.isAssignableFrom(jmsClazz))
-                {
-                    cf = createMessageConsumers();
-                }
-
-                if (method.getName().equals("close"))
-                {
-                    throw new UnsupportedOperationException("close method is not supported for JMS resources");
-                }
+        if (method.getDeclaringClass() == Object.class)
+        {
+            // instance is the proxy itself, so equals, hashCode and toString must not get dispatched to it again
+            return invokeObjectMethod(instance, method, arguments);
+        }
 
-                if (cf == null)
-                {
-                    throw new WebBeansException("JMS Resource type is not correct!. Does not create JMS resource object to handle request");
-                }
+        if (methodName.equals("close"))
+        {
+            throw new UnsupportedOperationException("close method is not supported for JMS resources");
+        }
 
-                this.jmsObject = cf;
-            }
-            else
-            {
-                cf = this.jmsObject;
-            }
+        Object cf = this.jmsObject;
+        if (cf == null)
+        {
+            cf = createJmsObject();
+            this.jmsObject = cf;
+        }
 
+        try
+        {
             return method.invoke(cf, arguments);
         }
-        else
+        catch (InvocationTargetException ite)
         {
-            return method.invoke(instance, arguments);
+            throw ite.getCause();
         }
     }
 
-    private Object createOrReturnConnectionFactory()
+    private Object invokeObjectMethod(Object instance, Method method, Object[] arguments)
     {
-        if (connectionFactory != null)
+        switch (method.getName())
         {
-            return connectionFactory;
+            case "equals":
+                return arguments != null && arguments.length == 1 && instance == arguments[0];
+            case "hashCode":
+                return System.identityHashCode(instance);
+            default:
+                return "JMS proxy for " + injectionClazz.getName();
         }
-        else
-        {
-            if (cfSet.compareAndSet(false, true))
-            {
-                connectionFactory = JmsUtil.getConnectionFactory();
-
-                return connectionFactory;
-            }
-        }
-
-        return null;
     }
 
-    private Session createSession()
+    private Object createJmsObject()
     {
-        Connection connection = null;
-        try
+        Class<?> jmsClazz = this.injectionClazz;
+
+        if (Connection.class.isAssignableFrom(jmsClazz))
         {
+            return getPool().getConnection(getJmsType());
+        }
 
-            connection = createOrReturnQueueOrTopicConnection();
+        if (Destination.class.isAssignableFrom(jmsClazz))
+        {
+            return createOrReturnQueueOrTopic();
+        }
 
-            return connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        if (Session.class.isAssignableFrom(jmsClazz))
+        {
+            Session session = getPool().borrowSession(getJmsType());
+            this.pooledResource = session;
 
+            return session;
         }
-        catch (JMSException e)
+
+        if (MessageProducer.class.isAssignableFrom(jmsClazz))
         {
-            ensureConnectionClosing(connection);
-            throw new WebBeansException("Unable to create jms session", e);
-        }
+            PooledProducer producer = getPool().borrowProducer(getJmsType(), getDestinationName(), createOrReturnQueueOrTopic());
+            this.pooledResource = producer;
 
-    }
+            return producer.getProducer();
+        }
 
-    private void ensureConnectionClosing(Connection connection)
-    {
-        if (connection != null)
+        if (MessageConsumer.class.isAssignableFrom(jmsClazz))
         {
-            try
-            {
-                connection.close();
-            }
-            catch (JMSException jmse)
-            {
-                // do nothing, we are already throwing up anyway...
-            }
+            return createMessageConsumer();
         }
+
+        throw new WebBeansException("JMS Resource type is not correct!. Does not create JMS resource object to handle request");
     }
 
-    private MessageProducer createMessageProducers()
+    private MessageConsumer createMessageConsumer()
     {
-        Connection connection = null;
+        // consumers keep their own session as they must not be shared
+        Session session = getPool().createSession(getJmsType());
         try
         {
-            connection = createOrReturnQueueOrTopicConnection();
+            MessageConsumer consumer = session.createConsumer(createOrReturnQueueOrTopic());
+            this.pooledResource = session;
 
-            return connection.createSession(false, Session.AUTO_ACKNOWLEDGE).createProducer(createOrReturnQueueOrTopic());
+            return consumer;
         }
         catch (JMSException e)
         {
-            ensureConnectionClosing(connection);
-            throw new WebBeansException("Unable to create jms message producer", e);
+            closeSession(session);
+            throw new WebBeansException("Unable to create jms message consumer", e);
         }
-
     }
 
-    private MessageConsumer createMessageConsumers()
+    private JmsConnectionPool getPool()
     {
-        Connection connection = null;
-        try
-        {
-            connection = createOrReturnQueueOrTopicConnection();
-
-            return connection.createSession(false, Session.AUTO_ACKNOWLEDGE).createConsumer(createOrReturnQueueOrTopic());
-        }
-        catch (JMSException e)
+        if (pool == null)
         {
-            ensureConnectionClosing(connection);
-            throw new WebBeansException("Unable to create jms message producer", e);
+            pool = getPool(createOrReturnConnectionFactory());
         }
+        return pool;
+    }
 
+    private JMSType getJmsType()
+    {
+        return this.jmsComponent.getJmsModel().getJmsType();
     }
 
-    private Connection createOrReturnQueueOrTopicConnection()
+    private void close()
     {
-        JMSModel jmsModel = this.jmsComponent.getJmsModel();
+        Object resource = this.pooledResource;
+        Object jms = this.jmsObject;
 
-        try
+        this.pooledResource = null;
+        this.jmsObject = null;
+
+        if (resource instanceof PooledProducer)
         {
-            if (jmsModel.getJmsType() == JMSType.QUEUE)
+            pool.releaseProducer((PooledProducer) resource);
+        }
+        else if (resource instanceof Session)
+        {
+            if (jms instanceof MessageConsumer)
             {
-                if (connections.containsKey(JMSType.QUEUE))
-                {
-                    return connections.get(JMSType.QUEUE);
-                }
-                else
-                {
-                    QueueConnectionFactory ccf = (QueueConnectionFactory) createOrReturnConnectionFactory();
-                    QueueConnection qc = ccf.createQueueConnection();
-                    connections.put(JMSType.QUEUE, qc);
-
-                    return qc;
-                }
+                // closing the session also closes the consumer
+                closeSession((Session) resource);
             }
-            else if (jmsModel.getJmsType() == JMSType.TOPIC)
+            else
             {
-                if (connections.containsKey(JMSType.TOPIC))
-                {
-                    return connections.get(JMSType.TOPIC);
-                }
-                else
-                {
-                    TopicConnectionFactory ccf = (TopicConnectionFactory) createOrReturnConnectionFactory();
-                    TopicConnection qc = ccf.createTopicConnection();
-                    connections.put(JMSType.TOPIC, qc);
-
-                    return qc;
-                }
-
+                pool.releaseSession(getJmsType(), (Session) resource);
             }
-
-        }
-        catch (JMSException e)
-        {
-            throw new WebBeansException("Unable to create jms connection", e);
         }
 
-        return null;
+        // shared connections and destinations stay open
     }
-    
-    private void close()
+
+    private String getDestinationName()
     {
-        try
-        {
-            if(this.jmsObject != null)
-            {
-                Method method = this.jmsObject.getClass().getMethod("close");
-                
-                if(!method.isAccessible())
-                {
-                    jmsComponent.getWebBeansContext().getSecurityService().doPrivilegedSetAccessible(method, true);
-                }
-                
-                method.invoke(this.jmsObject);
-            }
-            
-        }
-        catch (Exception e)
-        {
-            throw new WebBeansException("Unable to close JMS resources");
-        }
-        
+        JMSModel jmsModel = this.jmsComponent.getJmsModel();
+        return jmsModel.isJndiNameDefined() ? jmsModel.getJndiName() : jmsModel.getMappedName();
     }
 
     private Destination createOrReturnQueueOrTopic()
     {
-        JMSModel jmsModel = this.jmsComponent.getJmsModel();
-        String jndiName = jmsModel.isJndiNameDefined() ? jmsModel.getJndiName() : jmsModel.getMappedName();
+        String jndiName = getDestinationName();
 
-        if (dests.get(jndiName) != null)
+        Destination res = DESTINATIONS.get(jndiName);
+        if (res != null)
         {
-            return dests.get(jndiName);
+            return res;
         }
 
-        Destination res = (Destination) JmsUtil.getInstanceFromJndi(this.jmsComponent.getJmsModel(), this.injectionClazz);
+        res = (Destination) JmsUtil.getInstanceFromJndi(this.jmsComponent.getJmsModel(), this.injectionClazz);
 
-        dests.put(jndiName, res);
+        DESTINATIONS.put(jndiName, res);
 
         return res;
+    }
 
+    private static ConnectionFactory createOrReturnConnectionFactory()
+    {
+        ConnectionFactory cf = connectionFactory;
+        if (cf == null)
+        {
+            cf = JmsUtil.getConnectionFactory();
+            connectionFactory = cf;
+        }
+        return cf;
     }
 
-    public static void clearConnections()
+    private static void closeSession(Session session)
     {
         try
         {
-            connectionFactory = null;
-
-            for (Connection connection : connections.values())
-            {
-                connection.close();
-            }
+            session.close();
+        }
+        catch (JMSException e)
+        {
+            throw new WebBeansException("Unable to close JMS resources", e);
+        }
+    }
 
-            connections = null;
+    /**
+     * @return the pool for the given ConnectionFactory, created on first access
+     */
+    public static JmsConnectionPool getPool(ConnectionFactory cf)
+    {
+        return POOLS.computeIfAbsent(cf, JmsProxyHandler::createPool);
+    }
 
-            dests.clear();
-            dests = null;
+    private static JmsConnectionPool createPool(ConnectionFactory cf)
+    {
+        OpenWebBeansConfiguration config = WebBeansContext.getInstance().getOpenWebBeansConfiguration();
+        return new JmsConnectionPool(cf,
+                                     getIntProperty(config, JmsConnectionPool.MAX_IDLE_SESSIONS),
+                                     getIntProperty(config, JmsConnectionPool.MAX_IDLE_PRODUCERS));
+    }
 
+    private static int getIntProperty(OpenWebBeansConfiguration config, String key)
+    {
+        String value = config.getProperty(key);
+        if (value == null || value.trim().isEmpty())
+        {
+            return JmsConnectionPool.DEFAULT_MAX_IDLE;
+        }
+        try
+        {
+            return Integer.parseInt(value.trim());
+        }
+        catch (NumberFormatException e)
+        {
+            throw new WebBeansException("Invalid value for " + key + ": " + value, e);
         }
-        catch (Exception e)
+    }
+
+    public static void clearConnections()
+    {
+        connectionFactory = null;
+
+        for (JmsConnectionPool jmsPool : POOLS.values())
         {
-            throw new WebBeansException(e);
+            jmsPool.close();
         }
+        POOLS.clear();
+
+        DESTINATIONS.clear();
     }
 
 }
@@ -19,6 +19,7 @@
 package org.apache.webbeans.jms.util;
 
 import java.io.Serializable;
+import java.lang.reflect.Proxy;
 
 import javax.jms.Connection;
 import javax.jms.ConnectionFactory;
@@ -45,6 +46,7 @@ import org.apache.webbeans.jms.JMSModel;
 import org.apache.webbeans.jms.component.JmsBean;
 import org.apache.webbeans.spi.JNDIService;
 import org.apache.webbeans.util.Asserts;
+import org.apache.webbeans.util.WebBeansUtil;
 
 public final class JmsUtil
 {
@@ -142,9 +144,7 @@ public final class JmsUtil
         {
             Class<?>[] interfaces = {Closable.class, Serializable.class, intf};
 
-            //X TODO do we still need this?
-            throw new WebBeansException("Support got temporarily removed while moving from Javassist to ASM");
-
+            return Proxy.newProxyInstance(WebBeansUtil.getCurrentClassLoader(), interfaces, new JmsProxyHandler(jmsComponent, intf));
         }
         catch (Exception e)
         {
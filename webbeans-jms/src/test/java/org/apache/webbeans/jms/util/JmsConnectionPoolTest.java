@@ -0,0 +1,335 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.jms.util;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.DeliveryMode;
+import javax.jms.Destination;
+import javax.jms.ExceptionListener;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageProducer;
+import javax.jms.Queue;
+import javax.jms.Session;
+
+import org.apache.webbeans.jms.JMSModel.JMSType;
+import org.apache.webbeans.jms.util.JmsConnectionPool.PooledProducer;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JmsConnectionPoolTest
+{
+    private FakeBroker broker;
+    private JmsConnectionPool pool;
+
+    @Before
+    public void setUp()
+    {
+        broker = new FakeBroker();
+        pool = new JmsConnectionPool(broker.connectionFactory(), 2, 2);
+    }
+
+    @Test
+    public void testSharedConnection()
+    {
+        Connection connection = pool.getConnection(JMSType.QUEUE);
+        Assert.assertSame(connection, pool.getConnection(JMSType.QUEUE));
+        Assert.assertNotSame(connection, pool.getConnection(JMSType.TOPIC));
+        Assert.assertEquals(2, pool.getConnectionsCreated());
+    }
+
+    @Test
+    public void testSessionReuse()
+    {
+        Session session = pool.borrowSession(JMSType.QUEUE);
+        pool.releaseSession(JMSType.QUEUE, session);
+        Assert.assertSame(session, pool.borrowSession(JMSType.QUEUE));
+        Assert.assertEquals(1, pool.getSessionsCreated());
+        Assert.assertEquals(0, broker.closed.size());
+    }
+
+    @Test
+    public void testIdleSessionsAreBounded()
+    {
+        List<Session> sessions = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+        {
+            sessions.add(pool.borrowSession(JMSType.QUEUE));
+        }
+        for (Session session : sessions)
+        {
+            pool.releaseSession(JMSType.QUEUE, session);
+        }
+
+        Assert.assertEquals(2, pool.getIdleSessionCount());
+        Assert.assertEquals(1, pool.getSessionsDiscarded());
+        Assert.assertTrue(broker.closed.contains(sessions.get(2)));
+    }
+
+    @Test
+    public void testProducerReusePerDestination()
+    {
+        Destination queue = broker.queue();
+        PooledProducer producer = pool.borrowProducer(JMSType.QUEUE, "jms/queue", queue);
+        pool.releaseProducer(producer);
+
+        Assert.assertSame(producer, pool.borrowProducer(JMSType.QUEUE, "jms/queue", queue));
+        Assert.assertNotSame(producer, pool.borrowProducer(JMSType.QUEUE, "jms/other", queue));
+        Assert.assertEquals(2, pool.getProducersCreated());
+    }
+
+    @Test
+    public void testProducerPoolPerType()
+    {
+        PooledProducer producer = pool.borrowProducer(JMSType.QUEUE, "jms/destination", broker.queue());
+        pool.releaseProducer(producer);
+
+        Assert.assertNotSame(producer, pool.borrowProducer(JMSType.TOPIC, "jms/destination", broker.queue()));
+        Assert.assertSame(producer, pool.borrowProducer(JMSType.QUEUE, "jms/destination", broker.queue()));
+    }
+
+    @Test
+    public void testProducerSettingsGetReset() throws JMSException
+    {
+        PooledProducer producer = pool.borrowProducer(JMSType.QUEUE, "jms/queue", broker.queue());
+        producer.getProducer().setDeliveryMode(DeliveryMode.NON_PERSISTENT);
+        producer.getProducer().setPriority(9);
+        producer.getProducer().setTimeToLive(1000L);
+        producer.getProducer().setDisableMessageID(true);
+        producer.getProducer().setDisableMessageTimestamp(true);
+        pool.releaseProducer(producer);
+
+        MessageProducer reused = pool.borrowProducer(JMSType.QUEUE, "jms/queue", broker.queue()).getProducer();
+        Assert.assertSame(producer.getProducer(), reused);
+        Assert.assertEquals(DeliveryMode.PERSISTENT, reused.getDeliveryMode());
+        Assert.assertEquals(Message.DEFAULT_PRIORITY, reused.getPriority());
+        Assert.assertEquals(Message.DEFAULT_TIME_TO_LIVE, reused.getTimeToLive());
+        Assert.assertFalse(reused.getDisableMessageID());
+        Assert.assertFalse(reused.getDisableMessageTimestamp());
+    }
+
+    @Test
+    public void testBrokenConnectionGetsEvicted()
+    {
+        Session idle = pool.borrowSession(JMSType.QUEUE);
+        Session borrowed = pool.borrowSession(JMSType.QUEUE);
+        pool.releaseSession(JMSType.QUEUE, idle);
+        PooledProducer producer = pool.borrowProducer(JMSType.QUEUE, "jms/queue", broker.queue());
+        pool.releaseProducer(producer);
+
+        Connection broken = pool.getConnection(JMSType.QUEUE);
+        broker.fail(broken);
+
+        Assert.assertEquals(1, pool.getConnectionsEvicted());
+        Assert.assertTrue(broker.closed.contains(broken));
+        Assert.assertTrue(broker.closed.contains(idle));
+        Assert.assertTrue(broker.closed.contains(producer.getSession()));
+        Assert.assertEquals(0, pool.getIdleSessionCount());
+        Assert.assertEquals(0, pool.getIdleProducerCount());
+
+        // a session of the broken connection does not get pooled again
+        pool.releaseSession(JMSType.QUEUE, borrowed);
+        Assert.assertTrue(broker.closed.contains(borrowed));
+        Assert.assertEquals(0, pool.getIdleSessionCount());
+
+        Connection connection = pool.getConnection(JMSType.QUEUE);
+        Assert.assertNotSame(broken, connection);
+        Session session = pool.borrowSession(JMSType.QUEUE);
+        Assert.assertNotSame(idle, session);
+        Assert.assertSame(connection, broker.sessionConnection(session));
+    }
+
+    @Test
+    public void testFailingSessionCreationReplacesConnection()
+    {
+        Connection broken = pool.getConnection(JMSType.QUEUE);
+        broker.failSessionCreation(broken);
+
+        Session session = pool.borrowSession(JMSType.QUEUE);
+
+        Assert.assertTrue(broker.closed.contains(broken));
+        Assert.assertNotSame(broken, broker.sessionConnection(session));
+        Assert.assertEquals(2, pool.getConnectionsCreated());
+        Assert.assertEquals(1, pool.getConnectionsEvicted());
+    }
+
+    @Test
+    public void testClose()
+    {
+        Session idle = pool.borrowSession(JMSType.QUEUE);
+        Session borrowed = pool.borrowSession(JMSType.QUEUE);
+        pool.releaseSession(JMSType.QUEUE, idle);
+        Connection connection = pool.getConnection(JMSType.QUEUE);
+
+        pool.close();
+
+        Assert.assertTrue(pool.isClosed());
+        Assert.assertTrue(broker.closed.contains(idle));
+        Assert.assertTrue(broker.closed.contains(connection));
+        Assert.assertFalse(broker.closed.contains(borrowed));
+
+        pool.releaseSession(JMSType.QUEUE, borrowed);
+        Assert.assertTrue(broker.closed.contains(borrowed));
+    }
+
+    /**
+     * Minimal in memory JMS provider built from {@link Proxy}s which records the closed resources.
+     */
+    private static final class FakeBroker
+    {
+        private final Set<Object> closed = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final IdentityHashMap<Object, AtomicReference<ExceptionListener>> listeners = new IdentityHashMap<>();
+        private final IdentityHashMap<Object, Object> sessionConnections = new IdentityHashMap<>();
+        private final Set<Object> failingConnections = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        ConnectionFactory connectionFactory()
+        {
+            return proxy(ConnectionFactory.class, (method, args) ->
+            {
+                if (method.equals("createConnection"))
+                {
+                    return connection();
+                }
+                return null;
+            });
+        }
+
+        Queue queue()
+        {
+            return proxy(Queue.class, (method, args) -> null);
+        }
+
+        void fail(Connection connection)
+        {
+            listeners.get(connection).get().onException(new JMSException("connection lost"));
+        }
+
+        void failSessionCreation(Connection connection)
+        {
+            failingConnections.add(connection);
+        }
+
+        Object sessionConnection(Session session)
+        {
+            return sessionConnections.get(session);
+        }
+
+        private Connection connection()
+        {
+            AtomicReference<ExceptionListener> listener = new AtomicReference<>();
+            Connection[] connection = new Connection[1];
+            connection[0] = proxy(Connection.class, (method, args) ->
+            {
+                switch (method)
+                {
+                    case "createSession":
+                        if (failingConnections.contains(connection[0]))
+                        {
+                            throw new JMSException("connection lost");
+                        }
+                        Session session = session();
+                        sessionConnections.put(session, connection[0]);
+                        return session;
+                    case "setExceptionListener":
+                        listener.set((ExceptionListener) args[0]);
+                        return null;
+                    case "close":
+                        closed.add(connection[0]);
+                        return null;
+                    default:
+                        return null;
+                }
+            });
+            listeners.put(connection[0], listener);
+            return connection[0];
+        }
+
+        private Session session()
+        {
+            Session[] session = new Session[1];
+            session[0] = proxy(Session.class, (method, args) ->
+            {
+                if (method.equals("createProducer"))
+                {
+                    return producer();
+                }
+                if (method.equals("close"))
+                {
+                    closed.add(session[0]);
+                }
+                return null;
+            });
+            return session[0];
+        }
+
+        private MessageProducer producer()
+        {
+            Map<String, Object> settings = new HashMap<>();
+            settings.put("DeliveryMode", DeliveryMode.PERSISTENT);
+            settings.put("Priority", Message.DEFAULT_PRIORITY);
+            settings.put("TimeToLive", Message.DEFAULT_TIME_TO_LIVE);
+            settings.put("DisableMessageID", false);
+            settings.put("DisableMessageTimestamp", false);
+            return proxy(MessageProducer.class, (method, args) ->
+            {
+                if (method.startsWith("set"))
+                {
+                    settings.put(method.substring(3), args[0]);
+                    return null;
+                }
+                return method.startsWith("get") ? settings.get(method.substring(3)) : null;
+            });
+        }
+
+        private static <T> T proxy(Class<T> type, Behaviour behaviour)
+        {
+            return type.cast(Proxy.newProxyInstance(FakeBroker.class.getClassLoader(), new Class<?>[]{ type }, (proxy, method, args) ->
+            {
+                switch (method.getName())
+                {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+                    default:
+                        return behaviour.invoke(method.getName(), args);
+                }
+            }));
+        }
+    }
+
+    private interface Behaviour
+    {
+        Object invoke(String method, Object[] args) throws JMSException;
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.jms.util;
+
+import java.io.Serializable;
+import java.lang.reflect.Proxy;
+
+import javax.jms.Queue;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class JmsProxyHandlerTest
+{
+    @Test
+    public void testObjectMethods()
+    {
+        Object proxy = Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ Closable.class, Serializable.class, Queue.class }, new JmsProxyHandler(null, Queue.class));
+        Object other = Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ Closable.class, Serializable.class, Queue.class }, new JmsProxyHandler(null, Queue.class));
+
+        Assert.assertEquals(proxy, proxy);
+        Assert.assertNotEquals(proxy, other);
+        Assert.assertEquals(System.identityHashCode(proxy), proxy.hashCode());
+        Assert.assertEquals("JMS proxy for javax.jms.Queue", proxy.toString());
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openwebbeans.se;
+
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+import javax.enterprise.inject.se.SeContainer;
+import javax.enterprise.inject.spi.Bean;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.container.BeanManagerImpl;
+import org.apache.webbeans.logger.WebBeansLoggerFacade;
+import org.apache.webbeans.proxy.PregeneratedProxies;
+import org.apache.webbeans.service.ClassLoaderProxyService;
+import org.apache.webbeans.spi.DefiningClassService;
+
+/**
+ * Build time generator for the proxies of an application.
+ *
+ * It boots the container with the classpath of the application, creates all the
+ * interceptor, decorator and normal scoped proxies and writes their classes plus the
+ * {@link PregeneratedProxies#INDEX_RESOURCE} index into the given output directory.
+ * Run it from the build (e.g. via the exec-maven-plugin or a Gradle JavaExec task)
+ * with the output directory being the classes directory of the artifact:
+ *
+ * <pre>
+ * java -cp app-classpath org.apache.openwebbeans.se.ProxyPregenerator target/classes
+ * </pre>
+ *
+ * At runtime {@link OpenWebBeansConfiguration#USE_PREGENERATED_PROXIES} makes the container
+ * load these classes instead of generating them.
+ * Proxies for classes of OpenWebBeans itself and for signed classes are not written
+ * as they cannot be loaded from the application.
+ */
+public final class ProxyPregenerator
+{
+    private static final Logger logger = WebBeansLoggerFacade.getLogger(ProxyPregenerator.class);
+
+    private static final String INTERNAL_PROXY_PREFIX = "org.apache.webbeans.";
+
+    private ProxyPregenerator()
+    {
+        // no-op
+    }
+
+    public static void main(final String[] args) throws IOException
+    {
+        if (args.length != 1)
+        {
+            throw new IllegalArgumentException("Usage: " + ProxyPregenerator.class.getName() + " <output directory>");
+        }
+        final Map<String, String> index = generate(Paths.get(args[0]));
+        logger.info("Pre-generated " + index.size() + " proxies into " + args[0]);
+    }
+
+    /**
+     * @param outputDirectory the directory to write the proxy classes and the index to
+     * @return the written index, proxy class name to fingerprint
+     */
+    public static Map<String, String> generate(final Path outputDirectory) throws IOException
+    {
+        final CapturingInitializer initializer = new CapturingInitializer();
+        initializer.addProperty(OpenWebBeansConfiguration.RECORD_PREGENERATED_PROXIES, "true");
+        initializer.addProperty(DefiningClassService.class.getName(), ClassLoaderProxyService.Spy.class.getName());
+
+        try (final SeContainer container = initializer.initialize())
+        {
+            final WebBeansContext context = initializer.context;
+            createNormalScopeProxies(context);
+
+            final Map<String, byte[]> proxies = ClassLoaderProxyService.Spy.class
+                    .cast(context.getService(DefiningClassService.class))
+                    .getProxies();
+            final Map<String, String> fingerprints = context.getPregeneratedProxies().getRecordedFingerprints();
+
+            final Map<String, String> index = new TreeMap<>();
+            for (final Map.Entry<String, byte[]> proxy : proxies.entrySet())
+            {
+                final String proxyClassName = proxy.getKey().replace('/', '.');
+                final String fingerprint = fingerprints.get(proxyClassName);
+                if (fingerprint == null || proxyClassName.startsWith(INTERNAL_PROXY_PREFIX))
+                {
+                    continue;
+                }
+
+                final Path classFile = outputDirectory.resolve(proxyClassName.replace('.', '/') + ".class");
+                Files.createDirectories(classFile.getParent());
+                Files.write(classFile, proxy.getValue());
+                index.put(proxyClassName, fingerprint);
+            }
+
+            writeIndex(outputDirectory.resolve(PregeneratedProxies.INDEX_RESOURCE), index);
+            return index;
+        }
+    }
+
+    /**
+     * Normal scoped proxies get created lazily at runtime, so we have to trigger them.
+     */
+    private static void createNormalScopeProxies(final WebBeansContext context)
+    {
+        final BeanManagerImpl beanManager = context.getBeanManagerImpl();
+        for (final Bean<?> bean : beanManager.getBeans())
+        {
+            if (!beanManager.isNormalScope(bean.getScope()))
+            {
+                continue;
+            }
+            try
+            {
+                context.getNormalScopeProxyFactory().createNormalScopeProxy(bean);
+            }
+            catch (final RuntimeException e)
+            {
+                logger.warning("Skipping the proxy of " + bean + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static void writeIndex(final Path indexFile, final Map<String, String> index) throws IOException
+    {
+        Files.createDirectories(indexFile.getParent());
+        try (final Writer writer = Files.newBufferedWriter(indexFile, ISO_8859_1))
+        {
+            writer.write("# proxy class name = fingerprint, generated by " + ProxyPregenerator.class.getName() + "\n");
+            for (final Map.Entry<String, String> entry : index.entrySet())
+            {
+                writer.write(entry.getKey() + '=' + entry.getValue() + '\n');
+            }
+        }
+    }
+
+    private static final class CapturingInitializer extends OWBInitializer
+    {
+        private WebBeansContext context;
+
+        @Override
+        protected SeContainer newContainer(final WebBeansContext context)
+        {
+            this.context = context;
+            return super.newContainer(context);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.spi;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.ObserverMethod;
+
+/**
+ * SPI to collect runtime metrics of the container.
+ *
+ * <p>This service is optional. If no implementation is configured, the container
+ * does not invoke anything and the hot paths only pay for a {@code null} check.
+ * The methods get invoked concurrently from all application threads, so implementations
+ * must be thread safe and should not block.</p>
+ */
+public interface MetricsService
+{
+    /**
+     * A new contextual instance of the given bean got created.
+     * @param bean the bean, the scope is {@link Bean#getScope()}
+     */
+    void instanceCreated(Bean<?> bean);
+
+    /**
+     * A method got invoked on the normal scoped client proxy of the given bean.
+     * @param bean the proxied bean
+     */
+    void proxyInvoked(Bean<?> bean);
+
+    /**
+     * An application event got fired.
+     * @param eventType the runtime class of the event payload
+     */
+    void eventFired(Class<?> eventType);
+
+    /**
+     * An observer method got notified about an application event.
+     * @param observer the notified observer
+     * @param nanos the time the observer took
+     */
+    void observerNotified(ObserverMethod<?> observer, long nanos);
+
+    /**
+     * An intercepted business method got invoked.
+     * @param method the intercepted method
+     * @param nanos the time the whole interceptor chain including the target method took
+     */
+    void interceptorChainInvoked(Method method, long nanos);
+
+    /**
+     * A context of the given scope got initialized, e.g. a new session started.
+     * @param scope the scope annotation
+     */
+    void contextInitialized(Class<? extends Annotation> scope);
+
+    /**
+     * A context of the given scope got destroyed.
+     * @param scope the scope annotation
+     */
+    void contextDestroyed(Class<? extends Annotation> scope);
+}
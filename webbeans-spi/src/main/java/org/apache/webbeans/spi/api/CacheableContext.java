@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.spi.api;
+
+import javax.enterprise.context.spi.Context;
+
+/**
+ * A {@link Context} which allows the normal scoped proxies to cache the contextual
+ * instances they resolved from it for the current thread.
+ *
+ * As long as the very same Context instance is active for the calling thread and
+ * returns the same epoch, a proxy is allowed to skip {@link Context#get(javax.enterprise.context.spi.Contextual)}
+ * and use the contextual instance it resolved before.
+ * The epoch must change whenever a contextual instance visible to the calling thread might
+ * have changed, e.g. after an instance got destroyed or the underlying storage got switched.
+ * Reading the epoch must be way cheaper than a {@code get()}.
+ */
+public interface CacheableContext extends Context
+{
+    /**
+     * @return the current cache epoch of this context for the calling thread
+     */
+    long getCacheEpoch();
+}
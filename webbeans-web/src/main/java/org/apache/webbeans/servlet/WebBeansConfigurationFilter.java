@@ -185,7 +185,7 @@ public class WebBeansConfigurationFilter implements Filter
         ELContextStore elStore = ELContextStore.getInstance(false);
         if (elStore != null)
         {
-            elStore.destroyELContextStore();
+            elStore.endRequest(webBeansContext.getOpenWebBeansConfiguration().recycleELContextStore());
         }
 
         this.lifeCycle.getContextService().endContext(RequestScoped.class,
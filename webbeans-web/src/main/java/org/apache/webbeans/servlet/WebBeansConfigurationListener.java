@@ -153,7 +153,7 @@ public class WebBeansConfigurationListener implements ServletContextListener, Se
         ELContextStore elStore = ELContextStore.getInstance(false);
         if (elStore != null)
         {
-            elStore.destroyELContextStore();
+            elStore.endRequest(webBeansContext.getOpenWebBeansConfiguration().recycleELContextStore());
         }
 
         this.lifeCycle.getContextService().endContext(RequestScoped.class, event);
@@ -97,6 +97,11 @@ public class WebContextsService extends AbstractContextsService
     protected Boolean eagerSessionInitialisation;
     protected Pattern eagerSessionPattern;
 
+    /**
+     * Whether the built-in slots can be resolved without {@link #getCurrentContext(Class)}.
+     */
+    private final boolean slotLookupSafe;
+
 
     /**
      * Creates a new instance.
@@ -105,6 +110,7 @@ public class WebContextsService extends AbstractContextsService
     {
         super(webBeansContext);
         conversationManager = webBeansContext.getConversationManager();
+        slotLookupSafe = isSlotLookupSafe(WebContextsService.class);
 
         applicationContext = new ApplicationContext();
         applicationContext.setActive(true);
@@ -151,6 +157,42 @@ public class WebContextsService extends AbstractContextsService
         RequestScopedBeanInterceptorHandler.removeThreadLocals();
     }
 
+    @Override
+    public boolean canAttachRequestContext(RequestContext requestContext)
+    {
+        return requestContext instanceof ServletRequestContext;
+    }
+
+    @Override
+    public RequestContext attachRequestContext(RequestContext requestContext)
+    {
+        if (!canAttachRequestContext(requestContext))
+        {
+            return super.attachRequestContext(requestContext);
+        }
+
+        ServletRequestContext previousRequestContext = requestContexts.get();
+        requestContexts.set((ServletRequestContext) requestContext);
+
+        // the cached instances belong to the previous request context
+        RequestScopedBeanInterceptorHandler.removeThreadLocals();
+        return previousRequestContext;
+    }
+
+    @Override
+    public void detachRequestContext(RequestContext previousRequestContext)
+    {
+        if (previousRequestContext == null)
+        {
+            requestContexts.remove();
+        }
+        else
+        {
+            requestContexts.set((ServletRequestContext) previousRequestContext);
+        }
+        RequestScopedBeanInterceptorHandler.removeThreadLocals();
+    }
+
 
     /**
      * {@inheritDoc}
@@ -299,6 +341,33 @@ public class WebContextsService extends AbstractContextsService
         return null;
     }
 
+    @Override
+    public Context getCurrentContext(int scopeSlot, Class<? extends Annotation> scopeType)
+    {
+        if (!slotLookupSafe)
+        {
+            return getCurrentContext(scopeType);
+        }
+
+        switch (scopeSlot)
+        {
+            case REQUEST_SCOPE_SLOT:
+                return getRequestContext(true);
+            case SESSION_SCOPE_SLOT:
+                return getSessionContext(true);
+            case APPLICATION_SCOPE_SLOT:
+                return applicationContext;
+            case CONVERSATION_SCOPE_SLOT:
+                return getConversationContext(true, false);
+            case DEPENDENT_SCOPE_SLOT:
+                return dependentContext;
+            case SINGLETON_SCOPE_SLOT:
+                return singletonContext;
+            default:
+                return getCurrentContext(scopeType);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -450,7 +519,7 @@ public class WebContextsService extends AbstractContextsService
         ELContextStore elStore = ELContextStore.getInstance(false);
         if (elStore != null)
         {
-            elStore.destroyELContextStore();
+            elStore.endRequest(webBeansContext.getOpenWebBeansConfiguration().recycleELContextStore());
         }
 
         if (shouldFireRequestLifecycleEvents())